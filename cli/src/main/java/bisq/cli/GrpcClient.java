@@ -44,6 +44,7 @@ import bisq.proto.grpc.GetUnusedBsqAddressRequest;
 import bisq.proto.grpc.GetVersionRequest;
 import bisq.proto.grpc.KeepFundsRequest;
 import bisq.proto.grpc.LockWalletRequest;
+import bisq.proto.grpc.MarketPriceReply;
 import bisq.proto.grpc.MarketPriceRequest;
 import bisq.proto.grpc.OfferInfo;
 import bisq.proto.grpc.RegisterDisputeAgentRequest;
@@ -53,6 +54,10 @@ import bisq.proto.grpc.SendBtcRequest;
 import bisq.proto.grpc.SetTxFeeRatePreferenceRequest;
 import bisq.proto.grpc.SetWalletPasswordRequest;
 import bisq.proto.grpc.StopRequest;
+import bisq.proto.grpc.SubscribeOffersReply;
+import bisq.proto.grpc.SubscribeOffersRequest;
+import bisq.proto.grpc.SubscribeTradesReply;
+import bisq.proto.grpc.SubscribeTradesRequest;
 import bisq.proto.grpc.TakeOfferRequest;
 import bisq.proto.grpc.TradeInfo;
 import bisq.proto.grpc.TxFeeRateInfo;
@@ -64,6 +69,7 @@ import bisq.proto.grpc.WithdrawFundsRequest;
 import protobuf.PaymentAccount;
 import protobuf.PaymentMethod;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -115,6 +121,13 @@ public final class GrpcClient {
         return grpcStubs.priceService.getMarketPrice(request).getPrice();
     }
 
+    public Iterator<MarketPriceReply> subscribeBtcPrice(String currencyCode) {
+        var request = MarketPriceRequest.newBuilder()
+                .setCurrencyCode(currencyCode)
+                .build();
+        return grpcStubs.priceService.subscribeMarketPrice(request);
+    }
+
     public List<AddressBalanceInfo> getFundingAddresses() {
         var request = GetFundingAddressesRequest.newBuilder().build();
         return grpcStubs.walletsService.getFundingAddresses(request).getAddressBalanceInfoList();
@@ -288,6 +301,14 @@ public final class GrpcClient {
         return grpcStubs.offersService.getMyOffers(request).getOffersList();
     }
 
+    public Iterator<SubscribeOffersReply> subscribeOffers(String direction, String currencyCode) {
+        var request = SubscribeOffersRequest.newBuilder()
+                .setDirection(direction)
+                .setCurrencyCode(currencyCode)
+                .build();
+        return grpcStubs.offersService.subscribeOffers(request);
+    }
+
     public List<OfferInfo> getMyOffersSortedByDate(String direction, String currencyCode) {
        var offers = getMyOffers(direction, currencyCode);
        return offers.isEmpty() ? offers : sortOffersByDate(offers);
@@ -321,6 +342,11 @@ public final class GrpcClient {
         return grpcStubs.tradesService.getTrade(request).getTrade();
     }
 
+    public Iterator<SubscribeTradesReply> subscribeTrades() {
+        var request = SubscribeTradesRequest.newBuilder().build();
+        return grpcStubs.tradesService.subscribeTrades(request);
+    }
+
     public void confirmPaymentStarted(String tradeId) {
         var request = ConfirmPaymentStartedRequest.newBuilder()
                 .setTradeId(tradeId)
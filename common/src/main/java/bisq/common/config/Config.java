@@ -96,6 +96,7 @@ public class Config {
     public static final String MSG_THROTTLE_PER_10_SEC = "msgThrottlePer10Sec";
     public static final String SEND_MSG_THROTTLE_TRIGGER = "sendMsgThrottleTrigger";
     public static final String SEND_MSG_THROTTLE_SLEEP = "sendMsgThrottleSleep";
+    public static final String SHARED_CONNECTION_THREADS = "sharedConnectionThreads";
     public static final String IGNORE_LOCAL_BTC_NODE = "ignoreLocalBtcNode";
     public static final String BITCOIN_REGTEST_HOST = "bitcoinRegtestHost";
     public static final String BTC_NODES = "btcNodes";
@@ -109,6 +110,7 @@ public class Config {
     public static final String RPC_PORT = "rpcPort";
     public static final String RPC_BLOCK_NOTIFICATION_PORT = "rpcBlockNotificationPort";
     public static final String RPC_BLOCK_NOTIFICATION_HOST = "rpcBlockNotificationHost";
+    public static final String RPC_BLOCK_REQUEST_WINDOW = "rpcBlockRequestWindow";
     public static final String DUMP_BLOCKCHAIN_DATA = "dumpBlockchainData";
     public static final String FULL_DAO_NODE = "fullDaoNode";
     public static final String GENESIS_TX_ID = "genesisTxId";
@@ -122,6 +124,7 @@ public class Config {
     public static final String PREVENT_PERIODIC_SHUTDOWN_AT_SEED_NODE = "preventPeriodicShutdownAtSeedNode";
     public static final String REPUBLISH_MAILBOX_ENTRIES = "republishMailboxEntries";
     public static final String BTC_TX_FEE = "btcTxFee";
+    public static final String USE_MAPPED_PAYLOAD_STORES = "useMappedPayloadStores";
     public static final String BTC_MIN_TX_FEE = "btcMinTxFee";
     public static final String BTC_FEES_TS = "bitcoinFeesTs";
 
@@ -187,6 +190,7 @@ public class Config {
     public final int msgThrottlePer10Sec;
     public final int sendMsgThrottleTrigger;
     public final int sendMsgThrottleSleep;
+    public final boolean sharedConnectionThreads;
     public final String btcNodes;
     public final boolean useTorForBtc;
     public final boolean useTorForBtcOptionSetExplicitly;
@@ -200,6 +204,7 @@ public class Config {
     public final int rpcPort;
     public final int rpcBlockNotificationPort;
     public final String rpcBlockNotificationHost;
+    public final int rpcBlockRequestWindow;
     public final boolean dumpBlockchainData;
     public final boolean fullDaoNode;
     public final boolean fullDaoNodeOptionSetExplicitly;
@@ -212,6 +217,7 @@ public class Config {
     public final int apiPort;
     public final boolean preventPeriodicShutdownAtSeedNode;
     public final boolean republishMailboxEntries;
+    public final boolean useMappedPayloadStores;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -512,6 +518,13 @@ public class Config {
                         .ofType(int.class)
                         .defaultsTo(50); // Pause in ms to sleep if we get too many messages to send
 
+        ArgumentAcceptingOptionSpec<Boolean> sharedConnectionThreadsOpt =
+                parser.accepts(SHARED_CONNECTION_THREADS, "Use shared thread pools for all network connections " +
+                        "instead of dedicated threads per connection")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         ArgumentAcceptingOptionSpec<String> btcNodesOpt =
                 parser.accepts(BTC_NODES, "Custom nodes used for BitcoinJ as comma separated IP addresses.")
                         .withRequiredArg()
@@ -583,6 +596,13 @@ public class Config {
                         .withRequiredArg()
                         .defaultsTo("");
 
+        ArgumentAcceptingOptionSpec<Integer> rpcBlockRequestWindowOpt =
+                parser.accepts(RPC_BLOCK_REQUEST_WINDOW,
+                        "Max. number of parallel block requests to Bitcoind while parsing the blockchain")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(8);
+
         ArgumentAcceptingOptionSpec<Boolean> dumpBlockchainDataOpt =
                 parser.accepts(DUMP_BLOCKCHAIN_DATA, "If set to true the blockchain data " +
                         "from RPC requests to Bitcoin Core are stored as json file in the data dir.")
@@ -660,6 +680,14 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> useMappedPayloadStoresOpt =
+                parser.accepts(USE_MAPPED_PAYLOAD_STORES,
+                        "Keep the live data of the account age witness and trade statistics stores in memory " +
+                                "mapped segment files instead of the heap")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -751,6 +779,7 @@ public class Config {
             this.msgThrottlePer10Sec = options.valueOf(msgThrottlePer10SecOpt);
             this.sendMsgThrottleTrigger = options.valueOf(sendMsgThrottleTriggerOpt);
             this.sendMsgThrottleSleep = options.valueOf(sendMsgThrottleSleepOpt);
+            this.sharedConnectionThreads = options.valueOf(sharedConnectionThreadsOpt);
             this.btcNodes = options.valueOf(btcNodesOpt);
             this.useTorForBtc = options.valueOf(useTorForBtcOpt);
             this.useTorForBtcOptionSetExplicitly = options.has(useTorForBtcOpt);
@@ -764,6 +793,7 @@ public class Config {
             this.rpcPort = options.valueOf(rpcPortOpt);
             this.rpcBlockNotificationPort = options.valueOf(rpcBlockNotificationPortOpt);
             this.rpcBlockNotificationHost = options.valueOf(rpcBlockNotificationHostOpt);
+            this.rpcBlockRequestWindow = options.valueOf(rpcBlockRequestWindowOpt);
             this.dumpBlockchainData = options.valueOf(dumpBlockchainDataOpt);
             this.fullDaoNode = options.valueOf(fullDaoNodeOpt);
             this.fullDaoNodeOptionSetExplicitly = options.has(fullDaoNodeOpt);
@@ -777,6 +807,7 @@ public class Config {
             this.apiPort = options.valueOf(apiPortOpt);
             this.preventPeriodicShutdownAtSeedNode = options.valueOf(preventPeriodicShutdownAtSeedNodeOpt);
             this.republishMailboxEntries = options.valueOf(republishMailboxEntriesOpt);
+            this.useMappedPayloadStores = options.valueOf(useMappedPayloadStoresOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
@@ -28,16 +28,24 @@ import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
 import bisq.common.util.Utilities;
 
+import com.google.protobuf.Message;
+
 import com.google.inject.Inject;
 
 import javax.inject.Named;
 
+import com.google.common.io.ByteStreams;
+
 import java.nio.file.Path;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -47,8 +55,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 import lombok.Getter;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
@@ -71,6 +84,12 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * the very large DaoState (at dao blockchain sync that slowed down sync).
  *
  *
+ * Sources with journal support can persist changes by appending them to a journal file instead of writing the whole
+ * data. The journal gets merged into the store file when it is read and gets compacted into the store file in the
+ * background once it becomes larger than the store file. The journal starts with the size and checksum of the store
+ * file it applies to. If we crash after a new store file got written but before the journal got deleted, the journal
+ * does not match the store file anymore and gets ignored, as its changes are contained in the new store file.
+ *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
 @Slf4j
@@ -81,6 +100,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    private static final long MIN_JOURNAL_SIZE_FOR_COMPACTION = 1024 * 1024;
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -150,6 +170,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                     // We get our result handler called from the write thread so we map back to user thread.
                     persistenceManager.persistNow(() ->
                             UserThread.execute(() -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown)));
+                } else if (persistenceManager.flushJournalChanges() || persistenceManager.pendingJournalWrites.get() > 0) {
+                    // Journal writes are executed in order on the write thread, so we only need to wait until the
+                    // pending ones are completed.
+                    persistenceManager.getWriteToDiskExecutor().execute(() ->
+                            UserThread.execute(() -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown)));
                 } else {
                     onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown);
                 }
@@ -179,13 +204,19 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     public enum Source {
         // For data stores we received from the network and which could be rebuilt. We store only for avoiding too much network traffic.
-        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false),
+        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false, false),
+
+        // Like NETWORK but changes passed to persistChanges are appended to a journal.
+        NETWORK_JOURNAL(1, TimeUnit.MINUTES.toMillis(5), false, true),
 
         // For data stores which are created from private local data. This data could only be rebuilt from backup files.
-        PRIVATE(10, 200, true),
+        PRIVATE(10, 200, true, false),
 
         // For data stores which are created from private local data. Loss of that data would not have critical consequences.
-        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false);
+        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false, false),
+
+        // Like PRIVATE_LOW_PRIO but changes passed to persistChanges are appended to a journal.
+        PRIVATE_LOW_PRIO_JOURNAL(4, TimeUnit.MINUTES.toMillis(1), false, true);
 
 
         @Getter
@@ -194,11 +225,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         private final long delay;
         @Getter
         private final boolean flushAtShutDown;
+        @Getter
+        private final boolean useJournal;
 
-        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown) {
+        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown, boolean useJournal) {
             this.numMaxBackupFiles = numMaxBackupFiles;
             this.delay = delay;
             this.flushAtShutDown = flushAtShutDown;
+            this.useJournal = useJournal;
         }
     }
 
@@ -208,6 +242,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private final File dir;
+    @Getter
     private final PersistenceProtoResolver persistenceProtoResolver;
     private final CorruptedStorageFileHandler corruptedStorageFileHandler;
     private File storageFile;
@@ -219,6 +254,21 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     @Nullable
     private Timer timer;
     private ExecutorService writeToDiskExecutor;
+    private final AtomicInteger pendingJournalWrites = new AtomicInteger();
+    // Changes which are not appended to the journal yet. Only accessed from the user thread.
+    @Nullable
+    private protobuf.PersistableEnvelope.Builder pendingJournalChanges;
+    @Nullable
+    private Timer journalTimer;
+    // Only accessed from the write thread
+    @Nullable
+    private FileOutputStream journalOutputStream;
+    private long journalSize = -1;
+    private long storageFileSize = -1;
+    // Header of a journal which applies to the current store file. Only accessed from the write thread.
+    @Nullable
+    private JournalHeader storageFileJournalHeader;
+    private volatile boolean compactionRequested;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -282,7 +332,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             timer.stop();
         }
 
+        if (journalTimer != null) {
+            journalTimer.stop();
+        }
+
         if (writeToDiskExecutor != null) {
+            writeToDiskExecutor.execute(this::closeJournal);
             writeToDiskExecutor.shutdown();
         }
     }
@@ -343,13 +398,29 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         readCalled.set(true);
 
         File storageFile = new File(dir, fileName);
-        if (!storageFile.exists()) {
+        File journalFile = getJournalFile(fileName);
+        if (!storageFile.exists() && !journalFile.exists()) {
             return null;
         }
 
         long ts = System.currentTimeMillis();
-        try (FileInputStream fileInputStream = new FileInputStream(storageFile)) {
-            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+        try {
+            protobuf.PersistableEnvelope proto = null;
+            CRC32 checksum = new CRC32();
+            if (storageFile.exists()) {
+                try (InputStream inputStream = new CheckedInputStream(new FileInputStream(storageFile), checksum)) {
+                    proto = protobuf.PersistableEnvelope.parseDelimitedFrom(inputStream);
+                    // The checksum has to cover the whole file
+                    ByteStreams.exhaust(inputStream);
+                }
+            }
+            if (journalFile.exists()) {
+                proto = mergeJournal(proto, journalFile, new JournalHeader(storageFile.length(), checksum.getValue()));
+            }
+            if (proto == null) {
+                return null;
+            }
+
             //noinspection unchecked
             T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
             log.info("Reading {} completed in {} ms", fileName, System.currentTimeMillis() - ts);
@@ -359,6 +430,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             try {
                 // We keep a backup which might be used for recovery
                 FileUtil.removeAndBackupFile(dir, storageFile, fileName, "backup_of_corrupted_data");
+                if (journalFile.exists()) {
+                    FileUtil.removeAndBackupFile(dir, journalFile, journalFile.getName(), "backup_of_corrupted_data");
+                }
                 DevEnv.logErrorAndThrowIfDevMode(t.toString());
             } catch (IOException e1) {
                 e1.printStackTrace();
@@ -405,17 +479,97 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    /**
+     * Persists the given changes by appending them to the journal if our source uses a journal. Otherwise we fall back
+     * to requestPersistence.
+     *
+     * The changes are a persistable of our type which contains only the added or updated entries. At reading the
+     * journal records are merged into the persisted data on the protobuf level, so repeated fields get concatenated.
+     * The journal can therefore only be used for persistables where a later entry replaces an earlier entry with the
+     * same key when parsing the protobuf data (e.g. maps represented as repeated fields). Removals have to be persisted
+     * with requestPersistence.
+     *
+     * Changes are collected and appended as one record after the delay of our source, so frequent small changes do
+     * not cause a write task and a journal append each. Collected changes get merged on the protobuf level like the
+     * journal records at reading.
+     *
+     * @param changes       Persistable containing only the changed entries.
+     */
+    public void persistChanges(T changes) {
+        // Before all services are initialized we do not write to disk. The requestPersistence call will trigger a
+        // write of the whole data once we are initialized.
+        if (!source.isUseJournal() || !allServicesInitialized.get()) {
+            requestPersistence();
+            return;
+        }
+
+        if (flushAtShutdownCalled) {
+            log.warn("We have started the shut down routine already. We ignore that persistChanges call.");
+            return;
+        }
+
+        // As in persistNow we serialize on the user thread
+        protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) changes.toPersistableMessage();
+        if (pendingJournalChanges == null) {
+            pendingJournalChanges = serialized.toBuilder();
+            journalTimer = UserThread.runAfter(this::flushJournalChanges, source.delay, TimeUnit.MILLISECONDS);
+        } else {
+            pendingJournalChanges.mergeFrom(serialized);
+        }
+    }
+
+    // Returns true if collected changes got passed to the write thread
+    private boolean flushJournalChanges() {
+        if (journalTimer != null) {
+            journalTimer.stop();
+            journalTimer = null;
+        }
+        if (pendingJournalChanges == null) {
+            return false;
+        }
+
+        protobuf.PersistableEnvelope serialized = pendingJournalChanges.build();
+        pendingJournalChanges = null;
+        pendingJournalWrites.incrementAndGet();
+        getWriteToDiskExecutor().execute(() -> appendToJournal(serialized));
+        return true;
+    }
+
+    private void discardJournalChanges() {
+        if (journalTimer != null) {
+            journalTimer.stop();
+            journalTimer = null;
+        }
+        pendingJournalChanges = null;
+    }
+
     public void persistNow(@Nullable Runnable completeHandler) {
         long ts = System.currentTimeMillis();
         try {
             // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
             // persistable object. Keeping it on the user thread we are in a synchronize model.
-            protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            // Persistables which hold only data which does not get mutated anymore can defer the serialisation to the
+            // write thread by the returned supplier.
+            Supplier<Message> serializedSupplier = persistable.getPersistableMessageSupplier();
+            // The whole data contains the collected changes
+            discardJournalChanges();
 
             // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
             // gets mutated while the thread is running as we have serialized it already and do not operate on the
             // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler));
+            getWriteToDiskExecutor().execute(() -> {
+                protobuf.PersistableEnvelope serialized;
+                try {
+                    serialized = (protobuf.PersistableEnvelope) serializedSupplier.get();
+                } catch (Throwable e) {
+                    log.error("Error at serializing {} in write thread", fileName, e);
+                    if (completeHandler != null) {
+                        UserThread.execute(completeHandler);
+                    }
+                    return;
+                }
+                writeToDisk(serialized, completeHandler);
+            });
 
             long duration = System.currentTimeMillis() - ts;
             if (duration > 100) {
@@ -438,6 +592,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         long ts = System.currentTimeMillis();
         File tempFile = null;
         FileOutputStream fileOutputStream = null;
+        CRC32 checksum = new CRC32();
 
         try {
             // Before we write we backup existing file
@@ -454,7 +609,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             fileOutputStream = new FileOutputStream(tempFile);
 
-            serialized.writeDelimitedTo(fileOutputStream);
+            serialized.writeDelimitedTo(new CheckedOutputStream(fileOutputStream, checksum));
 
             // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
             // to not write through to physical media for at least a few seconds, but this is the best we can do.
@@ -467,6 +622,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
+
+            // The data in the journal is contained in the serialized data as we serialize and append to the journal
+            // in the same order on the user thread and the write thread.
+            storageFileSize = storageFile.length();
+            storageFileJournalHeader = new JournalHeader(storageFileSize, checksum.getValue());
+            deleteJournal();
         } catch (Throwable t) {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
@@ -499,6 +660,177 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Journal
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private File getJournalFile(String fileName) {
+        return new File(dir, fileName + "_journal");
+    }
+
+    // Merges all complete records of the journal into the proto. A record which was only partly written gets removed
+    // from the journal so that we can append new records. A journal which does not apply to the store file is deleted.
+    @Nullable
+    private protobuf.PersistableEnvelope mergeJournal(@Nullable protobuf.PersistableEnvelope proto,
+                                                      File journalFile,
+                                                      JournalHeader storageFileHeader)
+            throws IOException {
+        protobuf.PersistableEnvelope.Builder builder = proto != null ? proto.toBuilder() : null;
+        int numRecords = 0;
+        long validSize = 0;
+        try (FileInputStream fileInputStream = new FileInputStream(journalFile)) {
+            if (!storageFileHeader.equals(JournalHeader.read(fileInputStream))) {
+                log.info("The journal {} does not apply to the store file. Its changes are contained in the store " +
+                        "file already. We delete it.", journalFile.getName());
+                fileInputStream.close();
+                FileUtil.deleteFileIfExists(journalFile);
+                return proto;
+            }
+            validSize = JournalHeader.SIZE;
+            while (true) {
+                protobuf.PersistableEnvelope record;
+                try {
+                    record = protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream);
+                } catch (IOException e) {
+                    log.warn("Reading a record of {} failed. We ignore the rest of the journal.", journalFile.getName(), e);
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+
+                if (builder == null) {
+                    builder = record.toBuilder();
+                } else {
+                    builder.mergeFrom(record);
+                }
+                validSize = fileInputStream.getChannel().position();
+                numRecords++;
+            }
+        }
+
+        if (validSize < journalFile.length()) {
+            try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+                fileOutputStream.getChannel().truncate(validSize);
+            }
+        }
+        log.info("We merged {} records from {}", numRecords, journalFile.getName());
+        return builder != null ? builder.build() : null;
+    }
+
+    // Called on the write thread
+    private void appendToJournal(protobuf.PersistableEnvelope serialized) {
+        try {
+            if (journalOutputStream == null) {
+                openJournal();
+            }
+            serialized.writeDelimitedTo(journalOutputStream);
+            journalOutputStream.flush();
+            journalSize += serialized.getSerializedSize();
+
+            if (storageFileSize < 0) {
+                storageFileSize = storageFile.length();
+            }
+            // We compact the journal by writing the whole data once the journal got larger than the store file.
+            // That way a write of the whole data is needed only after changes of similar size have been added.
+            if (journalSize > Math.max(MIN_JOURNAL_SIZE_FOR_COMPACTION, storageFileSize) && !compactionRequested) {
+                compactionRequested = true;
+                log.info("The journal of {} has {} bytes. We request a write of the whole data to compact it.",
+                        fileName, journalSize);
+                UserThread.execute(this::requestPersistence);
+            }
+        } catch (Throwable t) {
+            // If we fail to append, we write the whole data
+            log.error("Appending to journal failed. storageFile={}", fileName, t);
+            closeJournal();
+            UserThread.execute(this::requestPersistence);
+        } finally {
+            pendingJournalWrites.decrementAndGet();
+        }
+    }
+
+    // Called on the write thread. We append to an existing journal only if it applies to the current store file,
+    // otherwise we start a new journal.
+    private void openJournal() throws IOException {
+        if (storageFileJournalHeader == null) {
+            storageFileJournalHeader = JournalHeader.of(storageFile);
+        }
+
+        File journalFile = getJournalFile(fileName);
+        JournalHeader journalHeader = null;
+        if (journalFile.exists()) {
+            try (FileInputStream fileInputStream = new FileInputStream(journalFile)) {
+                journalHeader = JournalHeader.read(fileInputStream);
+            }
+        }
+
+        if (storageFileJournalHeader.equals(journalHeader)) {
+            journalSize = journalFile.length();
+            journalOutputStream = new FileOutputStream(journalFile, true);
+        } else {
+            journalOutputStream = new FileOutputStream(journalFile, false);
+            storageFileJournalHeader.write(journalOutputStream);
+            journalSize = JournalHeader.SIZE;
+        }
+    }
+
+    // Called on the write thread
+    private void deleteJournal() throws IOException {
+        closeJournal();
+        FileUtil.deleteFileIfExists(getJournalFile(fileName));
+        journalSize = 0;
+        compactionRequested = false;
+    }
+
+    // Called on the write thread
+    private void closeJournal() {
+        if (journalOutputStream != null) {
+            try {
+                journalOutputStream.close();
+            } catch (IOException e) {
+                log.error("Cannot close journal of {}. {}", fileName, e.getMessage());
+            }
+            journalOutputStream = null;
+        }
+    }
+
+    // Identifies the store file a journal applies to by its size and CRC32 checksum
+    @Value
+    private static class JournalHeader {
+        private static final int SIZE = 8 + 8;
+
+        long storageFileSize;
+        long storageFileChecksum;
+
+        private static JournalHeader of(File storageFile) throws IOException {
+            CRC32 checksum = new CRC32();
+            if (storageFile.exists()) {
+                try (InputStream inputStream = new CheckedInputStream(new FileInputStream(storageFile), checksum)) {
+                    ByteStreams.exhaust(inputStream);
+                }
+            }
+            return new JournalHeader(storageFile.length(), checksum.getValue());
+        }
+
+        // Returns null if the header was not written completely
+        @Nullable
+        private static JournalHeader read(InputStream inputStream) throws IOException {
+            DataInputStream dataInputStream = new DataInputStream(inputStream);
+            try {
+                return new JournalHeader(dataInputStream.readLong(), dataInputStream.readLong());
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        private void write(FileOutputStream outputStream) throws IOException {
+            DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+            dataOutputStream.writeLong(storageFileSize);
+            dataOutputStream.writeLong(storageFileChecksum);
+            dataOutputStream.flush();
+        }
+    }
+
     private ExecutorService getWriteToDiskExecutor() {
         if (writeToDiskExecutor == null) {
             String name = "Write-" + fileName + "_to-disk";
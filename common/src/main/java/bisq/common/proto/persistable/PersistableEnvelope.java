@@ -21,6 +21,8 @@ import bisq.common.Envelope;
 
 import com.google.protobuf.Message;
 
+import java.util.function.Supplier;
+
 /**
  * Interface for the outside envelope object persisted to disk.
  */
@@ -30,6 +32,16 @@ public interface PersistableEnvelope extends Envelope {
         return toProtoMessage();
     }
 
+    /**
+     * The PersistenceManager calls that on the user thread and calls the returned supplier on the write thread.
+     * By default we serialize on the user thread to avoid threading issues with mutations of the data. Persistables
+     * holding only data which does not get mutated anymore can defer the serialization to the supplier.
+     */
+    default Supplier<Message> getPersistableMessageSupplier() {
+        Message message = toPersistableMessage();
+        return () -> message;
+    }
+
     default String getDefaultStorageFileName() {
         return this.getClass().getSimpleName();
     }
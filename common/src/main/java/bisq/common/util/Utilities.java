@@ -63,6 +63,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -125,6 +126,23 @@ public class Utilities {
     }
 
 
+    /**
+     * Returns an executor with a fixed number of threads and an unbounded queue. Other than the executor from
+     * getListeningExecutorService it never drops a task before shutdown, so each returned future completes.
+     */
+    public static ListeningExecutorService getFixedThreadPoolListeningExecutor(String name,
+                                                                             int numThreads,
+                                                                             long keepAliveTimeInSec) {
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(name)
+                .setDaemon(true)
+                .build();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, keepAliveTimeInSec,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return MoreExecutors.listeningDecorator(executor);
+    }
+
     @SuppressWarnings("SameParameterValue")
     public static ScheduledThreadPoolExecutor getScheduledThreadPoolExecutor(String name,
                                                                              int corePoolSize,
@@ -69,6 +69,8 @@ public class SignedWitnessService {
     public static final long SIGNER_AGE_DAYS = 30;
     private static final long SIGNER_AGE = SIGNER_AGE_DAYS * ChronoUnit.DAYS.getDuration().toMillis();
     public static final Coin MINIMUM_TRADE_AMOUNT_FOR_SIGNING = Coin.parseCoin("0.0025");
+    // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
+    private static final int MAX_SIGNER_CHAIN_LENGTH = 1000;
 
     private final KeyRing keyRing;
     private final P2PService p2PService;
@@ -77,6 +79,7 @@ public class SignedWitnessService {
     private final User user;
     private final FilterManager filterManager;
 
+    // The maps and the graph below are only accessed from the UserThread, so they are not synchronized.
     private final Map<P2PDataStorage.ByteArray, SignedWitness> signedWitnessMap = new HashMap<>();
 
     // This map keeps all SignedWitnesses with the same AccountAgeWitnessHash in a Set.
@@ -94,6 +97,10 @@ public class SignedWitnessService {
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
     private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
 
+    // Walking the signer chain recursively for each sign state query is expensive, so we keep the earliest signing
+    // time and the best chain of each owner pubKey in a graph which gets updated with each added SignedWitness.
+    private final SignerChainGraph signerChainGraph = new SignerChainGraph(SIGNER_AGE);
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -444,7 +451,7 @@ public class SignedWitnessService {
 
     private boolean verifySigner(SignedWitness signedWitness) {
         return getSignedWitnessSetByOwnerPubKey(signedWitness.getWitnessOwnerPubKey(), new Stack<>()).stream()
-                .anyMatch(w -> isValidSignerWitnessInternal(w, signedWitness.getDate(), new Stack<>()));
+                .anyMatch(w -> isValidSignerWitness(w, signedWitness.getDate()));
     }
 
     /**
@@ -456,10 +463,9 @@ public class SignedWitnessService {
      * @return true if accountAgeWitness is allowed to sign at time, false otherwise.
      */
     private boolean isSignerAccountAgeWitness(AccountAgeWitness accountAgeWitness, long time) {
-        Stack<P2PDataStorage.ByteArray> excludedPubKeys = new Stack<>();
         Set<SignedWitness> signedWitnessSet = getSignedWitnessSet(accountAgeWitness);
         for (SignedWitness signedWitness : signedWitnessSet) {
-            if (isValidSignerWitnessInternal(signedWitness, time, excludedPubKeys)) {
+            if (isValidSignerWitness(signedWitness, time)) {
                 return true;
             }
         }
@@ -467,6 +473,50 @@ public class SignedWitnessService {
         return false;
     }
 
+    /**
+     * Same result as isValidSignerWitnessInternal but uses the signerChainGraph to avoid the recursive search.
+     * If the graph has no chain early enough we are done. Otherwise we verify the chain of the graph and only if
+     * that fails (e.g. due a banned signer or a loop back to the owner) we search for another chain.
+     */
+    private boolean isValidSignerWitness(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        if (signerChainGraph.getSignerSince(signedWitness) > childSignedWitnessDateMillis) {
+            return false;
+        }
+        if (isValidSignerChain(signedWitness, childSignedWitnessDateMillis)) {
+            return true;
+        }
+        return isValidSignerWitnessInternal(signedWitness, childSignedWitnessDateMillis, new Stack<>());
+    }
+
+    // Applies the checks of isValidSignerWitnessInternal along the chain of the signerChainGraph
+    private boolean isValidSignerChain(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        Set<P2PDataStorage.ByteArray> excludedPubKeys = new HashSet<>();
+        SignedWitness current = signedWitness;
+        long childDate = childSignedWitnessDateMillis;
+        for (int chainLength = 0; ; chainLength++) {
+            if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(current.getWitnessOwnerPubKey())) ||
+                    !verifySignature(current)) {
+                return false;
+            }
+            if (current.isSignedByArbitrator()) {
+                return true;
+            }
+            if (!verifyDate(current, childDate) || chainLength >= MAX_SIGNER_CHAIN_LENGTH) {
+                return false;
+            }
+            excludedPubKeys.add(new P2PDataStorage.ByteArray(current.getSignerPubKey()));
+            excludedPubKeys.add(new P2PDataStorage.ByteArray(current.getWitnessOwnerPubKey()));
+
+            SignerChainGraph.Node signerNode = signerChainGraph.getNode(current.getSignerPubKey());
+            if (signerNode == null ||
+                    excludedPubKeys.contains(new P2PDataStorage.ByteArray(signerNode.getSignedWitness().getSignerPubKey()))) {
+                return false;
+            }
+            childDate = current.getDate();
+            current = signerNode.getSignedWitness();
+        }
+    }
+
     /**
      * Helper to isValidAccountAgeWitness(accountAgeWitness)
      *
@@ -491,8 +541,7 @@ public class SignedWitnessService {
             if (!verifyDate(signedWitness, childSignedWitnessDateMillis)) {
                 return false;
             }
-            if (excludedPubKeys.size() >= 2000) {
-                // Prevent DoS attack: an attacker floods the SignedWitness db with a long chain that takes lots of time to verify.
+            if (excludedPubKeys.size() >= 2 * MAX_SIGNER_CHAIN_LENGTH) {
                 return false;
             }
             excludedPubKeys.push(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()));
@@ -533,6 +582,8 @@ public class SignedWitnessService {
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
         signedWitnessSetByOwnerPubKey.putIfAbsent(ownerPubKey, new HashSet<>());
         signedWitnessSetByOwnerPubKey.get(ownerPubKey).add(signedWitness);
+
+        signerChainGraph.add(signedWitness);
     }
 
     private void publishSignedWitness(SignedWitness signedWitness) {
@@ -552,6 +603,7 @@ public class SignedWitnessService {
     @VisibleForTesting
     public void removeSignedWitness(SignedWitness signedWitness) {
         signedWitnessMap.remove(signedWitness.getHashAsByteArray());
+        signerChainGraph.remove(signedWitness);
 
         P2PDataStorage.ByteArray accountAgeWitnessHash = new P2PDataStorage.ByteArray(signedWitness.getAccountAgeWitnessHash());
         if (signedWitnessSetByAccountAgeWitnessHash.containsKey(accountAgeWitnessHash)) {
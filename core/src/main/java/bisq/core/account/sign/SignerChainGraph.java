@@ -0,0 +1,173 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Memoizes for each owner pubKey the earliest time from which it can sign other accounts, together with the signed
+ * witness of the chain which leads to that time.
+ *
+ * The graph only uses the dates and keys of the signed witnesses. Signatures and banned signers are not considered, so
+ * it does not need to be updated at filter or arbitrator changes. As those can only invalidate chains, the earliest
+ * signing time of the graph is a lower bound of the real one and the chain it keeps is the best candidate, which the
+ * SignedWitnessService has to verify.
+ *
+ * A signed witness not signed by an arbitrator lets its owner sign from its date plus the signer age if its signer
+ * could sign at that date. So the signing times strictly grow along a chain and loops cannot support themselves.
+ *
+ * Like the SignedWitnessService and its other caches, the graph is only accessed from the UserThread and is not
+ * thread safe. The gRPC workers do not reach it, as the API's offer queries use the read view of the OfferFilter.
+ */
+class SignerChainGraph {
+    // Signing time of owners of arbitrator signed witnesses
+    static final long ARBITRATOR_SIGNED = Long.MIN_VALUE;
+
+    static class Node {
+        @Getter
+        private final long signerSince;
+        // The signed witness of the owner through which signerSince was reached
+        @Getter
+        private final SignedWitness signedWitness;
+        // Number of signed witnesses not signed by an arbitrator in the chain
+        @Getter
+        private final int depth;
+
+        private Node(long signerSince, SignedWitness signedWitness, int depth) {
+            this.signerSince = signerSince;
+            this.signedWitness = signedWitness;
+            this.depth = depth;
+        }
+
+        private boolean isBetterThan(@Nullable Node other) {
+            return other == null ||
+                    signerSince < other.signerSince ||
+                    (signerSince == other.signerSince && depth < other.depth);
+        }
+    }
+
+    private final long signerAge;
+    private final Set<SignedWitness> signedWitnesses = new HashSet<>();
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetBySignerPubKey = new HashMap<>();
+    private final Map<P2PDataStorage.ByteArray, Node> nodeByOwnerPubKey = new HashMap<>();
+    // Set at removal of a signed witness, as that can only be handled by a rebuild
+    private boolean stale;
+
+    SignerChainGraph(long signerAge) {
+        this.signerAge = signerAge;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(SignedWitness signedWitness) {
+        if (!signedWitnesses.add(signedWitness))
+            return;
+
+        signedWitnessSetBySignerPubKey.computeIfAbsent(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()),
+                key -> new HashSet<>()).add(signedWitness);
+        if (!stale)
+            propagate(signedWitness);
+    }
+
+    void remove(SignedWitness signedWitness) {
+        if (!signedWitnesses.remove(signedWitness))
+            return;
+
+        P2PDataStorage.ByteArray signerPubKey = new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey());
+        Set<SignedWitness> set = signedWitnessSetBySignerPubKey.get(signerPubKey);
+        if (set != null) {
+            set.remove(signedWitness);
+            if (set.isEmpty())
+                signedWitnessSetBySignerPubKey.remove(signerPubKey);
+        }
+        stale = true;
+    }
+
+    @Nullable
+    Node getNode(byte[] ownerPubKey) {
+        if (stale)
+            rebuild();
+        return nodeByOwnerPubKey.get(new P2PDataStorage.ByteArray(ownerPubKey));
+    }
+
+    /**
+     * @return The earliest time from which the owner of signedWitness can sign others through signedWitness, or
+     * Long.MAX_VALUE if there is no chain to an arbitrator.
+     */
+    long getSignerSince(SignedWitness signedWitness) {
+        Node node = getCandidate(signedWitness);
+        return node != null ? node.signerSince : Long.MAX_VALUE;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void rebuild() {
+        stale = false;
+        nodeByOwnerPubKey.clear();
+        signedWitnesses.forEach(this::propagate);
+    }
+
+    @Nullable
+    private Node getCandidate(SignedWitness signedWitness) {
+        if (signedWitness.isSignedByArbitrator())
+            return new Node(ARBITRATOR_SIGNED, signedWitness, 0);
+
+        Node signerNode = getNode(signedWitness.getSignerPubKey());
+        if (signerNode == null || signerNode.signerSince > signedWitness.getDate())
+            return null;
+
+        return new Node(signedWitness.getDate() + signerAge, signedWitness, signerNode.depth + 1);
+    }
+
+    // Signing times only decrease, so this terminates
+    private void propagate(SignedWitness signedWitness) {
+        Queue<SignedWitness> queue = new ArrayDeque<>();
+        queue.add(signedWitness);
+        while (!queue.isEmpty()) {
+            SignedWitness current = queue.poll();
+            Node candidate = getCandidate(current);
+            if (candidate == null)
+                continue;
+
+            P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(current.getWitnessOwnerPubKey());
+            if (candidate.isBetterThan(nodeByOwnerPubKey.get(ownerPubKey))) {
+                nodeByOwnerPubKey.put(ownerPubKey, candidate);
+                Set<SignedWitness> signedByOwner = signedWitnessSetBySignerPubKey.get(ownerPubKey);
+                if (signedByOwner != null)
+                    queue.addAll(signedByOwner);
+            }
+        }
+    }
+}
@@ -41,8 +41,9 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
 
     @Inject
     public AccountAgeWitnessStorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager,
+                                           @Named(Config.USE_MAPPED_PAYLOAD_STORES) boolean useMappedStore) {
+        super(storageDir, persistenceManager, useMappedStore);
     }
 
 
@@ -57,7 +58,7 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
 
     @Override
     protected void initializePersistenceManager() {
-        persistenceManager.initialize(store, PersistenceManager.Source.NETWORK);
+        persistenceManager.initialize(store, PersistenceManager.Source.NETWORK_JOURNAL);
     }
 
     @Override
@@ -23,12 +23,15 @@ import bisq.core.api.model.TxFeeRateInfo;
 import bisq.core.btc.wallet.TxBroadcaster;
 import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OpenOffer;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.payment.payload.PaymentMethod;
 import bisq.core.trade.Trade;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 
 import bisq.common.app.Version;
@@ -38,12 +41,15 @@ import bisq.common.handlers.ResultHandler;
 import org.bitcoinj.core.Coin;
 import org.bitcoinj.core.Transaction;
 
+import org.fxmisc.easybind.Subscription;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import com.google.common.util.concurrent.FutureCallback;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Consumer;
@@ -51,6 +57,8 @@ import java.util.function.Consumer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import static java.lang.String.format;
+
 /**
  * Provides high level interface to functionality of core Bisq features.
  * E.g. useful for different APIs to access data of different domains of Bisq.
@@ -133,6 +141,12 @@ public class CoreApi {
         return coreOffersService.getMyOffers(direction, currencyCode);
     }
 
+    public Subscription subscribeOffers(String direction,
+                                        String currencyCode,
+                                        OfferBookService.OfferBookChangedListener listener) {
+        return coreOffersService.subscribeOffers(direction, currencyCode, listener);
+    }
+
     public OpenOffer getMyOpenOffer(String id) {
         return coreOffersService.getMyOpenOffer(id);
     }
@@ -217,6 +231,10 @@ public class CoreApi {
         corePriceService.getMarketPrice(currencyCode, resultHandler);
     }
 
+    public Subscription subscribeMarketPrice(String currencyCode, Consumer<Double> priceHandler) {
+        return corePriceService.subscribeMarketPrice(currencyCode, priceHandler);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Trades
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -256,6 +274,10 @@ public class CoreApi {
         return coreTradesService.getTradeRole(tradeId);
     }
 
+    public Subscription subscribeTrades(Consumer<Trade> tradeHandler) {
+        return coreTradesService.subscribeTrades(tradeHandler);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Wallets
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -336,6 +358,23 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatisticsCandle> getTradeStatisticsCandles(String currencyCode,
+                                                                 String tickUnit,
+                                                                 long from,
+                                                                 long to) {
+        TickUnit unit = Arrays.stream(TickUnit.values())
+                .filter(e -> e.name().equalsIgnoreCase(tickUnit))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException(format("unknown tick unit '%s'", tickUnit)));
+        if (from < 0 || to < 0) {
+            throw new IllegalArgumentException(format("time range from %d to %d must not be negative", from, to));
+        }
+        return tradeStatisticsManager.getCandles().getCandles(currencyCode.toUpperCase(),
+                unit,
+                from,
+                to > 0 ? to : Long.MAX_VALUE);
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
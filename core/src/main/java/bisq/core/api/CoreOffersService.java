@@ -20,12 +20,14 @@ package bisq.core.api;
 import bisq.core.monetary.Altcoin;
 import bisq.core.monetary.Price;
 import bisq.core.offer.CreateOfferService;
+import bisq.core.offer.MarketOrderBook;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OfferFilter;
 import bisq.core.offer.OfferUtil;
 import bisq.core.offer.OpenOffer;
 import bisq.core.offer.OpenOfferManager;
+import bisq.core.offer.OrderBookService;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.user.User;
 
@@ -35,15 +37,18 @@ import org.bitcoinj.core.Coin;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.utils.Fiat;
 
+import org.fxmisc.easybind.Subscription;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import java.math.BigDecimal;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -53,18 +58,13 @@ import static bisq.common.util.MathUtils.roundDoubleToLong;
 import static bisq.common.util.MathUtils.scaleUpByPowerOf10;
 import static bisq.core.locale.CurrencyUtil.isCryptoCurrency;
 import static bisq.core.offer.OfferPayload.Direction;
-import static bisq.core.offer.OfferPayload.Direction.BUY;
 import static bisq.core.payment.PaymentAccountUtil.isPaymentAccountValidForOffer;
 import static java.lang.String.format;
-import static java.util.Comparator.comparing;
 
 @Singleton
 @Slf4j
 class CoreOffersService {
 
-    private final Supplier<Comparator<Offer>> priceComparator = () -> comparing(Offer::getPrice);
-    private final Supplier<Comparator<Offer>> reversePriceComparator = () -> comparing(Offer::getPrice).reversed();
-
     private final KeyRing keyRing;
     // Dependencies on core api services in this package must be kept to an absolute
     // minimum, but some trading functions require an unlocked wallet's key, so an
@@ -74,6 +74,7 @@ class CoreOffersService {
     private final OfferBookService offerBookService;
     private final OfferFilter offerFilter;
     private final OpenOfferManager openOfferManager;
+    private final OrderBookService orderBookService;
     private final OfferUtil offerUtil;
     private final User user;
     private final boolean isApiUser;
@@ -86,6 +87,7 @@ class CoreOffersService {
                              OfferBookService offerBookService,
                              OfferFilter offerFilter,
                              OpenOfferManager openOfferManager,
+                             OrderBookService orderBookService,
                              OfferUtil offerUtil,
                              User user) {
         this.keyRing = keyRing;
@@ -94,45 +96,72 @@ class CoreOffersService {
         this.offerBookService = offerBookService;
         this.offerFilter = offerFilter;
         this.openOfferManager = openOfferManager;
+        this.orderBookService = orderBookService;
         this.offerUtil = offerUtil;
         this.user = user;
         this.isApiUser = coreContext.isApiUser();
+
+        // getOffer and getOffers are called from the gRPC worker threads, so they use the read view of the
+        // offer filter.
+        offerFilter.startReadView(offerBookService, isApiUser);
     }
 
     Offer getOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.getOffer(id)
                 .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> offerFilter.canTakeOffer(o, isApiUser).isValid())
-                .findAny().orElseThrow(() ->
+                .filter(offerFilter::canTakeOfferFromReadView)
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
     Offer getMyOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
+        return offerBookService.getOffer(id)
                 .filter(o -> o.isMyOffer(keyRing))
-                .findAny().orElseThrow(() ->
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
     List<Offer> getOffers(String direction, String currencyCode) {
-        return offerBookService.getOffers().stream()
+        return getOffersOfMarket(direction, currencyCode).stream()
                 .filter(o -> !o.isMyOffer(keyRing))
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
-                .filter(o -> offerFilter.canTakeOffer(o, isApiUser).isValid())
-                .sorted(priceComparator(direction))
+                .filter(offerFilter::canTakeOfferFromReadView)
                 .collect(Collectors.toList());
     }
 
     List<Offer> getMyOffers(String direction, String currencyCode) {
-        return offerBookService.getOffers().stream()
+        return getOffersOfMarket(direction, currencyCode).stream()
                 .filter(o -> o.isMyOffer(keyRing))
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
-                .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
     }
 
+    // Notifies the listener about added offers matching the filters used in getOffers. Removed offers are only
+    // matched by direction and currency, as whether an offer could be taken does not matter once it is gone and may
+    // have changed since it was added. So the listener has to ignore removals of offers it was not notified about.
+    Subscription subscribeOffers(String direction,
+                                 String currencyCode,
+                                 OfferBookService.OfferBookChangedListener listener) {
+        var offerBookChangedListener = new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                if (!offer.isMyOffer(keyRing)
+                        && offerMatchesDirectionAndCurrency(offer, direction, currencyCode)
+                        && offerFilter.canTakeOffer(offer, isApiUser).isValid())
+                    listener.onAdded(offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                if (!offer.isMyOffer(keyRing)
+                        && offerMatchesDirectionAndCurrency(offer, direction, currencyCode))
+                    listener.onRemoved(offer);
+            }
+        };
+        offerBookService.addOfferBookChangedListener(offerBookChangedListener);
+        return () -> offerBookService.removeOfferBookChangedListener(offerBookChangedListener);
+    }
+
     OpenOffer getMyOpenOffer(String id) {
         return openOfferManager.getOpenOfferById(id)
                 .filter(open -> open.getOffer().isMyOffer(keyRing))
@@ -249,23 +278,34 @@ class CoreOffersService {
             throw new IllegalStateException(offer.getErrorMessage());
     }
 
+    // A buyer probably wants to see sell orders in price ascending order.
+    // A seller probably wants to see buy orders in price descending order.
+    // The order book sorts from the best to the worst price, which is the reverse order for altcoin markets.
+    // Market based offers without a price (no market price available) are added at the end.
+    private List<Offer> getOffersOfMarket(String direction, String currencyCode) {
+        return Arrays.stream(Direction.values())
+                .filter(d -> d.name().equalsIgnoreCase(direction))
+                .findAny()
+                .map(d -> {
+                    MarketOrderBook orderBook = orderBookService.getOrderBook(currencyCode);
+                    List<Offer> offers = orderBook.getOffers(d);
+                    if (isCryptoCurrency(currencyCode))
+                        Collections.reverse(offers);
+                    offers.addAll(orderBook.getOffersWithoutPrice(d));
+                    return offers;
+                })
+                .orElseGet(ArrayList::new);
+    }
+
     private boolean offerMatchesDirectionAndCurrency(Offer offer,
                                                      String direction,
                                                      String currencyCode) {
         var offerOfWantedDirection = offer.getDirection().name().equalsIgnoreCase(direction);
-        var offerInWantedCurrency = offer.getOfferPayload().getCounterCurrencyCode()
-                .equalsIgnoreCase(currencyCode);
+        // The currency code of the offer is the altcoin for altcoin offers and the fiat currency for fiat offers
+        var offerInWantedCurrency = offer.getCurrencyCode().equalsIgnoreCase(currencyCode);
         return offerOfWantedDirection && offerInWantedCurrency;
     }
 
-    private Comparator<Offer> priceComparator(String direction) {
-        // A buyer probably wants to see sell orders in price ascending order.
-        // A seller probably wants to see buy orders in price descending order.
-        return direction.equalsIgnoreCase(BUY.name())
-                ? reversePriceComparator.get()
-                : priceComparator.get();
-    }
-
     private long priceStringToLong(String priceAsString, String currencyCode) {
         int precision = isCryptoCurrency(currencyCode) ? Altcoin.SMALLEST_UNIT_EXPONENT : Fiat.SMALLEST_UNIT_EXPONENT;
         double priceAsDouble = new BigDecimal(priceAsString).doubleValue();
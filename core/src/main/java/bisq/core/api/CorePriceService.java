@@ -17,11 +17,18 @@
 
 package bisq.core.api;
 
+import bisq.core.provider.price.MarketPrice;
 import bisq.core.provider.price.PriceFeedService;
 
+import bisq.common.UserThread;
+
+import org.fxmisc.easybind.EasyBind;
+import org.fxmisc.easybind.Subscription;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import lombok.extern.slf4j.Slf4j;
@@ -50,20 +57,52 @@ class CorePriceService {
         if (!priceFeedService.hasPrices())
             throw new IllegalStateException("price feed service has no prices");
 
-        try {
-            priceFeedService.setCurrencyCode(upperCaseCurrencyCode);
-        } catch (Throwable throwable) {
-            log.warn("Could not set currency code in PriceFeedService", throwable);
+        // The API daemon calls us from a gRPC worker thread. If we have a recent price from the price provider
+        // we can return it directly from the (thread safe) price cache without touching the PriceFeedService state.
+        MarketPrice marketPrice = priceFeedService.getMarketPrice(upperCaseCurrencyCode);
+        if (marketPrice != null && marketPrice.isRecentExternalPriceAvailable()) {
+            resultHandler.accept(roundDouble(marketPrice.getPrice(), 4));
+            return;
         }
 
-        priceFeedService.requestPriceFeed(price -> {
-                    if (price > 0) {
-                        log.info("{} price feed request returned {}", upperCaseCurrencyCode, price);
-                        resultHandler.accept(roundDouble(price, 4));
-                    } else {
-                        throw new IllegalStateException(format("%s price is not available", upperCaseCurrencyCode));
-                    }
-                },
-                (errorMessage, throwable) -> log.warn(errorMessage, throwable));
+        // Changing the currency code and requesting the price feed has to be done at the UserThread.
+        UserThread.execute(() -> {
+            try {
+                priceFeedService.setCurrencyCode(upperCaseCurrencyCode);
+            } catch (Throwable throwable) {
+                log.warn("Could not set currency code in PriceFeedService", throwable);
+            }
+
+            priceFeedService.requestPriceFeed(price -> {
+                        if (price > 0) {
+                            log.info("{} price feed request returned {}", upperCaseCurrencyCode, price);
+                            resultHandler.accept(roundDouble(price, 4));
+                        } else {
+                            throw new IllegalStateException(format("%s price is not available", upperCaseCurrencyCode));
+                        }
+                    },
+                    (errorMessage, throwable) -> log.warn(errorMessage, throwable));
+        });
+    }
+
+    // Calls the priceHandler with the current price, and then whenever the price provider delivers a changed price.
+    // Must be called at the UserThread.
+    Subscription subscribeMarketPrice(String currencyCode, Consumer<Double> priceHandler) {
+        String upperCaseCurrencyCode = currencyCode.toUpperCase();
+
+        if (!isFiatCurrency(upperCaseCurrencyCode))
+            throw new IllegalStateException(format("%s is not a valid currency code", upperCaseCurrencyCode));
+
+        AtomicReference<Double> lastPrice = new AtomicReference<>();
+        return EasyBind.subscribe(priceFeedService.updateCounterProperty(), updateCounter -> {
+            MarketPrice marketPrice = priceFeedService.getMarketPrice(upperCaseCurrencyCode);
+            if (marketPrice == null || !marketPrice.isRecentExternalPriceAvailable())
+                return;
+
+            double price = roundDouble(marketPrice.getPrice(), 4);
+            Double previousPrice = lastPrice.getAndSet(price);
+            if (previousPrice == null || previousPrice != price)
+                priceHandler.accept(price);
+        });
     }
 }
@@ -34,9 +34,16 @@ import bisq.core.util.validation.BtcAddressValidator;
 
 import org.bitcoinj.core.Coin;
 
+import org.fxmisc.easybind.EasyBind;
+import org.fxmisc.easybind.Subscription;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import javafx.collections.ListChangeListener;
+
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
@@ -221,6 +228,34 @@ class CoreTradesService {
                 ));
     }
 
+    // Calls the tradeHandler with all open trades, and then with any open trade whenever its state changes.
+    Subscription subscribeTrades(Consumer<Trade> tradeHandler) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+
+        Map<String, Subscription> tradeStateSubscriptions = new HashMap<>();
+        Consumer<Trade> subscribeTradeState = trade -> tradeStateSubscriptions.put(trade.getId(),
+                EasyBind.subscribe(trade.stateProperty(), state -> tradeHandler.accept(trade)));
+        ListChangeListener<Trade> tradesListener = change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(trade -> {
+                    Subscription tradeStateSubscription = tradeStateSubscriptions.remove(trade.getId());
+                    if (tradeStateSubscription != null)
+                        tradeStateSubscription.unsubscribe();
+                });
+                change.getAddedSubList().forEach(subscribeTradeState);
+            }
+        };
+
+        tradeManager.getObservableList().forEach(subscribeTradeState);
+        tradeManager.getObservableList().addListener(tradesListener);
+        return () -> {
+            tradeManager.getObservableList().removeListener(tradesListener);
+            tradeStateSubscriptions.values().forEach(Subscription::unsubscribe);
+            tradeStateSubscriptions.clear();
+        };
+    }
+
     private Optional<Trade> getOpenTrade(String tradeId) {
         return tradeManager.getTradeById(tradeId);
     }
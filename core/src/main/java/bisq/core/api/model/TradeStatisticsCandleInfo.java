@@ -0,0 +1,87 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import bisq.core.trade.statistics.TickUnit;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
+
+import bisq.common.Payload;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@EqualsAndHashCode
+@Getter
+public class TradeStatisticsCandleInfo implements Payload {
+
+    private final TradeStatisticsCandle candle;
+
+    public TradeStatisticsCandleInfo(TradeStatisticsCandle candle) {
+        this.candle = candle;
+    }
+
+    public static TradeStatisticsCandleInfo toCandleInfo(TradeStatisticsCandle candle) {
+        return new TradeStatisticsCandleInfo(candle);
+    }
+
+    //////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    //////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public bisq.proto.grpc.TradeStatisticsCandleInfo toProtoMessage() {
+        return bisq.proto.grpc.TradeStatisticsCandleInfo.newBuilder()
+                .setCurrencyCode(candle.getCurrencyCode() == null ? "" : candle.getCurrencyCode())
+                .setTickUnit(candle.getTickUnit().name())
+                .setTickStart(candle.getTickStart())
+                .setOpen(candle.getOpen())
+                .setClose(candle.getClose())
+                .setHigh(candle.getHigh())
+                .setLow(candle.getLow())
+                .setMedian(candle.getMedian())
+                .setAccumulatedAmount(candle.getAccumulatedAmount())
+                .setAccumulatedVolume(candle.getAccumulatedVolume())
+                .setNumTrades(candle.getNumTrades())
+                .setVolumeInUsd(candle.getVolumeInUsd())
+                .build();
+    }
+
+    @SuppressWarnings("unused")
+    public static TradeStatisticsCandleInfo fromProto(bisq.proto.grpc.TradeStatisticsCandleInfo proto) {
+        return new TradeStatisticsCandleInfo(new TradeStatisticsCandle(
+                proto.getCurrencyCode().isEmpty() ? null : proto.getCurrencyCode(),
+                TickUnit.valueOf(proto.getTickUnit()),
+                proto.getTickStart(),
+                proto.getOpen(),
+                proto.getClose(),
+                proto.getHigh(),
+                proto.getLow(),
+                proto.getMedian(),
+                proto.getAccumulatedAmount(),
+                proto.getAccumulatedVolume(),
+                proto.getNumTrades(),
+                proto.getVolumeInUsd()));
+    }
+
+    @Override
+    public String toString() {
+        return "TradeStatisticsCandleInfo{" + "\n" +
+                "  candle=" + candle + "\n" +
+                '}';
+    }
+}
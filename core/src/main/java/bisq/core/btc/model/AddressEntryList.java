@@ -37,23 +37,37 @@ import com.google.common.collect.ImmutableList;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * The AddressEntries was previously stored as list, now as hashSet. We still keep the old name to reflect the
  * associated protobuf message.
+ *
+ * The entries are indexed by offer ID, context and address, so lookups do not need to copy and scan all entries.
+ * The indices are only updated together with the entrySet while holding the lock of this object. Lookups do not take
+ * the lock.
  */
 @Slf4j
 public final class AddressEntryList implements PersistableEnvelope, PersistedDataHost {
     transient private PersistenceManager<AddressEntryList> persistenceManager;
     transient private Wallet wallet;
     private final Set<AddressEntry> entrySet = new CopyOnWriteArraySet<>();
+    transient private final Map<String, Set<AddressEntry>> entriesByOfferId = new ConcurrentHashMap<>();
+    transient private final Map<AddressEntry.Context, Set<AddressEntry>> entriesByContext = new ConcurrentHashMap<>();
+    // Addresses are only available after the keys got applied at onWalletReady
+    transient private final Map<String, Set<AddressEntry>> entriesByAddress = new ConcurrentHashMap<>();
 
     @Inject
     public AddressEntryList(PersistenceManager<AddressEntryList> persistenceManager) {
@@ -65,8 +79,13 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     @Override
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
-                    entrySet.clear();
-                    entrySet.addAll(persisted.entrySet);
+                    synchronized (this) {
+                        entrySet.clear();
+                        entriesByOfferId.clear();
+                        entriesByContext.clear();
+                        entriesByAddress.clear();
+                        persisted.entrySet.forEach(this::add);
+                    }
                     completeHandler.run();
                 },
                 completeHandler);
@@ -78,7 +97,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private AddressEntryList(Set<AddressEntry> entrySet) {
-        this.entrySet.addAll(entrySet);
+        entrySet.forEach(this::add);
     }
 
     public static AddressEntryList fromProto(protobuf.AddressEntryList proto) {
@@ -104,7 +123,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public void onWalletReady(Wallet wallet) {
+    public synchronized void onWalletReady(Wallet wallet) {
         this.wallet = wallet;
 
         if (!entrySet.isEmpty()) {
@@ -135,11 +154,13 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                 }
             });
 
-            toBeRemoved.forEach(entrySet::remove);
+            toBeRemoved.forEach(this::remove);
+            // Now all entries have their keys, so we can index them by address
+            entrySet.forEach(this::addToAddressIndex);
         } else {
             // As long the old arbitration domain is not removed from the code base we still support it here.
             DeterministicKey key = (DeterministicKey) wallet.findKeyFromAddress(wallet.freshReceiveAddress(Script.ScriptType.P2PKH));
-            entrySet.add(new AddressEntry(key, AddressEntry.Context.ARBITRATOR, false));
+            add(new AddressEntry(key, AddressEntry.Context.ARBITRATOR, false));
         }
 
         // In case we restore from seed words and have balance we need to add the relevant addresses to our list.
@@ -153,7 +174,7 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
                         if (key != null) {
                             // Address will be derived from key in getAddress method
                             log.info("Create AddressEntry for IssuedReceiveAddress. address={}", address.toString());
-                            entrySet.add(new AddressEntry(key, AddressEntry.Context.AVAILABLE, address instanceof SegwitAddress));
+                            add(new AddressEntry(key, AddressEntry.Context.AVAILABLE, address instanceof SegwitAddress));
                         } else {
                             log.warn("DeterministicKey for address {} is null", address);
                         }
@@ -179,13 +200,32 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         return ImmutableList.copyOf(entrySet);
     }
 
-    public void addAddressEntry(AddressEntry addressEntry) {
-        boolean entryWithSameOfferIdAndContextAlreadyExist = entrySet.stream().anyMatch(e -> {
-            if (addressEntry.getOfferId() != null) {
-                return addressEntry.getOfferId().equals(e.getOfferId()) && addressEntry.getContext() == e.getContext();
-            }
-            return false;
-        });
+    /**
+     * @return The entries with the given offer ID and context
+     */
+    public List<AddressEntry> getAddressEntries(String offerId, AddressEntry.Context context) {
+        return getIndexedEntries(entriesByOfferId, offerId).stream()
+                .filter(e -> context == e.getContext())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return A read-only view of the entries with the given context
+     */
+    public Set<AddressEntry> getAddressEntries(AddressEntry.Context context) {
+        return getIndexedEntries(entriesByContext, context);
+    }
+
+    /**
+     * @return A read-only view of the entries with the given address. Empty before the wallet is ready.
+     */
+    public Set<AddressEntry> getAddressEntriesByAddress(String address) {
+        return getIndexedEntries(entriesByAddress, address);
+    }
+
+    public synchronized void addAddressEntry(AddressEntry addressEntry) {
+        boolean entryWithSameOfferIdAndContextAlreadyExist = addressEntry.getOfferId() != null &&
+                !getAddressEntries(addressEntry.getOfferId(), addressEntry.getContext()).isEmpty();
         if (entryWithSameOfferIdAndContextAlreadyExist) {
             log.error("We have an address entry with the same offer ID and context. We do not add the new one. " +
                     "addressEntry={}, entrySet={}", addressEntry, entrySet);
@@ -193,12 +233,12 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
 
         log.info("addAddressEntry: add new AddressEntry {}", addressEntry);
-        boolean setChangedByAdd = entrySet.add(addressEntry);
+        boolean setChangedByAdd = add(addressEntry);
         if (setChangedByAdd)
             requestPersistence();
     }
 
-    public void swapToAvailable(AddressEntry addressEntry) {
+    public synchronized void swapToAvailable(AddressEntry addressEntry) {
         if (addressEntry.getContext() == AddressEntry.Context.MULTI_SIG) {
             log.error("swapToAvailable called with an addressEntry with MULTI_SIG context. " +
                     "This in not permitted as we must not reuse those address entries and there are " +
@@ -209,8 +249,8 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
 
         log.info("swapToAvailable addressEntry to swap={}", addressEntry);
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
-        boolean setChangedByAdd = entrySet.add(new AddressEntry(addressEntry.getKeyPair(),
+        boolean setChangedByRemove = remove(addressEntry);
+        boolean setChangedByAdd = add(new AddressEntry(addressEntry.getKeyPair(),
                 AddressEntry.Context.AVAILABLE,
                 addressEntry.isSegwit()));
         if (setChangedByRemove || setChangedByAdd) {
@@ -218,33 +258,33 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
         }
     }
 
-    public AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry,
-                                                               AddressEntry.Context context,
-                                                               String offerId) {
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
+    public synchronized AddressEntry swapAvailableToAddressEntryWithOfferId(AddressEntry addressEntry,
+                                                                            AddressEntry.Context context,
+                                                                            String offerId) {
+        boolean setChangedByRemove = remove(addressEntry);
         AddressEntry newAddressEntry = new AddressEntry(addressEntry.getKeyPair(), context, offerId, addressEntry.isSegwit());
         log.info("swapAvailableToAddressEntryWithOfferId newAddressEntry={}", newAddressEntry);
-        boolean setChangedByAdd = entrySet.add(newAddressEntry);
+        boolean setChangedByAdd = add(newAddressEntry);
         if (setChangedByRemove || setChangedByAdd)
             requestPersistence();
 
         return newAddressEntry;
     }
 
-    public void setCoinLockedInMultiSigAddressEntry(AddressEntry addressEntry, long value) {
+    public synchronized void setCoinLockedInMultiSigAddressEntry(AddressEntry addressEntry, long value) {
         if (addressEntry.getContext() != AddressEntry.Context.MULTI_SIG) {
             log.error("setCoinLockedInMultiSigAddressEntry must be called only on MULTI_SIG entries");
             return;
         }
 
         log.info("setCoinLockedInMultiSigAddressEntry addressEntry={}, value={}", addressEntry, value);
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
+        boolean setChangedByRemove = remove(addressEntry);
         AddressEntry entry = new AddressEntry(addressEntry.getKeyPair(),
                 addressEntry.getContext(),
                 addressEntry.getOfferId(),
                 value,
                 addressEntry.isSegwit());
-        boolean setChangedByAdd = entrySet.add(entry);
+        boolean setChangedByAdd = add(entry);
         if (setChangedByRemove || setChangedByAdd) {
             requestPersistence();
         }
@@ -273,7 +313,62 @@ public final class AddressEntryList implements PersistableEnvelope, PersistedDat
     }
 
     private boolean isAddressNotInEntries(Address address) {
-        return entrySet.stream().noneMatch(e -> address.equals(e.getAddress()));
+        return getAddressEntriesByAddress(address.toString()).isEmpty();
+    }
+
+    // Must be called while holding the lock, except from the constructor
+    private boolean add(AddressEntry addressEntry) {
+        if (!entrySet.add(addressEntry)) {
+            return false;
+        }
+
+        addToIndex(entriesByContext, addressEntry.getContext(), addressEntry);
+        if (addressEntry.getOfferId() != null) {
+            addToIndex(entriesByOfferId, addressEntry.getOfferId(), addressEntry);
+        }
+        if (wallet != null) {
+            addToAddressIndex(addressEntry);
+        }
+        return true;
+    }
+
+    // Must be called while holding the lock
+    private boolean remove(AddressEntry addressEntry) {
+        if (!entrySet.remove(addressEntry)) {
+            return false;
+        }
+
+        removeFromIndex(entriesByContext, addressEntry.getContext(), addressEntry);
+        if (addressEntry.getOfferId() != null) {
+            removeFromIndex(entriesByOfferId, addressEntry.getOfferId(), addressEntry);
+        }
+        if (!addressEntry.isAddressNull()) {
+            removeFromIndex(entriesByAddress, addressEntry.getAddressString(), addressEntry);
+        }
+        return true;
+    }
+
+    private void addToAddressIndex(AddressEntry addressEntry) {
+        String address = addressEntry.getAddressString();
+        if (address != null) {
+            addToIndex(entriesByAddress, address, addressEntry);
+        }
+    }
+
+    private static <K> void addToIndex(Map<K, Set<AddressEntry>> index, K key, AddressEntry addressEntry) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(addressEntry);
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<AddressEntry>> index, K key, AddressEntry addressEntry) {
+        index.computeIfPresent(key, (k, set) -> {
+            set.remove(addressEntry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static <K> Set<AddressEntry> getIndexedEntries(Map<K, Set<AddressEntry>> index, @Nullable K key) {
+        Set<AddressEntry> set = key != null ? index.get(key) : null;
+        return set != null ? Collections.unmodifiableSet(set) : Collections.emptySet();
     }
 
     @Override
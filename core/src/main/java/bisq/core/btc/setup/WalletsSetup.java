@@ -536,8 +536,7 @@ public class WalletsSetup {
     }
 
     public Set<Address> getAddressesByContext(@SuppressWarnings("SameParameterValue") AddressEntry.Context context) {
-        return addressEntryList.getAddressEntriesAsListImmutable().stream()
-                .filter(addressEntry -> addressEntry.getContext() == context)
+        return addressEntryList.getAddressEntries(context).stream()
                 .map(AddressEntry::getAddress)
                 .collect(Collectors.toSet());
     }
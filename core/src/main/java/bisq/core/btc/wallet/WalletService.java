@@ -30,6 +30,7 @@ import bisq.core.user.Preferences;
 import bisq.common.config.Config;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
+import bisq.common.util.Tuple2;
 
 import org.bitcoinj.core.Address;
 import org.bitcoinj.core.AddressFormatException;
@@ -72,8 +73,10 @@ import org.bitcoinj.wallet.listeners.WalletReorganizeEventListener;
 
 import javax.inject.Inject;
 
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.SetMultimap;
 import com.google.common.util.concurrent.FutureCallback;
@@ -86,10 +89,12 @@ import javafx.beans.property.SimpleIntegerProperty;
 import org.bouncycastle.crypto.params.KeyParameter;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -118,9 +123,13 @@ public abstract class WalletService {
     private final CopyOnWriteArraySet<AddressConfidenceListener> addressConfidenceListeners = new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<TxConfidenceListener> txConfidenceListeners = new CopyOnWriteArraySet<>();
     private final CopyOnWriteArraySet<BalanceListener> balanceListeners = new CopyOnWriteArraySet<>();
-    private final WalletChangeEventListener cacheInvalidationListener;
+    private final CacheInvalidationListener cacheInvalidationListener = new CacheInvalidationListener();
     private final AtomicReference<Multiset<Address>> txOutputAddressCache = new AtomicReference<>();
     private final AtomicReference<SetMultimap<Address, Transaction>> addressToMatchingTxSetCache = new AtomicReference<>();
+    // Incremented at each wallet change, so a cache computed concurrently with a change does not get stored
+    private final AtomicInteger spendCandidatesVersion = new AtomicInteger();
+    private final AtomicReference<Tuple2<Integer, ListMultimap<Address, TransactionOutput>>> spendCandidatesByAddressCache =
+            new AtomicReference<>();
     @Getter
     protected Wallet wallet;
     @Getter
@@ -142,11 +151,6 @@ public abstract class WalletService {
         this.feeService = feeService;
 
         params = walletsSetup.getParams();
-
-        cacheInvalidationListener = wallet -> {
-            txOutputAddressCache.set(null);
-            addressToMatchingTxSetCache.set(null);
-        };
     }
 
 
@@ -155,11 +159,17 @@ public abstract class WalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     protected void addListenersToWallet() {
+        // We invalidate the caches on the wallet thread, so they are invalidated before the UserThread listeners
+        // get called.
+        wallet.addChangeEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
+        wallet.addCoinsReceivedEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
+        wallet.addCoinsSentEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
+        wallet.addTransactionConfidenceEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
+
         wallet.addCoinsReceivedEventListener(walletEventListener);
         wallet.addCoinsSentEventListener(walletEventListener);
         wallet.addReorganizeEventListener(walletEventListener);
         wallet.addTransactionConfidenceEventListener(walletEventListener);
-        wallet.addChangeEventListener(Threading.SAME_THREAD, cacheInvalidationListener);
     }
 
     public void shutDown() {
@@ -169,6 +179,9 @@ public abstract class WalletService {
             wallet.removeReorganizeEventListener(walletEventListener);
             wallet.removeTransactionConfidenceEventListener(walletEventListener);
             wallet.removeChangeEventListener(cacheInvalidationListener);
+            wallet.removeCoinsReceivedEventListener(cacheInvalidationListener);
+            wallet.removeCoinsSentEventListener(cacheInvalidationListener);
+            wallet.removeTransactionConfidenceEventListener(cacheInvalidationListener);
         }
     }
 
@@ -491,7 +504,11 @@ public abstract class WalletService {
     }
 
     public Coin getBalanceForAddress(Address address) {
-        return wallet != null ? getBalance(wallet.calculateAllSpendCandidates(), address) : Coin.ZERO;
+        if (wallet == null || address == null) {
+            return Coin.ZERO;
+        }
+        // Dust is filtered here and not in the cache as the dust threshold can be changed in the preferences
+        return getBalance(getSpendCandidatesByAddress().get(address), address);
     }
 
     protected Coin getBalance(List<TransactionOutput> transactionOutputs, Address address) {
@@ -509,6 +526,32 @@ public abstract class WalletService {
 
     protected abstract boolean isDustAttackUtxo(TransactionOutput output);
 
+    // Only changed at wallet changes, so we do not need to iterate all spend candidates for each address
+    private ListMultimap<Address, TransactionOutput> getSpendCandidatesByAddress() {
+        int version = spendCandidatesVersion.get();
+        Tuple2<Integer, ListMultimap<Address, TransactionOutput>> cached = spendCandidatesByAddressCache.get();
+        if (cached != null && cached.first == version) {
+            return cached.second;
+        }
+
+        ListMultimap<Address, TransactionOutput> spendCandidatesByAddress = computeSpendCandidatesByAddress();
+        if (spendCandidatesVersion.get() == version) {
+            spendCandidatesByAddressCache.set(new Tuple2<>(version, spendCandidatesByAddress));
+        }
+        return spendCandidatesByAddress;
+    }
+
+    private ListMultimap<Address, TransactionOutput> computeSpendCandidatesByAddress() {
+        ImmutableListMultimap.Builder<Address, TransactionOutput> builder = ImmutableListMultimap.builder();
+        for (TransactionOutput output : wallet.calculateAllSpendCandidates()) {
+            Address address = getAddressFromOutput(output);
+            if (address != null) {
+                builder.put(address, output);
+            }
+        }
+        return builder.build();
+    }
+
     public Coin getBalance(TransactionOutput output) {
         return getBalanceForAddress(getAddressFromOutput(output));
     }
@@ -851,18 +894,85 @@ public abstract class WalletService {
                             tx.getTxId().toString().equals(txConfidenceListener.getTxID()))
                     .forEach(txConfidenceListener ->
                             txConfidenceListener.onTransactionConfidenceChanged(tx.getConfidence()));
+
+            // A tx getting confirmed or dead changes balances. We get called for each tx at each new block, but
+            // deeper buried txs do not change any balance, so we skip those.
+            if (tx != null && !isBuriedDeeperThanOneBlock(tx)) {
+                notifyBalanceListeners(tx);
+            }
         }
 
         void notifyBalanceListeners(Transaction tx) {
+            // The inputs of a dead tx got disconnected, so we cannot derive the spent addresses from it and
+            // notify all listeners.
+            boolean isDead = tx.getConfidence().getConfidenceType() == TransactionConfidence.ConfidenceType.DEAD;
+            // The balance of an address can only be changed by a tx which pays to it or spends from it
+            Set<Address> affectedAddresses = new HashSet<>();
+            for (TransactionOutput output : getOutputsWithConnectedOutputs(tx)) {
+                Address address = getAddressFromOutput(output);
+                if (address != null) {
+                    affectedAddresses.add(address);
+                }
+            }
+
+            // We do not use the cache as it might not be invalidated yet when the wallet thread is still
+            // processing the block, but we compute the spend candidates only once for all listeners.
+            ListMultimap<Address, TransactionOutput> spendCandidatesByAddress = null;
             for (BalanceListener balanceListener : balanceListeners) {
+                Address address = balanceListener.getAddress();
                 Coin balance;
-                if (balanceListener.getAddress() != null)
-                    balance = getBalanceForAddress(balanceListener.getAddress());
-                else
+                if (address == null) {
                     balance = getAvailableConfirmedBalance();
+                } else if (isDead || affectedAddresses.contains(address)) {
+                    if (spendCandidatesByAddress == null) {
+                        spendCandidatesByAddress = computeSpendCandidatesByAddress();
+                    }
+                    balance = getBalance(spendCandidatesByAddress.get(address), address);
+                } else {
+                    continue;
+                }
 
                 balanceListener.onBalanceChanged(balance, tx);
             }
         }
+
+        private boolean isBuriedDeeperThanOneBlock(Transaction tx) {
+            TransactionConfidence confidence = tx.getConfidence();
+            return confidence.getConfidenceType() == TransactionConfidence.ConfidenceType.BUILDING &&
+                    confidence.getDepthInBlocks() > 1;
+        }
+    }
+
+    // Called on the wallet thread. onWalletChanged is suppressed until a block is processed, so we invalidate the
+    // caches at received and sent coins and dead txs as well.
+    private class CacheInvalidationListener implements WalletChangeEventListener, WalletCoinsReceivedEventListener,
+            WalletCoinsSentEventListener, TransactionConfidenceEventListener {
+        @Override
+        public void onWalletChanged(Wallet wallet) {
+            invalidateCaches();
+        }
+
+        @Override
+        public void onCoinsReceived(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            invalidateCaches();
+        }
+
+        @Override
+        public void onCoinsSent(Wallet wallet, Transaction tx, Coin prevBalance, Coin newBalance) {
+            invalidateCaches();
+        }
+
+        @Override
+        public void onTransactionConfidenceChanged(Wallet wallet, Transaction tx) {
+            if (tx.getConfidence().getConfidenceType() == TransactionConfidence.ConfidenceType.DEAD) {
+                invalidateCaches();
+            }
+        }
+
+        private void invalidateCaches() {
+            txOutputAddressCache.set(null);
+            addressToMatchingTxSetCache.set(null);
+            spendCandidatesVersion.incrementAndGet();
+        }
     }
 }
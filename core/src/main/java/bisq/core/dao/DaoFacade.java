@@ -96,6 +96,7 @@ import java.io.File;
 import java.io.IOException;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -575,11 +576,11 @@ public class DaoFacade implements DaoSetupService {
         return daoStateService.getTotalAmountOfBurntBsq();
     }
 
-    public List<Tx> getInvalidTxs() {
+    public Set<Tx> getInvalidTxs() {
         return daoStateService.getInvalidTxs();
     }
 
-    public List<Tx> getIrregularTxs() {
+    public Set<Tx> getIrregularTxs() {
         return daoStateService.getIrregularTxs();
     }
 
@@ -638,7 +639,7 @@ public class DaoFacade implements DaoSetupService {
         return daoStateService.getBurntFeeTxs();
     }
 
-    public Set<TxOutput> getUnspentTxOutputs() {
+    public Collection<TxOutput> getUnspentTxOutputs() {
         return daoStateService.getUnspentTxOutputs();
     }
 
@@ -52,6 +52,7 @@ import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -152,13 +153,13 @@ public class AssetService implements DaoSetupService, DaoStateListener {
     public void updateAssetStates() {
         // For performance optimisation we map the trade stats to a temporary lookup map and convert it to a custom
         // TradeAmountDateTuple object holding only the data we need.
+        // The trade statistics objects are not created.
         Map<String, List<TradeAmountDateTuple>> lookupMap = new HashMap<>();
-        tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
-                .filter(e -> CurrencyUtil.isCryptoCurrency(e.getCurrency()))
-                .forEach(e -> {
-                    lookupMap.putIfAbsent(e.getCurrency(), new ArrayList<>());
-                    lookupMap.get(e.getCurrency()).add(new TradeAmountDateTuple(e.getAmount(), e.getDateAsLong()));
-                });
+        tradeStatisticsManager.forEachTradeStatistic(new Date(0), (currency, price, amount, date) -> {
+            if (CurrencyUtil.isCryptoCurrency(currency)) {
+                lookupMap.computeIfAbsent(currency, key -> new ArrayList<>()).add(new TradeAmountDateTuple(amount, date));
+            }
+        });
 
         getStatefulAssets().stream()
                 .filter(e -> AssetState.REMOVED_BY_VOTING != e.getAssetState()) // if once set to REMOVED_BY_VOTING we ignore it for further processing
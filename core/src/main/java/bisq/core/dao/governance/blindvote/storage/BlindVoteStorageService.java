@@ -78,6 +78,11 @@ public class BlindVoteStorageService extends MapStoreService<BlindVoteStore, Per
         return payload instanceof BlindVotePayload && notInVoteRevealPhase;
     }
 
+    @Override
+    public boolean isConsensusCritical() {
+        return true;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Protected
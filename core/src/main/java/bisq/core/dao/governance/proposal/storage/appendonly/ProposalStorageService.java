@@ -72,6 +72,11 @@ public class ProposalStorageService extends MapStoreService<ProposalStore, Persi
         return payload instanceof ProposalPayload;
     }
 
+    @Override
+    public boolean isConsensusCritical() {
+        return true;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Protected
@@ -33,6 +33,7 @@ import bisq.common.util.MathUtils;
 
 import javax.inject.Inject;
 
+import java.util.ArrayList;
 import java.util.Optional;
 
 import lombok.extern.slf4j.Slf4j;
@@ -57,7 +58,8 @@ public class IssuanceService {
     }
 
     public void issueBsq(IssuanceProposal issuanceProposal, int chainHeight) {
-        daoStateService.getIssuanceCandidateTxOutputs().stream()
+        // We copy the view as we change the DaoState while iterating
+        new ArrayList<>(daoStateService.getIssuanceCandidateTxOutputs()).stream()
                 .filter(txOutput -> isValid(txOutput, issuanceProposal, periodService, chainHeight))
                 .forEach(txOutput -> {
                     IssuanceType issuanceType = IssuanceType.UNDEFINED;
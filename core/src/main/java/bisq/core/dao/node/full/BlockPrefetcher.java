@@ -0,0 +1,148 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full;
+
+import bisq.common.handlers.ResultHandler;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Requests a range of blocks with up to {@code window} requests in flight and delivers the received blocks strictly
+ * in height order. While the BlockParser is busy with one block the following blocks are already requested, so
+ * the time for parsing the blockchain is not bound by the RPC round-trip latency anymore.
+ *
+ * A BlockPrefetcher is used for one range only. All handlers are called on the callbackExecutor, which must be a
+ * single threaded executor (usually UserThread) and start() and stop() must be called on that thread as well.
+ */
+@Slf4j
+class BlockPrefetcher {
+    private final Function<Integer, ListenableFuture<RawBlock>> blockRequester;
+    private final int window;
+    private final Executor callbackExecutor;
+    private final Deque<ListenableFuture<RawBlock>> pendingRequests = new ArrayDeque<>();
+    private int nextBlockHeightToRequest;
+    private int chainHeight;
+    private boolean stopped;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    BlockPrefetcher(Function<Integer, ListenableFuture<RawBlock>> blockRequester,
+                    int window,
+                    Executor callbackExecutor) {
+        this.blockRequester = blockRequester;
+        this.window = Math.max(1, window);
+        this.callbackExecutor = callbackExecutor;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void start(int startBlockHeight,
+               int chainHeight,
+               Consumer<RawBlock> rawBlockHandler,
+               ResultHandler resultHandler,
+               Consumer<Throwable> errorHandler) {
+        this.nextBlockHeightToRequest = startBlockHeight;
+        this.chainHeight = chainHeight;
+        fillWindow();
+        deliverNextBlock(rawBlockHandler, resultHandler, errorHandler);
+    }
+
+    /**
+     * Cancels all pending requests and interrupts the requests in flight, so they do not hold back the requests of
+     * the next BlockPrefetcher. No handler gets called after stop.
+     */
+    void stop() {
+        stopped = true;
+        pendingRequests.forEach(future -> future.cancel(true));
+        pendingRequests.clear();
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void fillWindow() {
+        while (!stopped && pendingRequests.size() < window && nextBlockHeightToRequest <= chainHeight) {
+            pendingRequests.add(blockRequester.apply(nextBlockHeightToRequest));
+            nextBlockHeightToRequest++;
+        }
+    }
+
+    private void deliverNextBlock(Consumer<RawBlock> rawBlockHandler,
+                                  ResultHandler resultHandler,
+                                  Consumer<Throwable> errorHandler) {
+        if (stopped) {
+            return;
+        }
+
+        ListenableFuture<RawBlock> future = pendingRequests.peek();
+        if (future == null) {
+            // We are done
+            resultHandler.handleResult();
+            return;
+        }
+
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(RawBlock rawBlock) {
+                if (stopped) {
+                    return;
+                }
+
+                pendingRequests.poll();
+                // We request the next block before we parse the received one
+                fillWindow();
+                rawBlockHandler.accept(rawBlock);
+                deliverNextBlock(rawBlockHandler, resultHandler, errorHandler);
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                if (stopped) {
+                    return;
+                }
+
+                stop();
+                errorHandler.accept(throwable);
+            }
+        }, callbackExecutor);
+    }
+}
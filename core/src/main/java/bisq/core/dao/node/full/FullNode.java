@@ -41,6 +41,8 @@ import javax.inject.Inject;
 
 import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
+
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -58,6 +60,8 @@ public class FullNode extends BsqNode {
     private boolean addBlockHandlerAdded;
     private int blocksToParseInBatch;
     private long parseInBatchStartTime;
+    @Nullable
+    private BlockPrefetcher blockPrefetcher;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -97,6 +101,7 @@ public class FullNode extends BsqNode {
     }
 
     public void shutDown() {
+        stopBlockPrefetcher();
         super.shutDown();
         fullNodeNetworkService.shutDown();
     }
@@ -113,6 +118,7 @@ public class FullNode extends BsqNode {
 
     @Override
     protected void startReOrgFromLastSnapshot() {
+        stopBlockPrefetcher();
         super.startReOrgFromLastSnapshot();
 
         int startBlockHeight = getStartBlockHeight();
@@ -230,34 +236,32 @@ public class FullNode extends BsqNode {
                              Consumer<Block> newBlockHandler,
                              ResultHandler resultHandler,
                              Consumer<Throwable> errorHandler) {
-        parseBlockRecursively(startBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
-    }
-
-    private void parseBlockRecursively(int blockHeight,
-                                       int chainHeight,
-                                       Consumer<Block> newBlockHandler,
-                                       ResultHandler resultHandler,
-                                       Consumer<Throwable> errorHandler) {
-        rpcService.requestBtcBlock(blockHeight,
+        stopBlockPrefetcher();
+        BlockPrefetcher prefetcher = new BlockPrefetcher(rpcService::requestBtcBlock,
+                rpcService.getBlockRequestWindow(),
+                UserThread::execute);
+        blockPrefetcher = prefetcher;
+        prefetcher.start(startBlockHeight,
+                chainHeight,
                 rawBlock -> {
                     try {
                         doParseBlock(rawBlock).ifPresent(newBlockHandler);
-
-                        // Increment blockHeight and recursively call parseBlockAsync until we reach chainHeight
-                        if (blockHeight < chainHeight) {
-                            int newBlockHeight = blockHeight + 1;
-                            parseBlockRecursively(newBlockHeight, chainHeight, newBlockHandler, resultHandler, errorHandler);
-                        } else {
-                            // We are done
-                            resultHandler.handleResult();
-                        }
                     } catch (RequiredReorgFromSnapshotException ignore) {
-                        // If we get a reorg we don't continue to call parseBlockRecursively
+                        // If we get a reorg we don't continue with the remaining blocks
+                        prefetcher.stop();
                     }
                 },
+                resultHandler,
                 errorHandler);
     }
 
+    private void stopBlockPrefetcher() {
+        if (blockPrefetcher != null) {
+            blockPrefetcher.stop();
+            blockPrefetcher = null;
+        }
+    }
+
     private void handleError(Throwable throwable) {
         if (throwable instanceof BlockHashNotConnectingException || throwable instanceof BlockHeightNotConnectingException) {
             // We do not escalate that exception as it is handled with the snapshot manager to recover its state.
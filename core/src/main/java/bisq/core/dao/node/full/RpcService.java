@@ -56,9 +56,11 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
@@ -76,13 +78,15 @@ public class RpcService {
     private final int rpcPort;
     private final int rpcBlockPort;
     private final String rpcBlockHost;
+    @Getter
+    private final int blockRequestWindow;
 
     private BtcdClient client;
     private BtcdDaemon daemon;
 
-    // We could use multiple threads but then we need to support ordering of results in a queue
-    // Keep that for optimization after measuring performance differences
     private final ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("RpcService");
+    // Block requests run in parallel. The BlockPrefetcher takes care of delivering the blocks in height order.
+    private final ListeningExecutorService blockRequestExecutor;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -95,7 +99,8 @@ public class RpcService {
                       @Named(Config.RPC_HOST) String rpcHost,
                       @Named(Config.RPC_PORT) int rpcPort,
                       @Named(Config.RPC_BLOCK_NOTIFICATION_PORT) int rpcBlockPort,
-                      @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost) {
+                      @Named(Config.RPC_BLOCK_NOTIFICATION_HOST) String rpcBlockHost,
+                      @Named(Config.RPC_BLOCK_REQUEST_WINDOW) int blockRequestWindow) {
         this.rpcUser = preferences.getRpcUser();
         this.rpcPassword = preferences.getRpcPw();
 
@@ -114,6 +119,12 @@ public class RpcService {
         boolean isBlockHostSet = !rpcBlockHost.isEmpty();
         this.rpcBlockPort = isBlockPortSet ? rpcBlockPort : 5125;
         this.rpcBlockHost = isBlockHostSet ? rpcBlockHost : "127.0.0.1";
+        this.blockRequestWindow = Math.max(1, blockRequestWindow);
+        // The queue must not be bounded as the BlockPrefetcher would wait forever for the future of a dropped
+        // request. After a stop of the BlockPrefetcher the cancelled requests can still be in the queue when the
+        // next range gets requested.
+        blockRequestExecutor = Utilities.getFixedThreadPoolListeningExecutor("RpcService-blocks",
+                this.blockRequestWindow, 60);
     }
 
 
@@ -133,6 +144,7 @@ public class RpcService {
         }
 
         executor.shutdown();
+        blockRequestExecutor.shutdownNow();
     }
 
     void setup(ResultHandler resultHandler, Consumer<Throwable> errorHandler) {
@@ -145,6 +157,9 @@ public class RpcService {
 
                 long startTs = System.currentTimeMillis();
                 PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
+                // The default of 2 connections per route would limit the parallel block requests
+                cm.setDefaultMaxPerRoute(blockRequestWindow + 2);
+                cm.setMaxTotal(blockRequestWindow + 2);
                 CloseableHttpClient httpProvider = HttpClients.custom().setConnectionManager(cm).build();
                 Properties nodeConfig = new Properties();
                 nodeConfig.setProperty("node.bitcoind.rpc.protocol", "http");
@@ -235,10 +250,26 @@ public class RpcService {
         }, MoreExecutors.directExecutor());
     }
 
-    void requestBtcBlock(int blockHeight,
-                         Consumer<RawBlock> resultHandler,
-                         Consumer<Throwable> errorHandler) {
-        ListenableFuture<RawBlock> future = executor.submit(() -> {
+    /**
+     * Requests the block at the given height on the block request thread pool. Several requests can be in flight at
+     * the same time and the returned futures complete in any order.
+     */
+    ListenableFuture<RawBlock> requestBtcBlock(int blockHeight) {
+        try {
+            return blockRequestExecutor.submit(() -> requestBtcBlockSync(blockHeight));
+        } catch (RejectedExecutionException e) {
+            // We got shut down
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private RawBlock requestBtcBlockSync(int blockHeight) throws Exception {
+        try {
             long startTs = System.currentTimeMillis();
             String blockHash = client.getBlockHash(blockHeight);
             com.neemre.btcdcli4j.core.domain.RawBlock rawBtcBlock = client.getBlock(blockHash, 2);
@@ -252,27 +283,12 @@ public class RpcService {
                     rawBtcBlock.getHash(),
                     rawBtcBlock.getPreviousBlockHash(),
                     ImmutableList.copyOf(txList));
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            @Override
-            public void onSuccess(RawBlock block) {
-                UserThread.execute(() -> resultHandler.accept(block));
-            }
-
-            @Override
-            public void onFailure(@NotNull Throwable throwable) {
-                log.error("Error at requestBtcBlock: blockHeight={}", blockHeight);
-                UserThread.execute(() -> errorHandler.accept(throwable));
-            }
-        }, MoreExecutors.directExecutor());
+        } catch (Throwable t) {
+            log.error("Error at requestBtcBlock: blockHeight={}", blockHeight);
+            throw t;
+        }
     }
 
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Private
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
     private RawTx getTxFromRawTransaction(RawTransaction rawBtcTx,
                                           com.neemre.btcdcli4j.core.domain.RawBlock rawBtcBlock) {
         String txId = rawBtcTx.getTxId();
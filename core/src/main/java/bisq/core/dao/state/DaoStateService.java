@@ -43,8 +43,10 @@ import org.bitcoinj.core.Coin;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
@@ -117,8 +119,7 @@ public class DaoStateService implements DaoSetupService {
 
         daoState.setTxCache(snapshot.getTxCache());
 
-        daoState.getBlocks().clear();
-        daoState.getBlocks().addAll(snapshot.getBlocks());
+        daoState.setBlocks(snapshot.getBlocks());
 
         daoState.getCycles().clear();
         daoState.getCycles().addAll(snapshot.getCycles());
@@ -149,6 +150,10 @@ public class DaoStateService implements DaoSetupService {
         return DaoState.getClone(daoState);
     }
 
+    public DaoState getSnapshot() {
+        return DaoState.getSnapshot(daoState);
+    }
+
     public byte[] getSerializedStateForHashChain() {
         return daoState.getSerializedStateForHashChain();
     }
@@ -182,10 +187,15 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public Optional<Cycle> getCycle(int height) {
-        return getCycles().stream()
-                .filter(cycle -> cycle.getHeightOfFirstBlock() <= height)
-                .filter(cycle -> cycle.getHeightOfLastBlock() >= height)
-                .findAny();
+        // Cycles are sorted by height and we are mostly interested in recent cycles, so we start with the last one
+        Iterator<Cycle> iterator = getCycles().descendingIterator();
+        while (iterator.hasNext()) {
+            Cycle cycle = iterator.next();
+            if (cycle.getHeightOfFirstBlock() <= height) {
+                return cycle.getHeightOfLastBlock() >= height ? Optional.of(cycle) : Optional.empty();
+            }
+        }
+        return Optional.empty();
     }
 
     public Optional<Integer> getStartHeightOfNextCycle(int blockHeight) {
@@ -221,7 +231,7 @@ public class DaoStateService implements DaoSetupService {
                     "We ignore that block as the first block need to be the genesis block. " +
                     "That might happen in edge cases at reorgs. Received block={}", block);
         } else {
-            daoState.getBlocks().add(block);
+            daoState.addBlock(block);
 
             if (parseBlockChainComplete)
                 log.info("New Block added at blockHeight {}", block.getHeight());
@@ -295,7 +305,7 @@ public class DaoStateService implements DaoSetupService {
      * {@code false}.
      */
     public boolean isBlockHashKnown(String blockHash) {
-        return getBlocks().stream().anyMatch(block -> block.getHash().equals(blockHash));
+        return daoState.containsBlockHash(blockHash);
     }
 
     public Optional<Block> getLastBlock() {
@@ -310,9 +320,7 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public Optional<Block> getBlockAtHeight(int height) {
-        return getBlocks().stream()
-                .filter(block -> block.getHeight() == height)
-                .findAny();
+        return daoState.getBlockAtHeight(height);
     }
 
     public boolean containsBlock(Block block) {
@@ -320,7 +328,7 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public boolean containsBlockHash(String blockHash) {
-        return getBlocks().stream().anyMatch(block -> block.getHash().equals(blockHash));
+        return daoState.containsBlockHash(blockHash);
     }
 
     public long getBlockTime(int height) {
@@ -330,11 +338,7 @@ public class DaoStateService implements DaoSetupService {
     public List<Block> getBlocksFromBlockHeight(int fromBlockHeight, int numMaxBlocks) {
         // We limit requests to numMaxBlocks blocks, to avoid performance issues and too
         // large network data in case a node requests too far back in history.
-        return getBlocks().stream()
-                .filter(block -> block.getHeight() >= fromBlockHeight)
-                .sorted(Comparator.comparing(Block::getHeight))
-                .limit(numMaxBlocks)
-                .collect(Collectors.toList());
+        return daoState.getBlocksFromBlockHeight(fromBlockHeight, numMaxBlocks);
     }
 
 
@@ -371,12 +375,14 @@ public class DaoStateService implements DaoSetupService {
         return daoState.getTxCache().size();
     }
 
-    public List<Tx> getInvalidTxs() {
-        return getUnorderedTxStream().filter(tx -> tx.getTxType() == TxType.INVALID).collect(Collectors.toList());
+    // The getters of txs and outputs by type return unmodifiable views of the indexes of the DaoState. Callers which
+    // change the DaoState while iterating a view need to copy it.
+    public Set<Tx> getInvalidTxs() {
+        return daoState.getTxsByTxType(TxType.INVALID);
     }
 
-    public List<Tx> getIrregularTxs() {
-        return getUnorderedTxStream().filter(tx -> tx.getTxType() == TxType.IRREGULAR).collect(Collectors.toList());
+    public Set<Tx> getIrregularTxs() {
+        return daoState.getTxsByTxType(TxType.IRREGULAR);
     }
 
     public Optional<Tx> getTx(String txId) {
@@ -410,22 +416,16 @@ public class DaoStateService implements DaoSetupService {
     }
 
     public Set<Tx> getTradeFeeTxs() {
-        return getUnorderedTxStream()
-                .filter(tx -> tx.getTxType() == TxType.PAY_TRADE_FEE)
-                .collect(Collectors.toSet());
+        return daoState.getTxsByTxType(TxType.PAY_TRADE_FEE);
     }
 
     public Set<Tx> getProofOfBurnTxs() {
-        return getUnorderedTxStream()
-                .filter(tx -> tx.getTxType() == TxType.PROOF_OF_BURN)
-                .collect(Collectors.toSet());
+        return daoState.getTxsByTxType(TxType.PROOF_OF_BURN);
     }
 
     // Any tx with burned BSQ
     public Set<Tx> getBurntFeeTxs() {
-        return getUnorderedTxStream()
-                .filter(tx -> tx.getBurntFee() > 0)
-                .collect(Collectors.toSet());
+        return daoState.getTxsWithBurntFee();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -442,17 +442,13 @@ public class DaoStateService implements DaoSetupService {
     // TxOutput
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Stream<TxOutput> getUnorderedTxOutputStream() {
-        return getUnorderedTxStream()
-                .flatMap(tx -> tx.getTxOutputs().stream());
-    }
-
     public boolean existsTxOutput(TxOutputKey key) {
-        return getUnorderedTxOutputStream().anyMatch(txOutput -> txOutput.getKey().equals(key));
+        return getTxOutput(key).isPresent();
     }
 
     public Optional<TxOutput> getTxOutput(TxOutputKey txOutputKey) {
-        return getUnorderedTxOutputStream()
+        return getTx(txOutputKey.getTxId()).stream()
+                .flatMap(tx -> tx.getTxOutputs().stream())
                 .filter(txOutput -> txOutput.getKey().equals(txOutputKey))
                 .findAny();
     }
@@ -480,8 +476,9 @@ public class DaoStateService implements DaoSetupService {
         return getUnspentTxOutputMap().containsKey(key);
     }
 
-    public Set<TxOutput> getUnspentTxOutputs() {
-        return new HashSet<>(getUnspentTxOutputMap().values());
+    // Unmodifiable view
+    public Collection<TxOutput> getUnspentTxOutputs() {
+        return Collections.unmodifiableCollection(getUnspentTxOutputMap().values());
     }
 
     public Optional<TxOutput> getUnspentTxOutput(TxOutputKey key) {
@@ -538,9 +535,7 @@ public class DaoStateService implements DaoSetupService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private Set<TxOutput> getTxOutputsByTxOutputType(TxOutputType txOutputType) {
-        return getUnorderedTxOutputStream()
-                .filter(txOutput -> txOutput.getTxOutputType() == txOutputType)
-                .collect(Collectors.toSet());
+        return daoState.getTxOutputsByTxOutputType(txOutputType);
     }
 
     public boolean isBsqTxOutputType(TxOutput txOutput) {
@@ -22,6 +22,8 @@ import bisq.core.dao.state.model.blockchain.SpentInfo;
 import bisq.core.dao.state.model.blockchain.Tx;
 import bisq.core.dao.state.model.blockchain.TxOutput;
 import bisq.core.dao.state.model.blockchain.TxOutputKey;
+import bisq.core.dao.state.model.blockchain.TxOutputType;
+import bisq.core.dao.state.model.blockchain.TxType;
 import bisq.core.dao.state.model.governance.Cycle;
 import bisq.core.dao.state.model.governance.DecryptedBallotsWithMerits;
 import bisq.core.dao.state.model.governance.EvaluatedProposal;
@@ -36,18 +38,26 @@ import com.google.protobuf.Message;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Root class for mutable state of the DAO.
  * Holds both blockchain data as well as data derived from the governance process (voting).
@@ -68,6 +78,13 @@ public class DaoState implements PersistablePayload {
         return DaoState.fromProto(daoState.getBsqStateBuilder().build());
     }
 
+    // All elements of the daoState are immutable (ImmutableDaoStateModel). Only the txs of the block which is currently
+    // parsed get added. So copying the collections is sufficient for creating a snapshot and it is much cheaper than
+    // a clone by a protobuf round trip. Must not be called while a block is parsed.
+    public static DaoState getSnapshot(DaoState daoState) {
+        return new DaoState(daoState);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Fields
@@ -107,6 +124,18 @@ public class DaoState implements PersistablePayload {
     // Transient data used only as an index - must be kept in sync with the block list
     @JsonExclude
     private transient final Map<String, Tx> txCache; // key is txId
+    // Secondary indices of the txs in txCache - must be kept in sync with txCache. Not part of the hash chain.
+    @JsonExclude
+    private transient final Map<TxType, Set<Tx>> txsByTxType = new HashMap<>();
+    @JsonExclude
+    private transient final Map<TxOutputType, Set<TxOutput>> txOutputsByTxOutputType = new HashMap<>();
+    @JsonExclude
+    private transient final Set<Tx> txsWithBurntFee = new HashSet<>();
+
+    // Transient data used only as an index - updated where blocks are added or set. Readers on other threads see a
+    // consistent index as each change publishes a new BlockIndex.
+    @JsonExclude
+    private transient volatile BlockIndex blockIndex = BlockIndex.EMPTY;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -159,6 +188,27 @@ public class DaoState implements PersistablePayload {
         txCache = blocks.stream()
                 .flatMap(block -> block.getTxs().stream())
                 .collect(Collectors.toMap(Tx::getId, Function.identity(), (x, y) -> x, HashMap::new));
+        rebuildTxIndices();
+        blockIndex = BlockIndex.of(blocks);
+    }
+
+    private DaoState(DaoState daoState) {
+        this.chainHeight = daoState.chainHeight;
+        this.blocks = new LinkedList<>(daoState.blocks);
+        this.cycles = new LinkedList<>(daoState.cycles);
+
+        this.unspentTxOutputMap = new TreeMap<>(daoState.unspentTxOutputMap);
+        this.spentInfoMap = new TreeMap<>(daoState.spentInfoMap);
+
+        this.confiscatedLockupTxList = new ArrayList<>(daoState.confiscatedLockupTxList);
+        this.issuanceMap = new TreeMap<>(daoState.issuanceMap);
+        this.paramChangeList = new ArrayList<>(daoState.paramChangeList);
+        this.evaluatedProposalList = new ArrayList<>(daoState.evaluatedProposalList);
+        this.decryptedBallotsWithMeritsList = new ArrayList<>(daoState.decryptedBallotsWithMeritsList);
+
+        txCache = new HashMap<>(daoState.txCache);
+        rebuildTxIndices();
+        blockIndex = BlockIndex.of(blocks);
     }
 
     @Override
@@ -172,7 +222,7 @@ public class DaoState implements PersistablePayload {
                 .collect(Collectors.toList()));
     }
 
-    private protobuf.DaoState.Builder getBsqStateBuilderExcludingBlocks() {
+    public protobuf.DaoState.Builder getBsqStateBuilderExcludingBlocks() {
         protobuf.DaoState.Builder builder = protobuf.DaoState.newBuilder();
         builder.setChainHeight(chainHeight)
                 .addAllCycles(cycles.stream().map(Cycle::toProtoMessage).collect(Collectors.toList()))
@@ -238,21 +288,163 @@ public class DaoState implements PersistablePayload {
         return getBsqStateBuilderExcludingBlocks().addBlocks(getBlocks().getLast().toProtoMessage()).build().toByteArray();
     }
 
+    // The blocks list must only be changed with addBlock and setBlocks, so the block index stays in sync
+    public void addBlock(Block block) {
+        blocks.add(block);
+        blockIndex = blockIndex.append(block);
+    }
+
+    public void setBlocks(List<Block> blocks) {
+        this.blocks.clear();
+        this.blocks.addAll(blocks);
+        blockIndex = BlockIndex.of(blocks);
+    }
+
+    public Optional<Block> getBlockAtHeight(int height) {
+        BlockIndex blockIndex = this.blockIndex;
+        if (!blockIndex.usable) {
+            return blocks.stream().filter(block -> block.getHeight() == height).findAny();
+        }
+
+        return Optional.ofNullable(blockIndex.getBlockAtHeight(height));
+    }
+
+    public boolean containsBlockHash(String blockHash) {
+        BlockIndex blockIndex = this.blockIndex;
+        if (!blockIndex.usable) {
+            return blocks.stream().anyMatch(block -> block.getHash().equals(blockHash));
+        }
+
+        Integer height = blockIndex.blockHeightByHash.get(blockHash);
+        // The map is shared with later indices, so we only accept blocks which are part of this index
+        return height != null && blockIndex.getBlockAtHeight(height) != null;
+    }
+
+    // Returns blocks sorted by height
+    public List<Block> getBlocksFromBlockHeight(int fromBlockHeight, int numMaxBlocks) {
+        BlockIndex blockIndex = this.blockIndex;
+        if (!blockIndex.usable) {
+            return blocks.stream()
+                    .filter(block -> block.getHeight() >= fromBlockHeight)
+                    .sorted(Comparator.comparing(Block::getHeight))
+                    .limit(numMaxBlocks)
+                    .collect(Collectors.toList());
+        }
+
+        if (blockIndex.size == 0) {
+            return new ArrayList<>();
+        }
+        int fromIndex = Math.max(0, fromBlockHeight - blockIndex.blocksByHeight[0].getHeight());
+        int toIndex = (int) Math.min(blockIndex.size, (long) fromIndex + Math.max(0, numMaxBlocks));
+        return fromIndex < toIndex ?
+                new ArrayList<>(Arrays.asList(blockIndex.blocksByHeight).subList(fromIndex, toIndex)) :
+                new ArrayList<>();
+    }
+
     public void addToTxCache(Tx tx) {
         // We shouldn't get duplicate txIds, but use putIfAbsent instead of put for consistency with the map merge
         // function used in the constructor to initialise txCache (and to exactly match the pre-caching behaviour).
-        txCache.putIfAbsent(tx.getId(), tx);
+        if (txCache.putIfAbsent(tx.getId(), tx) == null) {
+            addToTxIndices(tx);
+        }
     }
 
     public void setTxCache(Map<String, Tx> txCache) {
         this.txCache.clear();
         this.txCache.putAll(txCache);
+        rebuildTxIndices();
     }
 
     public Map<String, Tx> getTxCache() {
         return Collections.unmodifiableMap(txCache);
     }
 
+    public Set<Tx> getTxsByTxType(TxType txType) {
+        return Collections.unmodifiableSet(txsByTxType.getOrDefault(txType, Collections.emptySet()));
+    }
+
+    public Set<TxOutput> getTxOutputsByTxOutputType(TxOutputType txOutputType) {
+        return Collections.unmodifiableSet(txOutputsByTxOutputType.getOrDefault(txOutputType, Collections.emptySet()));
+    }
+
+    public Set<Tx> getTxsWithBurntFee() {
+        return Collections.unmodifiableSet(txsWithBurntFee);
+    }
+
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void rebuildTxIndices() {
+        txsByTxType.clear();
+        txOutputsByTxOutputType.clear();
+        txsWithBurntFee.clear();
+        txCache.values().forEach(this::addToTxIndices);
+    }
+
+    private void addToTxIndices(Tx tx) {
+        txsByTxType.computeIfAbsent(tx.getTxType(), k -> new HashSet<>()).add(tx);
+        tx.getTxOutputs().forEach(txOutput ->
+                txOutputsByTxOutputType.computeIfAbsent(txOutput.getTxOutputType(), k -> new HashSet<>()).add(txOutput));
+        if (tx.getBurntFee() > 0) {
+            txsWithBurntFee.add(tx);
+        }
+    }
+
+    // As blocks are contiguous the block at a height is at index height - height of first block. Appending a block
+    // writes beyond the size of the current index and returns a new index sharing the array and the map, so an index
+    // never changes for its readers. Only the thread which changes the blocks calls append.
+    private static final class BlockIndex {
+        private static final BlockIndex EMPTY = new BlockIndex(new Block[0], 0, new ConcurrentHashMap<>(), true);
+
+        private final Block[] blocksByHeight;
+        private final int size;
+        private final Map<String, Integer> blockHeightByHash;
+        // False if the blocks are not contiguous. Only expected in tests which add arbitrary blocks. We fall back to
+        // iterating the block list in that case.
+        private final boolean usable;
+
+        private BlockIndex(Block[] blocksByHeight, int size, Map<String, Integer> blockHeightByHash, boolean usable) {
+            this.blocksByHeight = blocksByHeight;
+            this.size = size;
+            this.blockHeightByHash = blockHeightByHash;
+            this.usable = usable;
+        }
+
+        private static BlockIndex of(List<Block> blocks) {
+            BlockIndex blockIndex = new BlockIndex(new Block[blocks.size()], 0, new ConcurrentHashMap<>(), true);
+            for (Block block : blocks) {
+                blockIndex = blockIndex.append(block);
+            }
+            return blockIndex;
+        }
+
+        private BlockIndex append(Block block) {
+            if (!usable) {
+                return this;
+            }
+            if (size > 0 && block.getHeight() != blocksByHeight[size - 1].getHeight() + 1) {
+                return new BlockIndex(new Block[0], 0, new ConcurrentHashMap<>(), false);
+            }
+
+            Block[] array = size < blocksByHeight.length ?
+                    blocksByHeight :
+                    Arrays.copyOf(blocksByHeight, Math.max(16, size * 2));
+            array[size] = block;
+            Map<String, Integer> map = this == EMPTY ? new ConcurrentHashMap<>() : blockHeightByHash;
+            map.put(block.getHash(), block.getHeight());
+            return new BlockIndex(array, size + 1, map, true);
+        }
+
+        @Nullable
+        private Block getBlockAtHeight(int height) {
+            int index = size == 0 ? -1 : height - blocksByHeight[0].getHeight();
+            return index >= 0 && index < size ? blocksByHeight[index] : null;
+        }
+    }
+
     @Override
     public String toString() {
         return "DaoState{" +
@@ -0,0 +1,259 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import bisq.core.dao.monitoring.model.DaoStateHash;
+import bisq.core.dao.state.model.blockchain.Block;
+
+import bisq.common.file.FileUtil;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persists the blocks and the DaoStateHash chain of the DaoState in files covering a fixed range of block heights.
+ * As blocks do not change once they are parsed, only the segments of the most recent range (or the ones affected by a
+ * reorg) need to be written at a snapshot. So the write effort does not grow with the chain height.
+ *
+ * We write the segments before the DaoStateStore with the mutable state is written. At reading we ignore all blocks
+ * above the chain height of the DaoStateStore, so a crash between both writes does not lead to an inconsistent state.
+ */
+@Slf4j
+class DaoStateBlocksSegments {
+    // About one week of blocks
+    static final int NUM_BLOCKS_PER_SEGMENT = 1000;
+    private static final String FILE_PREFIX = "blocks_";
+
+    @Getter
+    static final class Segments {
+        private final LinkedList<Block> blocks = new LinkedList<>();
+        private final LinkedList<DaoStateHash> daoStateHashChain = new LinkedList<>();
+    }
+
+    private final File dir;
+    // Index of segment mapped to the hash of its last block and the number of its daoStateHashes. Used to detect the
+    // segments which need to be written.
+    private final Map<Integer, String> writtenSegments = new ConcurrentHashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    DaoStateBlocksSegments(File dir) {
+        this.dir = dir;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    File getDir() {
+        return dir;
+    }
+
+    /**
+     * Reads all segments and returns the blocks and hashes up to the given chain height.
+     */
+    Segments read(int chainHeight) {
+        Segments result = new Segments();
+        writtenSegments.clear();
+        File[] files = dir.listFiles((d, name) -> name.startsWith(FILE_PREFIX));
+        if (files == null) {
+            return result;
+        }
+
+        long ts = System.currentTimeMillis();
+        List<Integer> indices = new ArrayList<>();
+        for (File file : files) {
+            try {
+                indices.add(Integer.parseInt(file.getName().substring(FILE_PREFIX.length())));
+            } catch (NumberFormatException e) {
+                log.warn("Unexpected file {} in {}", file.getName(), dir);
+            }
+        }
+        Collections.sort(indices);
+
+        for (int index : indices) {
+            try (FileInputStream fileInputStream = new FileInputStream(getFile(index))) {
+                protobuf.DaoStateBlocksSegment proto = protobuf.DaoStateBlocksSegment.parseDelimitedFrom(fileInputStream);
+                if (proto == null) {
+                    continue;
+                }
+
+                boolean exceedsChainHeight = false;
+                for (protobuf.BaseBlock blockProto : proto.getBlocksList()) {
+                    if (blockProto.getHeight() <= chainHeight) {
+                        result.blocks.add(Block.fromProto(blockProto));
+                    } else {
+                        exceedsChainHeight = true;
+                    }
+                }
+                for (protobuf.DaoStateHash hashProto : proto.getDaoStateHashList()) {
+                    if (hashProto.getHeight() <= chainHeight) {
+                        result.daoStateHashChain.add(DaoStateHash.fromProto(hashProto));
+                    }
+                }
+
+                // Segments with blocks above the chain height will get written again
+                if (!exceedsChainHeight && proto.getBlocksCount() > 0) {
+                    writtenSegments.put(index, getSegmentState(proto.getBlocks(proto.getBlocksCount() - 1).getHash(),
+                            proto.getDaoStateHashCount()));
+                }
+            } catch (Throwable t) {
+                log.error("Reading segment {} of {} failed", index, dir, t);
+                break;
+            }
+        }
+
+        if (!isContiguous(result.blocks)) {
+            log.error("The blocks read from {} are not contiguous. We ignore the segments.", dir);
+            writtenSegments.clear();
+            return new Segments();
+        }
+
+        log.info("Reading {} blocks and {} daoStateHashes from {} segments took {} ms",
+                result.blocks.size(), result.daoStateHashChain.size(), indices.size(), System.currentTimeMillis() - ts);
+        return result;
+    }
+
+    /**
+     * Writes the segments which have changed since the last write and deletes segments above the last block.
+     * Blocks must not get mutated while that method is called.
+     */
+    void write(LinkedList<Block> blocks, LinkedList<DaoStateHash> daoStateHashChain) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir);
+        }
+
+        int lastIndex = blocks.isEmpty() ? -1 : getIndex(blocks.getLast().getHeight());
+        deleteSegmentsAbove(lastIndex);
+
+        // We iterate from the most recent block and stop at the first segment which is unchanged. As each block
+        // references its previous block, all older segments are unchanged as well.
+        Iterator<Block> blockIterator = blocks.descendingIterator();
+        Iterator<DaoStateHash> hashIterator = daoStateHashChain.descendingIterator();
+        DaoStateHash pendingHash = hashIterator.hasNext() ? hashIterator.next() : null;
+        LinkedList<Block> segmentBlocks = new LinkedList<>();
+        Block block = blockIterator.hasNext() ? blockIterator.next() : null;
+        while (block != null) {
+            int index = getIndex(block.getHeight());
+            segmentBlocks.clear();
+            while (block != null && getIndex(block.getHeight()) == index) {
+                segmentBlocks.addFirst(block);
+                block = blockIterator.hasNext() ? blockIterator.next() : null;
+            }
+
+            LinkedList<DaoStateHash> segmentHashes = new LinkedList<>();
+            while (pendingHash != null && getIndex(pendingHash.getHeight()) >= index) {
+                if (getIndex(pendingHash.getHeight()) == index) {
+                    segmentHashes.addFirst(pendingHash);
+                }
+                pendingHash = hashIterator.hasNext() ? hashIterator.next() : null;
+            }
+
+            String segmentState = getSegmentState(segmentBlocks.getLast().getHash(), segmentHashes.size());
+            if (segmentState.equals(writtenSegments.get(index))) {
+                break;
+            }
+
+            writeSegment(index, segmentBlocks, segmentHashes);
+            writtenSegments.put(index, segmentState);
+        }
+    }
+
+    void deleteAll() throws IOException {
+        writtenSegments.clear();
+        FileUtil.deleteDirectory(dir);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void writeSegment(int index, List<Block> blocks, List<DaoStateHash> daoStateHashes) throws IOException {
+        protobuf.DaoStateBlocksSegment.Builder builder = protobuf.DaoStateBlocksSegment.newBuilder();
+        blocks.forEach(block -> builder.addBlocks(block.toProtoMessage()));
+        daoStateHashes.forEach(daoStateHash -> builder.addDaoStateHash(daoStateHash.toProtoMessage()));
+
+        File file = getFile(index);
+        File tempFile = new File(dir, "temp_" + file.getName());
+        try (FileOutputStream fileOutputStream = new FileOutputStream(tempFile)) {
+            builder.build().writeDelimitedTo(fileOutputStream);
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+        FileUtil.renameFile(tempFile, file);
+    }
+
+    private void deleteSegmentsAbove(int lastIndex) throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(FILE_PREFIX));
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            try {
+                int index = Integer.parseInt(file.getName().substring(FILE_PREFIX.length()));
+                if (index > lastIndex) {
+                    FileUtil.deleteFileIfExists(file);
+                    writtenSegments.remove(index);
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+    }
+
+    private File getFile(int index) {
+        return new File(dir, FILE_PREFIX + index);
+    }
+
+    private static int getIndex(int height) {
+        return height / NUM_BLOCKS_PER_SEGMENT;
+    }
+
+    private static String getSegmentState(String lastBlockHash, int numDaoStateHashes) {
+        return lastBlockHash + ":" + numDaoStateHashes;
+    }
+
+    private static boolean isContiguous(LinkedList<Block> blocks) {
+        Block previous = null;
+        for (Block block : blocks) {
+            if (previous != null && block.getHeight() != previous.getHeight() + 1) {
+                return false;
+            }
+            previous = block;
+        }
+        return true;
+    }
+}
@@ -20,6 +20,8 @@ package bisq.core.dao.state.storage;
 import bisq.core.dao.monitoring.DaoStateMonitoringService;
 import bisq.core.dao.monitoring.model.DaoStateHash;
 import bisq.core.dao.state.model.DaoState;
+import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.Tx;
 
 import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
 import bisq.network.p2p.storage.persistence.StoreService;
@@ -34,12 +36,20 @@ import javax.inject.Named;
 import java.io.File;
 import java.io.IOException;
 
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Manages persistence of the daoState.
+ * The blocks and the daoStateHashChain are persisted in segment files (see DaoStateBlocksSegments) so that at a
+ * snapshot only the mutable state and the segments of the recent blocks need to be written.
+ *
+ * The DaoStateStore is written without blocks. Versions before the segments do not know the segment files, so after
+ * a downgrade they start with an empty chain, do not apply the snapshot and parse the DAO state again from genesis.
  */
 @Slf4j
 public class DaoStateStorageService extends StoreService<DaoStateStore> {
@@ -47,6 +57,8 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
 
     private final DaoState daoState;
     private final DaoStateMonitoringService daoStateMonitoringService;
+    private final DaoStateBlocksSegments blocksSegments;
+    private String resourceFilePostFix;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -62,6 +74,7 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
         super(storageDir, persistenceManager);
         this.daoState = daoState;
         this.daoStateMonitoringService = daoStateMonitoringService;
+        blocksSegments = new DaoStateBlocksSegments(new File(storageDir, FILE_NAME + "_blocks"));
 
         resourceDataStoreService.addService(this);
     }
@@ -116,6 +129,9 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
 
         newFileName = "DaoStateStore_" + currentTime;
         FileUtil.removeAndBackupFile(storageDir, new File(storageDir, "DaoStateStore"), newFileName, backupDirName);
+
+        newFileName = "DaoStateStore_blocks_" + currentTime;
+        FileUtil.removeAndBackupFile(storageDir, blocksSegments.getDir(), newFileName, backupDirName);
     }
 
 
@@ -123,13 +139,83 @@ public class DaoStateStorageService extends StoreService<DaoStateStore> {
     // Protected
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected void readFromResources(String postFix, Runnable completeHandler) {
+        resourceFilePostFix = postFix;
+        super.readFromResources(postFix, completeHandler);
+    }
+
+    @Override
+    protected void readFromResourcesSync(String postFix) {
+        resourceFilePostFix = postFix;
+        super.readFromResourcesSync(postFix);
+    }
+
     @Override
     protected DaoStateStore createStore() {
-        return new DaoStateStore(DaoState.getClone(daoState), new LinkedList<>(daoStateMonitoringService.getDaoStateHashChain()));
+        return new DaoStateStore(DaoState.getSnapshot(daoState), new LinkedList<>(daoStateMonitoringService.getDaoStateHashChain()));
     }
 
     @Override
     protected void initializePersistenceManager() {
+        maybeAddBlocksFromSegments();
+        store.setBlocksSegments(blocksSegments);
         persistenceManager.initialize(store, PersistenceManager.Source.NETWORK);
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void maybeAddBlocksFromSegments() {
+        DaoState persistedDaoState = store.getDaoState();
+        // Stores from resource files or from versions before we used segments contain the blocks. The segments get
+        // created at the next write in that case.
+        if (!persistedDaoState.getBlocks().isEmpty()) {
+            return;
+        }
+
+        DaoStateBlocksSegments.Segments segments = blocksSegments.read(persistedDaoState.getChainHeight());
+        LinkedList<Block> blocks = segments.getBlocks();
+        if (blocks.isEmpty()) {
+            return;
+        }
+
+        if (blocks.getLast().getHeight() != persistedDaoState.getChainHeight()) {
+            // Blocks below the chain height are missing, so the persisted daoState cannot be used as snapshot.
+            log.error("The last block from the segments has height {} but the persisted daoState has chain height {}. " +
+                            "We fall back to the DaoStateStore from the resource files.",
+                    blocks.getLast().getHeight(), persistedDaoState.getChainHeight());
+            replaceStoreWithResourceFile();
+            return;
+        }
+
+        persistedDaoState.setBlocks(blocks);
+        persistedDaoState.setTxCache(blocks.stream()
+                .flatMap(block -> block.getTxs().stream())
+                .collect(Collectors.toMap(Tx::getId, Function.identity(), (x, y) -> x, HashMap::new)));
+        store.getDaoStateHashChain().addAll(segments.getDaoStateHashChain());
+    }
+
+    private void replaceStoreWithResourceFile() {
+        File storageDir = new File(absolutePathOfStorageDir);
+        long currentTime = System.currentTimeMillis();
+        String backupDirName = "out_of_sync_dao_data";
+        try {
+            FileUtil.removeAndBackupFile(storageDir, new File(storageDir, FILE_NAME),
+                    FILE_NAME + "_" + currentTime, backupDirName);
+            FileUtil.removeAndBackupFile(storageDir, blocksSegments.getDir(),
+                    FILE_NAME + "_blocks_" + currentTime, backupDirName);
+            blocksSegments.deleteAll();
+        } catch (IOException e) {
+            log.error("Could not back up the DaoStateStore", e);
+        }
+
+        // We are called while reading the store at startup before the DAO gets initialized, so we read the
+        // resource file synchronously. Stores from resource files contain the blocks. If there is no resource file
+        // we get an empty store and parse from genesis.
+        makeFileFromResourceFile(FILE_NAME, resourceFilePostFix);
+        store = getStoreSync(FILE_NAME);
+    }
 }
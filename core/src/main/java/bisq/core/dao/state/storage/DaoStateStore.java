@@ -24,13 +24,18 @@ import bisq.common.proto.persistable.PersistableEnvelope;
 
 import com.google.protobuf.Message;
 
+import java.io.IOException;
+
 import java.util.LinkedList;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 
@@ -44,18 +49,56 @@ public class DaoStateStore implements PersistableEnvelope {
     @Getter
     @Setter
     private LinkedList<DaoStateHash> daoStateHashChain;
+    // If set, the blocks and the daoStateHashChain are persisted in the segments and not in the store
+    @Nullable
+    private DaoStateBlocksSegments blocksSegments;
 
     DaoStateStore(DaoState daoState, LinkedList<DaoStateHash> daoStateHashChain) {
         this.daoState = daoState;
         this.daoStateHashChain = daoStateHashChain;
     }
 
+    void setBlocksSegments(DaoStateBlocksSegments blocksSegments) {
+        this.blocksSegments = blocksSegments;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public Message toProtoMessage() {
+        return toProtoMessage(daoState, daoStateHashChain);
+    }
+
+    // The daoState is a snapshot and the daoStateHashChain a copy. Both do not get mutated, so we can serialize them
+    // in the write thread. We only need to capture the current references on the user thread.
+    @Override
+    public Supplier<Message> getPersistableMessageSupplier() {
+        DaoState daoState = this.daoState;
+        LinkedList<DaoStateHash> daoStateHashChain = this.daoStateHashChain;
+        DaoStateBlocksSegments blocksSegments = this.blocksSegments;
+        if (blocksSegments == null) {
+            return () -> toProtoMessage(daoState, daoStateHashChain);
+        }
+
+        return () -> {
+            checkNotNull(daoState, "daoState must not be null when toProtoMessage is invoked");
+            // The segments need to be written before the store as we ignore blocks above the chain height of the store
+            // when reading the segments.
+            try {
+                blocksSegments.write(daoState.getBlocks(), daoStateHashChain);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return protobuf.PersistableEnvelope.newBuilder()
+                    .setDaoStateStore(protobuf.DaoStateStore.newBuilder()
+                            .setDaoState(daoState.getBsqStateBuilderExcludingBlocks()))
+                    .build();
+        };
+    }
+
+    private static Message toProtoMessage(DaoState daoState, LinkedList<DaoStateHash> daoStateHashChain) {
         checkNotNull(daoState, "daoState must not be null when toProtoMessage is invoked");
         protobuf.DaoStateStore.Builder builder = protobuf.DaoStateStore.newBuilder()
                 .setDaoState(daoState.getBsqStateBuilder())
@@ -32,6 +32,7 @@ import bisq.core.network.p2p.inventory.model.InventoryItem;
 import bisq.core.network.p2p.inventory.model.RequestInfo;
 
 import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.LatencyStatistics;
 import bisq.network.p2p.network.MessageListener;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.network.Statistic;
@@ -148,6 +149,13 @@ public class GetInventoryRequestHandler implements MessageListener {
             inventory.put(InventoryItem.receivedBytesPerSec, String.valueOf(Statistic.totalReceivedBytesPerSecProperty().get()));
             inventory.put(InventoryItem.receivedMessagesPerSec, String.valueOf(Statistic.numTotalReceivedMessagesPerSecProperty().get()));
             inventory.put(InventoryItem.sentMessagesPerSec, String.valueOf(Statistic.numTotalSentMessagesPerSecProperty().get()));
+            inventory.put(InventoryItem.messageHandlingLatency,
+                    LatencyStatistics.getTotal(LatencyStatistics.Type.MESSAGE_HANDLING).toString());
+            inventory.put(InventoryItem.messageQueueWaitLatency,
+                    LatencyStatistics.getTotal(LatencyStatistics.Type.QUEUE_WAIT).toString());
+            inventory.put(InventoryItem.sendLatency,
+                    LatencyStatistics.getTotal(LatencyStatistics.Type.SEND).toString());
+            inventory.put(InventoryItem.latencyHistograms, LatencyStatistics.toJson());
 
             // node
             inventory.put(InventoryItem.version, Version.VERSION);
@@ -119,6 +119,11 @@ public enum InventoryItem {
     // No deviation check
     sentBytes("sentBytes", true),
     receivedBytes("receivedBytes", true),
+    messageHandlingLatency("messageHandlingLatency", false),
+    messageQueueWaitLatency("messageQueueWaitLatency", false),
+    sendLatency("sendLatency", false),
+    // Json with the latency histograms by message class and peer type
+    latencyHistograms("latencyHistograms", false),
 
     // No deviation check
     version("version", false),
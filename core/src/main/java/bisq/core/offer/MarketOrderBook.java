@@ -0,0 +1,289 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.monetary.Price;
+import bisq.core.provider.price.MarketPrice;
+
+import java.time.Clock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+
+/**
+ * The offers of one market, with each side sorted by price from the best to the worst offer. For fiat markets the
+ * best buy offer is the one with the highest price and the best sell offer the one with the lowest price. As trading
+ * altcoins is considered as buying or selling the altcoin, this is reversed for altcoin markets (same as in the
+ * market depth chart). Offers with the same price are sorted by amount from high to low.
+ *
+ * Each side keeps the prices and the cumulative amounts of its sorted offers, so the best offer, the top N offers and
+ * the market depth up to a price are looked up in O(log n). A side is only sorted again after it has changed or after
+ * the market price of a market with market based offers has changed. As market based offers lose their price once the
+ * market price is older than MarketPrice.MARKET_PRICE_MAX_AGE_SEC, the sides are also sorted again when the market
+ * price expires, which moves these offers to the offers without a price.
+ *
+ * The order book is updated at the UserThread by the OrderBookService but can be read from any thread.
+ */
+public class MarketOrderBook {
+    private final Map<String, Offer> offersById = new HashMap<>();
+    @Getter
+    private final String currencyCode;
+    private final Side buySide;
+    private final Side sellSide;
+    private final Clock clock;
+    private int numMarketBasedOffers;
+    // Epoch second at which the market price gets too old to price the market based offers
+    private long marketPriceExpirySec = Long.MAX_VALUE;
+
+    public MarketOrderBook(String currencyCode) {
+        this(currencyCode, Clock.systemUTC());
+    }
+
+    MarketOrderBook(String currencyCode, Clock clock) {
+        this.currencyCode = currencyCode;
+        this.clock = clock;
+        boolean isCryptoCurrency = CurrencyUtil.isCryptoCurrency(currencyCode);
+        buySide = new Side(OfferPayload.Direction.BUY, !isCryptoCurrency);
+        sellSide = new Side(OfferPayload.Direction.SELL, isCryptoCurrency);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Update
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void add(Offer offer) {
+        Offer previousOffer = offersById.put(offer.getId(), offer);
+        if (previousOffer != null)
+            onRemoved(previousOffer);
+
+        if (offer.isUseMarketBasedPrice())
+            numMarketBasedOffers++;
+        getSide(offer.getDirection()).invalidate();
+    }
+
+    // Removes the offer only if it is the instance we hold for its id
+    synchronized boolean remove(Offer offer) {
+        if (offersById.get(offer.getId()) != offer)
+            return false;
+
+        offersById.remove(offer.getId());
+        onRemoved(offer);
+        return true;
+    }
+
+    synchronized void removeById(String offerId) {
+        Offer offer = offersById.remove(offerId);
+        if (offer != null)
+            onRemoved(offer);
+    }
+
+    synchronized void onMarketPriceChanged(@Nullable MarketPrice marketPrice) {
+        marketPriceExpirySec = marketPrice != null && marketPrice.isRecentExternalPriceAvailable() ?
+                marketPrice.getTimestampSec() + MarketPrice.MARKET_PRICE_MAX_AGE_SEC :
+                Long.MAX_VALUE;
+        invalidateMarketBasedOffers();
+    }
+
+    synchronized boolean hasMarketBasedOffers() {
+        return numMarketBasedOffers > 0;
+    }
+
+    private void onRemoved(Offer offer) {
+        if (offer.isUseMarketBasedPrice())
+            numMarketBasedOffers--;
+        getSide(offer.getDirection()).invalidate();
+    }
+
+    private void invalidateMarketBasedOffers() {
+        if (numMarketBasedOffers > 0) {
+            buySide.invalidate();
+            sellSide.invalidate();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Queries
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized int size() {
+        return offersById.size();
+    }
+
+    /**
+     * @return All offers of the side which have a price, sorted from the best to the worst offer.
+     */
+    public synchronized List<Offer> getOffers(OfferPayload.Direction direction) {
+        return new ArrayList<>(getSide(direction).getSortedOffers());
+    }
+
+    /**
+     * @return The market based offers of the side which have no price as the market price is not available.
+     */
+    public synchronized List<Offer> getOffersWithoutPrice(OfferPayload.Direction direction) {
+        return new ArrayList<>(getSide(direction).getOffersWithoutPrice());
+    }
+
+    public synchronized Optional<Offer> getBestOffer(OfferPayload.Direction direction) {
+        List<Offer> sortedOffers = getSide(direction).getSortedOffers();
+        return sortedOffers.isEmpty() ? Optional.empty() : Optional.of(sortedOffers.get(0));
+    }
+
+    public synchronized List<Offer> getTopOffers(OfferPayload.Direction direction, int numOffers) {
+        List<Offer> sortedOffers = getSide(direction).getSortedOffers();
+        return new ArrayList<>(sortedOffers.subList(0, Math.min(numOffers, sortedOffers.size())));
+    }
+
+    /**
+     * @return The summed up amount of all offers of the side with the given price or a better price.
+     */
+    public synchronized long getDepth(OfferPayload.Direction direction, Price price) {
+        return getSide(direction).getDepth(price.getValue());
+    }
+
+    /**
+     * @return The summed up amount of all offers of the side.
+     */
+    public synchronized long getTotalAmount(OfferPayload.Direction direction) {
+        return getSide(direction).getTotalAmount();
+    }
+
+    private Side getSide(OfferPayload.Direction direction) {
+        // The market based offers have no price anymore once the market price expired
+        if (clock.millis() / 1000 >= marketPriceExpirySec) {
+            marketPriceExpirySec = Long.MAX_VALUE;
+            invalidateMarketBasedOffers();
+        }
+        return direction == OfferPayload.Direction.BUY ? buySide : sellSide;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Side
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private class Side {
+        private final OfferPayload.Direction direction;
+        // If true the best offer has the highest price
+        private final boolean isHighestPriceBest;
+        private List<Offer> sortedOffers = new ArrayList<>();
+        private List<Offer> offersWithoutPrice = new ArrayList<>();
+        // The sort keys are the prices, negated if the highest price is best, so they are always ascending
+        private long[] sortKeys = new long[0];
+        private long[] cumulativeAmounts = new long[0];
+        private boolean isValid;
+
+        Side(OfferPayload.Direction direction, boolean isHighestPriceBest) {
+            this.direction = direction;
+            this.isHighestPriceBest = isHighestPriceBest;
+        }
+
+        void invalidate() {
+            isValid = false;
+        }
+
+        List<Offer> getSortedOffers() {
+            update();
+            return sortedOffers;
+        }
+
+        List<Offer> getOffersWithoutPrice() {
+            update();
+            return offersWithoutPrice;
+        }
+
+        long getDepth(long priceValue) {
+            update();
+            long sortKey = getSortKey(priceValue);
+            // Index of the first offer with a worse price
+            int index = Arrays.binarySearch(sortKeys, sortKey);
+            if (index < 0) {
+                index = -index - 1;
+            } else {
+                while (index < sortKeys.length && sortKeys[index] == sortKey)
+                    index++;
+            }
+            return index == 0 ? 0 : cumulativeAmounts[index - 1];
+        }
+
+        long getTotalAmount() {
+            update();
+            return cumulativeAmounts.length == 0 ? 0 : cumulativeAmounts[cumulativeAmounts.length - 1];
+        }
+
+        private void update() {
+            if (isValid)
+                return;
+
+            List<PricedOffer> pricedOffers = new ArrayList<>();
+            offersWithoutPrice = new ArrayList<>();
+            offersById.values().stream()
+                    .filter(offer -> offer.getDirection() == direction)
+                    .forEach(offer -> {
+                        // Market based offers are repriced here
+                        Price price = offer.getPrice();
+                        if (price != null)
+                            pricedOffers.add(new PricedOffer(offer, getSortKey(price.getValue())));
+                        else
+                            offersWithoutPrice.add(offer);
+                    });
+            pricedOffers.sort(Comparator.<PricedOffer>comparingLong(pricedOffer -> pricedOffer.sortKey)
+                    .thenComparing(pricedOffer -> pricedOffer.offer.getAmount().value, Comparator.reverseOrder())
+                    .thenComparing(pricedOffer -> pricedOffer.offer.getId()));
+
+            int size = pricedOffers.size();
+            sortedOffers = new ArrayList<>(size);
+            sortKeys = new long[size];
+            cumulativeAmounts = new long[size];
+            long cumulativeAmount = 0;
+            for (int i = 0; i < size; i++) {
+                PricedOffer pricedOffer = pricedOffers.get(i);
+                cumulativeAmount += pricedOffer.offer.getAmount().value;
+                sortedOffers.add(pricedOffer.offer);
+                sortKeys[i] = pricedOffer.sortKey;
+                cumulativeAmounts[i] = cumulativeAmount;
+            }
+            isValid = true;
+        }
+
+        private long getSortKey(long priceValue) {
+            return isHighestPriceBest ? -priceValue : priceValue;
+        }
+    }
+
+    private static class PricedOffer {
+        private final Offer offer;
+        private final long sortKey;
+
+        PricedOffer(Offer offer, long sortKey) {
+            this.offer = offer;
+            this.sortKey = sortKey;
+        }
+    }
+}
@@ -38,10 +38,14 @@ import javax.inject.Named;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -51,7 +55,9 @@ import javax.annotation.Nullable;
 
 /**
  * Handles storage and retrieval of offers.
- * Uses an invalidation flag to only request the full offer map in case there was a change (anyone has added or removed an offer).
+ * The offers of the P2P network storage are materialized into an offer book which is kept up to date by the
+ * add and remove events of the storage. The offer book keeps one Offer instance per offer and indexes them by id, by
+ * currency code and direction and by payment method, so queries only touch the offers they return.
  */
 public class OfferBookService {
     private static final Logger log = LoggerFactory.getLogger(OfferBookService.class);
@@ -64,10 +70,16 @@ public class OfferBookService {
 
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
-    private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
+    // Listeners of API subscriptions can be removed while we notify the listeners
+    private final List<OfferBookChangedListener> offerBookChangedListeners = new CopyOnWriteArrayList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
 
+    // The offer book is modified at the UserThread but read from the API daemon's gRPC worker threads as well
+    private final Map<String, Offer> offersById = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Offer>> offersByMarketAndDirection = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Offer>> offersByPaymentMethodId = new ConcurrentHashMap<>();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -84,29 +96,30 @@ public class OfferBookService {
         this.filterManager = filterManager;
         jsonFileManager = new JsonFileManager(storageDir);
 
+        p2PService.getDataMap().values().forEach(protectedStorageEntry -> {
+            if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload)
+                addToOfferBook((OfferPayload) protectedStorageEntry.getProtectedStoragePayload());
+        });
+
         p2PService.addHashSetChangedListener(new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
-                        OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onAdded(offer);
+                        Offer offer = addToOfferBook((OfferPayload) protectedStorageEntry.getProtectedStoragePayload());
+                        offerBookChangedListeners.forEach(listener -> listener.onAdded(offer));
                     }
-                }));
+                });
             }
 
             @Override
             public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
-                        OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onRemoved(offer);
+                        Offer offer = removeFromOfferBook((OfferPayload) protectedStorageEntry.getProtectedStoragePayload());
+                        offerBookChangedListeners.forEach(listener -> listener.onRemoved(offer));
                     }
-                }));
+                });
             }
         });
 
@@ -191,15 +204,19 @@ public class OfferBookService {
     }
 
     public List<Offer> getOffers() {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayload)
-                .map(data -> {
-                    OfferPayload offerPayload = (OfferPayload) data.getProtectedStoragePayload();
-                    Offer offer = new Offer(offerPayload);
-                    offer.setPriceFeedService(priceFeedService);
-                    return offer;
-                })
-                .collect(Collectors.toList());
+        return new ArrayList<>(offersById.values());
+    }
+
+    public Optional<Offer> getOffer(String id) {
+        return Optional.ofNullable(offersById.get(id));
+    }
+
+    public List<Offer> getOffers(String currencyCode, OfferPayload.Direction direction) {
+        return getIndexedOffers(offersByMarketAndDirection, getMarketAndDirectionKey(currencyCode, direction));
+    }
+
+    public List<Offer> getOffersByPaymentMethodId(String paymentMethodId) {
+        return getIndexedOffers(offersByPaymentMethodId, paymentMethodId);
     }
 
     public void removeOfferAtShutDown(OfferPayload offerPayload) {
@@ -214,11 +231,68 @@ public class OfferBookService {
         offerBookChangedListeners.add(offerBookChangedListener);
     }
 
+    public void removeOfferBookChangedListener(OfferBookChangedListener offerBookChangedListener) {
+        offerBookChangedListeners.remove(offerBookChangedListener);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private Offer addToOfferBook(OfferPayload offerPayload) {
+        // An entry is added again if its sequence number got increased. We keep our Offer instance in that case.
+        Offer existingOffer = offersById.get(offerPayload.getId());
+        if (existingOffer != null && existingOffer.getOfferPayload().equals(offerPayload))
+            return existingOffer;
+
+        if (existingOffer != null)
+            removeFromIndices(existingOffer);
+
+        Offer offer = new Offer(offerPayload);
+        offer.setPriceFeedService(priceFeedService);
+        offersById.put(offer.getId(), offer);
+        offersByMarketAndDirection.computeIfAbsent(getMarketAndDirectionKey(offer),
+                key -> new ConcurrentHashMap<>()).put(offer.getId(), offer);
+        offersByPaymentMethodId.computeIfAbsent(offer.getOfferPayload().getPaymentMethodId(),
+                key -> new ConcurrentHashMap<>()).put(offer.getId(), offer);
+        return offer;
+    }
+
+    private Offer removeFromOfferBook(OfferPayload offerPayload) {
+        Offer offer = offersById.get(offerPayload.getId());
+        // If the offer got replaced by a new payload with the same id we keep the new one
+        if (offer == null || !offer.getOfferPayload().equals(offerPayload)) {
+            Offer removedOffer = new Offer(offerPayload);
+            removedOffer.setPriceFeedService(priceFeedService);
+            return removedOffer;
+        }
+
+        offersById.remove(offer.getId());
+        removeFromIndices(offer);
+        return offer;
+    }
+
+    private void removeFromIndices(Offer offer) {
+        Optional.ofNullable(offersByMarketAndDirection.get(getMarketAndDirectionKey(offer)))
+                .ifPresent(offers -> offers.remove(offer.getId()));
+        Optional.ofNullable(offersByPaymentMethodId.get(offer.getOfferPayload().getPaymentMethodId()))
+                .ifPresent(offers -> offers.remove(offer.getId()));
+    }
+
+    private static List<Offer> getIndexedOffers(Map<String, Map<String, Offer>> index, String key) {
+        Map<String, Offer> offers = index.get(key);
+        return offers != null ? new ArrayList<>(offers.values()) : new ArrayList<>();
+    }
+
+    private static String getMarketAndDirectionKey(Offer offer) {
+        return getMarketAndDirectionKey(offer.getCurrencyCode(), offer.getDirection());
+    }
+
+    private static String getMarketAndDirectionKey(String currencyCode, OfferPayload.Direction direction) {
+        return currencyCode.toUpperCase() + "_" + direction.name();
+    }
+
     private void doDumpStatistics() {
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
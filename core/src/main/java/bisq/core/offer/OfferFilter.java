@@ -37,6 +37,7 @@ import javafx.collections.SetChangeListener;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -50,6 +51,10 @@ public class OfferFilter {
     private final AccountAgeWitnessService accountAgeWitnessService;
     private final Map<String, Boolean> insufficientCounterpartyTradeLimitCache = new HashMap<>();
     private final Map<String, Boolean> myInsufficientTradeLimitCache = new HashMap<>();
+    // Read view of the canTakeOffer results of all offers in the offer book. It is only written on the UserThread
+    // and can be read from any thread.
+    private final Map<String, Result> readViewResultByOfferId = new ConcurrentHashMap<>();
+    private boolean isReadViewStarted;
 
     @Inject
     public OfferFilter(User user,
@@ -132,6 +137,45 @@ public class OfferFilter {
         return Result.VALID;
     }
 
+    /**
+     * Starts to maintain a read view of the canTakeOffer results of all offers in the offer book. The results are
+     * updated when an offer is added or removed and when our payment accounts or the filter change.
+     * Must be called on the UserThread.
+     */
+    public void startReadView(OfferBookService offerBookService, boolean isTakerApiUser) {
+        if (isReadViewStarted) {
+            return;
+        }
+        isReadViewStarted = true;
+
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                readViewResultByOfferId.put(offer.getId(), canTakeOffer(offer, isTakerApiUser));
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                readViewResultByOfferId.remove(offer.getId());
+            }
+        });
+        Runnable updateReadView = () -> offerBookService.getOffers().forEach(offer ->
+                readViewResultByOfferId.put(offer.getId(), canTakeOffer(offer, isTakerApiUser)));
+        user.getPaymentAccountsAsObservable().addListener((SetChangeListener<PaymentAccount>) c ->
+                updateReadView.run());
+        filterManager.filterProperty().addListener((observable, oldValue, newValue) -> updateReadView.run());
+        updateReadView.run();
+    }
+
+    /**
+     * @return The canTakeOffer result from the read view. Offers which have not been processed by the read view
+     * yet are treated as not takeable. Can be called from any thread.
+     */
+    public boolean canTakeOfferFromReadView(Offer offer) {
+        Result result = readViewResultByOfferId.get(offer.getId());
+        return result != null && result.isValid();
+    }
+
     public boolean isAnyPaymentAccountValidForOffer(Offer offer) {
         return user.getPaymentAccounts() != null &&
                 PaymentAccountUtil.isAnyPaymentAccountValidForOffer(offer, user.getPaymentAccounts());
@@ -169,8 +213,9 @@ public class OfferFilter {
     // This call is a bit expensive so we cache results
     public boolean isInsufficientCounterpartyTradeLimit(Offer offer) {
         String offerId = offer.getId();
-        if (insufficientCounterpartyTradeLimitCache.containsKey(offerId)) {
-            return insufficientCounterpartyTradeLimitCache.get(offerId);
+        Boolean cachedResult = insufficientCounterpartyTradeLimitCache.get(offerId);
+        if (cachedResult != null) {
+            return cachedResult;
         }
 
         boolean result = CurrencyUtil.isFiatCurrency(offer.getCurrencyCode()) &&
@@ -184,8 +229,9 @@ public class OfferFilter {
     // This call is a bit expensive so we cache results
     public boolean isMyInsufficientTradeLimit(Offer offer) {
         String offerId = offer.getId();
-        if (myInsufficientTradeLimitCache.containsKey(offerId)) {
-            return myInsufficientTradeLimitCache.get(offerId);
+        Boolean cachedResult = myInsufficientTradeLimitCache.get(offerId);
+        if (cachedResult != null) {
+            return cachedResult;
         }
 
         Optional<PaymentAccount> accountOptional = PaymentAccountUtil.getMostMaturePaymentAccountForOffer(offer,
@@ -35,5 +35,6 @@ public class OfferModule extends AppModule {
     protected final void configure() {
         bind(OpenOfferManager.class).in(Singleton.class);
         bind(OfferBookService.class).in(Singleton.class);
+        bind(OrderBookService.class).in(Singleton.class);
     }
 }
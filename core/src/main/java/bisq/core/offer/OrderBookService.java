@@ -0,0 +1,120 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.provider.price.MarketPrice;
+import bisq.core.provider.price.PriceFeedService;
+
+import javax.inject.Inject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains a price sorted MarketOrderBook per currency from the offer book of the OfferBookService.
+ * Market based offers of a market are only repriced when the PriceFeedService delivered a changed price for
+ * that market or when that price got too old (see MarketOrderBook).
+ */
+@Slf4j
+public class OrderBookService {
+    private final PriceFeedService priceFeedService;
+    private final Map<String, MarketOrderBook> orderBooksByCurrencyCode = new ConcurrentHashMap<>();
+    // An offer could be replaced by one with another currency code, so we need to know its order book
+    private final Map<String, MarketOrderBook> orderBooksByOfferId = new HashMap<>();
+    private final Map<String, MarketPrice> marketPricesByCurrencyCode = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public OrderBookService(OfferBookService offerBookService, PriceFeedService priceFeedService) {
+        this.priceFeedService = priceFeedService;
+
+        offerBookService.getOffers().forEach(this::onOfferAdded);
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                onOfferAdded(offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                onOfferRemoved(offer);
+            }
+        });
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) ->
+                onMarketPricesUpdated());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MarketOrderBook getOrderBook(String currencyCode) {
+        String upperCaseCurrencyCode = currencyCode.toUpperCase();
+        MarketOrderBook orderBook = orderBooksByCurrencyCode.get(upperCaseCurrencyCode);
+        return orderBook != null ? orderBook : new MarketOrderBook(upperCaseCurrencyCode);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void onOfferAdded(Offer offer) {
+        MarketOrderBook orderBook = getOrCreateOrderBook(offer.getCurrencyCode());
+        MarketOrderBook previousOrderBook = orderBooksByOfferId.put(offer.getId(), orderBook);
+        if (previousOrderBook != null && previousOrderBook != orderBook)
+            previousOrderBook.removeById(offer.getId());
+        orderBook.add(offer);
+    }
+
+    private void onOfferRemoved(Offer offer) {
+        MarketOrderBook orderBook = orderBooksByOfferId.get(offer.getId());
+        if (orderBook != null && orderBook.remove(offer))
+            orderBooksByOfferId.remove(offer.getId());
+    }
+
+    private void onMarketPricesUpdated() {
+        orderBooksByCurrencyCode.values()
+                .forEach(orderBook -> {
+                    String currencyCode = orderBook.getCurrencyCode();
+                    MarketPrice marketPrice = priceFeedService.getMarketPrice(currencyCode);
+                    MarketPrice previousMarketPrice = marketPricesByCurrencyCode.put(currencyCode, marketPrice);
+                    if (!Objects.equals(marketPrice, previousMarketPrice))
+                        orderBook.onMarketPriceChanged(marketPrice);
+                });
+    }
+
+    private MarketOrderBook getOrCreateOrderBook(String currencyCode) {
+        return orderBooksByCurrencyCode.computeIfAbsent(currencyCode, code -> {
+            MarketOrderBook orderBook = new MarketOrderBook(code);
+            MarketPrice marketPrice = priceFeedService.getMarketPrice(code);
+            marketPricesByCurrencyCode.put(code, marketPrice);
+            orderBook.onMarketPriceChanged(marketPrice);
+            return orderBook;
+        });
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * The time intervals of the trade statistics candles. The ordinal is persisted in the preferences, so new values
+ * must only be appended.
+ */
+public enum TickUnit {
+    YEAR,
+    MONTH,
+    WEEK,
+    DAY,
+    HOUR,
+    MINUTE_10;
+
+    // The tick start of times close to the limits of a long could not be represented as a long, so we clamp the time
+    // to a range which still covers any sensible date.
+    private static final long MIN_TIME = Long.MIN_VALUE / 2;
+    private static final long MAX_TIME = Long.MAX_VALUE / 2;
+
+    /**
+     * @return The start of the tick containing time in the given time zone. Times beyond roughly 146 million years
+     * from 1970 are clamped.
+     */
+    public long getTickStart(long time, ZoneId zoneId) {
+        long clampedTime = Math.max(MIN_TIME, Math.min(MAX_TIME, time));
+        return roundToTick(Instant.ofEpochMilli(clampedTime).atZone(zoneId).toLocalDateTime(), zoneId);
+    }
+
+    public long roundToTick(LocalDateTime localDate, ZoneId zoneId) {
+        switch (this) {
+            case YEAR:
+                return toEpochMilli(localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0), zoneId);
+            case MONTH:
+                return toEpochMilli(localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0), zoneId);
+            case WEEK:
+                int dayOfWeek = localDate.getDayOfWeek().getValue();
+                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
+                return toEpochMilli(firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0), zoneId);
+            case DAY:
+                return toEpochMilli(localDate.withHour(0).withMinute(0).withSecond(0).withNano(0), zoneId);
+            case HOUR:
+                return toEpochMilli(localDate.withMinute(0).withSecond(0).withNano(0), zoneId);
+            case MINUTE_10:
+                return toEpochMilli(localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0), zoneId);
+            default:
+                return toEpochMilli(localDate, zoneId);
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime localDate, ZoneId zoneId) {
+        return localDate.atZone(zoneId).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,616 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only columnar representation of a collection of TradeStatistics3. Instead of one object per trade with its
+ * strings, hash array, map key and map entry we keep primitive columns sorted by date. The strings are stored once in
+ * a value table, the hashes are packed into one byte array and the rare extraDataMaps are kept in a sparse map.
+ *
+ * A TradeStatistics3 object is only created when it is requested. As we pass the stored hash it does not need to be
+ * recalculated. Scans by date and currency work on the columns and only create the objects of the matching rows.
+ * Callers which only need the currency, price, amount and date of many rows should use forEachRow, which does not
+ * create any objects.
+ */
+public final class TradeStatistics3Columns {
+    public static final TradeStatistics3Columns EMPTY = from(List.of());
+
+    private static final int NULL_VALUE = -1;
+
+    private final int size;
+    private final String[] values;
+    // Index into values for the string fields
+    private final int[] currencies;
+    private final int[] paymentMethods;
+    private final int[] mediators;
+    private final int[] refundAgents;
+    // Index into values of each currency code, used for the scans by currency
+    private final Map<String, Integer> currencyIndexByCode;
+    private final long[] prices;
+    private final long[] amounts;
+    // Sorted, oldest first
+    private final long[] dates;
+    private final byte[] hashes;
+    // Start of the hash of row i in hashes, the last element is the total length
+    private final int[] hashOffsets;
+    // Rows sorted by their hash for lookups
+    private final int[] rowsByHash;
+    private final Map<Integer, Map<String, String>> extraDataMapByRow;
+
+    /**
+     * Receives the values of a row without a TradeStatistics3 object being created.
+     */
+    public interface RowConsumer {
+        void accept(String currency, long price, long amount, long date);
+    }
+
+    // Access to the values of the rows we create the columns from. The rows are sorted by date.
+    private interface Rows {
+        int size();
+
+        String getCurrency(int row);
+
+        String getPaymentMethod(int row);
+
+        @Nullable
+        String getMediator(int row);
+
+        @Nullable
+        String getRefundAgent(int row);
+
+        long getPrice(int row);
+
+        long getAmount(int row);
+
+        long getDate(int row);
+
+        byte[] getHash(int row);
+
+        @Nullable
+        Map<String, String> getExtraDataMap(int row);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static TradeStatistics3Columns from(Collection<TradeStatistics3> collection) {
+        List<TradeStatistics3> list = new ArrayList<>(collection);
+        list.sort(Comparator.comparingLong(TradeStatistics3::getDateAsLong));
+        return new TradeStatistics3Columns(new MergedRows(null, new int[0], list));
+    }
+
+    /**
+     * The objects of the rows of the given columns are not created, so this can be used to add the few trade
+     * statistics we did not have at startup to the columns of the historical data.
+     *
+     * @return New columns with the valid rows of the given columns and the valid trade statistics of the given
+     * collection which are not contained in the columns
+     */
+    public static TradeStatistics3Columns fromValid(TradeStatistics3Columns columns,
+                                                    Collection<TradeStatistics3> collection) {
+        int[] validRows = IntStream.range(0, columns.size)
+                .filter(columns::isValid)
+                .toArray();
+        List<TradeStatistics3> list = collection.stream()
+                .filter(TradeStatistics3::isValid)
+                .filter(tradeStatistics -> columns.indexOf(tradeStatistics.getHash()) < 0)
+                .distinct()
+                .sorted(Comparator.comparingLong(TradeStatistics3::getDateAsLong))
+                .collect(Collectors.toList());
+        return new TradeStatistics3Columns(new MergedRows(columns, validRows, list));
+    }
+
+    private TradeStatistics3Columns(Rows rows) {
+        size = rows.size();
+        currencies = new int[size];
+        paymentMethods = new int[size];
+        mediators = new int[size];
+        refundAgents = new int[size];
+        prices = new long[size];
+        amounts = new long[size];
+        dates = new long[size];
+        hashOffsets = new int[size + 1];
+        extraDataMapByRow = new HashMap<>();
+        currencyIndexByCode = new HashMap<>();
+
+        Map<String, Integer> indexByValue = new HashMap<>();
+        List<String> valueList = new ArrayList<>();
+        int hashesLength = 0;
+        List<byte[]> hashList = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            currencies[row] = indexOf(rows.getCurrency(row), indexByValue, valueList);
+            currencyIndexByCode.putIfAbsent(rows.getCurrency(row), currencies[row]);
+            // The payment method name is mapped back to the same id when creating the object
+            paymentMethods[row] = indexOf(rows.getPaymentMethod(row), indexByValue, valueList);
+            mediators[row] = indexOf(rows.getMediator(row), indexByValue, valueList);
+            refundAgents[row] = indexOf(rows.getRefundAgent(row), indexByValue, valueList);
+            prices[row] = rows.getPrice(row);
+            amounts[row] = rows.getAmount(row);
+            dates[row] = rows.getDate(row);
+            byte[] hash = rows.getHash(row);
+            hashList.add(hash);
+            hashOffsets[row] = hashesLength;
+            hashesLength += hash.length;
+            Map<String, String> extraDataMap = rows.getExtraDataMap(row);
+            if (extraDataMap != null) {
+                extraDataMapByRow.put(row, extraDataMap);
+            }
+        }
+        hashOffsets[size] = hashesLength;
+        values = valueList.toArray(new String[0]);
+
+        hashes = new byte[hashesLength];
+        for (int row = 0; row < size; row++) {
+            byte[] hash = hashList.get(row);
+            System.arraycopy(hash, 0, hashes, hashOffsets[row], hash.length);
+        }
+        rowsByHash = IntStream.range(0, size)
+                .boxed()
+                .sorted((row1, row2) -> compareHash(row1, row2))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public int size() {
+        return size;
+    }
+
+    public long getDate(int row) {
+        return dates[row];
+    }
+
+    public long getPrice(int row) {
+        return prices[row];
+    }
+
+    public long getAmount(int row) {
+        return amounts[row];
+    }
+
+    public String getCurrency(int row) {
+        return values[currencies[row]];
+    }
+
+    public byte[] getHash(int row) {
+        return Arrays.copyOfRange(hashes, hashOffsets[row], hashOffsets[row + 1]);
+    }
+
+    /**
+     * @return A new TradeStatistics3 object for the given row
+     */
+    public TradeStatistics3 get(int row) {
+        Map<String, String> extraDataMap = extraDataMapByRow.get(row);
+        return new TradeStatistics3(values[currencies[row]],
+                prices[row],
+                amounts[row],
+                values[paymentMethods[row]],
+                dates[row],
+                getValue(mediators[row]),
+                getValue(refundAgents[row]),
+                extraDataMap != null ? new HashMap<>(extraDataMap) : null,
+                getHash(row));
+    }
+
+    /**
+     * @return The row of the trade statistics with the given hash or -1 if there is none
+     */
+    public int indexOf(byte[] hash) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int row = rowsByHash[middle];
+            int comparison = compareHash(row, hash);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Same as TradeStatistics3.isValid without creating the object
+     */
+    public boolean isValid(int row) {
+        String paymentMethod = getValue(paymentMethods[row]);
+        String currency = getValue(currencies[row]);
+        return amounts[row] > 0 &&
+                prices[row] > 0 &&
+                dates[row] > 0 &&
+                paymentMethod != null &&
+                !paymentMethod.isEmpty() &&
+                currency != null &&
+                !currency.isEmpty();
+    }
+
+    public boolean contains(TradeStatistics3 tradeStatistics) {
+        int row = indexOf(tradeStatistics.getHash());
+        return row >= 0 && get(row).equals(tradeStatistics);
+    }
+
+    /**
+     * @return The first row with a date after the given date or size() if there is none
+     */
+    public int getFirstRowAfter(long date) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (dates[middle] <= date) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The trade statistics of the given currency with a date after the given date, sorted by date
+     */
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode, long afterDate) {
+        List<TradeStatistics3> result = new ArrayList<>();
+        int currencyIndex = currencyIndexByCode.getOrDefault(currencyCode, NULL_VALUE);
+        if (currencyIndex == NULL_VALUE) {
+            return result;
+        }
+
+        for (int row = getFirstRowAfter(afterDate); row < size; row++) {
+            if (currencies[row] == currencyIndex) {
+                result.add(get(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Passes the values of the rows with a date after the given date to the consumer, oldest first
+     */
+    public void forEachRow(long afterDate, RowConsumer consumer) {
+        for (int row = getFirstRowAfter(afterDate); row < size; row++) {
+            consumer.accept(values[currencies[row]], prices[row], amounts[row], dates[row]);
+        }
+    }
+
+    /**
+     * @return The number of rows of each currency
+     */
+    public Map<String, Integer> getNumRowsByCurrency() {
+        int[] numRowsByIndex = new int[values.length];
+        for (int row = 0; row < size; row++) {
+            if (currencies[row] != NULL_VALUE) {
+                numRowsByIndex[currencies[row]]++;
+            }
+        }
+        Map<String, Integer> result = new HashMap<>();
+        currencyIndexByCode.forEach((currencyCode, index) -> result.put(currencyCode, numRowsByIndex[index]));
+        return result;
+    }
+
+    /**
+     * @return The most recent trade statistics of each currency. Only the objects of those rows are created.
+     */
+    public Map<String, TradeStatistics3> getMostRecentTradeStatisticsByCurrency() {
+        Map<String, TradeStatistics3> result = new HashMap<>();
+        for (int row = size - 1; row >= 0 && result.size() < currencyIndexByCode.size(); row--) {
+            String currency = getValue(currencies[row]);
+            if (currency != null && !result.containsKey(currency)) {
+                result.put(currency, get(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return A read-only map view with the hashes as keys. The values are created when they are accessed.
+     */
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> asMap() {
+        return new PayloadMap();
+    }
+
+    /**
+     * @return A read-only list view of the entries sorted by date, oldest first. The entries are created when they
+     * are accessed.
+     */
+    public List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> asDateSortedEntries() {
+        return new AbstractList<>() {
+            @Override
+            public Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload> get(int row) {
+                return new AbstractMap.SimpleImmutableEntry<>(new P2PDataStorage.ByteArray(getHash(row)),
+                        TradeStatistics3Columns.this.get(row));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public long[] getDates() {
+        return dates.clone();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static int indexOf(@Nullable String value, Map<String, Integer> indexByValue, List<String> valueList) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        return indexByValue.computeIfAbsent(value, key -> {
+            valueList.add(key);
+            return valueList.size() - 1;
+        });
+    }
+
+    @Nullable
+    private String getValue(int index) {
+        return index == NULL_VALUE ? null : values[index];
+    }
+
+    private int compareHash(int row1, int row2) {
+        return Arrays.compareUnsigned(hashes, hashOffsets[row1], hashOffsets[row1 + 1],
+                hashes, hashOffsets[row2], hashOffsets[row2 + 1]);
+    }
+
+    private int compareHash(int row, byte[] hash) {
+        return Arrays.compareUnsigned(hashes, hashOffsets[row], hashOffsets[row + 1], hash, 0, hash.length);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MergedRows
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Merges the given rows of columns with a list of trade statistics by date. Both have to be sorted by date.
+    private static final class MergedRows implements Rows {
+        @Nullable
+        private final TradeStatistics3Columns columns;
+        private final List<TradeStatistics3> list;
+        // A value >= 0 is a row of the columns, a value < 0 the index -(value + 1) into the list
+        private final int[] sources;
+
+        private MergedRows(@Nullable TradeStatistics3Columns columns, int[] columnsRows, List<TradeStatistics3> list) {
+            this.columns = columns;
+            this.list = list;
+            sources = new int[columnsRows.length + list.size()];
+            int i = 0;
+            int j = 0;
+            for (int row = 0; row < sources.length; row++) {
+                if (j == list.size() ||
+                        (i < columnsRows.length && columns.dates[columnsRows[i]] <= list.get(j).getDateAsLong())) {
+                    sources[row] = columnsRows[i++];
+                } else {
+                    sources[row] = -(j++ + 1);
+                }
+            }
+        }
+
+        @Nullable
+        private TradeStatistics3 getTradeStatistics(int row) {
+            return sources[row] < 0 ? list.get(-(sources[row] + 1)) : null;
+        }
+
+        @Override
+        public int size() {
+            return sources.length;
+        }
+
+        @Override
+        public String getCurrency(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ? tradeStatistics.getCurrency() : columns.getCurrency(sources[row]);
+        }
+
+        @Override
+        public String getPaymentMethod(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ?
+                    tradeStatistics.getPaymentMethod() :
+                    columns.getValue(columns.paymentMethods[sources[row]]);
+        }
+
+        @Nullable
+        @Override
+        public String getMediator(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ?
+                    tradeStatistics.getMediator() :
+                    columns.getValue(columns.mediators[sources[row]]);
+        }
+
+        @Nullable
+        @Override
+        public String getRefundAgent(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ?
+                    tradeStatistics.getRefundAgent() :
+                    columns.getValue(columns.refundAgents[sources[row]]);
+        }
+
+        @Override
+        public long getPrice(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ? tradeStatistics.getPrice() : columns.getPrice(sources[row]);
+        }
+
+        @Override
+        public long getAmount(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ? tradeStatistics.getAmount() : columns.getAmount(sources[row]);
+        }
+
+        @Override
+        public long getDate(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ? tradeStatistics.getDateAsLong() : columns.getDate(sources[row]);
+        }
+
+        @Override
+        public byte[] getHash(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ? tradeStatistics.getHash() : columns.getHash(sources[row]);
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap(int row) {
+            TradeStatistics3 tradeStatistics = getTradeStatistics(row);
+            return tradeStatistics != null ?
+                    tradeStatistics.getExtraDataMap() :
+                    columns.extraDataMapByRow.get(sources[row]);
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PayloadMap
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Map view used for the historical stores. Keys and values are created on access.
+    final class PayloadMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        TradeStatistics3Columns getColumns() {
+            return TradeStatistics3Columns.this;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof P2PDataStorage.ByteArray && indexOf(((P2PDataStorage.ByteArray) key).bytes) >= 0;
+        }
+
+        @Override
+        public PersistableNetworkPayload get(Object key) {
+            if (!(key instanceof P2PDataStorage.ByteArray)) {
+                return null;
+            }
+            int row = indexOf(((P2PDataStorage.ByteArray) key).bytes);
+            return row >= 0 ? TradeStatistics3Columns.this.get(row) : null;
+        }
+
+        @Override
+        public Set<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                    return new Iterator<>() {
+                        private int row;
+
+                        @Override
+                        public boolean hasNext() {
+                            return row < size;
+                        }
+
+                        @Override
+                        public Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return new LazyEntry(row++);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+    }
+
+    // The key is created at construction, the value only if requested
+    private final class LazyEntry implements Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final int row;
+        private final P2PDataStorage.ByteArray key;
+
+        private LazyEntry(int row) {
+            this.row = row;
+            this.key = new P2PDataStorage.ByteArray(getHash(row));
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            return key;
+        }
+
+        @Override
+        public PersistableNetworkPayload getValue() {
+            return get(row);
+        }
+
+        @Override
+        public PersistableNetworkPayload setValue(PersistableNetworkPayload value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return key.equals(that.getKey()) && getValue().equals(that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ getValue().hashCode();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import com.google.common.collect.Iterators;
+
+import javafx.beans.InvalidationListener;
+
+import javafx.collections.ObservableSet;
+import javafx.collections.SetChangeListener;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Observable set of the TradeStatisticsManager. The trade statistics known at startup are kept in
+ * TradeStatistics3Columns and their objects are created at iteration. Trade statistics added later are kept as
+ * objects.
+ *
+ * Only modified at the UserThread, but can be iterated concurrently. The columns and the trade statistics added
+ * later are published together, so readers never see a trade statistic twice.
+ *
+ * Setting the columns notifies the invalidation listeners once. SetChangeListeners get a change for each trade
+ * statistic which was not contained before, which requires creating its object, so listeners which only need to know
+ * that the set changed should be added as InvalidationListener.
+ */
+class TradeStatistics3Set extends AbstractSet<TradeStatistics3> implements ObservableSet<TradeStatistics3> {
+    private static class Content {
+        private final TradeStatistics3Columns columns;
+        private final Set<TradeStatistics3> addedTradeStatistics;
+
+        Content(TradeStatistics3Columns columns, Set<TradeStatistics3> addedTradeStatistics) {
+            this.columns = columns;
+            this.addedTradeStatistics = addedTradeStatistics;
+        }
+
+        boolean contains(TradeStatistics3 tradeStatistics) {
+            return addedTradeStatistics.contains(tradeStatistics) || columns.contains(tradeStatistics);
+        }
+    }
+
+    private volatile Content content = new Content(TradeStatistics3Columns.EMPTY, ConcurrentHashMap.newKeySet());
+    private final List<SetChangeListener<? super TradeStatistics3>> setChangeListeners = new CopyOnWriteArrayList<>();
+    private final List<InvalidationListener> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    void setColumns(TradeStatistics3Columns columns) {
+        Content previousContent = content;
+        Set<TradeStatistics3> addedTradeStatistics = ConcurrentHashMap.newKeySet();
+        previousContent.addedTradeStatistics.stream()
+                .filter(tradeStatistics -> !columns.contains(tradeStatistics))
+                .forEach(addedTradeStatistics::add);
+        content = new Content(columns, addedTradeStatistics);
+
+        invalidationListeners.forEach(listener -> listener.invalidated(this));
+        // We only create the objects of the columns if someone listens for the single changes
+        if (!setChangeListeners.isEmpty()) {
+            for (int row = 0; row < columns.size(); row++) {
+                TradeStatistics3 tradeStatistics = columns.get(row);
+                if (!previousContent.contains(tradeStatistics)) {
+                    notifySetChangeListeners(tradeStatistics);
+                }
+            }
+        }
+    }
+
+    /**
+     * Passes the values of the trade statistics with a date after the given date to the consumer. Only the objects of
+     * the trade statistics added after setting the columns exist, the others are not created.
+     */
+    void forEachRow(long afterDate, TradeStatistics3Columns.RowConsumer consumer) {
+        Content content = this.content;
+        content.columns.forEachRow(afterDate, consumer);
+        content.addedTradeStatistics.stream()
+                .filter(e -> e.getDateAsLong() > afterDate)
+                .forEach(e -> consumer.accept(e.getCurrency(), e.getPrice(), e.getAmount(), e.getDateAsLong()));
+    }
+
+    /**
+     * @return The number of trade statistics of each currency
+     */
+    Map<String, Integer> getNumTradeStatisticsByCurrency() {
+        Content content = this.content;
+        Map<String, Integer> result = content.columns.getNumRowsByCurrency();
+        content.addedTradeStatistics.forEach(e -> result.merge(e.getCurrency(), 1, Integer::sum));
+        return result;
+    }
+
+    /**
+     * @return The trade statistics of the given currency with a date after the given date
+     */
+    List<TradeStatistics3> getTradeStatistics(String currencyCode, long afterDate) {
+        Content content = this.content;
+        List<TradeStatistics3> result = content.columns.getTradeStatistics(currencyCode, afterDate);
+        result.addAll(content.addedTradeStatistics.stream()
+                .filter(e -> e.getCurrency().equals(currencyCode))
+                .filter(e -> e.getDateAsLong() > afterDate)
+                .collect(Collectors.toList()));
+        return result;
+    }
+
+    /**
+     * @return The numTradeStatistics most recent trade statistics, sorted by date, most recent first
+     */
+    List<TradeStatistics3> getMostRecentTradeStatistics(int numTradeStatistics) {
+        Content content = this.content;
+        TradeStatistics3Columns columns = content.columns;
+        List<TradeStatistics3> result = new ArrayList<>(content.addedTradeStatistics);
+        for (int row = Math.max(0, columns.size() - numTradeStatistics); row < columns.size(); row++) {
+            result.add(columns.get(row));
+        }
+        result.sort(Comparator.comparing(TradeStatistics3::getDateAsLong).reversed());
+        return result.subList(0, Math.min(result.size(), numTradeStatistics));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // AbstractSet
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public boolean add(TradeStatistics3 tradeStatistics) {
+        Content content = this.content;
+        if (content.contains(tradeStatistics) || !content.addedTradeStatistics.add(tradeStatistics)) {
+            return false;
+        }
+
+        notifyAdded(tradeStatistics);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof TradeStatistics3 && content.contains((TradeStatistics3) o);
+    }
+
+    @Override
+    public Iterator<TradeStatistics3> iterator() {
+        Content content = this.content;
+        TradeStatistics3Columns columns = content.columns;
+        Iterator<TradeStatistics3> columnsIterator = new Iterator<>() {
+            private int row;
+
+            @Override
+            public boolean hasNext() {
+                return row < columns.size();
+            }
+
+            @Override
+            public TradeStatistics3 next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return columns.get(row++);
+            }
+        };
+        return Iterators.unmodifiableIterator(Iterators.concat(columnsIterator,
+                content.addedTradeStatistics.iterator()));
+    }
+
+    @Override
+    public int size() {
+        Content content = this.content;
+        return content.columns.size() + content.addedTradeStatistics.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // ObservableSet
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void addListener(SetChangeListener<? super TradeStatistics3> listener) {
+        setChangeListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(SetChangeListener<? super TradeStatistics3> listener) {
+        setChangeListeners.remove(listener);
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        invalidationListeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        invalidationListeners.remove(listener);
+    }
+
+    private void notifyAdded(TradeStatistics3 tradeStatistics) {
+        invalidationListeners.forEach(listener -> listener.invalidated(this));
+        notifySetChangeListeners(tradeStatistics);
+    }
+
+    private void notifySetChangeListeners(TradeStatistics3 tradeStatistics) {
+        if (setChangeListeners.isEmpty()) {
+            return;
+        }
+
+        SetChangeListener.Change<TradeStatistics3> change = new SetChangeListener.Change<>(this) {
+            @Override
+            public boolean wasAdded() {
+                return true;
+            }
+
+            @Override
+            public boolean wasRemoved() {
+                return false;
+            }
+
+            @Override
+            public TradeStatistics3 getElementAdded() {
+                return tradeStatistics;
+            }
+
+            @Override
+            public TradeStatistics3 getElementRemoved() {
+                return null;
+            }
+        };
+        setChangeListeners.forEach(listener -> listener.onChanged(change));
+    }
+}
@@ -17,8 +17,10 @@
 
 package bisq.core.trade.statistics;
 
+import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.PayloadSegment;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
@@ -29,6 +31,9 @@ import javax.inject.Singleton;
 
 import java.io.File;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import lombok.extern.slf4j.Slf4j;
 
 @Singleton
@@ -43,8 +48,9 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
 
     @Inject
     public TradeStatistics3StorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                          PersistenceManager<TradeStatistics3Store> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                          PersistenceManager<TradeStatistics3Store> persistenceManager,
+                                          @Named(Config.USE_MAPPED_PAYLOAD_STORES) boolean useMappedStore) {
+        super(storageDir, persistenceManager, useMappedStore);
     }
 
 
@@ -59,7 +65,7 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
 
     @Override
     protected void initializePersistenceManager() {
-        persistenceManager.initialize(store, PersistenceManager.Source.NETWORK);
+        persistenceManager.initialize(store, PersistenceManager.Source.NETWORK_JOURNAL);
     }
 
     @Override
@@ -67,6 +73,17 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
         return payload instanceof TradeStatistics3;
     }
 
+    /**
+     * @return The columns of the historical trade statistics. Their objects are only created on demand.
+     */
+    public TradeStatistics3Columns getColumnsOfHistoricalData() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap = getMapOfAllHistoricalData();
+        if (historicalMap instanceof TradeStatistics3Columns.PayloadMap) {
+            return ((TradeStatistics3Columns.PayloadMap) historicalMap).getColumns();
+        }
+        return ((TradeStatistics3Columns.PayloadMap) toHistoricalMap(historicalMap)).getColumns();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Protected
@@ -77,7 +94,32 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
         return new TradeStatistics3Store();
     }
 
+    // The historical trade statistics are the largest part of all trade statistics, so we keep them in columns
+    @Override
+    protected Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> toHistoricalMap(
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        return TradeStatistics3Columns.from(map.values().stream()
+                .filter(payload -> payload instanceof TradeStatistics3)
+                .map(payload -> (TradeStatistics3) payload)
+                .collect(Collectors.toList()))
+                .asMap();
+    }
+
+    @Override
+    protected PayloadSegment toHistoricalSegment(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap) {
+        if (historicalMap instanceof TradeStatistics3Columns.PayloadMap) {
+            TradeStatistics3Columns columns = ((TradeStatistics3Columns.PayloadMap) historicalMap).getColumns();
+            return PayloadSegment.fromDateSortedTruncatablePayloads(columns.asDateSortedEntries(), columns.getDates());
+        }
+        return super.toHistoricalSegment(historicalMap);
+    }
+
     public void persistNow() {
+        // The segment files of the mapped store are updated at each change
+        if (usesMappedStore()) {
+            return;
+        }
+
         persistenceManager.persistNow(() -> {
         });
     }
@@ -0,0 +1,44 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * OHLC and volume data of the trade statistics of one currency (or of all currencies if currencyCode is null) in
+ * one tick. Prices and volumes use the smallest unit of the currency, amounts are in satoshi.
+ */
+@Value
+public class TradeStatisticsCandle {
+    @Nullable
+    private final String currencyCode;
+    private final TickUnit tickUnit;
+    private final long tickStart;
+    private final long open;
+    private final long close;
+    private final long high;
+    private final long low;
+    private final long median;
+    private final long accumulatedAmount;
+    private final long accumulatedVolume;
+    private final long numTrades;
+    // Without decimals as it is only used for the total volume
+    private final long volumeInUsd;
+}
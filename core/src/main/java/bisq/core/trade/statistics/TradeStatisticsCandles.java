@@ -0,0 +1,275 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.common.util.MathUtils;
+
+import org.bitcoinj.core.Coin;
+
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the trade statistics aggregated to candles per currency and tick unit, so charts and the API do not need to
+ * bucket all trade statistics for each request. New trade statistics are added incrementally. As they arrive mostly
+ * in date order they usually update the last candle of a series. Range queries use a binary search on the tick start.
+ *
+ * Thread safe, as the API daemon queries it from its gRPC worker threads.
+ */
+public class TradeStatisticsCandles {
+    private static final String USD = "USD";
+
+    private final ZoneId zoneId;
+    private int numTradeStatistics;
+    private final Map<String, Map<TickUnit, Series>> seriesByCurrencyCode = new HashMap<>();
+    private final Map<TickUnit, Series> allCurrenciesSeries = createSeries();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public TradeStatisticsCandles() {
+        this(ZoneId.systemDefault());
+    }
+
+    public TradeStatisticsCandles(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public synchronized void add(TradeStatistics3 tradeStatistics) {
+        numTradeStatistics++;
+        Map<TickUnit, Series> seriesByTickUnit = seriesByCurrencyCode.computeIfAbsent(tradeStatistics.getCurrency(),
+                currencyCode -> createSeries());
+        for (TickUnit tickUnit : TickUnit.values()) {
+            long tickStart = tickUnit.getTickStart(tradeStatistics.getDateAsLong(), zoneId);
+            seriesByTickUnit.get(tickUnit).add(tickStart, tradeStatistics);
+            allCurrenciesSeries.get(tickUnit).add(tickStart, tradeStatistics);
+        }
+    }
+
+    public synchronized void addAll(Collection<TradeStatistics3> collection) {
+        // Adding in date order appends to the series
+        collection.stream()
+                .sorted(Comparator.comparingLong(TradeStatistics3::getDateAsLong))
+                .forEach(this::add);
+    }
+
+    /**
+     * @param currencyCode  The currency code or null for the candles of all currencies
+     * @param tickUnit      The tick unit
+     * @param from          Start of the time range in ms, the tick containing it is included
+     * @param to            End of the time range in ms (exclusive)
+     * @return The candles of the ticks with trades in the time range, sorted by tick start
+     */
+    public synchronized List<TradeStatisticsCandle> getCandles(@Nullable String currencyCode,
+                                                               TickUnit tickUnit,
+                                                               long from,
+                                                               long to) {
+        Series series = getSeries(currencyCode, tickUnit);
+        List<TradeStatisticsCandle> candles = new ArrayList<>();
+        if (series == null) {
+            return candles;
+        }
+
+        Series usdSeries = getSeries(USD, tickUnit);
+        List<Bucket> buckets = series.buckets;
+        for (int i = series.indexOf(tickUnit.getTickStart(from, zoneId)); i < buckets.size(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket.tickStart >= to) {
+                break;
+            }
+            long averageUsdPrice = usdSeries != null ? usdSeries.getAveragePrice(bucket.tickStart) : 0;
+            candles.add(bucket.toCandle(currencyCode, tickUnit, averageUsdPrice));
+        }
+        return candles;
+    }
+
+    public synchronized Set<String> getCurrencyCodes() {
+        return new HashSet<>(seriesByCurrencyCode.keySet());
+    }
+
+    public synchronized int getNumTradeStatistics() {
+        return numTradeStatistics;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static Map<TickUnit, Series> createSeries() {
+        Map<TickUnit, Series> seriesByTickUnit = new EnumMap<>(TickUnit.class);
+        for (TickUnit tickUnit : TickUnit.values()) {
+            seriesByTickUnit.put(tickUnit, new Series());
+        }
+        return seriesByTickUnit;
+    }
+
+    @Nullable
+    private Series getSeries(@Nullable String currencyCode, TickUnit tickUnit) {
+        if (currencyCode == null) {
+            return allCurrenciesSeries.get(tickUnit);
+        }
+        Map<TickUnit, Series> seriesByTickUnit = seriesByCurrencyCode.get(currencyCode);
+        return seriesByTickUnit != null ? seriesByTickUnit.get(tickUnit) : null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Series
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Buckets sorted by tickStart
+    private static class Series {
+        private final List<Bucket> buckets = new ArrayList<>();
+
+        private void add(long tickStart, TradeStatistics3 tradeStatistics) {
+            Bucket bucket;
+            int size = buckets.size();
+            if (size > 0 && buckets.get(size - 1).tickStart == tickStart) {
+                bucket = buckets.get(size - 1);
+            } else {
+                int index = indexOf(tickStart);
+                if (index < size && buckets.get(index).tickStart == tickStart) {
+                    bucket = buckets.get(index);
+                } else {
+                    bucket = new Bucket(tickStart);
+                    buckets.add(index, bucket);
+                }
+            }
+            bucket.add(tradeStatistics);
+        }
+
+        // Index of the first bucket with a tick start not before tickStart
+        private int indexOf(long tickStart) {
+            int low = 0;
+            int high = buckets.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (buckets.get(middle).tickStart < tickStart) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        // Average price of the last bucket not after tickStart, so ticks without trades use the previous price
+        private long getAveragePrice(long tickStart) {
+            int index = indexOf(tickStart);
+            if (index == buckets.size() || buckets.get(index).tickStart != tickStart) {
+                index--;
+            }
+            return index >= 0 ? buckets.get(index).getAveragePrice() : 0;
+        }
+    }
+
+    private static class Bucket {
+        private final long tickStart;
+        private long open;
+        private long openDate = Long.MAX_VALUE;
+        private long close;
+        private long closeDate = Long.MIN_VALUE;
+        private long high;
+        private long low;
+        private long accumulatedAmount;
+        private long accumulatedVolume;
+        private long[] prices = new long[1];
+        private int numTrades;
+        // The median of the prices, calculated at the first request after a trade got added
+        private long median;
+        private boolean isMedianValid;
+
+        private Bucket(long tickStart) {
+            this.tickStart = tickStart;
+        }
+
+        private void add(TradeStatistics3 tradeStatistics) {
+            long price = tradeStatistics.getTradePrice().getValue();
+            long date = tradeStatistics.getDateAsLong();
+            if (date < openDate) {
+                open = price;
+                openDate = date;
+            }
+            if (date >= closeDate) {
+                close = price;
+                closeDate = date;
+            }
+            high = numTrades == 0 ? price : Math.max(high, price);
+            low = numTrades == 0 ? price : Math.min(low, price);
+            accumulatedAmount += tradeStatistics.getAmount();
+            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
+
+            if (numTrades == prices.length) {
+                prices = Arrays.copyOf(prices, numTrades * 2);
+            }
+            prices[numTrades++] = price;
+            isMedianValid = false;
+        }
+
+        private long getMedian() {
+            if (!isMedianValid) {
+                long[] sortedPrices = Arrays.copyOf(prices, numTrades);
+                Arrays.sort(sortedPrices);
+                int middle = numTrades / 2;
+                median = numTrades % 2 == 1 ?
+                        sortedPrices[middle] :
+                        MathUtils.roundDoubleToLong((sortedPrices[middle - 1] + sortedPrices[middle]) / 2.0);
+                isMedianValid = true;
+            }
+            return median;
+        }
+
+        private long getAveragePrice() {
+            double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, Coin.SMALLEST_UNIT_EXPONENT);
+            return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / (double) accumulatedAmount);
+        }
+
+        private TradeStatisticsCandle toCandle(@Nullable String currencyCode, TickUnit tickUnit, long averageUsdPrice) {
+            // We do not need precision, so we scale down before multiplication otherwise we could get an overflow.
+            long scaledAverageUsdPrice = (long) MathUtils.scaleDownByPowerOf10((double) averageUsdPrice, 4);
+            long volumeInUsd = scaledAverageUsdPrice * (long) MathUtils.scaleDownByPowerOf10((double) accumulatedAmount, 4);
+            volumeInUsd = (long) MathUtils.scaleDownByPowerOf10((double) volumeInUsd, 4);
+            return new TradeStatisticsCandle(currencyCode, tickUnit, tickStart, open, close, high, low, getMedian(),
+                    accumulatedAmount, accumulatedVolume, numTrades, volumeInUsd);
+        }
+    }
+}
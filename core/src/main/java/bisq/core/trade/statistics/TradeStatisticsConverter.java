@@ -78,9 +78,10 @@ public class TradeStatisticsConverter {
                     convertToTradeStatistics3(tradeStatistics2StorageService.getMapOfAllData().values())
                             .forEach(e -> tempMap.put(new P2PDataStorage.ByteArray(e.getHash()), e));
 
-                    // We map to user thread to avoid potential threading issues
+                    // We map to user thread to avoid potential threading issues.
+                    // We add it via the appendOnlyDataStoreService to keep its index of live data keys updated.
                     UserThread.execute(() -> {
-                        tradeStatistics3StorageService.getMapOfLiveData().putAll(tempMap);
+                        tempMap.forEach(appendOnlyDataStoreService::put);
                         tradeStatistics3StorageService.persistNow();
                     });
 
@@ -37,7 +37,6 @@ import com.google.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 
 import java.time.Instant;
@@ -45,10 +44,16 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -63,7 +68,14 @@ public class TradeStatisticsManager {
     private final TradeStatisticsConverter tradeStatisticsConverter;
     private final File storageDir;
     private final boolean dumpStatistics;
-    private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    // Keeps the trade statistics known at startup in columns. The set is only modified at the UserThread but the API
+    // daemon copies it from its gRPC worker threads, so the set can be copied safely while it gets modified.
+    private final TradeStatistics3Set observableTradeStatisticsSet = new TradeStatistics3Set();
+    // Used to apply the Bisq market price of a currency without iterating all trade statistics
+    private final Map<String, TradeStatistics3> mostRecentTradeStatisticsByCurrency = new HashMap<>();
+    // Created at the first request of candles as not all applications use them
+    @Nullable
+    private volatile TradeStatisticsCandles candles;
     private JsonFileManager jsonFileManager;
 
     @Inject
@@ -99,19 +111,37 @@ public class TradeStatisticsManager {
                 if (!tradeStatistics.isValid()) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
-                priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
-                maybeDumpStatistics();
+                if (addTradeStatistics(tradeStatistics)) {
+                    priceFeedService.applyLatestBisqMarketPrice(
+                            Set.of(mostRecentTradeStatisticsByCurrency.get(tradeStatistics.getCurrency())));
+                    maybeDumpStatistics();
+                }
             }
         });
 
-        Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllData().values().stream()
+        // We add the live data to the columns of the historical data without creating the objects of the historical
+        // trade statistics. The objects of the columns are created on demand, so we do not keep all trade statistics
+        // objects in memory.
+        List<TradeStatistics3> liveData = tradeStatistics3StorageService.getMapOfLiveData().values().stream()
                 .filter(e -> e instanceof TradeStatistics3)
                 .map(e -> (TradeStatistics3) e)
-                .filter(TradeStatistics3::isValid)
-                .collect(Collectors.toSet());
-        observableTradeStatisticsSet.addAll(set);
-        priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                .collect(Collectors.toList());
+        TradeStatistics3Columns columns = TradeStatistics3Columns.fromValid(
+                tradeStatistics3StorageService.getColumnsOfHistoricalData(), liveData);
+        synchronized (this) {
+            // As in addTradeStatistics we update the candles before the set notifies its listeners
+            TradeStatisticsCandles candles = this.candles;
+            if (candles != null) {
+                candles.addAll(IntStream.range(0, columns.size())
+                        .mapToObj(columns::get)
+                        .filter(tradeStatistics -> !observableTradeStatisticsSet.contains(tradeStatistics))
+                        .collect(Collectors.toList()));
+            }
+            observableTradeStatisticsSet.setColumns(columns);
+        }
+        Collection<TradeStatistics3> mostRecentTradeStatistics = columns.getMostRecentTradeStatisticsByCurrency().values();
+        mostRecentTradeStatistics.forEach(this::updateMostRecentTradeStatistics);
+        priceFeedService.applyLatestBisqMarketPrice(new HashSet<>(mostRecentTradeStatistics));
         maybeDumpStatistics();
     }
 
@@ -119,6 +149,76 @@ public class TradeStatisticsManager {
         return observableTradeStatisticsSet;
     }
 
+    /**
+     * Faster than filtering the observable set as only the objects of the matching trade statistics are created.
+     *
+     * @return The trade statistics of the given currency with a date after the given date
+     */
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode, Date afterDate) {
+        return observableTradeStatisticsSet.getTradeStatistics(currencyCode, afterDate.getTime());
+    }
+
+    /**
+     * Faster than iterating the observable set as no trade statistics objects are created for the rows of the
+     * columns.
+     */
+    public void forEachTradeStatistic(Date afterDate, TradeStatistics3Columns.RowConsumer consumer) {
+        observableTradeStatisticsSet.forEachRow(afterDate.getTime(), consumer);
+    }
+
+    /**
+     * @return The number of trade statistics of each currency
+     */
+    public Map<String, Integer> getNumTradeStatisticsByCurrency() {
+        return observableTradeStatisticsSet.getNumTradeStatisticsByCurrency();
+    }
+
+    /**
+     * @return The numTradeStatistics most recent trade statistics, most recent first
+     */
+    public List<TradeStatistics3> getMostRecentTradeStatistics(int numTradeStatistics) {
+        return observableTradeStatisticsSet.getMostRecentTradeStatistics(numTradeStatistics);
+    }
+
+    public TradeStatisticsCandles getCandles() {
+        TradeStatisticsCandles candles = this.candles;
+        if (candles == null) {
+            synchronized (this) {
+                candles = this.candles;
+                if (candles == null) {
+                    // Trade statistics are added to the set and the candles while holding the lock, so we do not
+                    // miss any or add them twice.
+                    candles = new TradeStatisticsCandles();
+                    candles.addAll(observableTradeStatisticsSet);
+                    this.candles = candles;
+                }
+            }
+        }
+        return candles;
+    }
+
+    private boolean addTradeStatistics(TradeStatistics3 tradeStatistics) {
+        if (observableTradeStatisticsSet.contains(tradeStatistics)) {
+            return false;
+        }
+
+        synchronized (this) {
+            // We update the candles before the set, so listeners of the set get the new trade statistics in the candles
+            TradeStatisticsCandles candles = this.candles;
+            if (candles != null) {
+                candles.add(tradeStatistics);
+            }
+            observableTradeStatisticsSet.add(tradeStatistics);
+        }
+        updateMostRecentTradeStatistics(tradeStatistics);
+        return true;
+    }
+
+    private void updateMostRecentTradeStatistics(TradeStatistics3 tradeStatistics) {
+        mostRecentTradeStatisticsByCurrency.merge(tradeStatistics.getCurrency(), tradeStatistics,
+                (previous, current) -> current.getDateAsLong() >= previous.getDateAsLong() ? current : previous);
+    }
+
     private void maybeDumpStatistics() {
         if (!dumpStatistics) {
             return;
@@ -140,10 +240,8 @@ public class TradeStatisticsManager {
             jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(cryptoCurrencyList), "crypto_currency_list");
 
             Instant yearAgo = Instant.ofEpochSecond(Instant.now().getEpochSecond() - TimeUnit.DAYS.toSeconds(365));
-            Set<String> activeCurrencies = observableTradeStatisticsSet.stream()
-                    .filter(e -> e.getDate().toInstant().isAfter(yearAgo))
-                    .map(p -> p.getCurrency())
-                    .collect(Collectors.toSet());
+            Set<String> activeCurrencies = new HashSet<>();
+            forEachTradeStatistic(Date.from(yearAgo), (currency, price, amount, date) -> activeCurrencies.add(currency));
 
             ArrayList<CurrencyTuple> activeFiatCurrencyList = fiatCurrencyList.stream()
                     .filter(e -> activeCurrencies.contains(e.code))
@@ -165,13 +263,19 @@ public class TradeStatisticsManager {
         TradeStatisticsForJson[] array = new TradeStatisticsForJson[list.size()];
         list.toArray(array);
         jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(array), "trade_statistics");
+
+        TradeStatisticsCandles candles = getCandles();
+        List<TradeStatisticsCandle> dailyCandles = candles.getCurrencyCodes().stream()
+                .sorted()
+                .flatMap(currencyCode -> candles.getCandles(currencyCode, TickUnit.DAY, 0, Long.MAX_VALUE).stream())
+                .collect(Collectors.toList());
+        jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(dailyCandles), "trade_statistics_daily_candles");
     }
 
     public void maybeRepublishTradeStatistics(Set<Trade> trades,
                                               @Nullable String referralId,
                                               boolean isTorNetworkNode) {
         long ts = System.currentTimeMillis();
-        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getMapOfAllData().keySet();
         trades.forEach(trade -> {
             if (trade instanceof BuyerTrade) {
                 log.debug("Trade: {} is a buyer trade, we only republish we have been seller.",
@@ -180,7 +284,8 @@ public class TradeStatisticsManager {
             }
 
             TradeStatistics3 tradeStatistics3 = TradeStatistics3.from(trade, referralId, isTorNetworkNode);
-            boolean hasTradeStatistics3 = hashes.contains(new P2PDataStorage.ByteArray(tradeStatistics3.getHash()));
+            boolean hasTradeStatistics3 = tradeStatistics3StorageService.containsKey(
+                    new P2PDataStorage.ByteArray(tradeStatistics3.getHash()));
             if (hasTradeStatistics3) {
                 log.debug("Trade: {}. We have already a tradeStatistics matching the hash of tradeStatistics3.",
                         trade.getShortId());
@@ -191,7 +296,8 @@ public class TradeStatisticsManager {
             // TradeStatistics2 where we used the original hash, which is not the native hash of the
             // TradeStatistics3 but of TradeStatistics2.
             TradeStatistics2 tradeStatistics2 = TradeStatistics2.from(trade, referralId, isTorNetworkNode);
-            boolean hasTradeStatistics2 = hashes.contains(new P2PDataStorage.ByteArray(tradeStatistics2.getHash()));
+            boolean hasTradeStatistics2 = tradeStatistics3StorageService.containsKey(
+                    new P2PDataStorage.ByteArray(tradeStatistics2.getHash()));
             if (hasTradeStatistics2) {
                 log.debug("Trade: {}. We have already a tradeStatistics matching the hash of tradeStatistics2. ",
                         trade.getShortId());
@@ -208,6 +314,6 @@ public class TradeStatisticsManager {
             p2PService.addPersistableNetworkPayload(tradeStatistics3, true);
         });
         log.info("maybeRepublishTradeStatistics took {} ms. Number of tradeStatistics: {}. Number of own trades: {}",
-                System.currentTimeMillis() - ts, hashes.size(), trades.size());
+                System.currentTimeMillis() - ts, observableTradeStatisticsSet.size(), trades.size());
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+package bisq.core.api;
+
+import bisq.core.offer.CreateOfferService;
+import bisq.core.offer.MarketOrderBook;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferFilter;
+import bisq.core.offer.OfferPayload;
+import bisq.core.offer.OfferUtil;
+import bisq.core.offer.OpenOfferManager;
+import bisq.core.offer.OrderBookService;
+import bisq.core.user.User;
+
+import bisq.common.crypto.KeyRing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.offer.OfferPayload.Direction.BUY;
+import static bisq.core.offer.OfferPayload.Direction.SELL;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CoreOffersServiceTest {
+    private final OrderBookService orderBookService = mock(OrderBookService.class);
+    private CoreOffersService coreOffersService;
+
+    @Before
+    public void setUp() {
+        OfferFilter offerFilter = mock(OfferFilter.class);
+        when(offerFilter.canTakeOfferFromReadView(any())).thenReturn(true);
+        coreOffersService = new CoreOffersService(new CoreContext(),
+                mock(KeyRing.class),
+                mock(CoreWalletsService.class),
+                mock(CreateOfferService.class),
+                mock(OfferBookService.class),
+                offerFilter,
+                mock(OpenOfferManager.class),
+                orderBookService,
+                mock(OfferUtil.class),
+                mock(User.class));
+    }
+
+    private static Offer offer(String id, OfferPayload.Direction direction, String currencyCode) {
+        Offer offer = mock(Offer.class);
+        when(offer.getId()).thenReturn(id);
+        when(offer.getDirection()).thenReturn(direction);
+        when(offer.getCurrencyCode()).thenReturn(currencyCode);
+        return offer;
+    }
+
+    private void setOrderBook(String currencyCode, OfferPayload.Direction direction, Offer... sortedOffers) {
+        MarketOrderBook orderBook = mock(MarketOrderBook.class);
+        // The order book returns a new list on each call
+        when(orderBook.getOffers(direction)).thenAnswer(invocation -> new ArrayList<>(List.of(sortedOffers)));
+        when(orderBookService.getOrderBook(currencyCode)).thenReturn(orderBook);
+    }
+
+    private static List<String> getIds(List<Offer> offers) {
+        return offers.stream().map(Offer::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void getOffers_fiatMarket() {
+        // Best buy offer has the highest price
+        setOrderBook("USD", BUY, offer("buy2", BUY, "USD"), offer("buy1", BUY, "USD"));
+
+        assertEquals(List.of("buy2", "buy1"), getIds(coreOffersService.getOffers("buy", "USD")));
+    }
+
+    @Test
+    public void getOffers_altcoinMarket() {
+        // Best sell offer (buying the altcoin) has the highest price, the API lists them by rising price
+        setOrderBook("XMR", SELL, offer("sell2", SELL, "XMR"), offer("sell1", SELL, "XMR"));
+
+        assertEquals(List.of("sell1", "sell2"), getIds(coreOffersService.getOffers("SELL", "XMR")));
+    }
+}
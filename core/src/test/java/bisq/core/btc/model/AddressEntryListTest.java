@@ -0,0 +1,102 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.model;
+
+import bisq.common.persistence.PersistenceManager;
+
+import org.bitcoinj.crypto.DeterministicKey;
+import org.bitcoinj.crypto.HDKeyDerivation;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AddressEntryListTest {
+    private final DeterministicKey masterKey = HDKeyDerivation.createMasterPrivateKey(new byte[32]);
+    private AddressEntryList addressEntryList;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        addressEntryList = new AddressEntryList(mock(PersistenceManager.class));
+    }
+
+    private DeterministicKey key(int index) {
+        return HDKeyDerivation.deriveChildKey(masterKey, index);
+    }
+
+    @Test
+    public void testLookupByOfferIdAndContext() {
+        AddressEntry offerFunding = new AddressEntry(key(1), AddressEntry.Context.OFFER_FUNDING, "offer1", true);
+        AddressEntry multiSig = new AddressEntry(key(2), AddressEntry.Context.MULTI_SIG, "offer1", true);
+        AddressEntry available = new AddressEntry(key(3), AddressEntry.Context.AVAILABLE, true);
+        addressEntryList.addAddressEntry(offerFunding);
+        addressEntryList.addAddressEntry(multiSig);
+        addressEntryList.addAddressEntry(available);
+
+        assertEquals(List.of(offerFunding),
+                addressEntryList.getAddressEntries("offer1", AddressEntry.Context.OFFER_FUNDING));
+        assertEquals(List.of(multiSig), addressEntryList.getAddressEntries("offer1", AddressEntry.Context.MULTI_SIG));
+        assertTrue(addressEntryList.getAddressEntries("offer2", AddressEntry.Context.MULTI_SIG).isEmpty());
+        assertEquals(Set.of(available), addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE));
+        assertTrue(addressEntryList.getAddressEntries(AddressEntry.Context.TRADE_PAYOUT).isEmpty());
+    }
+
+    @Test
+    public void testEntryWithSameOfferIdAndContextIsNotAdded() {
+        addressEntryList.addAddressEntry(new AddressEntry(key(1), AddressEntry.Context.OFFER_FUNDING, "offer1", true));
+        addressEntryList.addAddressEntry(new AddressEntry(key(2), AddressEntry.Context.OFFER_FUNDING, "offer1", true));
+
+        assertEquals(1, addressEntryList.getAddressEntries("offer1", AddressEntry.Context.OFFER_FUNDING).size());
+        assertEquals(1, addressEntryList.getAddressEntriesAsListImmutable().size());
+    }
+
+    @Test
+    public void testIndicesAreUpdatedAtSwap() {
+        AddressEntry available = new AddressEntry(key(1), AddressEntry.Context.AVAILABLE, true);
+        addressEntryList.addAddressEntry(available);
+
+        AddressEntry offerFunding = addressEntryList.swapAvailableToAddressEntryWithOfferId(available,
+                AddressEntry.Context.OFFER_FUNDING, "offer1");
+        assertTrue(addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE).isEmpty());
+        assertEquals(List.of(offerFunding),
+                addressEntryList.getAddressEntries("offer1", AddressEntry.Context.OFFER_FUNDING));
+
+        addressEntryList.swapToAvailable(offerFunding);
+        assertTrue(addressEntryList.getAddressEntries("offer1", AddressEntry.Context.OFFER_FUNDING).isEmpty());
+        assertEquals(1, addressEntryList.getAddressEntries(AddressEntry.Context.AVAILABLE).size());
+        assertEquals(1, addressEntryList.getAddressEntriesAsListImmutable().size());
+    }
+
+    @Test
+    public void testIndicesAreUpdatedAtSetCoinLockedInMultiSig() {
+        AddressEntry multiSig = new AddressEntry(key(1), AddressEntry.Context.MULTI_SIG, "offer1", true);
+        addressEntryList.addAddressEntry(multiSig);
+
+        addressEntryList.setCoinLockedInMultiSigAddressEntry(multiSig, 1000);
+        List<AddressEntry> entries = addressEntryList.getAddressEntries("offer1", AddressEntry.Context.MULTI_SIG);
+        assertEquals(1, entries.size());
+        assertEquals(1000, entries.get(0).getCoinLockedInMultiSig());
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.btc.listeners.BalanceListener;
+import bisq.core.btc.setup.WalletsSetup;
+import bisq.core.provider.fee.FeeService;
+import bisq.core.user.Preferences;
+
+import bisq.common.config.Config;
+
+import org.bitcoinj.core.Address;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.ECKey;
+import org.bitcoinj.core.LegacyAddress;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionConfidence;
+import org.bitcoinj.core.TransactionOutput;
+import org.bitcoinj.core.listeners.TransactionConfidenceEventListener;
+import org.bitcoinj.wallet.Wallet;
+import org.bitcoinj.wallet.listeners.WalletChangeEventListener;
+import org.bitcoinj.wallet.listeners.WalletCoinsReceivedEventListener;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WalletServiceTest {
+    private final NetworkParameters params = Config.baseCurrencyNetworkParameters();
+    private final Address address1 = LegacyAddress.fromKey(params, new ECKey());
+    private final Address address2 = LegacyAddress.fromKey(params, new ECKey());
+    private Wallet wallet;
+    private WalletService walletService;
+    private WalletChangeEventListener walletChangeEventListener;
+    private WalletCoinsReceivedEventListener walletCoinsReceivedEventListener;
+    private WalletCoinsReceivedEventListener cacheInvalidationCoinsReceivedEventListener;
+    private TransactionConfidenceEventListener transactionConfidenceEventListener;
+
+    private static class TestWalletService extends WalletService {
+        TestWalletService(Wallet wallet) {
+            super(mock(WalletsSetup.class), mock(Preferences.class), mock(FeeService.class));
+            this.wallet = wallet;
+            addListenersToWallet();
+        }
+
+        @Override
+        String getWalletAsString(boolean includePrivKeys) {
+            return "";
+        }
+
+        @Override
+        protected boolean isDustAttackUtxo(TransactionOutput output) {
+            return false;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        wallet = mock(Wallet.class);
+        walletService = new TestWalletService(wallet);
+
+        ArgumentCaptor<WalletChangeEventListener> changeListenerCaptor =
+                ArgumentCaptor.forClass(WalletChangeEventListener.class);
+        verify(wallet).addChangeEventListener(any(Executor.class), changeListenerCaptor.capture());
+        walletChangeEventListener = changeListenerCaptor.getValue();
+
+        ArgumentCaptor<WalletCoinsReceivedEventListener> coinsReceivedListenerCaptor =
+                ArgumentCaptor.forClass(WalletCoinsReceivedEventListener.class);
+        verify(wallet).addCoinsReceivedEventListener(coinsReceivedListenerCaptor.capture());
+        walletCoinsReceivedEventListener = coinsReceivedListenerCaptor.getValue();
+
+        ArgumentCaptor<WalletCoinsReceivedEventListener> cacheInvalidationCoinsReceivedListenerCaptor =
+                ArgumentCaptor.forClass(WalletCoinsReceivedEventListener.class);
+        verify(wallet).addCoinsReceivedEventListener(any(Executor.class),
+                cacheInvalidationCoinsReceivedListenerCaptor.capture());
+        cacheInvalidationCoinsReceivedEventListener = cacheInvalidationCoinsReceivedListenerCaptor.getValue();
+
+        ArgumentCaptor<TransactionConfidenceEventListener> confidenceListenerCaptor =
+                ArgumentCaptor.forClass(TransactionConfidenceEventListener.class);
+        verify(wallet).addTransactionConfidenceEventListener(confidenceListenerCaptor.capture());
+        transactionConfidenceEventListener = confidenceListenerCaptor.getValue();
+    }
+
+    private TransactionOutput output(Coin value, Address address) {
+        return new TransactionOutput(params, null, value, address);
+    }
+
+    private BalanceListener balanceListener(Address address) {
+        BalanceListener balanceListener = mock(BalanceListener.class);
+        when(balanceListener.getAddress()).thenReturn(address);
+        walletService.addBalanceListener(balanceListener);
+        return balanceListener;
+    }
+
+    @Test
+    public void testBalanceForAddressUsesCachedSpendCandidates() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1),
+                output(Coin.COIN, address1),
+                output(Coin.valueOf(5), address2)));
+
+        assertEquals(Coin.valueOf(2, 0), walletService.getBalanceForAddress(address1));
+        assertEquals(Coin.valueOf(5), walletService.getBalanceForAddress(address2));
+        verify(wallet, times(1)).calculateAllSpendCandidates();
+    }
+
+    @Test
+    public void testSpendCandidatesAreRecalculatedAfterWalletChange() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1)));
+        assertEquals(Coin.COIN, walletService.getBalanceForAddress(address1));
+
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.valueOf(3), address1)));
+        // Not recalculated before the wallet notified a change
+        assertEquals(Coin.COIN, walletService.getBalanceForAddress(address1));
+
+        walletChangeEventListener.onWalletChanged(wallet);
+        assertEquals(Coin.valueOf(3), walletService.getBalanceForAddress(address1));
+        verify(wallet, times(2)).calculateAllSpendCandidates();
+    }
+
+    @Test
+    public void testOnlyListenersOfAffectedAddressesAreNotified() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1)));
+        when(wallet.getBalance(Wallet.BalanceType.AVAILABLE)).thenReturn(Coin.valueOf(7));
+        BalanceListener listener1 = balanceListener(address1);
+        BalanceListener listener2 = balanceListener(address2);
+        BalanceListener listenerWithoutAddress = balanceListener(null);
+
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.COIN, address1);
+        walletCoinsReceivedEventListener.onCoinsReceived(wallet, tx, Coin.ZERO, Coin.COIN);
+
+        verify(listener1).onBalanceChanged(Coin.COIN, tx);
+        verify(listener2, never()).onBalanceChanged(any(), any());
+        // Listeners without an address get the available balance at each tx
+        verify(listenerWithoutAddress).onBalanceChanged(Coin.valueOf(7), tx);
+    }
+
+    @Test
+    public void testListenerOfSpentAddressIsNotified() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of());
+        BalanceListener listener1 = balanceListener(address1);
+        BalanceListener listener2 = balanceListener(address2);
+
+        Transaction previousTx = new Transaction(params);
+        previousTx.addOutput(Coin.COIN, address2);
+        Transaction tx = new Transaction(params);
+        tx.addInput(previousTx.getOutput(0));
+        tx.addOutput(Coin.COIN, address1);
+        walletCoinsReceivedEventListener.onCoinsReceived(wallet, tx, Coin.COIN, Coin.ZERO);
+
+        verify(listener1).onBalanceChanged(Coin.ZERO, tx);
+        verify(listener2).onBalanceChanged(Coin.ZERO, tx);
+    }
+
+    @Test
+    public void testSpendCandidatesAreRecalculatedAfterCoinsReceived() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1)));
+        assertEquals(Coin.COIN, walletService.getBalanceForAddress(address1));
+
+        // The wallet change event is suppressed until the block is processed
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.valueOf(3), address1)));
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.valueOf(2), address1);
+        cacheInvalidationCoinsReceivedEventListener.onCoinsReceived(wallet, tx, Coin.COIN, Coin.valueOf(3));
+
+        assertEquals(Coin.valueOf(3), walletService.getBalanceForAddress(address1));
+    }
+
+    @Test
+    public void testListenersDoNotGetCachedBalance() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1)));
+        assertEquals(Coin.COIN, walletService.getBalanceForAddress(address1));
+        BalanceListener listener1 = balanceListener(address1);
+
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.valueOf(3), address1)));
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.valueOf(2), address1);
+        walletCoinsReceivedEventListener.onCoinsReceived(wallet, tx, Coin.COIN, Coin.valueOf(3));
+
+        verify(listener1).onBalanceChanged(Coin.valueOf(3), tx);
+    }
+
+    @Test
+    public void testAllListenersAreNotifiedAtDeadTx() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address2)));
+        BalanceListener listener1 = balanceListener(address1);
+        BalanceListener listener2 = balanceListener(address2);
+
+        // The inputs of a dead tx are disconnected, so the spent address cannot be derived from the tx
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.COIN, address1);
+        tx.getConfidence().setConfidenceType(TransactionConfidence.ConfidenceType.DEAD);
+        transactionConfidenceEventListener.onTransactionConfidenceChanged(wallet, tx);
+
+        verify(listener1).onBalanceChanged(Coin.ZERO, tx);
+        verify(listener2).onBalanceChanged(Coin.COIN, tx);
+    }
+
+    @Test
+    public void testListenersAreNotNotifiedAtDeeperConfirmations() {
+        when(wallet.calculateAllSpendCandidates()).thenReturn(List.of(output(Coin.COIN, address1)));
+        BalanceListener listener1 = balanceListener(address1);
+
+        Transaction tx = new Transaction(params);
+        tx.addOutput(Coin.COIN, address1);
+        tx.getConfidence().setAppearedAtChainHeight(100);
+        tx.getConfidence().setDepthInBlocks(1);
+        transactionConfidenceEventListener.onTransactionConfidenceChanged(wallet, tx);
+        verify(listener1).onBalanceChanged(Coin.COIN, tx);
+
+        tx.getConfidence().setDepthInBlocks(2);
+        transactionConfidenceEventListener.onTransactionConfidenceChanged(wallet, tx);
+        verify(listener1, times(1)).onBalanceChanged(any(), any());
+    }
+}
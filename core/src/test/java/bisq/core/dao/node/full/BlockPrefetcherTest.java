@@ -0,0 +1,170 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.node.full;
+
+import bisq.common.util.Utilities;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockPrefetcherTest {
+    private static final int WINDOW = 3;
+
+    // Requested blocks by height. The tests complete them in any order.
+    private final TreeMap<Integer, SettableFuture<RawBlock>> requests = new TreeMap<>();
+    private final List<Integer> receivedHeights = new ArrayList<>();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private BlockPrefetcher blockPrefetcher;
+
+    @Before
+    public void setUp() {
+        blockPrefetcher = new BlockPrefetcher(height -> {
+            SettableFuture<RawBlock> future = SettableFuture.create();
+            requests.put(height, future);
+            return future;
+        }, WINDOW, MoreExecutors.directExecutor());
+    }
+
+    private void start(int startBlockHeight, int chainHeight) {
+        blockPrefetcher.start(startBlockHeight,
+                chainHeight,
+                rawBlock -> receivedHeights.add(rawBlock.getHeight()),
+                () -> completed.set(true),
+                error::set);
+    }
+
+    private void complete(int height) {
+        requests.get(height).set(getRawBlock(height));
+    }
+
+    private static RawBlock getRawBlock(int height) {
+        return new RawBlock(height, height * 1000L, "hash" + height, "hash" + (height - 1), ImmutableList.of());
+    }
+
+    @Test
+    public void deliversBlocksInHeightOrder() {
+        start(100, 105);
+        Assert.assertEquals(List.of(100, 101, 102), new ArrayList<>(requests.keySet()));
+
+        complete(102);
+        complete(101);
+        Assert.assertTrue(receivedHeights.isEmpty());
+
+        complete(100);
+        Assert.assertEquals(List.of(100, 101, 102), receivedHeights);
+        Assert.assertEquals(List.of(100, 101, 102, 103, 104, 105), new ArrayList<>(requests.keySet()));
+
+        complete(105);
+        complete(104);
+        Assert.assertFalse(completed.get());
+        complete(103);
+        Assert.assertEquals(List.of(100, 101, 102, 103, 104, 105), receivedHeights);
+        Assert.assertTrue(completed.get());
+        Assert.assertNull(error.get());
+    }
+
+    @Test
+    public void limitsRequestsInFlight() {
+        start(1, 10);
+        for (int height = 1; height <= 10; height++) {
+            Assert.assertTrue(requests.size() <= receivedHeights.size() + WINDOW);
+            complete(height);
+        }
+        Assert.assertEquals(10, receivedHeights.size());
+        Assert.assertTrue(completed.get());
+    }
+
+    @Test
+    public void stopsAtError() {
+        start(1, 10);
+        complete(1);
+        requests.get(2).setException(new RpcException("test", null));
+
+        Assert.assertEquals(List.of(1), receivedHeights);
+        Assert.assertNotNull(error.get());
+        Assert.assertTrue(requests.get(3).isCancelled());
+        Assert.assertTrue(blockPrefetcher.isStopped());
+        Assert.assertFalse(completed.get());
+    }
+
+    @Test
+    public void stop() {
+        start(1, 10);
+        blockPrefetcher.stop();
+        complete(1);
+
+        Assert.assertTrue(receivedHeights.isEmpty());
+        Assert.assertTrue(requests.get(2).isCancelled());
+        Assert.assertEquals(WINDOW, requests.size());
+    }
+
+    @Test
+    public void restartAfterStopWithFullWindow() throws Exception {
+        ListeningExecutorService requestExecutor =
+                Utilities.getFixedThreadPoolListeningExecutor("BlockPrefetcherTest", WINDOW, 60);
+        ExecutorService callbackExecutor = Utilities.getSingleThreadExecutor("BlockPrefetcherTest-callback");
+        try {
+            // The requests of the first range never return unless they get interrupted
+            CountDownLatch windowFull = new CountDownLatch(WINDOW);
+            CountDownLatch neverReleased = new CountDownLatch(1);
+            BlockPrefetcher stalledPrefetcher = new BlockPrefetcher(height -> requestExecutor.submit(() -> {
+                windowFull.countDown();
+                neverReleased.await();
+                return getRawBlock(height);
+            }), WINDOW, callbackExecutor);
+            callbackExecutor.submit(() -> stalledPrefetcher.start(1, 10,
+                    rawBlock -> receivedHeights.add(rawBlock.getHeight()),
+                    () -> completed.set(true),
+                    error::set)).get();
+            Assert.assertTrue(windowFull.await(5, TimeUnit.SECONDS));
+            callbackExecutor.submit(stalledPrefetcher::stop).get();
+
+            CountDownLatch restartCompleted = new CountDownLatch(1);
+            BlockPrefetcher restartedPrefetcher = new BlockPrefetcher(height ->
+                    requestExecutor.submit(() -> getRawBlock(height)), WINDOW, callbackExecutor);
+            callbackExecutor.submit(() -> restartedPrefetcher.start(1, 10,
+                    rawBlock -> receivedHeights.add(rawBlock.getHeight()),
+                    restartCompleted::countDown,
+                    error::set)).get();
+
+            Assert.assertTrue(restartCompleted.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), receivedHeights);
+            Assert.assertFalse(completed.get());
+            Assert.assertNull(error.get());
+        } finally {
+            requestExecutor.shutdownNow();
+            callbackExecutor.shutdownNow();
+        }
+    }
+}
@@ -19,6 +19,8 @@ package bisq.core.dao.state;
 
 import bisq.core.dao.state.model.DaoState;
 import bisq.core.dao.state.model.blockchain.Block;
+import bisq.core.dao.state.model.blockchain.Tx;
+import bisq.core.dao.state.model.blockchain.TxOutputKey;
 import bisq.core.util.coin.BsqFormatter;
 
 import org.bitcoinj.core.Coin;
@@ -69,4 +71,96 @@ public class DaoStateServiceTest {
                 stateService.isBlockHashKnown("fakeblockhash4")
         );
     }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        DaoStateService stateService = new DaoStateService(
+                new DaoState(),
+                new GenesisTxInfo("fakegenesistxid", 0, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+        stateService.onNewBlockHeight(0);
+        stateService.onNewBlockWithEmptyTxs(new Block(0, 1534800000, "fakeblockhash0", null));
+
+        DaoState snapshot = stateService.getSnapshot();
+        Assert.assertEquals(stateService.getClone().toProtoMessage(), snapshot.toProtoMessage());
+
+        stateService.onNewBlockHeight(1);
+        stateService.onNewBlockWithEmptyTxs(new Block(1, 1534800001, "fakeblockhash1", "fakeblockhash0"));
+
+        Assert.assertEquals(2, stateService.getBlocks().size());
+        Assert.assertEquals(1, snapshot.getBlocks().size());
+        Assert.assertEquals(0, snapshot.getChainHeight());
+    }
+
+    @Test
+    public void testBlockLookups() {
+        DaoStateService stateService = new DaoStateService(
+                new DaoState(),
+                new GenesisTxInfo("fakegenesistxid", 100, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+        for (int height = 100; height <= 104; height++) {
+            stateService.onNewBlockHeight(height);
+            stateService.onNewBlockWithEmptyTxs(new Block(height, 1534800000 + height, "fakeblockhash" + height, null));
+        }
+        DaoState snapshot = stateService.getSnapshot();
+
+        Assert.assertEquals("fakeblockhash102", stateService.getBlockAtHeight(102).orElseThrow().getHash());
+        Assert.assertFalse(stateService.getBlockAtHeight(99).isPresent());
+        Assert.assertFalse(stateService.getBlockAtHeight(105).isPresent());
+        Assert.assertTrue(stateService.containsBlockHash("fakeblockhash104"));
+        Assert.assertEquals(2, stateService.getBlocksFromBlockHeight(103, 10).size());
+        Assert.assertEquals(103, stateService.getBlocksFromBlockHeight(103, 1).get(0).getHeight());
+        Assert.assertEquals(5, stateService.getBlocksFromBlockHeight(0, 10).size());
+        Assert.assertTrue(stateService.getBlocksFromBlockHeight(105, 10).isEmpty());
+
+        stateService.onNewBlockHeight(105);
+        stateService.onNewBlockWithEmptyTxs(new Block(105, 1534800105, "fakeblockhash105", null));
+        Assert.assertTrue(stateService.containsBlockHash("fakeblockhash105"));
+
+        // The index must reflect the blocks of the snapshot after it got applied
+        stateService.applySnapshot(snapshot);
+        Assert.assertFalse(stateService.containsBlockHash("fakeblockhash105"));
+        Assert.assertFalse(stateService.getBlockAtHeight(105).isPresent());
+        Assert.assertEquals("fakeblockhash104", stateService.getBlockAtHeight(104).orElseThrow().getHash());
+    }
+
+    private static Tx txOf(String txId, protobuf.TxType txType, long burntBsq, protobuf.TxOutputType... txOutputTypes) {
+        protobuf.Tx.Builder txBuilder = protobuf.Tx.newBuilder().setTxType(txType).setBurntBsq(burntBsq);
+        for (int i = 0; i < txOutputTypes.length; i++) {
+            txBuilder.addTxOutputs(protobuf.BaseTxOutput.newBuilder()
+                    .setIndex(i)
+                    .setTxId(txId)
+                    .setTxOutput(protobuf.TxOutput.newBuilder().setTxOutputType(txOutputTypes[i])));
+        }
+        return Tx.fromProto(protobuf.BaseTx.newBuilder().setId(txId).setTx(txBuilder).build());
+    }
+
+    @Test
+    public void testTxIndices() {
+        DaoStateService stateService = new DaoStateService(
+                new DaoState(),
+                new GenesisTxInfo("fakegenesistxid", 100, Coin.parseCoin("2.5").value),
+                new BsqFormatter());
+        Block block = new Block(100, 1534800100, "fakeblockhash100", null);
+        stateService.onNewBlockHeight(100);
+        stateService.onNewBlockWithEmptyTxs(block);
+        stateService.onNewTxForLastBlock(block, txOf("tx1", protobuf.TxType.PAY_TRADE_FEE, 10,
+                protobuf.TxOutputType.BSQ_OUTPUT, protobuf.TxOutputType.BTC_OUTPUT));
+        DaoState snapshot = stateService.getSnapshot();
+        stateService.onNewTxForLastBlock(block, txOf("tx2", protobuf.TxType.PROOF_OF_BURN, 20,
+                protobuf.TxOutputType.BSQ_OUTPUT, protobuf.TxOutputType.PROOF_OF_BURN_OP_RETURN_OUTPUT));
+
+        Assert.assertEquals(1, stateService.getTradeFeeTxs().size());
+        Assert.assertEquals("tx2", stateService.getProofOfBurnTxs().iterator().next().getId());
+        Assert.assertEquals(2, stateService.getBurntFeeTxs().size());
+        Assert.assertEquals(1, stateService.getProofOfBurnOpReturnTxOutputs().size());
+        Assert.assertTrue(stateService.existsTxOutput(new TxOutputKey("tx2", 1)));
+        Assert.assertFalse(stateService.existsTxOutput(new TxOutputKey("tx2", 2)));
+
+        // The indices must reflect the txs of the snapshot after it got applied
+        stateService.applySnapshot(snapshot);
+        Assert.assertTrue(stateService.getProofOfBurnTxs().isEmpty());
+        Assert.assertEquals(1, stateService.getBurntFeeTxs().size());
+        Assert.assertTrue(stateService.getProofOfBurnOpReturnTxOutputs().isEmpty());
+    }
 }
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.dao.state.storage;
+
+import bisq.core.dao.monitoring.model.DaoStateHash;
+import bisq.core.dao.state.model.blockchain.Block;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.LinkedList;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.dao.state.storage.DaoStateBlocksSegments.NUM_BLOCKS_PER_SEGMENT;
+
+public class DaoStateBlocksSegmentsTest {
+    private File dir;
+    private DaoStateBlocksSegments blocksSegments;
+    private final LinkedList<Block> blocks = new LinkedList<>();
+    private final LinkedList<DaoStateHash> daoStateHashChain = new LinkedList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        dir = new File(Files.createTempDirectory("storage").toFile(), "DaoStateStore_blocks");
+        blocksSegments = new DaoStateBlocksSegments(dir);
+    }
+
+    private void addBlocks(int fromHeight, int toHeight, String fork) {
+        for (int height = fromHeight; height <= toHeight; height++) {
+            String previousHash = blocks.isEmpty() ? null : blocks.getLast().getHash();
+            blocks.add(new Block(height, height * 1000L, fork + height, previousHash));
+            daoStateHashChain.add(new DaoStateHash(height, new byte[]{(byte) height}, new byte[]{(byte) (height - 1)}));
+        }
+    }
+
+    private void removeBlocksAbove(int height) {
+        blocks.removeIf(block -> block.getHeight() > height);
+        daoStateHashChain.removeIf(daoStateHash -> daoStateHash.getHeight() > height);
+    }
+
+    private File getSegmentFile(int height) {
+        return new File(dir, "blocks_" + height / NUM_BLOCKS_PER_SEGMENT);
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        addBlocks(500, 2500, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        DaoStateBlocksSegments.Segments segments = new DaoStateBlocksSegments(dir).read(2500);
+
+        Assert.assertEquals(blocks, segments.getBlocks());
+        Assert.assertEquals(daoStateHashChain.size(), segments.getDaoStateHashChain().size());
+        Assert.assertEquals(2500, segments.getDaoStateHashChain().getLast().getHeight());
+    }
+
+    @Test
+    public void read_ignoresBlocksAboveChainHeight() throws IOException {
+        addBlocks(500, 2500, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        DaoStateBlocksSegments.Segments segments = new DaoStateBlocksSegments(dir).read(2200);
+
+        Assert.assertEquals(2200, segments.getBlocks().getLast().getHeight());
+        Assert.assertEquals(2200, segments.getDaoStateHashChain().getLast().getHeight());
+    }
+
+    @Test
+    public void write_onlyChangedSegments() throws IOException {
+        addBlocks(500, 2500, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+        File oldSegmentFile = getSegmentFile(500);
+        Assert.assertTrue(oldSegmentFile.delete());
+
+        addBlocks(2501, 2520, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        // The segment of the old blocks did not change so it was not written again
+        Assert.assertFalse(oldSegmentFile.exists());
+        Assert.assertTrue(getSegmentFile(2520).exists());
+    }
+
+    @Test
+    public void write_afterReorg() throws IOException {
+        addBlocks(500, 2500, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        removeBlocksAbove(1990);
+        addBlocks(1991, 1995, "b");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        Assert.assertFalse(getSegmentFile(2500).exists());
+        DaoStateBlocksSegments.Segments segments = new DaoStateBlocksSegments(dir).read(1995);
+        Assert.assertEquals(blocks, segments.getBlocks());
+        Assert.assertEquals("b1995", segments.getBlocks().getLast().getHash());
+    }
+
+    @Test
+    public void write_truncatesSegmentsAboveSnapshotAfterRestart() throws IOException {
+        addBlocks(500, 2500, "a");
+        blocksSegments.write(blocks, daoStateHashChain);
+
+        // After a crash the snapshot might be below the blocks of the segments
+        DaoStateBlocksSegments restartedBlocksSegments = new DaoStateBlocksSegments(dir);
+        restartedBlocksSegments.read(1995);
+        removeBlocksAbove(1995);
+        restartedBlocksSegments.write(blocks, daoStateHashChain);
+
+        Assert.assertFalse(getSegmentFile(2500).exists());
+        DaoStateBlocksSegments.Segments segments = new DaoStateBlocksSegments(dir).read(2500);
+        Assert.assertEquals(blocks, segments.getBlocks());
+        Assert.assertEquals(1995, segments.getDaoStateHashChain().getLast().getHeight());
+    }
+}
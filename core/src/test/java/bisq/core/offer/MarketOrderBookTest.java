@@ -0,0 +1,192 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.monetary.Price;
+import bisq.core.provider.price.MarketPrice;
+import bisq.core.provider.price.PriceFeedService;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.offer.OfferMaker.amount;
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.direction;
+import static bisq.core.offer.OfferMaker.id;
+import static bisq.core.offer.OfferMaker.marketPriceMargin;
+import static bisq.core.offer.OfferMaker.price;
+import static bisq.core.offer.OfferMaker.useMarketBasedPrice;
+import static bisq.core.offer.OfferPayload.Direction.BUY;
+import static bisq.core.offer.OfferPayload.Direction.SELL;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarketOrderBookTest {
+    private final PriceFeedService priceFeedService = mock(PriceFeedService.class);
+    private final Clock clock = mock(Clock.class);
+    private final long now = Instant.now().getEpochSecond();
+    private MarketOrderBook orderBook;
+
+    @Before
+    public void setUp() {
+        when(clock.millis()).thenReturn(now * 1000);
+        orderBook = new MarketOrderBook("USD", clock);
+        setMarketPrice(10000);
+        orderBook.onMarketPriceChanged(priceFeedService.getMarketPrice("USD"));
+    }
+
+    private void setMarketPrice(double marketPrice) {
+        setMarketPrice(marketPrice, now);
+    }
+
+    private void setMarketPrice(double marketPrice, long timestampSec) {
+        when(priceFeedService.getMarketPrice("USD"))
+                .thenReturn(new MarketPrice("USD", marketPrice, timestampSec, true));
+    }
+
+    private Offer addOffer(String offerId, OfferPayload.Direction offerDirection, long offerPrice, long offerAmount) {
+        Offer offer = make(btcUsdOffer.but(with(id, offerId),
+                with(direction, offerDirection),
+                with(price, offerPrice),
+                with(amount, offerAmount)));
+        orderBook.add(offer);
+        return offer;
+    }
+
+    private Offer addMarketBasedOffer(String offerId, OfferPayload.Direction offerDirection, double margin) {
+        Offer offer = make(btcUsdOffer.but(with(id, offerId),
+                with(direction, offerDirection),
+                with(useMarketBasedPrice, true),
+                with(marketPriceMargin, margin)));
+        offer.setPriceFeedService(priceFeedService);
+        orderBook.add(offer);
+        return offer;
+    }
+
+    private static List<String> getIds(List<Offer> offers) {
+        return offers.stream().map(Offer::getId).collect(Collectors.toList());
+    }
+
+    private static Price usd(long value) {
+        return Price.valueOf("USD", value);
+    }
+
+    @Test
+    public void sidesAreSortedFromBestToWorst() {
+        addOffer("buy1", BUY, 90000000, 100000);
+        addOffer("buy2", BUY, 95000000, 100000);
+        addOffer("sell1", SELL, 110000000, 100000);
+        addOffer("sell2", SELL, 105000000, 100000);
+        addOffer("sell3", SELL, 105000000, 200000);
+
+        assertEquals(List.of("buy2", "buy1"), getIds(orderBook.getOffers(BUY)));
+        // Same price offers are sorted by amount from high to low
+        assertEquals(List.of("sell3", "sell2", "sell1"), getIds(orderBook.getOffers(SELL)));
+        assertEquals("buy2", orderBook.getBestOffer(BUY).orElseThrow().getId());
+        assertEquals("sell3", orderBook.getBestOffer(SELL).orElseThrow().getId());
+        assertEquals(List.of("sell3", "sell2"), getIds(orderBook.getTopOffers(SELL, 2)));
+        assertEquals(2, orderBook.getTopOffers(BUY, 5).size());
+    }
+
+    @Test
+    public void depth() {
+        addOffer("buy1", BUY, 90000000, 100000);
+        addOffer("buy2", BUY, 95000000, 200000);
+        addOffer("sell1", SELL, 110000000, 300000);
+        addOffer("sell2", SELL, 105000000, 400000);
+
+        assertEquals(0, orderBook.getDepth(BUY, usd(96000000)));
+        assertEquals(200000, orderBook.getDepth(BUY, usd(95000000)));
+        assertEquals(300000, orderBook.getDepth(BUY, usd(80000000)));
+        assertEquals(0, orderBook.getDepth(SELL, usd(100000000)));
+        assertEquals(400000, orderBook.getDepth(SELL, usd(109000000)));
+        assertEquals(700000, orderBook.getDepth(SELL, usd(110000000)));
+        assertEquals(300000, orderBook.getTotalAmount(BUY));
+        assertEquals(700000, orderBook.getTotalAmount(SELL));
+    }
+
+    @Test
+    public void remove() {
+        Offer offer = addOffer("buy1", BUY, 90000000, 100000);
+        addOffer("buy2", BUY, 95000000, 100000);
+
+        // Another instance with the same id is not removed
+        assertFalse(orderBook.remove(make(btcUsdOffer.but(with(id, "buy1")))));
+        assertTrue(orderBook.remove(offer));
+
+        assertEquals(List.of("buy2"), getIds(orderBook.getOffers(BUY)));
+        assertEquals(1, orderBook.size());
+    }
+
+    @Test
+    public void marketBasedOffersAreRepricedAtMarketPriceChange() {
+        addOffer("buy1", BUY, 95000000, 100000);
+        addMarketBasedOffer("buy2", BUY, 0.01);
+        assertTrue(orderBook.hasMarketBasedOffers());
+
+        // 1% below 10000 USD
+        assertEquals(List.of("buy2", "buy1"), getIds(orderBook.getOffers(BUY)));
+
+        setMarketPrice(9000);
+        // Not repriced before the order book got notified
+        assertEquals(List.of("buy2", "buy1"), getIds(orderBook.getOffers(BUY)));
+
+        orderBook.onMarketPriceChanged(priceFeedService.getMarketPrice("USD"));
+        assertEquals(List.of("buy1", "buy2"), getIds(orderBook.getOffers(BUY)));
+    }
+
+    @Test
+    public void marketBasedOffersLosePriceWhenMarketPriceExpires() {
+        addOffer("buy1", BUY, 95000000, 100000);
+        addMarketBasedOffer("buy2", BUY, 0.01);
+        assertEquals(List.of("buy2", "buy1"), getIds(orderBook.getOffers(BUY)));
+
+        // No new market price arrives, so the one we have gets too old to price the market based offer
+        long expirySec = now + MarketPrice.MARKET_PRICE_MAX_AGE_SEC;
+        setMarketPrice(10000, now - MarketPrice.MARKET_PRICE_MAX_AGE_SEC);
+        when(clock.millis()).thenReturn(expirySec * 1000 - 1);
+        assertEquals(List.of("buy2", "buy1"), getIds(orderBook.getOffers(BUY)));
+
+        when(clock.millis()).thenReturn(expirySec * 1000);
+        assertEquals(List.of("buy1"), getIds(orderBook.getOffers(BUY)));
+        assertEquals(List.of("buy2"), getIds(orderBook.getOffersWithoutPrice(BUY)));
+        assertEquals("buy1", orderBook.getBestOffer(BUY).orElseThrow().getId());
+    }
+
+    @Test
+    public void marketBasedOffersWithoutPriceAreExcluded() {
+        when(priceFeedService.getMarketPrice("USD")).thenReturn(null);
+        addMarketBasedOffer("buy1", BUY, 0.01);
+
+        assertTrue(orderBook.getOffers(BUY).isEmpty());
+        assertEquals(List.of("buy1"), getIds(orderBook.getOffersWithoutPrice(BUY)));
+        assertFalse(orderBook.getBestOffer(BUY).isPresent());
+        assertEquals(1, orderBook.size());
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import bisq.core.filter.FilterManager;
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.HashMapChangedListener;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import java.nio.file.Files;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static bisq.core.offer.OfferMaker.counterCurrencyCode;
+import static bisq.core.offer.OfferMaker.direction;
+import static bisq.core.offer.OfferMaker.id;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class OfferBookServiceTest {
+    private final Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> dataMap = new HashMap<>();
+    private final List<Offer> addedOffers = new ArrayList<>();
+    private final List<Offer> removedOffers = new ArrayList<>();
+    private OfferBookService offerBookService;
+    private HashMapChangedListener hashMapChangedListener;
+
+    @Before
+    public void setUp() throws IOException {
+        OfferPayload persistedOfferPayload = createOfferPayload("persisted", OfferPayload.Direction.SELL, "EUR");
+        dataMap.put(new P2PDataStorage.ByteArray(new byte[]{1}), createEntry(persistedOfferPayload));
+
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getDataMap()).thenReturn(dataMap);
+        offerBookService = new OfferBookService(p2PService,
+                mock(PriceFeedService.class),
+                mock(FilterManager.class),
+                Files.createTempDirectory("storage").toFile(),
+                false);
+
+        ArgumentCaptor<HashMapChangedListener> captor = ArgumentCaptor.forClass(HashMapChangedListener.class);
+        verify(p2PService).addHashSetChangedListener(captor.capture());
+        hashMapChangedListener = captor.getValue();
+
+        offerBookService.addOfferBookChangedListener(new OfferBookService.OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                addedOffers.add(offer);
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                removedOffers.add(offer);
+            }
+        });
+    }
+
+    private static OfferPayload createOfferPayload(String offerId,
+                                                   OfferPayload.Direction offerDirection,
+                                                   String currencyCode) {
+        return make(btcUsdOffer.but(with(id, offerId),
+                with(direction, offerDirection),
+                with(counterCurrencyCode, currencyCode))).getOfferPayload();
+    }
+
+    private static ProtectedStorageEntry createEntry(OfferPayload offerPayload) {
+        ProtectedStorageEntry entry = mock(ProtectedStorageEntry.class);
+        when(entry.getProtectedStoragePayload()).thenReturn(offerPayload);
+        return entry;
+    }
+
+    private void onAdded(OfferPayload offerPayload) {
+        hashMapChangedListener.onAdded(singletonList(createEntry(offerPayload)));
+    }
+
+    private void onRemoved(OfferPayload offerPayload) {
+        hashMapChangedListener.onRemoved(singletonList(createEntry(offerPayload)));
+    }
+
+    @Test
+    public void containsOffersOfDataMap() {
+        assertEquals(1, offerBookService.getOffers().size());
+        assertTrue(offerBookService.getOffer("persisted").isPresent());
+        assertEquals(1, offerBookService.getOffers("EUR", OfferPayload.Direction.SELL).size());
+    }
+
+    @Test
+    public void addedOfferIsIndexed() {
+        onAdded(createOfferPayload("a", OfferPayload.Direction.BUY, "USD"));
+        onAdded(createOfferPayload("b", OfferPayload.Direction.SELL, "USD"));
+
+        Offer offer = offerBookService.getOffer("a").orElseThrow();
+        assertSame(offer, addedOffers.get(0));
+        assertEquals(List.of(offer), offerBookService.getOffers("usd", OfferPayload.Direction.BUY));
+        assertEquals(1, offerBookService.getOffers("USD", OfferPayload.Direction.SELL).size());
+        assertTrue(offerBookService.getOffers("USD", OfferPayload.Direction.SELL).stream()
+                .noneMatch(o -> o.getId().equals("a")));
+        assertEquals(3, offerBookService.getOffersByPaymentMethodId("SEPA").size());
+        assertEquals(3, offerBookService.getOffers().size());
+    }
+
+    @Test
+    public void offerInstanceIsStable() {
+        OfferPayload offerPayload = createOfferPayload("a", OfferPayload.Direction.BUY, "USD");
+        onAdded(offerPayload);
+        Offer offer = offerBookService.getOffer("a").orElseThrow();
+
+        // Added again after a sequence number increase
+        onAdded(offerPayload);
+
+        assertSame(offer, offerBookService.getOffer("a").orElseThrow());
+        assertSame(offer, addedOffers.get(1));
+        assertTrue(offerBookService.getOffers().stream().anyMatch(o -> o == offer));
+    }
+
+    @Test
+    public void removedOfferIsRemovedFromIndices() {
+        OfferPayload offerPayload = createOfferPayload("a", OfferPayload.Direction.BUY, "USD");
+        onAdded(offerPayload);
+        Offer offer = offerBookService.getOffer("a").orElseThrow();
+
+        onRemoved(offerPayload);
+
+        assertSame(offer, removedOffers.get(0));
+        assertFalse(offerBookService.getOffer("a").isPresent());
+        assertTrue(offerBookService.getOffers("USD", OfferPayload.Direction.BUY).isEmpty());
+        assertEquals(1, offerBookService.getOffersByPaymentMethodId("SEPA").size());
+    }
+
+    @Test
+    public void removingReplacedPayloadKeepsNewOffer() {
+        OfferPayload oldOfferPayload = createOfferPayload("a", OfferPayload.Direction.BUY, "USD");
+        OfferPayload newOfferPayload = createOfferPayload("a", OfferPayload.Direction.BUY, "EUR");
+        onAdded(oldOfferPayload);
+        onAdded(newOfferPayload);
+
+        onRemoved(oldOfferPayload);
+
+        assertEquals("EUR", offerBookService.getOffer("a").orElseThrow().getCurrencyCode());
+        assertTrue(offerBookService.getOffers("USD", OfferPayload.Direction.BUY).isEmpty());
+        assertEquals(1, offerBookService.getOffers("EUR", OfferPayload.Direction.BUY).size());
+        assertEquals(1, removedOffers.size());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatistics3ColumnsTest {
+    private final TradeStatistics3 eur1 = tradeStatistics("EUR", "500", "1", 3000, "mediator", null);
+    private final TradeStatistics3 usd = tradeStatistics("USD", "600", "0.5", 1000, null, "refundAgent");
+    private final TradeStatistics3 eur2 = new TradeStatistics3("EUR",
+            Price.parse("EUR", "520").getValue(),
+            Coin.parseCoin("2").getValue(),
+            PaymentMethod.SEPA_ID,
+            2000,
+            "mediator",
+            "refundAgent",
+            Map.of("key", "value"),
+            null);
+    private TradeStatistics3Columns columns;
+
+    @Before
+    public void setUp() {
+        columns = TradeStatistics3Columns.from(List.of(eur1, usd, eur2));
+    }
+
+    private static TradeStatistics3 tradeStatistics(String currencyCode,
+                                                    String price,
+                                                    String amount,
+                                                    long date,
+                                                    String mediator,
+                                                    String refundAgent) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin(amount).getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                mediator,
+                refundAgent,
+                null,
+                null);
+    }
+
+    @Test
+    public void testRowsAreSortedByDate() {
+        assertEquals(3, columns.size());
+        assertEquals(usd, columns.get(0));
+        assertEquals(eur2, columns.get(1));
+        assertEquals(eur1, columns.get(2));
+        assertArrayEquals(new long[]{1000, 2000, 3000}, columns.getDates());
+    }
+
+    @Test
+    public void testGetRestoresAllFields() {
+        TradeStatistics3 restored = columns.get(1);
+        assertArrayEquals(eur2.getHash(), restored.getHash());
+        assertEquals(eur2.getPaymentMethod(), restored.getPaymentMethod());
+        assertEquals(Map.of("key", "value"), restored.getExtraDataMap());
+        assertNull(columns.get(0).getMediator());
+        assertNull(columns.get(2).getRefundAgent());
+    }
+
+    @Test
+    public void testIndexOf() {
+        assertEquals(2, columns.indexOf(eur1.getHash()));
+        assertEquals(-1, columns.indexOf(new byte[20]));
+        assertTrue(columns.contains(usd));
+        assertFalse(columns.contains(tradeStatistics("USD", "600", "0.5", 4000, null, null)));
+    }
+
+    @Test
+    public void testGetTradeStatistics() {
+        assertEquals(0, columns.getFirstRowAfter(0));
+        assertEquals(1, columns.getFirstRowAfter(1000));
+        assertEquals(3, columns.getFirstRowAfter(3000));
+
+        assertEquals(List.of(eur2, eur1), columns.getTradeStatistics("EUR", 1000));
+        assertEquals(List.of(eur1), columns.getTradeStatistics("EUR", 2000));
+        assertTrue(columns.getTradeStatistics("BSQ", 0).isEmpty());
+    }
+
+    @Test
+    public void testAsMap() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = columns.asMap();
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey(new P2PDataStorage.ByteArray(usd.getHash())));
+        assertFalse(map.containsKey(new P2PDataStorage.ByteArray(new byte[20])));
+        assertEquals(eur1, map.get(new P2PDataStorage.ByteArray(eur1.getHash())));
+        assertEquals(3, map.entrySet().stream().filter(e -> e.getValue().equals(map.get(e.getKey()))).count());
+    }
+
+    @Test
+    public void testAsDateSortedEntries() {
+        List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> entries = columns.asDateSortedEntries();
+        assertEquals(3, entries.size());
+        assertEquals(new P2PDataStorage.ByteArray(usd.getHash()), entries.get(0).getKey());
+        assertEquals(eur1, entries.get(2).getValue());
+    }
+
+    @Test
+    public void testFromValid() {
+        TradeStatistics3 gbp = tradeStatistics("GBP", "400", "1", 2500, null, null);
+        TradeStatistics3 invalid = new TradeStatistics3("GBP", 0, 0, PaymentMethod.SEPA_ID, 2600, null, null, null, null);
+        TradeStatistics3Columns merged = TradeStatistics3Columns.fromValid(columns, List.of(gbp, invalid, eur1, gbp));
+
+        assertEquals(4, merged.size());
+        assertEquals(List.of(usd, eur2, gbp, eur1),
+                List.of(merged.get(0), merged.get(1), merged.get(2), merged.get(3)));
+        assertArrayEquals(eur2.getHash(), merged.get(1).getHash());
+        assertEquals(Map.of("key", "value"), merged.get(1).getExtraDataMap());
+        assertEquals(2, merged.indexOf(gbp.getHash()));
+    }
+
+    @Test
+    public void testForEachRow() {
+        List<Long> dates = new ArrayList<>();
+        List<String> currencies = new ArrayList<>();
+        columns.forEachRow(1000, (currency, price, amount, date) -> {
+            currencies.add(currency);
+            dates.add(date);
+        });
+
+        assertEquals(List.of("EUR", "EUR"), currencies);
+        assertEquals(List.of(2000L, 3000L), dates);
+    }
+
+    @Test
+    public void testGetNumRowsByCurrency() {
+        assertEquals(Map.of("EUR", 2, "USD", 1), columns.getNumRowsByCurrency());
+    }
+
+    @Test
+    public void testGetMostRecentTradeStatisticsByCurrency() {
+        assertEquals(Map.of("EUR", eur1, "USD", usd), columns.getMostRecentTradeStatisticsByCurrency());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import org.bitcoinj.core.Coin;
+
+import javafx.beans.InvalidationListener;
+
+import javafx.collections.SetChangeListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatistics3SetTest {
+    private final TradeStatistics3 eur = tradeStatistics("EUR", "500", 3000);
+    private final TradeStatistics3 usd = tradeStatistics("USD", "600", 1000);
+    private final TradeStatistics3 gbp = tradeStatistics("GBP", "400", 2000);
+    private final List<TradeStatistics3> addedElements = new ArrayList<>();
+    private TradeStatistics3Set set;
+
+    @Before
+    public void setUp() {
+        set = new TradeStatistics3Set();
+        set.addListener((SetChangeListener<TradeStatistics3>) change -> {
+            assertTrue(change.wasAdded());
+            addedElements.add(change.getElementAdded());
+        });
+    }
+
+    private static TradeStatistics3 tradeStatistics(String currencyCode, String price, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin("1").getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                null,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    public void testAddNotifiesListeners() {
+        assertTrue(set.add(eur));
+        assertFalse(set.add(eur));
+
+        assertEquals(1, set.size());
+        assertEquals(List.of(eur), addedElements);
+    }
+
+    @Test
+    public void testSetColumnsDoesNotDuplicateAddedTradeStatistics() {
+        set.add(eur);
+        set.add(usd);
+        set.setColumns(TradeStatistics3Columns.from(List.of(eur, gbp)));
+
+        assertEquals(3, set.size());
+        assertEquals(Set.of(eur, usd, gbp), new HashSet<>(set));
+        assertFalse(set.add(gbp));
+        assertEquals(List.of(usd), set.getTradeStatistics("USD", 0));
+    }
+
+    @Test
+    public void testSetColumnsNotifiesListenersAboutNewTradeStatistics() {
+        set.add(eur);
+        addedElements.clear();
+        set.setColumns(TradeStatistics3Columns.from(List.of(eur, usd, gbp)));
+
+        assertEquals(List.of(usd, gbp), addedElements);
+    }
+
+    @Test
+    public void testSetColumnsNotifiesInvalidationListenersOnce() {
+        AtomicInteger numInvalidations = new AtomicInteger();
+        set.addListener((InvalidationListener) observable -> numInvalidations.incrementAndGet());
+        set.setColumns(TradeStatistics3Columns.from(List.of(eur, usd, gbp)));
+
+        assertEquals(1, numInvalidations.get());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import org.bitcoinj.core.Coin;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatisticsCandlesTest {
+    private static final ZoneId ZONE_ID = ZoneOffset.UTC;
+    private static final long DAY_1 = toTime(LocalDateTime.of(2020, 10, 5, 0, 0));
+    private static final long DAY_2 = toTime(LocalDateTime.of(2020, 10, 6, 0, 0));
+    private static final long DAY_3 = toTime(LocalDateTime.of(2020, 10, 7, 0, 0));
+    private static final long HOUR = 3600 * 1000L;
+
+    private TradeStatisticsCandles candles;
+
+    @Before
+    public void setUp() {
+        candles = new TradeStatisticsCandles(ZONE_ID);
+    }
+
+    private static long toTime(LocalDateTime localDateTime) {
+        return localDateTime.atZone(ZONE_ID).toInstant().toEpochMilli();
+    }
+
+    private static TradeStatistics3 tradeStatistics(String currencyCode, String price, String amount, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin(amount).getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                null,
+                null,
+                null,
+                null);
+    }
+
+    private static long price(String currencyCode, String price) {
+        return Price.parse(currencyCode, price).getValue();
+    }
+
+    @Test
+    public void testOhlcAddedOutOfOrder() {
+        candles.add(tradeStatistics("EUR", "580", "1", DAY_1 + 4 * HOUR));
+        candles.add(tradeStatistics("EUR", "600", "1", DAY_1 + 3 * HOUR));
+        candles.add(tradeStatistics("EUR", "520", "1", DAY_1 + HOUR));
+        candles.add(tradeStatistics("EUR", "500", "2", DAY_1 + 2 * HOUR));
+
+        List<TradeStatisticsCandle> list = candles.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2);
+        assertEquals(1, list.size());
+        TradeStatisticsCandle candle = list.get(0);
+        assertEquals(DAY_1, candle.getTickStart());
+        assertEquals(price("EUR", "520"), candle.getOpen());
+        assertEquals(price("EUR", "580"), candle.getClose());
+        assertEquals(price("EUR", "600"), candle.getHigh());
+        assertEquals(price("EUR", "500"), candle.getLow());
+        assertEquals(price("EUR", "550"), candle.getMedian());
+        assertEquals(Coin.parseCoin("5").getValue(), candle.getAccumulatedAmount());
+        assertEquals(4, candle.getNumTrades());
+
+        assertEquals(4, candles.getCandles("EUR", TickUnit.HOUR, DAY_1, DAY_2).size());
+    }
+
+    @Test
+    public void testRangeQuery() {
+        candles.add(tradeStatistics("EUR", "500", "1", DAY_1 + HOUR));
+        candles.add(tradeStatistics("EUR", "510", "1", DAY_2 + HOUR));
+        candles.add(tradeStatistics("EUR", "520", "1", DAY_3 + HOUR));
+        candles.add(tradeStatistics("USD", "600", "1", DAY_2 + HOUR));
+
+        List<TradeStatisticsCandle> list = candles.getCandles("EUR", TickUnit.DAY, DAY_2 + 2 * HOUR, DAY_3);
+        assertEquals(1, list.size());
+        assertEquals(DAY_2, list.get(0).getTickStart());
+
+        assertEquals(3, candles.getCandles("EUR", TickUnit.DAY, 0, Long.MAX_VALUE).size());
+        assertTrue(candles.getCandles("EUR", TickUnit.DAY, DAY_3 + 24 * HOUR, Long.MAX_VALUE).isEmpty());
+        assertTrue(candles.getCandles("CHF", TickUnit.DAY, 0, Long.MAX_VALUE).isEmpty());
+
+        List<TradeStatisticsCandle> allCurrencies = candles.getCandles(null, TickUnit.DAY, 0, Long.MAX_VALUE);
+        assertEquals(3, allCurrencies.size());
+        assertEquals(2, allCurrencies.get(1).getNumTrades());
+        assertNull(allCurrencies.get(1).getCurrencyCode());
+    }
+
+    @Test
+    public void testVolumeInUsdUsesPreviousUsdPrice() {
+        candles.add(tradeStatistics("USD", "10000", "1", DAY_1 + HOUR));
+        candles.add(tradeStatistics("EUR", "9000", "2", DAY_1 + HOUR));
+        candles.add(tradeStatistics("EUR", "9000", "1", DAY_2 + HOUR));
+
+        List<TradeStatisticsCandle> list = candles.getCandles("EUR", TickUnit.DAY, 0, Long.MAX_VALUE);
+        assertEquals(20000, list.get(0).getVolumeInUsd());
+        // No USD trades at day 2, so the USD price of day 1 is used
+        assertEquals(10000, list.get(1).getVolumeInUsd());
+    }
+
+    @Test
+    public void testNumTradeStatistics() {
+        candles.add(tradeStatistics("EUR", "500", "1", DAY_1 + HOUR));
+        candles.addAll(List.of(tradeStatistics("USD", "600", "1", DAY_1 + 3 * HOUR),
+                tradeStatistics("EUR", "500", "1", DAY_1 + 2 * HOUR)));
+
+        assertEquals(3, candles.getNumTradeStatistics());
+        assertEquals(2, candles.getCandles("EUR", TickUnit.DAY, 0, Long.MAX_VALUE).get(0).getNumTrades());
+        assertEquals(3, candles.getCandles(null, TickUnit.DAY, 0, Long.MAX_VALUE).get(0).getNumTrades());
+    }
+
+    @Test
+    public void testExtremeTimeRange() {
+        candles.add(tradeStatistics("EUR", "500", "1", DAY_1 + HOUR));
+
+        assertEquals(1, candles.getCandles("EUR", TickUnit.YEAR, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertTrue(candles.getCandles("EUR", TickUnit.YEAR, Long.MAX_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void testMedianAfterAdd() {
+        candles.add(tradeStatistics("EUR", "500", "1", DAY_1 + HOUR));
+        assertEquals(price("EUR", "500"), candles.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2).get(0).getMedian());
+
+        candles.add(tradeStatistics("EUR", "600", "1", DAY_1 + 2 * HOUR));
+        candles.add(tradeStatistics("EUR", "700", "1", DAY_1 + 3 * HOUR));
+        assertEquals(price("EUR", "600"), candles.getCandles("EUR", TickUnit.DAY, DAY_1, DAY_2).get(0).getMedian());
+    }
+}
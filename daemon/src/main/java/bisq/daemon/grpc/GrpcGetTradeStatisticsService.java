@@ -1,8 +1,11 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.model.TradeStatisticsCandleInfo;
 import bisq.core.trade.statistics.TradeStatistics3;
 
+import bisq.proto.grpc.GetTradeStatisticsCandlesReply;
+import bisq.proto.grpc.GetTradeStatisticsCandlesRequest;
 import bisq.proto.grpc.GetTradeStatisticsReply;
 import bisq.proto.grpc.GetTradeStatisticsRequest;
 
@@ -19,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsCandlesMethod;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -55,6 +59,26 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         }
     }
 
+    @Override
+    public void getTradeStatisticsCandles(GetTradeStatisticsCandlesRequest req,
+                                          StreamObserver<GetTradeStatisticsCandlesReply> responseObserver) {
+        try {
+            var candles = coreApi.getTradeStatisticsCandles(req.getCurrencyCode(),
+                    req.getTickUnit(),
+                    req.getFrom(),
+                    req.getTo()).stream()
+                    .map(TradeStatisticsCandleInfo::toCandleInfo)
+                    .map(TradeStatisticsCandleInfo::toProtoMessage)
+                    .collect(Collectors.toList());
+
+            var reply = GetTradeStatisticsCandlesReply.newBuilder().addAllCandles(candles).build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -66,6 +90,7 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getGetTradeStatisticsCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
@@ -20,6 +20,7 @@ package bisq.daemon.grpc;
 import bisq.core.api.CoreApi;
 import bisq.core.api.model.OfferInfo;
 import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OpenOffer;
 
 import bisq.proto.grpc.CancelOfferReply;
@@ -34,6 +35,8 @@ import bisq.proto.grpc.GetOfferReply;
 import bisq.proto.grpc.GetOfferRequest;
 import bisq.proto.grpc.GetOffersReply;
 import bisq.proto.grpc.GetOffersRequest;
+import bisq.proto.grpc.SubscribeOffersReply;
+import bisq.proto.grpc.SubscribeOffersRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -41,8 +44,10 @@ import io.grpc.stub.StreamObserver;
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -61,6 +66,9 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 @Slf4j
 class GrpcOffersService extends OffersImplBase {
 
+    // The current offers are sent when subscribing, so this needs to be well above the size of an offer book.
+    private static final int MAX_BUFFERED_OFFER_EVENTS = 10_000;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -183,6 +191,46 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void subscribeOffers(SubscribeOffersRequest req,
+                                StreamObserver<SubscribeOffersReply> responseObserver) {
+        try {
+            var subscription = new GrpcSubscription<>(responseObserver, MAX_BUFFERED_OFFER_EVENTS);
+            // The ids of the offers sent as added, so the subscriber only gets removals of offers it knows.
+            // Only accessed from the UserThread, like the subscription.
+            Set<String> sentOfferIds = new HashSet<>();
+            coreApi.getOffers(req.getDirection(), req.getCurrencyCode())
+                    .forEach(offer -> {
+                        sentOfferIds.add(offer.getId());
+                        subscription.send(toSubscribeOffersReply(SubscribeOffersReply.Event.ADDED, offer));
+                    });
+            subscription.setSubscription(coreApi.subscribeOffers(req.getDirection(),
+                    req.getCurrencyCode(),
+                    new OfferBookService.OfferBookChangedListener() {
+                        @Override
+                        public void onAdded(Offer offer) {
+                            sentOfferIds.add(offer.getId());
+                            subscription.send(toSubscribeOffersReply(SubscribeOffersReply.Event.ADDED, offer));
+                        }
+
+                        @Override
+                        public void onRemoved(Offer offer) {
+                            if (sentOfferIds.remove(offer.getId()))
+                                subscription.send(toSubscribeOffersReply(SubscribeOffersReply.Event.REMOVED, offer));
+                        }
+                    }));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private SubscribeOffersReply toSubscribeOffersReply(SubscribeOffersReply.Event event, Offer offer) {
+        return SubscribeOffersReply.newBuilder()
+                .setEvent(event)
+                .setOffer(toOfferInfo(offer).toProtoMessage())
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -199,6 +247,7 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getCreateOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
+                            put(getSubscribeOffersMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
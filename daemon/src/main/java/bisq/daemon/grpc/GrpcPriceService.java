@@ -35,6 +35,7 @@ import lombok.extern.slf4j.Slf4j;
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.PriceGrpc.PriceImplBase;
 import static bisq.proto.grpc.PriceGrpc.getGetMarketPriceMethod;
+import static bisq.proto.grpc.PriceGrpc.getSubscribeMarketPriceMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -45,6 +46,8 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 @Slf4j
 class GrpcPriceService extends PriceImplBase {
 
+    private static final int MAX_BUFFERED_PRICES = 100;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -69,6 +72,18 @@ class GrpcPriceService extends PriceImplBase {
         }
     }
 
+    @Override
+    public void subscribeMarketPrice(MarketPriceRequest req,
+                                     StreamObserver<MarketPriceReply> responseObserver) {
+        try {
+            var subscription = new GrpcSubscription<>(responseObserver, MAX_BUFFERED_PRICES);
+            subscription.setSubscription(coreApi.subscribeMarketPrice(req.getCurrencyCode(),
+                    price -> subscription.send(MarketPriceReply.newBuilder().setPrice(price).build())));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -80,6 +95,7 @@ class GrpcPriceService extends PriceImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetMarketPriceMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getSubscribeMarketPriceMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
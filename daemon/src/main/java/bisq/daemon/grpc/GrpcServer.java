@@ -19,18 +19,28 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreContext;
 
-import bisq.common.UserThread;
 import bisq.common.config.Config;
 
+import bisq.proto.grpc.GetTradeStatisticsGrpc;
+import bisq.proto.grpc.GetVersionGrpc;
+import bisq.proto.grpc.HelpGrpc;
+import bisq.proto.grpc.OffersGrpc;
+import bisq.proto.grpc.PriceGrpc;
+
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import lombok.extern.slf4j.Slf4j;
 
 import static io.grpc.ServerInterceptors.interceptForward;
@@ -38,11 +48,15 @@ import static io.grpc.ServerInterceptors.interceptForward;
 
 
 import bisq.daemon.grpc.interceptor.PasswordAuthInterceptor;
+import bisq.daemon.grpc.interceptor.UserThreadInterceptor;
 
 @Singleton
 @Slf4j
 public class GrpcServer {
 
+    private static final int NUM_WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final ExecutorService executor;
     private final Server server;
 
     @Inject
@@ -59,8 +73,25 @@ public class GrpcServer {
                       GrpcGetTradeStatisticsService tradeStatisticsService,
                       GrpcTradesService tradesService,
                       GrpcWalletsService walletsService) {
+        this.executor = Executors.newFixedThreadPool(NUM_WORKER_THREADS, new ThreadFactoryBuilder()
+                .setNameFormat("grpc-worker-%d")
+                .setDaemon(true)
+                .build());
+        // Calls are handled by the worker pool. Only the read-only calls listed below run on the
+        // worker threads, all other calls are dispatched to the UserThread by the UserThreadInterceptor.
+        // GetOffer(s) use the read view of the offer filter, as the filter itself reads the user's accounts,
+        // preferences, filter and account witness state which is only accessed from the UserThread.
+        // GetBalances stays on the UserThread as it reads the wallet balance properties.
+        var userThreadInterceptor = new UserThreadInterceptor(
+                GetTradeStatisticsGrpc.getGetTradeStatisticsMethod(),
+                GetTradeStatisticsGrpc.getGetTradeStatisticsCandlesMethod(),
+                GetVersionGrpc.getGetVersionMethod(),
+                HelpGrpc.getGetMethodHelpMethod(),
+                OffersGrpc.getGetOfferMethod(),
+                OffersGrpc.getGetOffersMethod(),
+                PriceGrpc.getGetMarketPriceMethod());
         this.server = ServerBuilder.forPort(config.apiPort)
-                .executor(UserThread.getExecutor())
+                .executor(executor)
                 .addService(interceptForward(disputeAgentsService, disputeAgentsService.interceptors()))
                 .addService(interceptForward(helpService, helpService.interceptors()))
                 .addService(interceptForward(offersService, offersService.interceptors()))
@@ -71,6 +102,7 @@ public class GrpcServer {
                 .addService(interceptForward(tradesService, tradesService.interceptors()))
                 .addService(interceptForward(versionService, versionService.interceptors()))
                 .addService(interceptForward(walletsService, walletsService.interceptors()))
+                .intercept(userThreadInterceptor)
                 .intercept(passwordAuthInterceptor)
                 .build();
         coreContext.setApiUser(true);
@@ -88,6 +120,7 @@ public class GrpcServer {
     public void shutdown() {
         log.info("Server shutdown started");
         server.shutdown();
+        executor.shutdown();
         log.info("Server shutdown complete");
     }
 }
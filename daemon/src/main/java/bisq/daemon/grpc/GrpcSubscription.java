@@ -0,0 +1,103 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import org.fxmisc.easybind.Subscription;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static io.grpc.Status.RESOURCE_EXHAUSTED;
+import static java.lang.String.format;
+
+/**
+ * Sends the messages of a server-streaming call to its subscriber, respecting gRPC
+ * flow control.  Messages are only written while the call is ready;  otherwise they
+ * are buffered until the subscriber has caught up.  A subscriber falling behind by more
+ * than maxBufferedMessages gets its call closed with a RESOURCE_EXHAUSTED status.
+ *
+ * The core api subscription feeding the messages is unsubscribed when the call is
+ * cancelled or closed.
+ *
+ * Subscription calls are dispatched to the UserThread by the UserThreadInterceptor,
+ * and the core api notifies subscribers on the UserThread, so this class is not
+ * thread safe.
+ */
+@Slf4j
+class GrpcSubscription<T> {
+
+    private final ServerCallStreamObserver<T> responseObserver;
+    private final int maxBufferedMessages;
+    private final Queue<T> bufferedMessages = new ArrayDeque<>();
+    private Subscription subscription;
+    private boolean closed;
+
+    GrpcSubscription(StreamObserver<T> responseObserver, int maxBufferedMessages) {
+        this.responseObserver = (ServerCallStreamObserver<T>) responseObserver;
+        this.maxBufferedMessages = maxBufferedMessages;
+        this.responseObserver.setOnReadyHandler(this::sendBufferedMessages);
+        this.responseObserver.setOnCancelHandler(this::onCancel);
+    }
+
+    void setSubscription(Subscription subscription) {
+        if (closed)
+            subscription.unsubscribe();
+        else
+            this.subscription = subscription;
+    }
+
+    void send(T message) {
+        if (closed)
+            return;
+
+        bufferedMessages.add(message);
+        if (bufferedMessages.size() > maxBufferedMessages) {
+            String errorMessage = format("subscriber did not keep up with the last %d messages",
+                    maxBufferedMessages);
+            log.warn(errorMessage);
+            close();
+            responseObserver.onError(RESOURCE_EXHAUSTED.withDescription(errorMessage).asRuntimeException());
+            return;
+        }
+
+        sendBufferedMessages();
+    }
+
+    private void sendBufferedMessages() {
+        while (!closed && responseObserver.isReady() && !bufferedMessages.isEmpty()) {
+            responseObserver.onNext(bufferedMessages.poll());
+        }
+    }
+
+    private void onCancel() {
+        log.info("Subscriber cancelled the call");
+        close();
+    }
+
+    private void close() {
+        closed = true;
+        bufferedMessages.clear();
+        if (subscription != null)
+            subscription.unsubscribe();
+    }
+}
@@ -29,6 +29,8 @@ import bisq.proto.grpc.GetTradeReply;
 import bisq.proto.grpc.GetTradeRequest;
 import bisq.proto.grpc.KeepFundsReply;
 import bisq.proto.grpc.KeepFundsRequest;
+import bisq.proto.grpc.SubscribeTradesReply;
+import bisq.proto.grpc.SubscribeTradesRequest;
 import bisq.proto.grpc.TakeOfferReply;
 import bisq.proto.grpc.TakeOfferRequest;
 import bisq.proto.grpc.WithdrawFundsReply;
@@ -58,6 +60,8 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 @Slf4j
 class GrpcTradesService extends TradesImplBase {
 
+    private static final int MAX_BUFFERED_TRADES = 1000;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -159,6 +163,22 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void subscribeTrades(SubscribeTradesRequest req,
+                                StreamObserver<SubscribeTradesReply> responseObserver) {
+        try {
+            var subscription = new GrpcSubscription<>(responseObserver, MAX_BUFFERED_TRADES);
+            subscription.setSubscription(coreApi.subscribeTrades(trade -> {
+                String role = coreApi.getTradeRole(trade.getId());
+                subscription.send(SubscribeTradesReply.newBuilder()
+                        .setTrade(toTradeInfo(trade, role).toProtoMessage())
+                        .build());
+            }));
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -175,6 +195,7 @@ class GrpcTradesService extends TradesImplBase {
                             put(getConfirmPaymentReceivedMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getKeepFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
+                            put(getSubscribeTradesMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
@@ -39,7 +39,8 @@ public class GrpcCallRateMeter {
         this.callTimestamps = new ArrayDeque<>();
     }
 
-    public boolean checkAndIncrement() {
+    // Read-only calls are metered concurrently from the gRPC worker threads
+    public synchronized boolean checkAndIncrement() {
         if (getCallsCount() < allowedCallsPerTimeWindow) {
             incrementCallsCount();
             return true;
@@ -48,12 +49,12 @@ public class GrpcCallRateMeter {
         }
     }
 
-    public int getCallsCount() {
+    public synchronized int getCallsCount() {
         removeStaleCallTimestamps();
         return callTimestamps.size();
     }
 
-    public String getCallsCountProgress(String calledMethodName) {
+    public synchronized String getCallsCountProgress(String calledMethodName) {
         String shortTimeUnitName = StringUtils.chop(timeUnit.name().toLowerCase());
         // Just print 'GetVersion has been called N times...',
         // not 'io.bisq.protobuffer.GetVersion/GetVersion has been called N times...'
@@ -0,0 +1,86 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.common.UserThread;
+
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The gRPC server runs its calls on a pool of worker threads. Most of the core API
+ * mutates state which is only accessed from the UserThread, so this interceptor
+ * dispatches all call listener events (and therefore the service method invocation)
+ * to the UserThread, except for the given read-only methods which are safe to run
+ * on the worker threads.
+ */
+public class UserThreadInterceptor implements ServerInterceptor {
+
+    private final Set<String> readOnlyMethodNames;
+
+    public UserThreadInterceptor(MethodDescriptor<?, ?>... readOnlyMethods) {
+        this.readOnlyMethodNames = Stream.of(readOnlyMethods)
+                .map(MethodDescriptor::getFullMethodName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        ServerCall.Listener<ReqT> listener = serverCallHandler.startCall(serverCall, headers);
+        if (readOnlyMethodNames.contains(serverCall.getMethodDescriptor().getFullMethodName()))
+            return listener;
+
+        // The UserThread is single threaded, so the listener events keep their order.
+        return new SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                UserThread.execute(() -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                UserThread.execute(super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                UserThread.execute(super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                UserThread.execute(super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                UserThread.execute(super::onReady);
+            }
+        };
+    }
+}
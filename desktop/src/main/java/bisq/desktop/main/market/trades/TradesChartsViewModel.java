@@ -34,7 +34,9 @@ import bisq.core.locale.GlobalSettings;
 import bisq.core.locale.TradeCurrency;
 import bisq.core.monetary.Altcoin;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.Preferences;
 
@@ -48,6 +50,7 @@ import com.google.common.annotations.VisibleForTesting;
 
 import javafx.scene.chart.XYChart;
 
+import javafx.beans.InvalidationListener;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -55,25 +58,15 @@ import javafx.beans.property.SimpleObjectProperty;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.SetChangeListener;
 
-import javafx.util.Pair;
-
-import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -83,26 +76,12 @@ class TradesChartsViewModel extends ActivatableViewModel {
     private static final int TAB_INDEX = 2;
     private static final ZoneId ZONE_ID = ZoneId.systemDefault();
 
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Enum
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
-    public enum TickUnit {
-        YEAR,
-        MONTH,
-        WEEK,
-        DAY,
-        HOUR,
-        MINUTE_10
-    }
-
     private final TradeStatisticsManager tradeStatisticsManager;
     final Preferences preferences;
     private final PriceFeedService priceFeedService;
     private final Navigation navigation;
 
-    private final SetChangeListener<TradeStatistics3> setChangeListener;
+    private final InvalidationListener tradeStatisticsListener;
     final ObjectProperty<TradeCurrency> selectedTradeCurrencyProperty = new SimpleObjectProperty<>();
     final BooleanProperty showAllTradeCurrenciesProperty = new SimpleBooleanProperty(false);
     private final CurrencyList currencyListItems;
@@ -111,12 +90,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
     final ObservableList<XYChart.Data<Number, Number>> priceItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeItems = FXCollections.observableArrayList();
     final ObservableList<XYChart.Data<Number, Number>> volumeInUsdItems = FXCollections.observableArrayList();
-    private Map<Long, Pair<Date, Set<TradeStatistics3>>> itemsPerInterval;
+    private Map<Long, Long> tickStartPerInterval;
 
     TickUnit tickUnit;
     final int maxTicks = 90;
     private int selectedTabIndex;
-    final Map<TickUnit, Map<Long, Long>> usdPriceMapsPerTickUnit = new HashMap<>();
     private boolean fillTradeCurrenciesOnActivateCalled;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -131,7 +109,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
         this.priceFeedService = priceFeedService;
         this.navigation = navigation;
 
-        setChangeListener = change -> {
+        // We only need to know that the set changed, so we do not get a change for each trade statistics at startup
+        tradeStatisticsListener = observable -> {
             updateSelectedTradeStatistics(getCurrencyCode());
             updateChartData();
             fillTradeCurrencies();
@@ -151,12 +130,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
 
     @Override
     protected void activate() {
-        tradeStatisticsManager.getObservableTradeStatisticsSet().addListener(setChangeListener);
+        tradeStatisticsManager.getObservableTradeStatisticsSet().addListener(tradeStatisticsListener);
         if (!fillTradeCurrenciesOnActivateCalled) {
             fillTradeCurrencies();
             fillTradeCurrenciesOnActivateCalled = true;
         }
-        buildUsdPricesPerDay();
         updateSelectedTradeStatistics(getCurrencyCode());
         updateChartData();
         syncPriceFeedCurrency();
@@ -165,7 +143,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
 
     @Override
     protected void deactivate() {
-        tradeStatisticsManager.getObservableTradeStatisticsSet().removeListener(setChangeListener);
+        tradeStatisticsManager.getObservableTradeStatisticsSet().removeListener(tradeStatisticsListener);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -230,9 +208,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void fillTradeCurrencies() {
-        // Don't use a set as we need all entries
-        List<TradeCurrency> tradeCurrencyList = tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
-                .flatMap(e -> CurrencyUtil.getTradeCurrency(e.getCurrency()).stream())
+        // Don't use a set as we need all entries. We count the trade statistics per currency without creating their
+        // objects.
+        List<TradeCurrency> tradeCurrencyList = tradeStatisticsManager.getNumTradeStatisticsByCurrency().entrySet().stream()
+                .flatMap(entry -> CurrencyUtil.getTradeCurrency(entry.getKey()).stream()
+                        .flatMap(tradeCurrency -> Collections.nCopies(entry.getValue(), tradeCurrency).stream()))
                 .collect(Collectors.toList());
 
         currencyListItems.updateWithCurrencies(tradeCurrencyList, showAllCurrencyListItem);
@@ -252,82 +232,29 @@ class TradesChartsViewModel extends ActivatableViewModel {
             priceFeedService.setCurrencyCode(selectedTradeCurrencyProperty.get().getCode());
     }
 
-    private void buildUsdPricesPerDay() {
-        if (usdPriceMapsPerTickUnit.isEmpty()) {
-            Map<TickUnit, Map<Long, List<TradeStatistics3>>> dateMapsPerTickUnit = new HashMap<>();
-            for (TickUnit tick : TickUnit.values()) {
-                dateMapsPerTickUnit.put(tick, new HashMap<>());
-            }
-
-            tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
-                    .filter(e -> e.getCurrency().equals("USD"))
-                    .forEach(tradeStatistics -> {
-                        for (TickUnit tick : TickUnit.values()) {
-                            long time = roundToTick(tradeStatistics.getLocalDateTime(), tick).getTime();
-                            Map<Long, List<TradeStatistics3>> map = dateMapsPerTickUnit.get(tick);
-                            map.putIfAbsent(time, new ArrayList<>());
-                            map.get(time).add(tradeStatistics);
-                        }
-                    });
-
-            dateMapsPerTickUnit.forEach((tick, map) -> {
-                HashMap<Long, Long> priceMap = new HashMap<>();
-                map.forEach((date, tradeStatisticsList) -> priceMap.put(date, getAveragePrice(tradeStatisticsList)));
-                usdPriceMapsPerTickUnit.put(tick, priceMap);
-            });
-        }
-    }
-
-    private long getAveragePrice(List<TradeStatistics3> tradeStatisticsList) {
-        long accumulatedAmount = 0;
-        long accumulatedVolume = 0;
-        for (TradeStatistics3 tradeStatistics : tradeStatisticsList) {
-            accumulatedAmount += tradeStatistics.getAmount();
-            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
-        }
-
-        double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, Coin.SMALLEST_UNIT_EXPONENT);
-        return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / (double) accumulatedAmount);
-    }
-
     private void updateChartData() {
-        // Generate date range and create sets for all ticks
-        itemsPerInterval = new HashMap<>();
+        // Generate date range and map the tick starts to the tick index
+        tickStartPerInterval = new HashMap<>();
+        Map<Long, Long> intervalPerTickStart = new HashMap<>();
         Date time = new Date();
         for (long i = maxTicks + 1; i >= 0; --i) {
-            Pair<Date, Set<TradeStatistics3>> pair = new Pair<>((Date) time.clone(), new HashSet<>());
-            itemsPerInterval.put(i, pair);
+            tickStartPerInterval.put(i, time.getTime());
+            intervalPerTickStart.put(time.getTime(), i);
             // We adjust the time for the next iteration
             time.setTime(time.getTime() - 1);
             time = roundToTick(time, tickUnit);
         }
 
-        // Get all entries for the defined time interval
-        selectedTradeStatistics.forEach(tradeStatistics -> {
-            for (long i = maxTicks; i > 0; --i) {
-                Pair<Date, Set<TradeStatistics3>> pair = itemsPerInterval.get(i);
-                if (tradeStatistics.getDate().after(pair.getKey())) {
-                    pair.getValue().add(tradeStatistics);
-                    break;
-                }
-            }
-        });
-
-        Map<Long, Long> map = usdPriceMapsPerTickUnit.get(tickUnit);
-        AtomicLong averageUsdPrice = new AtomicLong(0);
-
-        // create CandleData for defined time interval
-        List<CandleData> candleDataList = itemsPerInterval.entrySet().stream()
-                .filter(entry -> entry.getKey() >= 0 && !entry.getValue().getValue().isEmpty())
-                .map(entry -> {
-                    long tickStartDate = entry.getValue().getKey().getTime();
-                    // If we don't have a price we take the previous one
-                    if (map.containsKey(tickStartDate)) {
-                        averageUsdPrice.set(map.get(tickStartDate));
-                    }
-                    return getCandleData(entry.getKey(), entry.getValue().getValue(), averageUsdPrice.get());
+        // The candles are pre-aggregated by the TradeStatisticsCandles, we only request the ones of the displayed
+        // ticks
+        String currencyCode = showAllTradeCurrenciesProperty.get() ? null : getCurrencyCode();
+        List<CandleData> candleDataList = tradeStatisticsManager.getCandles()
+                .getCandles(currencyCode, tickUnit, tickStartPerInterval.get(1L), Long.MAX_VALUE).stream()
+                .filter(candle -> {
+                    Long interval = intervalPerTickStart.get(candle.getTickStart());
+                    return interval != null && interval > 0 && interval <= maxTicks;
                 })
-                .sorted(Comparator.comparingLong(o -> o.tick))
+                .map(candle -> getCandleData(intervalPerTickStart.get(candle.getTickStart()), candle))
                 .collect(Collectors.toList());
 
         priceItems.setAll(candleDataList.stream()
@@ -344,44 +271,21 @@ class TradesChartsViewModel extends ActivatableViewModel {
     }
 
     private void updateSelectedTradeStatistics(String currencyCode) {
-        selectedTradeStatistics.setAll(tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
-                .filter(e -> showAllTradeCurrenciesProperty.get() || e.getCurrency().equals(currencyCode))
-                .collect(Collectors.toList()));
+        if (showAllTradeCurrenciesProperty.get()) {
+            selectedTradeStatistics.setAll(tradeStatisticsManager.getObservableTradeStatisticsSet());
+        } else {
+            // Only the objects of the selected currency are created
+            selectedTradeStatistics.setAll(tradeStatisticsManager.getTradeStatistics(currencyCode, new Date(0)));
+        }
     }
 
     @VisibleForTesting
-    CandleData getCandleData(long tick, Set<TradeStatistics3> set, long averageUsdPrice) {
-        long open = 0;
-        long close = 0;
-        long high = 0;
-        long low = 0;
-        long accumulatedVolume = 0;
-        long accumulatedAmount = 0;
-        long numTrades = set.size();
-        List<Long> tradePrices = new ArrayList<>();
-        for (TradeStatistics3 item : set) {
-            long tradePriceAsLong = item.getTradePrice().getValue();
-            // Previously a check was done which inverted the low and high for cryptocurrencies.
-            low = (low != 0) ? Math.min(low, tradePriceAsLong) : tradePriceAsLong;
-            high = (high != 0) ? Math.max(high, tradePriceAsLong) : tradePriceAsLong;
-
-            accumulatedVolume += item.getTradeVolume().getValue();
-            accumulatedAmount += item.getTradeAmount().getValue();
-            tradePrices.add(tradePriceAsLong);
-        }
-        Collections.sort(tradePrices);
-
-        List<TradeStatistics3> list = new ArrayList<>(set);
-        list.sort(Comparator.comparingLong(TradeStatistics3::getDateAsLong));
-        if (list.size() > 0) {
-            open = list.get(0).getTradePrice().getValue();
-            close = list.get(list.size() - 1).getTradePrice().getValue();
-        }
-
+    CandleData getCandleData(long tick, TradeStatisticsCandle candle) {
+        long open = candle.getOpen();
+        long close = candle.getClose();
+        long accumulatedVolume = candle.getAccumulatedVolume();
+        long accumulatedAmount = candle.getAccumulatedAmount();
         long averagePrice;
-        Long[] prices = new Long[tradePrices.size()];
-        tradePrices.toArray(prices);
-        long medianPrice = MathUtils.getMedian(prices);
         boolean isBullish;
         if (CurrencyUtil.isCryptoCurrency(getCurrencyCode())) {
             isBullish = close < open;
@@ -399,43 +303,17 @@ class TradesChartsViewModel extends ActivatableViewModel {
                 DisplayUtils.formatDateTimeSpan(dateFrom, dateTo) :
                 DisplayUtils.formatDate(dateFrom) + " - " + DisplayUtils.formatDate(dateTo);
 
-        // We do not need precision, so we scale down before multiplication otherwise we could get an overflow.
-        averageUsdPrice = (long) MathUtils.scaleDownByPowerOf10((double) averageUsdPrice, 4);
-        long volumeInUsd = averageUsdPrice * (long) MathUtils.scaleDownByPowerOf10((double) accumulatedAmount, 4);
-        // We store USD value without decimals as its only total volume, no precision is needed.
-        volumeInUsd = (long) MathUtils.scaleDownByPowerOf10((double) volumeInUsd, 4);
-        return new CandleData(tick, open, close, high, low, averagePrice, medianPrice, accumulatedAmount, accumulatedVolume,
-                numTrades, isBullish, dateString, volumeInUsd);
+        return new CandleData(tick, open, close, candle.getHigh(), candle.getLow(), averagePrice, candle.getMedian(),
+                accumulatedAmount, accumulatedVolume, candle.getNumTrades(), isBullish, dateString, candle.getVolumeInUsd());
     }
 
     Date roundToTick(Date time, TickUnit tickUnit) {
-        return roundToTick(time.toInstant().atZone(ZONE_ID).toLocalDateTime(), tickUnit);
-    }
-
-    Date roundToTick(LocalDateTime localDate, TickUnit tickUnit) {
-        switch (tickUnit) {
-            case YEAR:
-                return Date.from(localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case MONTH:
-                return Date.from(localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case WEEK:
-                int dayOfWeek = localDate.getDayOfWeek().getValue();
-                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
-                return Date.from(firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case DAY:
-                return Date.from(localDate.withHour(0).withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case HOUR:
-                return Date.from(localDate.withMinute(0).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            case MINUTE_10:
-                return Date.from(localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0).atZone(ZONE_ID).toInstant());
-            default:
-                return Date.from(localDate.atZone(ZONE_ID).toInstant());
-        }
+        return new Date(tickUnit.getTickStart(time.getTime(), ZONE_ID));
     }
 
     private long getTimeFromTick(long tick) {
-        if (itemsPerInterval == null || itemsPerInterval.get(tick) == null) return 0;
-        return itemsPerInterval.get(tick).getKey().getTime();
+        if (tickStartPerInterval == null || tickStartPerInterval.get(tick) == null) return 0;
+        return tickStartPerInterval.get(tick);
     }
 
     long getTimeFromTickIndex(long index) {
@@ -353,9 +353,9 @@ public abstract class MutableOfferDataModel extends OfferDataModel implements Bs
             // Get average historic prices over for the prior trade period equaling the lock time
             var blocksRange = Restrictions.getLockTime(paymentAccount.getPaymentMethod().isAsset());
             var startDate = new Date(System.currentTimeMillis() - blocksRange * 10 * 60000);
-            var sortedRangeData = tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
-                    .filter(e -> e.getCurrency().equals(getTradeCurrency().getCode()))
-                    .filter(e -> e.getDate().compareTo(startDate) >= 0)
+            // We only create the objects of the trade statistics in the range
+            var sortedRangeData = tradeStatisticsManager.getTradeStatistics(getTradeCurrency().getCode(),
+                    new Date(startDate.getTime() - 1)).stream()
                     .sorted(Comparator.comparing(TradeStatistics3::getDate))
                     .collect(Collectors.toList());
             var movingAverage = new MathUtils.MovingAverage(10, 0.2);
@@ -25,7 +25,10 @@ import bisq.core.monetary.Price;
 import bisq.core.offer.OfferPayload;
 import bisq.core.payment.payload.PaymentMethod;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.statistics.TickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandle;
+import bisq.core.trade.statistics.TradeStatisticsCandles;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.Preferences;
 
@@ -45,6 +48,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.Before;
@@ -167,7 +171,12 @@ public class TradesChartsViewModelTest {
                 null,
                 null));
 
-        CandleData candleData = model.getCandleData(model.roundToTick(now, TradesChartsViewModel.TickUnit.DAY).getTime(), set, 0);
+        TradeStatisticsCandles candles = new TradeStatisticsCandles();
+        candles.addAll(set);
+        List<TradeStatisticsCandle> candleList = candles.getCandles("EUR", TickUnit.DAY, now.getTime(), Long.MAX_VALUE);
+        assertEquals(1, candleList.size());
+
+        CandleData candleData = model.getCandleData(model.roundToTick(now, TickUnit.DAY).getTime(), candleList.get(0));
         assertEquals(open, candleData.open);
         assertEquals(close, candleData.close);
         assertEquals(high, candleData.high);
@@ -233,7 +242,7 @@ public class TradesChartsViewModelTest {
         ObservableSet<TradeStatistics3> tradeStats = FXCollections.observableSet(set);
 
         // Run test for each tick type
-        for (TradesChartsViewModel.TickUnit tick : TradesChartsViewModel.TickUnit.values()) {
+        for (TickUnit tick : TickUnit.values()) {
 /*            new Expectations() {{
                 tradeStatisticsManager.getObservableTradeStatisticsSet();
                 result = tradeStats;
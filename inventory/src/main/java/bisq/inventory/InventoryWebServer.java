@@ -60,6 +60,7 @@ public class InventoryWebServer {
     private final Map<String, String> operatorByNodeAddress = new HashMap<>();
 
     private String html;
+    private String latencyJson;
     private int requestCounter;
 
 
@@ -78,6 +79,11 @@ public class InventoryWebServer {
             log.info("Incoming request from: {}", req.userAgent());
             return html == null ? "Starting up..." : html;
         });
+        Spark.get("/latency", (req, res) -> {
+            log.info("Incoming latency request from: {}", req.userAgent());
+            res.type("application/json");
+            return latencyJson == null ? "{}" : latencyJson;
+        });
     }
 
 
@@ -88,6 +94,7 @@ public class InventoryWebServer {
     public void onNewRequestInfo(Map<NodeAddress, List<RequestInfo>> requestInfoListByNode, int requestCounter) {
         this.requestCounter = requestCounter;
         html = generateHtml(requestInfoListByNode);
+        latencyJson = generateLatencyJson(requestInfoListByNode);
     }
 
     public void shutDown() {
@@ -314,10 +321,36 @@ public class InventoryWebServer {
         sb.append(getLine("Received data: ",
                 InventoryItem.receivedBytes, seedNode, requestInfo, map,
                 value -> Utilities.readableFileSize(Long.parseLong(value))));
+        sb.append(getLine("Message handling time: ",
+                InventoryItem.messageHandlingLatency, seedNode, requestInfo, map));
+        sb.append(getLine("Message queue wait time: ",
+                InventoryItem.messageQueueWaitLatency, seedNode, requestInfo, map));
+        sb.append(getLine("Send time: ",
+                InventoryItem.sendLatency, seedNode, requestInfo, map));
         return sb.toString();
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // JSON
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The latency histograms of the last response of each seed node. The histograms are delivered as json already.
+    private String generateLatencyJson(Map<NodeAddress, List<RequestInfo>> map) {
+        List<String> entries = new ArrayList<>();
+        seedNodes.forEach(seedNode -> {
+            List<RequestInfo> list = map.get(seedNode);
+            if (list != null && !list.isEmpty()) {
+                String histograms = list.get(list.size() - 1).getValue(InventoryItem.latencyHistograms);
+                if (histograms != null) {
+                    entries.add("\"" + seedNode.getFullAddress() + "\": " + histograms);
+                }
+            }
+        });
+        return "{" + Joiner.on(",").join(entries) + "}";
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Utils
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -79,6 +79,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -112,6 +113,8 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 public class MailboxMessageService implements HashMapChangedListener, PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
+    // We only use several threads for decryption if there are at least that many entries per thread
+    private static final int MIN_ENTRIES_PER_THREAD = 100;
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -391,22 +394,36 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         }
     }
 
-    // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // We run the batch processing of all mailbox messages we have received at startup in threads to not block the UI.
+    // Only the entries addressed to us get decrypted, so for most entries no decryption is required.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("processMailboxEntry-" + new Random().nextInt(1000));
+        List<ProtectedMailboxStorageEntry> entries = new ArrayList<>(protectedMailboxStorageEntries);
+        int numThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1,
+                entries.size() / MIN_ENTRIES_PER_THREAD));
+        ListeningExecutorService executor = Utilities.getListeningExecutorService(
+                "processMailboxEntry-" + new Random().nextInt(1000), numThreads, numThreads, 10);
         long ts = System.currentTimeMillis();
-        ListenableFuture<Set<MailboxItem>> future = executor.submit(() -> {
-            var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
-            log.info("Batch processing of {} mailbox entries took {} ms",
-                    protectedMailboxStorageEntries.size(),
-                    System.currentTimeMillis() - ts);
-            return mailboxItems;
-        });
-
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(e -> handleMailboxItem(e)));
+        AtomicInteger numProcessed = new AtomicInteger();
+        List<ListenableFuture<Set<MailboxItem>>> futures = new ArrayList<>();
+        for (int i = 0; i < numThreads; i++) {
+            List<ProtectedMailboxStorageEntry> chunk = entries.subList(i * entries.size() / numThreads,
+                    (i + 1) * entries.size() / numThreads);
+            futures.add(executor.submit(() -> {
+                var mailboxItems = getMailboxItems(chunk);
+                log.info("Processed {} of {} mailbox entries", numProcessed.addAndGet(chunk.size()), entries.size());
+                return mailboxItems;
+            }));
+        }
+        executor.shutdown();
+
+        Futures.addCallback(Futures.allAsList(futures), new FutureCallback<>() {
+            public void onSuccess(List<Set<MailboxItem>> decryptedMailboxMessageWithEntries) {
+                log.info("Batch processing of {} mailbox entries with {} threads took {} ms",
+                        entries.size(),
+                        numThreads,
+                        System.currentTimeMillis() - ts);
+                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(mailboxItems ->
+                        mailboxItems.forEach(e -> handleMailboxItem(e))));
             }
 
             public void onFailure(@NotNull Throwable throwable) {
@@ -433,6 +450,13 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
             // We had persisted a past failed decryption attempt on that message so we don't try again and return early
             return new MailboxItem(protectedMailboxStorageEntry, null);
         }
+
+        // The sender sets our signature pubKey as receiversPubKey, so only entries with our key can be for us.
+        // That saves the costly decryption attempt for all other entries.
+        if (!keyRing.getSignatureKeyPair().getPublic().equals(protectedMailboxStorageEntry.getReceiversPubKey())) {
+            return new MailboxItem(protectedMailboxStorageEntry, null);
+        }
+
         try {
             DecryptedMessageWithPubKey decryptedMessageWithPubKey = encryptionService.decryptAndVerify(sealedAndSigned);
             checkArgument(decryptedMessageWithPubKey.getNetworkEnvelope() instanceof MailboxMessage);
@@ -440,7 +464,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         } catch (CryptoException ignore) {
             // Expected if message was not intended for us
             // We persist those entries so at the next startup we do not need to try to decrypt it anymore
-            ignoredMailboxService.ignore(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
+            UserThread.execute(() -> ignoredMailboxService.ignore(uid, protectedMailboxStorageEntry.getCreationTimeStamp()));
         } catch (ProtobufferException e) {
             log.error(e.toString());
             e.getStackTrace();
@@ -64,7 +64,6 @@ import java.io.InvalidClassException;
 import java.io.OptionalDataException;
 import java.io.StreamCorruptedException;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -78,6 +77,7 @@ import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -129,7 +129,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final NetworkFilter networkFilter;
     @Getter
     private final String uid;
-    private final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "Connection.java executor-service"));
+    // Dedicated executors of this connection. Both are null if we use the shared connection threads.
+    @Nullable
+    private final ExecutorService singleThreadExecutor;
+    @Nullable
+    private final ScheduledExecutorService bundleSender;
+    private Future<?> inputHandlerFuture;
     // holder of state shared between InputHandler and Connection
     @Getter
     private final Statistic statistic;
@@ -149,7 +154,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     @Getter
     private final ObjectProperty<NodeAddress> peersNodeAddressProperty = new SimpleObjectProperty<>();
-    private final List<Long> messageTimeStamps = new ArrayList<>();
+    private final MessageRateLimiter messageRateLimiter;
     private final CopyOnWriteArraySet<MessageListener> messageListeners = new CopyOnWriteArraySet<>();
     private volatile long lastSendTimeStamp = 0;
     // We use a weak reference here to ensure that no connection causes a memory leak in case it get closed without
@@ -179,11 +184,20 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         uid = UUID.randomUUID().toString();
         statistic = new Statistic();
 
+        if (useSharedConnectionThreads()) {
+            singleThreadExecutor = null;
+            bundleSender = null;
+        } else {
+            singleThreadExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "Connection.java executor-service"));
+            bundleSender = Executors.newSingleThreadScheduledExecutor();
+        }
+
         addMessageListener(messageListener);
 
         this.networkProtoResolver = networkProtoResolver;
+        messageRateLimiter = new MessageRateLimiter(getMsgThrottlePerSec(), getMsgThrottlePer10Sec());
         connectionState = new ConnectionState(this);
-        connectionStatistics = new ConnectionStatistics(this, connectionState);
+        connectionStatistics = new ConnectionStatistics(this, connectionState, messageRateLimiter);
         init(peersNodeAddress);
     }
 
@@ -195,10 +209,17 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             // When you construct an ObjectInputStream, in the constructor the class attempts to read a header that
             // the associated ObjectOutputStream on the other end of the connection has written.
             // It will not return until that header has been read.
-            protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
+            if (singleThreadExecutor != null) {
+                protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
+            } else {
+                protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic,
+                        SharedConnectionExecutors.newSequentialWriter());
+            }
             protoInputStream = socket.getInputStream();
             // We create a thread for handling inputStream data
-            singleThreadExecutor.submit(this);
+            inputHandlerFuture = singleThreadExecutor != null ?
+                    singleThreadExecutor.submit(this) :
+                    SharedConnectionExecutors.getReader().submit(this);
 
             if (peersNodeAddress != null) {
                 setPeersNodeAddress(peersNodeAddress);
@@ -223,11 +244,11 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     private final Object lock = new Object();
     private final Queue<BundleOfEnvelopes> queueOfBundles = new ConcurrentLinkedQueue<>();
-    private final ScheduledExecutorService bundleSender = Executors.newSingleThreadScheduledExecutor();
 
     // Called from various threads
     public void sendMessage(NetworkEnvelope networkEnvelope) {
         long ts = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
         if (stopped) {
@@ -246,7 +267,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
+        // We serialize only once and use the result for the size checks and for writing it
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(networkEnvelope);
+        int networkEnvelopeSize = serializedEnvelope.getSerializedSize();
         try {
             // Throttle outbound network_messages
             long now = System.currentTimeMillis();
@@ -271,22 +294,22 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             // - and schedule it for sending
                             lastSendTimeStamp += getSendMsgThrottleSleep();
 
-                            bundleSender.schedule(() -> {
+                            scheduleBundle(() -> {
                                 if (!stopped) {
                                     synchronized (lock) {
                                         BundleOfEnvelopes bundle = queueOfBundles.poll();
                                         if (bundle != null && !stopped) {
-                                            NetworkEnvelope envelope;
-                                            int msgSize;
-                                            if (bundle.getEnvelopes().size() == 1) {
-                                                envelope = bundle.getEnvelopes().get(0);
-                                                msgSize = envelope.toProtoNetworkEnvelope().getSerializedSize();
-                                            } else {
-                                                envelope = bundle;
-                                                msgSize = networkEnvelopeSize;
-                                            }
+                                            NetworkEnvelope envelope = bundle.getEnvelopes().size() == 1 ?
+                                                    bundle.getEnvelopes().get(0) :
+                                                    bundle;
+                                            SerializedEnvelope serializedBundle = SerializedEnvelope.of(envelope);
+                                            int msgSize = envelope == bundle ?
+                                                    networkEnvelopeSize :
+                                                    serializedBundle.getSerializedSize();
                                             try {
-                                                protoOutputStream.writeEnvelope(envelope);
+                                                protoOutputStream.writeEnvelope(envelope, serializedBundle);
+                                                connectionStatistics.recordLatency(LatencyStatistics.Type.SEND, envelope,
+                                                        System.nanoTime() - startNanos);
                                                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(envelope, this)));
                                                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, msgSize));
                                             } catch (Throwable t) {
@@ -300,7 +323,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                                         }
                                     }
                                 }
-                            }, lastSendTimeStamp - now, TimeUnit.MILLISECONDS);
+                            }, lastSendTimeStamp - now);
                         }
 
                         // - yes? add to bucket
@@ -315,7 +338,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             lastSendTimeStamp = now;
 
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
+                protoOutputStream.writeEnvelope(networkEnvelope, serializedEnvelope);
+                connectionStatistics.recordLatency(LatencyStatistics.Type.SEND, networkEnvelope,
+                        System.nanoTime() - startNanos);
                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
             }
@@ -324,6 +349,17 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         }
     }
 
+    private void scheduleBundle(Runnable sendBundle, long delay) {
+        if (bundleSender != null) {
+            bundleSender.schedule(sendBundle, delay, TimeUnit.MILLISECONDS);
+        } else {
+            // The shared scheduler only hands over the bundle, so a blocking write does not delay other connections
+            SharedConnectionExecutors.getBundleScheduler().schedule(
+                    () -> SharedConnectionExecutors.getBundleSender().execute(sendBundle),
+                    delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
     // TODO: If msg is BundleOfEnvelopes we should check each individual message for capability and filter out those
     //  which fail.
     public boolean noCapabilityRequiredOrCapabilityIsSupported(Proto msg) {
@@ -376,19 +412,6 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         capabilitiesListeners.add(new WeakReference<>(listener));
     }
 
-    private boolean violatesThrottleLimit() {
-        long now = System.currentTimeMillis();
-
-        messageTimeStamps.add(now);
-
-        // clean list
-        while (messageTimeStamps.size() > getMsgThrottlePer10Sec())
-            messageTimeStamps.remove(0);
-
-        return violatesThrottleLimit(now, 1, getMsgThrottlePerSec()) ||
-                violatesThrottleLimit(now, 10, getMsgThrottlePer10Sec());
-    }
-
     private int getMsgThrottlePerSec() {
         return config != null ? config.msgThrottlePerSec : 200;
     }
@@ -405,21 +428,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return config != null ? config.sendMsgThrottleTrigger : 20;
     }
 
-    private boolean violatesThrottleLimit(long now, int seconds, int messageCountLimit) {
-        if (messageTimeStamps.size() >= messageCountLimit) {
-
-            // find the entry in the message timestamp history which determines whether we overshot the limit or not
-            long compareValue = messageTimeStamps.get(messageTimeStamps.size() - messageCountLimit);
-
-            // if duration < seconds sec we received too much network_messages
-            if (now - compareValue < TimeUnit.SECONDS.toMillis(seconds)) {
-                log.error("violatesThrottleLimit {}/{} second(s)", messageCountLimit, seconds);
-
-                return true;
-            }
-        }
-
-        return false;
+    private static boolean useSharedConnectionThreads() {
+        return config != null && config.sharedConnectionThreads;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -433,10 +443,20 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         if (networkEnvelope instanceof BundleOfEnvelopes) {
             onBundleOfEnvelopes((BundleOfEnvelopes) networkEnvelope, connection);
         } else {
-            UserThread.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)));
+            long queuedAt = System.nanoTime();
+            UserThread.execute(() -> dispatchMessage(networkEnvelope, connection, queuedAt));
         }
     }
 
+    // Runs on the UserThread
+    private void dispatchMessage(NetworkEnvelope networkEnvelope, Connection connection, long queuedAt) {
+        long startNanos = System.nanoTime();
+        connectionStatistics.recordLatency(LatencyStatistics.Type.QUEUE_WAIT, networkEnvelope, startNanos - queuedAt);
+        messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection));
+        connectionStatistics.recordLatency(LatencyStatistics.Type.MESSAGE_HANDLING, networkEnvelope,
+                System.nanoTime() - startNanos);
+    }
+
     private void onBundleOfEnvelopes(BundleOfEnvelopes bundleOfEnvelopes, Connection connection) {
         Map<P2PDataStorage.ByteArray, Set<NetworkEnvelope>> itemsByHash = new HashMap<>();
         Set<NetworkEnvelope> envelopesToProcess = new HashSet<>();
@@ -466,8 +486,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 envelopesToProcess.add(networkEnvelope);
             }
         }
+        long queuedAt = System.nanoTime();
         envelopesToProcess.forEach(envelope -> UserThread.execute(() ->
-                messageListeners.forEach(listener -> listener.onMessage(envelope, connection))));
+                dispatchMessage(envelope, connection, queuedAt)));
     }
 
 
@@ -574,10 +595,17 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 e.printStackTrace();
             }
 
-            //noinspection UnstableApiUsage
-            MoreExecutors.shutdownAndAwaitTermination(singleThreadExecutor, 500, TimeUnit.MILLISECONDS);
-            //noinspection UnstableApiUsage
-            MoreExecutors.shutdownAndAwaitTermination(bundleSender, 500, TimeUnit.MILLISECONDS);
+            if (singleThreadExecutor != null) {
+                //noinspection UnstableApiUsage
+                MoreExecutors.shutdownAndAwaitTermination(singleThreadExecutor, 500, TimeUnit.MILLISECONDS);
+            } else if (inputHandlerFuture != null) {
+                // The shared reader thread gets interrupted but stays in the pool
+                inputHandlerFuture.cancel(true);
+            }
+            if (bundleSender != null) {
+                //noinspection UnstableApiUsage
+                MoreExecutors.shutdownAndAwaitTermination(bundleSender, 500, TimeUnit.MILLISECONDS);
+            }
 
             log.debug("Connection shutdown complete {}", this.toString());
             // Use UserThread.execute as its not clear if that is called from a non-UserThread
@@ -838,7 +866,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             return;
                     }
 
-                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
+                    if (messageRateLimiter.violatesLimit(networkEnvelope, System.currentTimeMillis()) &&
+                            reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
                         return;
 
                     // Check P2P network ID
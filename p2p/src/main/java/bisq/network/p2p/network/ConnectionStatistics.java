@@ -25,6 +25,7 @@ import bisq.network.p2p.NodeAddress;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.util.Utilities;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -36,9 +37,12 @@ import lombok.extern.slf4j.Slf4j;
 public class ConnectionStatistics implements MessageListener {
     private final Connection connection;
     private final ConnectionState connectionState;
+    private final MessageRateLimiter messageRateLimiter;
     private final Map<String, Integer> sentDataMap = new HashMap<>();
     private final Map<String, Integer> receivedDataMap = new HashMap<>();
     private final Map<String, Long> rrtMap = new HashMap<>();
+    private final Map<LatencyStatistics.Type, LatencyHistogram> latencyHistograms =
+            new EnumMap<>(LatencyStatistics.Type.class);
     @Getter
     private final long connectionCreationTimeStamp;
     @Getter
@@ -52,9 +56,15 @@ public class ConnectionStatistics implements MessageListener {
     @Getter
     private int receivedBytes = 0;
 
-    public ConnectionStatistics(Connection connection, ConnectionState connectionState) {
+    ConnectionStatistics(Connection connection,
+                         ConnectionState connectionState,
+                         MessageRateLimiter messageRateLimiter) {
         this.connection = connection;
         this.connectionState = connectionState;
+        this.messageRateLimiter = messageRateLimiter;
+        for (LatencyStatistics.Type type : LatencyStatistics.Type.values()) {
+            latencyHistograms.put(type, new LatencyHistogram());
+        }
 
         connection.addMessageListener(this);
 
@@ -107,7 +117,11 @@ public class ConnectionStatistics implements MessageListener {
                         "Sent data: %s; %s" + ls +
                         "Received data: %s; %s" + ls +
                         "CPU time spent on sending messages: %s" + ls +
-                        "CPU time spent on receiving messages: %s",
+                        "CPU time spent on receiving messages: %s" + ls +
+                        "Throttle limit violations: %s %s" + ls +
+                        "Message handling time: %s" + ls +
+                        "Message queue wait time: %s" + ls +
+                        "Send time: %s",
                 age,
                 seedNode ? "[Seed node] " : "", peer,
                 connectionState.getPeerType().name(),
@@ -118,7 +132,11 @@ public class ConnectionStatistics implements MessageListener {
                 Utilities.readableFileSize(sentBytes), sentDataMap.toString(),
                 Utilities.readableFileSize(receivedBytes), receivedDataMap.toString(),
                 Utilities.formatDurationAsWords(timeOnSendMsg),
-                Utilities.formatDurationAsWords(timeOnReceivedMsg));
+                Utilities.formatDurationAsWords(timeOnReceivedMsg),
+                getNumThrottleLimitViolations(), messageRateLimiter.getViolationsByLimit(),
+                getLatencyHistogram(LatencyStatistics.Type.MESSAGE_HANDLING),
+                getLatencyHistogram(LatencyStatistics.Type.QUEUE_WAIT),
+                getLatencyHistogram(LatencyStatistics.Type.SEND));
     }
 
     @Override
@@ -161,6 +179,20 @@ public class ConnectionStatistics implements MessageListener {
         }
     }
 
+    // Can be called from any thread
+    void recordLatency(LatencyStatistics.Type type, NetworkEnvelope networkEnvelope, long nanos) {
+        latencyHistograms.get(type).recordNanos(nanos);
+        LatencyStatistics.record(type, networkEnvelope, connectionState.getPeerType(), nanos);
+    }
+
+    public LatencyHistogram getLatencyHistogram(LatencyStatistics.Type type) {
+        return latencyHistograms.get(type);
+    }
+
+    public long getNumThrottleLimitViolations() {
+        return messageRateLimiter.getNumViolations();
+    }
+
     public void addSendMsgMetrics(long timeSpent, int bytes) {
         this.timeOnSendMsg += timeSpent;
         this.sentBytes += bytes;
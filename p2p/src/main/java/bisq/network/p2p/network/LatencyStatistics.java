@@ -0,0 +1,100 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.Utilities;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms over all connections, broken down by message class and by peer type.
+ * The per connection histograms are held by ConnectionStatistics.
+ */
+public class LatencyStatistics {
+    public enum Type {
+        // Time the listeners of a received message spend on the UserThread
+        MESSAGE_HANDLING,
+        // Time from when a received message is queued for the UserThread until its listeners are called
+        QUEUE_WAIT,
+        // Time of Connection.sendMessage including throttling and the socket write
+        SEND
+    }
+
+    private static final Map<Type, LatencyHistogram> totalByType = new EnumMap<>(Type.class);
+    private static final Map<Type, Map<PeerType, LatencyHistogram>> byPeerTypeByType = new EnumMap<>(Type.class);
+    private static final Map<Type, Map<Class<? extends NetworkEnvelope>, LatencyHistogram>> byMessageClassByType =
+            new EnumMap<>(Type.class);
+
+    // The maps get only filled here, so they can be read from any thread
+    static {
+        for (Type type : Type.values()) {
+            totalByType.put(type, new LatencyHistogram());
+            Map<PeerType, LatencyHistogram> byPeerType = new EnumMap<>(PeerType.class);
+            for (PeerType peerType : PeerType.values()) {
+                byPeerType.put(peerType, new LatencyHistogram());
+            }
+            byPeerTypeByType.put(type, byPeerType);
+            byMessageClassByType.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    static void record(Type type, NetworkEnvelope networkEnvelope, PeerType peerType, long nanos) {
+        totalByType.get(type).recordNanos(nanos);
+        byPeerTypeByType.get(type).get(peerType).recordNanos(nanos);
+        byMessageClassByType.get(type)
+                .computeIfAbsent(networkEnvelope.getClass(), e -> new LatencyHistogram())
+                .recordNanos(nanos);
+    }
+
+    public static LatencyHistogram getTotal(Type type) {
+        return totalByType.get(type);
+    }
+
+    public static LatencyHistogram getByPeerType(Type type, PeerType peerType) {
+        return byPeerTypeByType.get(type).get(peerType);
+    }
+
+    /**
+     * @return The summaries of all histograms as json. Durations are in microseconds.
+     */
+    public static String toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (Type type : Type.values()) {
+            Map<String, Object> byType = new LinkedHashMap<>();
+            byType.put("total", totalByType.get(type).getSummary());
+
+            Map<String, Object> byPeerType = new LinkedHashMap<>();
+            byPeerTypeByType.get(type).forEach((peerType, histogram) ->
+                    byPeerType.put(peerType.name(), histogram.getSummary()));
+            byType.put("byPeerType", byPeerType);
+
+            Map<String, Object> byMessageClass = new TreeMap<>();
+            byMessageClassByType.get(type).forEach((messageClass, histogram) ->
+                    byMessageClass.put(messageClass.getSimpleName(), histogram.getSummary()));
+            byType.put("byMessageClass", byMessageClass);
+
+            json.put(type.name(), byType);
+        }
+        return Utilities.objectToJson(json);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.peers.peerexchange.messages.GetPeersRequest;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Throttles the inbound messages of a connection. Besides the limits for all messages per 1 and per 10 seconds some
+ * message classes have their own budget, so a peer cannot flood us with requests which are expensive for us to handle
+ * while staying below the total limits.
+ *
+ * Like the SlidingWindowRateLimiter it must only be fed from the InputHandler thread.
+ */
+@Slf4j
+class MessageRateLimiter {
+    private static final long TEN_SEC = TimeUnit.SECONDS.toMillis(10);
+
+    // Requests for which we have to send a large response. Honest peers send them about once per connection.
+    private static final Map<Class<? extends NetworkEnvelope>, Integer> MAX_MESSAGES_PER_10_SEC_BY_CLASS = Map.of(
+            PreliminaryGetDataRequest.class, 5,
+            GetUpdatedDataRequest.class, 5,
+            GetPeersRequest.class, 5);
+
+    private final SlidingWindowRateLimiter perSecLimiter;
+    private final SlidingWindowRateLimiter per10SecLimiter;
+    // Only filled in the constructor
+    private final Map<Class<? extends NetworkEnvelope>, SlidingWindowRateLimiter> limitersByClass = new HashMap<>();
+
+    MessageRateLimiter(int maxMessagesPerSec, int maxMessagesPer10Sec) {
+        perSecLimiter = new SlidingWindowRateLimiter(maxMessagesPerSec, TimeUnit.SECONDS.toMillis(1));
+        per10SecLimiter = new SlidingWindowRateLimiter(maxMessagesPer10Sec, TEN_SEC);
+        MAX_MESSAGES_PER_10_SEC_BY_CLASS.forEach((messageClass, maxMessages) ->
+                limitersByClass.put(messageClass, new SlidingWindowRateLimiter(maxMessages, TEN_SEC)));
+    }
+
+    /**
+     * Records the received message.
+     *
+     * @return true if the message exceeds the total limits or the budget of its class.
+     */
+    boolean violatesLimit(NetworkEnvelope networkEnvelope, long now) {
+        // We record the message at all limiters, even if one of them is already violated
+        boolean violation = violatesLimit(perSecLimiter, now, "all messages");
+        violation |= violatesLimit(per10SecLimiter, now, "all messages");
+
+        SlidingWindowRateLimiter classLimiter = limitersByClass.get(networkEnvelope.getClass());
+        if (classLimiter != null)
+            violation |= violatesLimit(classLimiter, now, networkEnvelope.getClass().getSimpleName());
+
+        return violation;
+    }
+
+    long getNumViolations() {
+        return perSecLimiter.getNumViolations() +
+                per10SecLimiter.getNumViolations() +
+                limitersByClass.values().stream().mapToLong(SlidingWindowRateLimiter::getNumViolations).sum();
+    }
+
+    /**
+     * @return The number of violations of each limit which was violated at least once.
+     */
+    Map<String, Long> getViolationsByLimit() {
+        Map<String, Long> map = new TreeMap<>();
+        putIfViolated(map, "1 sec", perSecLimiter);
+        putIfViolated(map, "10 sec", per10SecLimiter);
+        limitersByClass.forEach((messageClass, limiter) ->
+                putIfViolated(map, messageClass.getSimpleName(), limiter));
+        return map;
+    }
+
+    private static boolean violatesLimit(SlidingWindowRateLimiter limiter, long now, String subject) {
+        if (limiter.violatesLimit(now)) {
+            log.error("violatesThrottleLimit {}/{} ms for {}", limiter.getMaxEvents(), limiter.getWindowMs(), subject);
+            return true;
+        }
+        return false;
+    }
+
+    private static void putIfViolated(Map<String, Long> map, String key, SlidingWindowRateLimiter limiter) {
+        long numViolations = limiter.getNumViolations();
+        if (numViolations > 0)
+            map.put(key, numViolations);
+    }
+}
@@ -42,8 +42,12 @@ class ProtoOutputStream {
     }
 
     void writeEnvelope(NetworkEnvelope envelope) {
+        writeEnvelope(envelope, SerializedEnvelope.of(envelope));
+    }
+
+    void writeEnvelope(NetworkEnvelope envelope, SerializedEnvelope serializedEnvelope) {
         try {
-            writeEnvelopeOrThrow(envelope);
+            writeEnvelopeOrThrow(envelope, serializedEnvelope);
         } catch (IOException e) {
             log.error("Failed to write envelope", e);
             throw new BisqRuntimeException("Failed to write envelope", e);
@@ -58,12 +62,12 @@ class ProtoOutputStream {
         }
     }
 
-    private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
-        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
-        proto.writeDelimitedTo(delegate);
+    private void writeEnvelopeOrThrow(NetworkEnvelope envelope,
+                                      SerializedEnvelope serializedEnvelope) throws IOException {
+        serializedEnvelope.writeTo(delegate);
         delegate.flush();
 
-        statistic.addSentBytes(proto.getSerializedSize());
+        statistic.addSentBytes(serializedEnvelope.getSerializedSize());
         statistic.addSentMessage(envelope);
 
         if (!(envelope instanceof KeepAliveMessage)) {
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.protobuf.CodedOutputStream;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+
+/**
+ * The length delimited protobuf encoding of an envelope as it is written to the socket.
+ *
+ * A BroadcastMessage is sent as the same instance to many peers, so we encode it only once and all connections
+ * write the same bytes. The cache uses weak keys (compared by identity), so an entry is released as soon as no
+ * sender holds a reference to the envelope anymore. All other envelopes are encoded per call.
+ *
+ * Broadcast messages must not be changed after they have been sent.
+ */
+final class SerializedEnvelope {
+    // BroadcastHandler sends a message to all peers within a few seconds
+    private static final LoadingCache<NetworkEnvelope, SerializedEnvelope> BROADCAST_CACHE = CacheBuilder.newBuilder()
+            .weakKeys()
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .maximumSize(1000)
+            .build(CacheLoader.from(SerializedEnvelope::new));
+
+    static SerializedEnvelope of(NetworkEnvelope envelope) {
+        // A BundleOfEnvelopes is built per connection and still gets envelopes added until it is sent
+        if (envelope instanceof BroadcastMessage && !(envelope instanceof BundleOfEnvelopes)) {
+            return BROADCAST_CACHE.getUnchecked(envelope);
+        }
+        return new SerializedEnvelope(envelope);
+    }
+
+    // Size of the protobuf message without the length prefix
+    @Getter
+    private final int serializedSize;
+    private final byte[] bytes;
+
+    private SerializedEnvelope(NetworkEnvelope envelope) {
+        protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
+        serializedSize = proto.getSerializedSize();
+        bytes = new byte[CodedOutputStream.computeUInt32SizeNoTag(serializedSize) + serializedSize];
+        CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(bytes);
+        try {
+            // Same encoding as MessageLite.writeDelimitedTo
+            codedOutputStream.writeUInt32NoTag(serializedSize);
+            proto.writeTo(codedOutputStream);
+            codedOutputStream.checkNoSpaceLeft();
+        } catch (IOException e) {
+            // Writing to a byte array of the exact size does not fail
+            throw new BisqRuntimeException("Failed to serialize envelope", e);
+        }
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(bytes);
+    }
+}
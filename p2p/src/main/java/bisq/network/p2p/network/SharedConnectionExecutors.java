@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.util.Utilities;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread pools shared by all connections if Config.SHARED_CONNECTION_THREADS is set.
+ *
+ * By default each connection owns a thread for reading, one for writing and one for sending bundles of envelopes,
+ * and the latter two are kept alive as long as the connection even if the connection is idle. With the shared pools
+ * an idle connection only holds its reader thread. The socket streams we get from the Tor library are blocking
+ * streams, so reading still requires one thread per connection, but writer and bundle sender threads are only
+ * used while there is something to send and are released again afterwards.
+ */
+final class SharedConnectionExecutors {
+    // Threads not used for that time get terminated
+    private static final long KEEP_ALIVE_SEC = 60;
+
+    // Runs the blocking InputHandler loop of each connection. Threads of closed connections get reused.
+    private static final ExecutorService READER = Executors.newCachedThreadPool(
+            getThreadFactory("Connection-reader-%d"));
+    // Runs the blocking socket writes. Each connection gets a sequential view of it, so the writes to one
+    // socket never overlap and keep their order.
+    private static final ExecutorService WRITER = Executors.newCachedThreadPool(
+            getThreadFactory("Connection-writer-%d"));
+    // Only used for the delay of bundles. The sending itself is done on the SENDER pool so a peer which does not
+    // read its socket cannot hold up the bundles of other connections.
+    private static final ScheduledExecutorService BUNDLE_SCHEDULER = Utilities.getScheduledThreadPoolExecutor(
+            "Connection-bundleScheduler-%d", 1, 1, KEEP_ALIVE_SEC);
+    private static final ExecutorService SENDER = Executors.newCachedThreadPool(
+            getThreadFactory("Connection-bundleSender-%d"));
+
+    private SharedConnectionExecutors() {
+    }
+
+    static ExecutorService getReader() {
+        return READER;
+    }
+
+    static Executor newSequentialWriter() {
+        return MoreExecutors.newSequentialExecutor(WRITER);
+    }
+
+    static ScheduledExecutorService getBundleScheduler() {
+        return BUNDLE_SCHEDULER;
+    }
+
+    static Executor getBundleSender() {
+        return SENDER;
+    }
+
+    private static ThreadFactory getThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder()
+                .setNameFormat(nameFormat)
+                .setDaemon(true)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import lombok.Getter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Permits at most maxEvents events within a sliding window of windowMs.
+ *
+ * The timestamps of the last maxEvents events are kept in a ring buffer, so recording an event costs O(1) and does
+ * not allocate. Events must be recorded from a single thread (the InputHandler of a connection), the counters can be
+ * read from any thread.
+ */
+final class SlidingWindowRateLimiter {
+    @Getter
+    private final int maxEvents;
+    @Getter
+    private final long windowMs;
+    // Once the buffer is full, next points to the oldest timestamp
+    private final long[] timestamps;
+    private int next;
+    @Getter
+    private volatile long numEvents;
+    @Getter
+    private volatile long numViolations;
+
+    SlidingWindowRateLimiter(int maxEvents, long windowMs) {
+        checkArgument(maxEvents > 0, "maxEvents must be positive");
+        checkArgument(windowMs > 0, "windowMs must be positive");
+        this.maxEvents = maxEvents;
+        this.windowMs = windowMs;
+        this.timestamps = new long[maxEvents];
+    }
+
+    /**
+     * Records an event at now.
+     *
+     * @return true if this event together with the previous ones exceeds maxEvents within the window.
+     */
+    boolean violatesLimit(long now) {
+        timestamps[next] = now;
+        next = next + 1 == maxEvents ? 0 : next + 1;
+        numEvents++;
+
+        // The oldest of the last maxEvents events (including this one) is younger than the window
+        boolean violation = numEvents >= maxEvents && now - timestamps[next] < windowMs;
+        if (violation)
+            numViolations++;
+        return violation;
+    }
+}
@@ -22,9 +22,10 @@ import bisq.common.proto.network.NetworkEnvelope;
 import java.io.OutputStream;
 
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,16 +36,22 @@ import javax.annotation.concurrent.ThreadSafe;
 class SynchronizedProtoOutputStream extends ProtoOutputStream {
     private static final Logger log = LoggerFactory.getLogger(SynchronizedProtoOutputStream.class);
 
-    private final ExecutorService executorService;
+    private final Executor executor;
 
     SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic) {
+        this(delegate, statistic, Executors.newSingleThreadExecutor());
+    }
+
+    // The executor must run the writes sequentially
+    SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic, Executor executor) {
         super(delegate, statistic);
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.executor = executor;
     }
 
     @Override
-    void writeEnvelope(NetworkEnvelope envelope) {
-        Future<?> future = executorService.submit(() -> super.writeEnvelope(envelope));
+    void writeEnvelope(NetworkEnvelope envelope, SerializedEnvelope serializedEnvelope) {
+        FutureTask<?> future = new FutureTask<>(() -> super.writeEnvelope(envelope, serializedEnvelope), null);
+        executor.execute(future);
         try {
             future.get();
         } catch (InterruptedException e) {
@@ -62,7 +69,9 @@ class SynchronizedProtoOutputStream extends ProtoOutputStream {
 
     void onConnectionShutdown() {
         try {
-            executorService.shutdownNow();
+            // A shared executor is not ours to shut down. Pending writes fail once the stream is closed.
+            if (executor instanceof ExecutorService)
+                ((ExecutorService) executor).shutdownNow();
             super.onConnectionShutdown();
         } catch (Throwable t) {
             log.error("Failed to handle connection shutdown. Throwable={}", t.toString());
@@ -44,13 +44,21 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Added at v1.5.9
+    // Bloom filter of the keys of the PersistableNetworkPayloads the requester has. If set, those keys are not
+    // contained in excludedKeys. Only used if the peer has the GET_DATA_BLOOM_FILTER capability.
+    @Nullable
+    protected final KeysBloomFilter persistableNetworkPayloadKeysBloomFilter;
+
     public GetDataRequest(int messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable KeysBloomFilter persistableNetworkPayloadKeysBloomFilter) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.persistableNetworkPayloadKeysBloomFilter = persistableNetworkPayloadKeysBloomFilter;
     }
 }
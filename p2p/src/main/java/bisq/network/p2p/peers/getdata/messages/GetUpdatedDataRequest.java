@@ -46,10 +46,18 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
     public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
                                  int nonce,
                                  Set<byte[]> excludedKeys) {
+        this(senderNodeAddress, nonce, excludedKeys, null);
+    }
+
+    public GetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                 int nonce,
+                                 Set<byte[]> excludedKeys,
+                                 @Nullable KeysBloomFilter persistableNetworkPayloadKeysBloomFilter) {
         this(senderNodeAddress,
                 nonce,
                 excludedKeys,
                 Version.VERSION,
+                persistableNetworkPayloadKeysBloomFilter,
                 Version.getP2PMessageVersion());
     }
 
@@ -62,11 +70,13 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                                   int nonce,
                                   Set<byte[]> excludedKeys,
                                   @Nullable String version,
+                                  @Nullable KeysBloomFilter persistableNetworkPayloadKeysBloomFilter,
                                   int messageVersion) {
         super(messageVersion,
                 nonce,
                 excludedKeys,
-                version);
+                version,
+                persistableNetworkPayloadKeysBloomFilter);
         this.senderNodeAddress = senderNodeAddress;
     }
 
@@ -79,23 +89,33 @@ public final class GetUpdatedDataRequest extends GetDataRequest implements Sende
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(persistableNetworkPayloadKeysBloomFilter).ifPresent(e ->
+                builder.setPersistableNetworkPayloadKeysBloomFilter(e.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setGetUpdatedDataRequest(builder)
                 .build();
-        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}, " +
+                        "persistableNetworkPayloadKeysBloomFilter={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(), version,
+                persistableNetworkPayloadKeysBloomFilter);
         return proto;
     }
 
     public static GetUpdatedDataRequest fromProto(protobuf.GetUpdatedDataRequest proto, int messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        KeysBloomFilter persistableNetworkPayloadKeysBloomFilter = proto.hasPersistableNetworkPayloadKeysBloomFilter() ?
+                KeysBloomFilter.fromProto(proto.getPersistableNetworkPayloadKeysBloomFilter()) :
+                null;
+        log.info("Received a GetUpdatedDataRequest with {} kB and {} excluded key entries. Requesters version={}, " +
+                        "persistableNetworkPayloadKeysBloomFilter={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion,
+                persistableNetworkPayloadKeysBloomFilter);
         return new GetUpdatedDataRequest(NodeAddress.fromProto(proto.getSenderNodeAddress()),
                 proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                persistableNetworkPayloadKeysBloomFilter,
                 messageVersion);
     }
 }
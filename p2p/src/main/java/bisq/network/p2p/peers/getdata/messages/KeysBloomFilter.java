@@ -0,0 +1,148 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata.messages;
+
+import bisq.common.proto.network.NetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import java.security.SecureRandom;
+
+import java.util.Collection;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bloom filter of the keys of the PersistableNetworkPayloads known by the requester. It replaces the list of excluded
+ * keys in a GetDataRequest if the peer supports the GET_DATA_BLOOM_FILTER capability.
+ *
+ * A false positive causes that a missing payload is not delivered by the peer. We use a random tweak for each
+ * filter so false positives are not correlated between requests and the missing payload will get delivered by one
+ * of the following requests.
+ */
+@EqualsAndHashCode
+@Getter
+public final class KeysBloomFilter implements NetworkPayload {
+    public static final double FALSE_POSITIVE_RATE = 0.001;
+    // Limits to protect the receiver from maliciously large filters
+    private static final int MAX_NUM_BYTES = 10 * 1024 * 1024;
+    private static final int MAX_NUM_HASH_FUNCTIONS = 32;
+
+    private final byte[] bits;
+    private final int numHashFunctions;
+    private final long tweak;
+
+    public static KeysBloomFilter fromKeys(Collection<byte[]> keys) {
+        int numKeys = Math.max(1, keys.size());
+        // Optimal size m = -n * ln(p) / ln(2)^2 and number of hash functions k = m / n * ln(2)
+        long numBits = (long) Math.ceil(-numKeys * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+        int numBytes = (int) Math.min(MAX_NUM_BYTES, Math.max(1, (numBits + 7) / 8));
+        int numHashFunctions = (int) Math.max(1, Math.min(MAX_NUM_HASH_FUNCTIONS,
+                Math.round((double) numBytes * 8 / numKeys * Math.log(2))));
+        KeysBloomFilter bloomFilter = new KeysBloomFilter(new byte[numBytes], numHashFunctions, new SecureRandom().nextLong());
+        keys.forEach(bloomFilter::add);
+        return bloomFilter;
+    }
+
+    private KeysBloomFilter(byte[] bits, int numHashFunctions, long tweak) {
+        checkArgument(bits.length > 0 && bits.length <= MAX_NUM_BYTES,
+                "Invalid size of bloom filter. bits.length=" + bits.length);
+        checkArgument(numHashFunctions > 0 && numHashFunctions <= MAX_NUM_HASH_FUNCTIONS,
+                "Invalid number of hash functions. numHashFunctions=" + numHashFunctions);
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+        this.tweak = tweak;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public protobuf.KeysBloomFilter toProtoMessage() {
+        return protobuf.KeysBloomFilter.newBuilder()
+                .setBits(ByteString.copyFrom(bits))
+                .setNumHashFunctions(numHashFunctions)
+                .setTweak(tweak)
+                .build();
+    }
+
+    public static KeysBloomFilter fromProto(protobuf.KeysBloomFilter proto) {
+        return new KeysBloomFilter(proto.getBits().toByteArray(), proto.getNumHashFunctions(), proto.getTweak());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean mightContain(byte[] key) {
+        long numBits = (long) bits.length * 8;
+        long hash1 = hash(key, tweak);
+        long hash2 = hash(key, ~tweak) | 1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((bits[(int) (index >>> 3)] & (1 << (index & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysBloomFilter{" +
+                "\n     numBytes=" + bits.length +
+                ",\n     numHashFunctions=" + numHashFunctions +
+                "\n}";
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void add(byte[] key) {
+        long numBits = (long) bits.length * 8;
+        long hash1 = hash(key, tweak);
+        long hash2 = hash(key, ~tweak) | 1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = Math.floorMod(hash1 + i * hash2, numBits);
+            bits[(int) (index >>> 3)] |= (1 << (index & 7));
+        }
+    }
+
+    // FNV-1a over the key bytes seeded with the tweak, followed by the MurmurHash3 finalizer to spread the bits.
+    private static long hash(byte[] key, long seed) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -45,9 +45,16 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private final Capabilities supportedCapabilities;
 
     public PreliminaryGetDataRequest(int nonce, Set<byte[]> excludedKeys) {
+        this(nonce, excludedKeys, null);
+    }
+
+    public PreliminaryGetDataRequest(int nonce,
+                                     Set<byte[]> excludedKeys,
+                                     @Nullable KeysBloomFilter persistableNetworkPayloadKeysBloomFilter) {
         this(nonce,
                 excludedKeys,
                 Version.VERSION,
+                persistableNetworkPayloadKeysBloomFilter,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -60,9 +67,10 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
     private PreliminaryGetDataRequest(int nonce,
                                       Set<byte[]> excludedKeys,
                                       @Nullable String version,
+                                      @Nullable KeysBloomFilter persistableNetworkPayloadKeysBloomFilter,
                                       Capabilities supportedCapabilities,
                                       int messageVersion) {
-        super(messageVersion, nonce, excludedKeys, version);
+        super(messageVersion, nonce, excludedKeys, version, persistableNetworkPayloadKeysBloomFilter);
 
         this.supportedCapabilities = supportedCapabilities;
     }
@@ -76,22 +84,32 @@ public final class PreliminaryGetDataRequest extends GetDataRequest implements A
                         .map(ByteString::copyFrom)
                         .collect(Collectors.toList()));
         Optional.ofNullable(version).ifPresent(builder::setVersion);
+        Optional.ofNullable(persistableNetworkPayloadKeysBloomFilter).ifPresent(e ->
+                builder.setPersistableNetworkPayloadKeysBloomFilter(e.toProtoMessage()));
         NetworkEnvelope proto = getNetworkEnvelopeBuilder()
                 .setPreliminaryGetDataRequest(builder)
                 .build();
-        log.info("Sending a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), version);
+        log.info("Sending a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}, " +
+                        "persistableNetworkPayloadKeysBloomFilter={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(), version,
+                persistableNetworkPayloadKeysBloomFilter);
         return proto;
     }
 
     public static PreliminaryGetDataRequest fromProto(protobuf.PreliminaryGetDataRequest proto, int messageVersion) {
         Set<byte[]> excludedKeys = ProtoUtil.byteSetFromProtoByteStringList(proto.getExcludedKeysList());
         String requestersVersion = ProtoUtil.stringOrNullFromProto(proto.getVersion());
-        log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}",
-                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion);
+        KeysBloomFilter persistableNetworkPayloadKeysBloomFilter = proto.hasPersistableNetworkPayloadKeysBloomFilter() ?
+                KeysBloomFilter.fromProto(proto.getPersistableNetworkPayloadKeysBloomFilter()) :
+                null;
+        log.info("Received a PreliminaryGetDataRequest with {} kB and {} excluded key entries. Requesters version={}, " +
+                        "persistableNetworkPayloadKeysBloomFilter={}",
+                proto.getSerializedSize() / 1000d, excludedKeys.size(), requestersVersion,
+                persistableNetworkPayloadKeysBloomFilter);
         return new PreliminaryGetDataRequest(proto.getNonce(),
                 excludedKeys,
                 requestersVersion,
+                persistableNetworkPayloadKeysBloomFilter,
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
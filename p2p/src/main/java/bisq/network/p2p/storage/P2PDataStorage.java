@@ -28,6 +28,7 @@ import bisq.network.p2p.peers.Broadcaster;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import bisq.network.p2p.peers.getdata.messages.KeysBloomFilter;
 import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
 import bisq.network.p2p.storage.messages.AddDataMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
@@ -49,6 +50,7 @@ import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.PayloadSegment;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
 import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
@@ -101,11 +103,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -126,6 +133,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // Below that number of entries in a GetDataResponse we verify the signatures on the calling thread
+    private static final int MIN_ENTRIES_FOR_PARALLEL_VERIFICATION = 50;
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -146,6 +156,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final Set<AppendOnlyDataStoreListener> appendOnlyDataStoreListeners = new CopyOnWriteArraySet<>();
     private final RemovedPayloadsService removedPayloadsService;
     private final Clock clock;
+    // Used for hashing and verifying the signatures of the entries of a GetDataResponse in parallel
+    @Nullable
+    private ThreadPoolExecutor verificationExecutor;
 
     /// The maximum number of items that must exist in the SequenceNumberMap before it is scheduled for a purge
     /// which removes entries after PURGE_AGE_DAYS.
@@ -181,7 +194,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         networkNode.addMessageListener(this);
         networkNode.addConnectionListener(this);
 
-        this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+        this.persistenceManager.initialize(sequenceNumberMap, PersistenceManager.Source.PRIVATE_LOW_PRIO_JOURNAL);
     }
 
 
@@ -259,6 +272,21 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     * If useBloomFilter is true the keys of the PersistableNetworkPayloads are sent as Bloom filter. Must only be
+     * used if the peer has the GET_DATA_BLOOM_FILTER capability.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useBloomFilter) {
+        if (useBloomFilter) {
+            Set<ByteArray> keysOfConsensusCriticalData = appendOnlyDataStoreService.getKeysOfConsensusCriticalData();
+            return new PreliminaryGetDataRequest(nonce,
+                    getKnownHashesExcludedExactly(keysOfConsensusCriticalData),
+                    getKnownPersistableNetworkPayloadHashesAsBloomFilter(keysOfConsensusCriticalData));
+        }
         return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
     }
 
@@ -266,6 +294,24 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     * If useBloomFilter is true the keys of the PersistableNetworkPayloads are sent as Bloom filter. Must only be
+     * used if the peer has the GET_DATA_BLOOM_FILTER capability.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useBloomFilter) {
+        if (useBloomFilter) {
+            Set<ByteArray> keysOfConsensusCriticalData = appendOnlyDataStoreService.getKeysOfConsensusCriticalData();
+            return new GetUpdatedDataRequest(senderNodeAddress,
+                    nonce,
+                    getKnownHashesExcludedExactly(keysOfConsensusCriticalData),
+                    getKnownPersistableNetworkPayloadHashesAsBloomFilter(keysOfConsensusCriticalData));
+        }
         return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
     }
 
@@ -277,22 +323,49 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // PersistedStoragePayload items don't get removed, so we don't have an issue with the case that
         // an object gets removed in between PreliminaryGetDataRequest and the GetUpdatedDataRequest and we would
         // miss that event if we do not load the full set or use some delta handling.
-
-        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = getMapForDataRequest();
-        Set<byte[]> excludedKeys = getKeysAsByteSet(mapForDataRequest);
-        log.trace("## getKnownPayloadHashes map of PersistableNetworkPayloads={}, excludedKeys={}",
-                printPersistableNetworkPayloadMap(mapForDataRequest),
-                excludedKeys.stream().map(Utilities::encodeToHex).toArray());
-
-        Set<byte[]> excludedKeysFromProtectedStorageEntryMap = getKeysAsByteSet(map);
+        // The appendOnlyDataStoreService maintains an index of the keys of the live data and our map is a concurrent
+        // map, so we only need to take a snapshot of both key sets.
+        Set<ByteArray> keysOfLiveData = appendOnlyDataStoreService.getKeysOfLiveData();
+        Set<byte[]> excludedKeys = new HashSet<>(keysOfLiveData.size() + map.size());
+        keysOfLiveData.forEach(key -> excludedKeys.add(key.bytes));
+        int numPersistableNetworkPayloadKeys = excludedKeys.size();
+        map.keySet().forEach(key -> excludedKeys.add(key.bytes));
+        log.info("We added {} keys of PersistableNetworkPayloads and {} keys of ProtectedStorageEntries " +
+                        "to the excluded key set of our request",
+                numPersistableNetworkPayloadKeys, excludedKeys.size() - numPersistableNetworkPayloadKeys);
         log.trace("## getKnownPayloadHashes map of ProtectedStorageEntrys={}, excludedKeys={}",
                 printMap(),
-                excludedKeysFromProtectedStorageEntryMap.stream().map(Utilities::encodeToHex).toArray());
+                excludedKeys.stream().map(Utilities::encodeToHex).toArray());
+        return excludedKeys;
+    }
 
-        excludedKeys.addAll(excludedKeysFromProtectedStorageEntryMap);
+    private Set<byte[]> getKnownHashesExcludedExactly(Set<ByteArray> keysOfConsensusCriticalData) {
+        // We do not add the keys of the ProtectedStorageEntries to the Bloom filter as a false positive would
+        // cause that we miss an offer or mailbox message. The same applies to consensus critical
+        // PersistableNetworkPayloads like blind votes and proposals. We only request data at startup and after
+        // reconnects, so a payload withheld by a false positive would be missing until the next restart.
+        Set<byte[]> excludedKeys = new HashSet<>(map.size() + keysOfConsensusCriticalData.size());
+        map.keySet().forEach(key -> excludedKeys.add(key.bytes));
+        int numProtectedStorageEntryKeys = excludedKeys.size();
+        keysOfConsensusCriticalData.forEach(key -> excludedKeys.add(key.bytes));
+        log.info("We added {} keys of ProtectedStorageEntries and {} keys of consensus critical " +
+                        "PersistableNetworkPayloads to the excluded key set of our request",
+                numProtectedStorageEntryKeys, excludedKeys.size() - numProtectedStorageEntryKeys);
         return excludedKeys;
     }
 
+    private KeysBloomFilter getKnownPersistableNetworkPayloadHashesAsBloomFilter(Set<ByteArray> keysOfConsensusCriticalData) {
+        Set<ByteArray> keysOfLiveData = appendOnlyDataStoreService.getKeysOfLiveData();
+        List<byte[]> keys = new ArrayList<>(keysOfLiveData.size());
+        keysOfLiveData.stream()
+                .filter(key -> !keysOfConsensusCriticalData.contains(key))
+                .forEach(key -> keys.add(key.bytes));
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(keys);
+        log.info("We added {} keys of PersistableNetworkPayloads to the Bloom filter of our request. {}",
+                keys.size(), bloomFilter);
+        return bloomFilter;
+    }
+
     /**
      * Returns a GetDataResponse object that contains the Payloads known locally, but not remotely.
      */
@@ -305,23 +378,33 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
                 P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+        // If the requester sent a Bloom filter of the keys of their PersistableNetworkPayloads we treat all keys
+        // contained in the filter as known. Consensus critical payloads are only excluded by their exact keys, so a
+        // false positive cannot withhold them.
+        KeysBloomFilter bloomFilter = getDataRequest.getPersistableNetworkPayloadKeysBloomFilter();
+        Predicate<ByteArray> isKnownPersistableNetworkPayloadKey = bloomFilter == null ?
+                excludedKeysAsByteArray::contains :
+                key -> excludedKeysAsByteArray.contains(key) ||
+                        (bloomFilter.mightContain(key.bytes) &&
+                                !appendOnlyDataStoreService.isKeyOfConsensusCriticalData(key));
 
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
-        // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
-        // maps of the remaining appendOnlyDataStoreServices.
-        Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
+        // segmentsForDataResponse contains the pre-sorted segments of the historical data filtered by version from
+        // HistoricalDataStoreService as well as the segments of the live data of all appendOnlyDataStoreServices.
+        List<PayloadSegment> segmentsForDataResponse =
+                appendOnlyDataStoreService.getSegmentsForDataResponse(getDataRequest.getVersion());
         Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
                 filterKnownHashes(
-                        mapForDataResponse,
-                        Function.identity(),
-                        excludedKeysAsByteArray,
+                        segmentsForDataResponse,
+                        isKnownPersistableNetworkPayloadKey,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasPersistableNetworkPayloadsTruncated);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
-                        "Original map had {} entries.",
-                filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
+                        "Original segments had {} entries.",
+                filteredPersistableNetworkPayloads.size(),
+                segmentsForDataResponse.stream().mapToInt(PayloadSegment::size).sum());
         log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
                 filteredPersistableNetworkPayloads.stream()
                         .map(e -> Utilities.encodeToHex(e.getHash()))
@@ -355,26 +438,6 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     // Utils for collecting the exclude hashes
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<ByteArray, PersistableNetworkPayload> getMapForDataRequest() {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
-        appendOnlyDataStoreService.getServices()
-                .forEach(service -> {
-                    Map<ByteArray, PersistableNetworkPayload> serviceMap;
-                    if (service instanceof HistoricalDataStoreService) {
-                        var historicalDataStoreService = (HistoricalDataStoreService<? extends PersistableNetworkPayloadStore>) service;
-                        // As we add the version to our request we only use the live data. Eventually missing data will be
-                        // derived from the version.
-                        serviceMap = historicalDataStoreService.getMapOfLiveData();
-                    } else {
-                        serviceMap = service.getMap();
-                    }
-                    map.putAll(serviceMap);
-                    log.info("We added {} entries from {} to the excluded key set of our request",
-                            serviceMap.size(), service.getClass().getSimpleName());
-                });
-        return map;
-    }
-
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
         Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
         appendOnlyDataStoreService.getServices()
@@ -393,6 +456,48 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return map;
     }
 
+    /**
+     * Filters the PersistableNetworkPayloads of the given segments by a given predicate for known keys and peer
+     * capabilities.
+     * The DateSortedTruncatablePayloads are merged from the pre-sorted segments starting with the most recent ones,
+     * so we only need to visit the ones we deliver.
+     */
+    static private Set<PersistableNetworkPayload> filterKnownHashes(
+            List<PayloadSegment> segments,
+            Predicate<ByteArray> isKnownHash,
+            Capabilities peerCapabilities,
+            int maxEntries,
+            AtomicBoolean outTruncated) {
+
+        List<DateSortedTruncatablePayload> dateSortedTruncatablePayloads =
+                PayloadSegment.getMostRecentDateSortedTruncatablePayloads(segments,
+                        entry -> !isKnownHash.test(entry.getKey()) &&
+                                shouldTransmitPayloadToPeer(peerCapabilities, entry.getValue()));
+        log.info("Num filtered dateSortedTruncatablePayloads {}", dateSortedTruncatablePayloads.size());
+
+        List<PersistableNetworkPayload> filteredResults = new ArrayList<>();
+        segments.forEach(segment -> segment.getPayloads().stream()
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, payload))
+                .forEach(filteredResults::add));
+        log.info("Num filtered non-dateSortedTruncatablePayloads {}", filteredResults.size());
+
+        // The non-dateSortedTruncatablePayloads have higher prio, so we added dateSortedTruncatablePayloads
+        // after those so in case we need to truncate we first truncate the dateSortedTruncatablePayloads.
+        filteredResults.addAll(dateSortedTruncatablePayloads);
+
+        if (filteredResults.size() > maxEntries) {
+            filteredResults = filteredResults.subList(0, maxEntries);
+            outTruncated.set(true);
+            log.info("Num truncated filteredResults {}", filteredResults.size());
+        } else {
+            log.info("Num filteredResults {}", filteredResults.size());
+        }
+
+        return new HashSet<>(filteredResults);
+    }
+
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
      * by a given set of keys and peer capabilities.
@@ -450,12 +555,6 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     }
 
 
-    private Set<byte[]> getKeysAsByteSet(Map<ByteArray, ? extends PersistablePayload> map) {
-        return map.keySet().stream()
-                .map(e -> e.bytes)
-                .collect(Collectors.toSet());
-    }
-
     /**
      * Returns true if a Payload should be transmit to a peer given the peer's supported capabilities.
      */
@@ -489,11 +588,24 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         Set<PersistableNetworkPayload> persistableNetworkPayloadSet = getDataResponse.getPersistableNetworkPayloadSet();
 
         long ts2 = System.currentTimeMillis();
-        dataSet.forEach(e -> {
-            // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
-            addProtectedStorageEntry(e, sender, null, false);
-
-        });
+        // We hash the payloads and verify the signatures in parallel first. The entries are then applied on the
+        // calling thread and the listeners get notified once about all added entries.
+        List<ProtectedStorageEntry> entries = new ArrayList<>(dataSet);
+        ByteArray[] hashesOfPayload = hashAndVerifySignatures(entries);
+        List<ProtectedStorageEntry> addedEntries = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            ProtectedStorageEntry entry = entries.get(i);
+            ByteArray hashOfPayload = hashesOfPayload[i] != null ?
+                    hashesOfPayload[i] :
+                    get32ByteHashAsByteArray(entry.getProtectedStoragePayload());
+            // We don't broadcast here as we are only connected to the seed node and would be pointless
+            if (addProtectedStorageEntry(entry, hashOfPayload, sender, null, false, false)) {
+                addedEntries.add(entry);
+            }
+        }
+        if (!addedEntries.isEmpty()) {
+            hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
+        }
         log.info("Processing {} protectedStorageEntries took {} ms.", dataSet.size(), this.clock.millis() - ts2);
 
         ts2 = this.clock.millis();
@@ -531,6 +643,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+
+        if (verificationExecutor != null)
+            verificationExecutor.shutdownNow();
+
+        appendOnlyDataStoreService.shutDown();
     }
 
     @VisibleForTesting
@@ -739,8 +856,17 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                              @Nullable NodeAddress sender,
                                              @Nullable BroadcastHandler.Listener listener,
                                              boolean allowBroadcast) {
+        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStorageEntry.getProtectedStoragePayload());
+        return addProtectedStorageEntry(protectedStorageEntry, hashOfPayload, sender, listener, allowBroadcast, true);
+    }
+
+    private boolean addProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry,
+                                             ByteArray hashOfPayload,
+                                             @Nullable NodeAddress sender,
+                                             @Nullable BroadcastHandler.Listener listener,
+                                             boolean allowBroadcast,
+                                             boolean notifyListeners) {
         ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
 
         log.trace("## call addProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
@@ -789,11 +915,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // This is an updated entry. Record it and signal listeners.
         map.put(hashOfPayload, protectedStorageEntry);
-        hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+        if (notifyListeners)
+            hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
-        // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        // Record the updated sequence number and persist it.
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
 
@@ -809,6 +935,52 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return true;
     }
 
+    /**
+     * Computes the payload hashes and verifies the signatures of the entries. The result of the signature check is
+     * kept by the entry, so the later isValidForAddOperation call does not verify it again.
+     *
+     * @return The hashes of the payloads in the order of the entries. Elements are null if hashing failed.
+     */
+    private ByteArray[] hashAndVerifySignatures(List<ProtectedStorageEntry> entries) {
+        ByteArray[] hashesOfPayload = new ByteArray[entries.size()];
+        if (entries.size() < MIN_ENTRIES_FOR_PARALLEL_VERIFICATION) {
+            return hashesOfPayload;
+        }
+
+        if (verificationExecutor == null) {
+            int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            verificationExecutor = Utilities.getThreadPoolExecutor("P2PDataStorage-verification",
+                    numThreads, numThreads, 30);
+        }
+
+        // We use one task per thread so the bounded queue of the executor cannot overflow
+        int numTasks = verificationExecutor.getMaximumPoolSize();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int taskIndex = 0; taskIndex < numTasks; taskIndex++) {
+            int firstIndex = taskIndex;
+            tasks.add(() -> {
+                for (int i = firstIndex; i < entries.size(); i += numTasks) {
+                    ProtectedStorageEntry entry = entries.get(i);
+                    hashesOfPayload[i] = get32ByteHashAsByteArray(entry.getProtectedStoragePayload());
+                    entry.isSignatureValid();
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> future : verificationExecutor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Entries which have not been processed get hashed and verified when they are added
+            log.error("Verifying signatures of protectedStorageEntries failed", e);
+        }
+        return hashesOfPayload;
+    }
+
     /**
      * We do not do all checks as it is used for republishing existing mailbox messages from seed nodes which
      * only got stored if they had been valid when we received them.
@@ -880,8 +1052,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         map.put(hashOfPayload, updatedEntry);
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
 
         // Always broadcast refreshes
         broadcaster.broadcast(refreshTTLMessage, sender);
@@ -916,8 +1087,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
         // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
         if (protectedStoragePayload instanceof AddOncePayload) {
@@ -1074,6 +1244,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    // The sequence number map gets updated at each add or refresh of a protected storage entry. We only pass the
+    // changed entry to the journal instead of writing the whole map. The PersistenceManager collects the changes and
+    // appends them as one record after the persistence delay.
+    private void putSequenceNumber(ByteArray hashOfPayload, MapValue mapValue) {
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+        SequenceNumberMap changes = new SequenceNumberMap();
+        changes.put(hashOfPayload, mapValue);
+        persistenceManager.persistChanges(changes);
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
@@ -1129,11 +1309,6 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 e.getValue().getProtectedStoragePayload().getClass().getSimpleName()).toArray());
     }
 
-    private String printPersistableNetworkPayloadMap(Map<ByteArray, PersistableNetworkPayload> map) {
-        return Arrays.toString(map.entrySet().stream().map(e -> Hex.encode(e.getKey().bytes) + ": " +
-                e.getValue().getClass().getSimpleName()).toArray());
-    }
-
     /**
      * @param data Network payload
      * @return Hash of data
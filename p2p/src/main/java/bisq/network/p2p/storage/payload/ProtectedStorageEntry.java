@@ -35,12 +35,15 @@ import java.security.PublicKey;
 
 import java.time.Clock;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+
 @Getter
 @EqualsAndHashCode
 @Slf4j
@@ -51,6 +54,11 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     private final int sequenceNumber;
     private final byte[] signature;
     private long creationTimeStamp;
+    // Result of the signature check. The signed data (payload and sequence number) cannot change so we only verify
+    // the signature once.
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    transient private volatile Boolean signatureValid;
 
     public ProtectedStorageEntry(@NotNull ProtectedStoragePayload protectedStoragePayload,
                                  @NotNull PublicKey ownerPubKey,
@@ -202,7 +210,16 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     /*
      * Returns true if the signature for the Entry is valid for the payload, sequence number, and ownerPubKey
      */
-    boolean isSignatureValid() {
+    public boolean isSignatureValid() {
+        Boolean signatureValid = this.signatureValid;
+        if (signatureValid == null) {
+            signatureValid = verifySignature();
+            this.signatureValid = signatureValid;
+        }
+        return signatureValid;
+    }
+
+    private boolean verifySignature() {
         try {
             byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
                     new P2PDataStorage.DataAndSeqNrPair(this.protectedStoragePayload, this.sequenceNumber));
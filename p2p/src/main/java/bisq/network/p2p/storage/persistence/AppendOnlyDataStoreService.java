@@ -25,14 +25,20 @@ import javax.inject.Inject;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Used for PersistableNetworkPayload data which gets appended to a map storage.
  */
@@ -41,6 +47,17 @@ public class AppendOnlyDataStoreService {
     @Getter
     private final List<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> services = new ArrayList<>();
 
+    // Index of the keys we use as excluded keys in our data requests. It contains the keys of the full maps of the
+    // regular services but only the keys of the live data of the HistoricalDataStoreServices (missing historical data
+    // is derived from the version in the request). We keep it updated at put so building a request does not require
+    // to iterate all services and copy their maps.
+    private final Set<P2PDataStorage.ByteArray> keysOfLiveData = ConcurrentHashMap.newKeySet();
+    // Cache of the date sorted segments of the live data used for data responses. We invalidate it when the live data
+    // of a service changes.
+    private final Map<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>, PayloadSegment> liveDataSegmentByService = new ConcurrentHashMap<>();
+    // Services whose keys we never add to or test against a Bloom filter in data requests.
+    private final List<MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload>> consensusCriticalServices = new ArrayList<>();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -52,6 +69,9 @@ public class AppendOnlyDataStoreService {
 
     public void addService(MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
         services.add(service);
+        if (service.isConsensusCritical()) {
+            consensusCriticalServices.add(service);
+        }
     }
 
     public void readFromResources(String postFix, Runnable completeHandler) {
@@ -63,6 +83,9 @@ public class AppendOnlyDataStoreService {
         services.forEach(service -> {
             service.readFromResources(postFix, () -> {
                 if (remaining.decrementAndGet() == 0) {
+                    // The historical stores might have pruned their live data, so we rebuild the index once all
+                    // services are read.
+                    rebuildKeysOfLiveData();
                     completeHandler.run();
                 }
             });
@@ -73,6 +96,38 @@ public class AppendOnlyDataStoreService {
     @VisibleForTesting
     public void readFromResourcesSync(String postFix) {
         services.forEach(service -> service.readFromResourcesSync(postFix));
+        rebuildKeysOfLiveData();
+    }
+
+    public void shutDown() {
+        services.forEach(StoreService::shutDown);
+    }
+
+    /**
+     * @return Unmodifiable view of the keys of all live data. It is updated on put and must not be used for
+     * lookups by domain clients.
+     */
+    public Set<P2PDataStorage.ByteArray> getKeysOfLiveData() {
+        return Collections.unmodifiableSet(keysOfLiveData);
+    }
+
+    /**
+     * @return The keys of the live data of the consensus critical services. Those have to be sent as exact keys
+     * in data requests.
+     */
+    public Set<P2PDataStorage.ByteArray> getKeysOfConsensusCriticalData() {
+        Set<P2PDataStorage.ByteArray> keys = new HashSet<>();
+        consensusCriticalServices.forEach(service -> keys.addAll(getMapOfLiveData(service).keySet()));
+        return keys;
+    }
+
+    public boolean isKeyOfConsensusCriticalData(P2PDataStorage.ByteArray key) {
+        for (MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service : consensusCriticalServices) {
+            if (getMapOfLiveData(service).containsKey(key)) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
@@ -87,9 +142,56 @@ public class AppendOnlyDataStoreService {
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
+    /**
+     * Returns the segments of all data we deliver for a data request. Those are the pre-sorted segments of the
+     * historical stores newer than the requesters version and the segments of the live data of all services.
+     * If requestersVersion is null all historical segments are included.
+     */
+    public List<PayloadSegment> getSegmentsForDataResponse(@Nullable String requestersVersion) {
+        List<PayloadSegment> segments = new ArrayList<>();
+        services.forEach(service -> {
+            if (service instanceof HistoricalDataStoreService) {
+                segments.addAll(((HistoricalDataStoreService<?>) service).getHistoricalSegmentsSinceVersion(requestersVersion));
+            }
+            segments.add(liveDataSegmentByService.computeIfAbsent(service,
+                    e -> PayloadSegment.fromMap(getMapOfLiveData(e))));
+        });
+        return segments;
+    }
+
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
         services.stream()
                 .filter(service -> service.canHandle(payload))
-                .forEach(service -> service.putIfAbsent(hashAsByteArray, payload));
+                .forEach(service -> {
+                    service.putIfAbsent(hashAsByteArray, payload);
+                    // HistoricalDataStoreServices do not add payloads which are already in their historical data.
+                    if (getMapOfLiveData(service).containsKey(hashAsByteArray) &&
+                            keysOfLiveData.add(hashAsByteArray)) {
+                        liveDataSegmentByService.remove(service);
+                    }
+                });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void rebuildKeysOfLiveData() {
+        keysOfLiveData.clear();
+        liveDataSegmentByService.clear();
+        services.forEach(service -> {
+            Set<P2PDataStorage.ByteArray> keys = getMapOfLiveData(service).keySet();
+            keysOfLiveData.addAll(keys);
+            log.info("We added {} keys from {} to our index of live data keys",
+                    keys.size(), service.getClass().getSimpleName());
+        });
+    }
+
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfLiveData(
+            MapStoreService<? extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>, PersistableNetworkPayload> service) {
+        return service instanceof HistoricalDataStoreService ?
+                ((HistoricalDataStoreService<?>) service).getMapOfLiveData() :
+                service.getMap();
     }
 }
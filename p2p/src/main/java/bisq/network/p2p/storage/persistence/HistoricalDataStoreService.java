@@ -22,18 +22,25 @@ import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
+import bisq.common.file.FileUtil;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
 
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
+import java.io.IOException;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
@@ -44,7 +51,12 @@ import lombok.extern.slf4j.Slf4j;
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
     private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
     // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    // The historical stores do not change, so we create the date sorted segments used for data responses only once
+    private ImmutableMap<String, PayloadSegment> segmentsByVersion = ImmutableMap.of();
+    private final boolean useMappedStore;
+    @Nullable
+    private MappedPayloadMap mappedPayloadMap;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -52,7 +64,12 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public HistoricalDataStoreService(File storageDir, PersistenceManager<T> persistenceManager) {
+        this(storageDir, persistenceManager, false);
+    }
+
+    public HistoricalDataStoreService(File storageDir, PersistenceManager<T> persistenceManager, boolean useMappedStore) {
         super(storageDir, persistenceManager);
+        this.useMappedStore = useMappedStore;
     }
 
 
@@ -68,25 +85,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
         // If we have a store with a newer version than the requesters version we will add those as well.
         storesByVersion.entrySet().stream()
-                .filter(entry -> {
-                    // Old nodes not sending the version will get delivered all data
-                    if (requestersVersion == null) {
-                        log.info("The requester did not send a version. This is expected for not updated nodes.");
-                        return true;
-                    }
-
-                    // Otherwise we only add data if the requesters version is older then
-                    // the version of the particular store.
-                    String storeVersion = entry.getKey();
-                    boolean newVersion = Version.isNewVersion(storeVersion, requestersVersion);
-                    String details = newVersion ?
-                            "As our historical store is a newer version we add the data to our result map." :
-                            "As the requester version is not older as our historical store we do not " +
-                                    "add the data to the result map.";
-                    log.info("The requester had version {}. Our historical data store has version {}.\n{}",
-                            requestersVersion, storeVersion, details);
-                    return newVersion;
-                })
+                .filter(entry -> isNewerThanRequestersVersion(entry.getKey(), requestersVersion))
                 .map(e -> e.getValue().getMap())
                 .forEach(result::putAll);
 
@@ -95,6 +94,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return result;
     }
 
+    // We give back the pre-sorted segments of all historical stores newer than the requested version.
+    // If requestersVersion is null we return all historical segments. The live data is not included.
+    public List<PayloadSegment> getHistoricalSegmentsSinceVersion(@Nullable String requestersVersion) {
+        return segmentsByVersion.entrySet().stream()
+                .filter(entry -> isNewerThanRequestersVersion(entry.getKey(), requestersVersion))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+    }
+
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfLiveData() {
         return store.getMap();
     }
@@ -105,6 +113,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return result;
     }
 
+    // Avoids creating the map of all data for single lookups
+    public boolean containsKey(P2PDataStorage.ByteArray hash) {
+        return anyMapContainsKey(hash);
+    }
+
+    public boolean usesMappedStore() {
+        return mappedPayloadMap != null;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // MapStoreService
@@ -124,7 +141,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         }
 
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        persistAddedPayload(hash, payload);
     }
 
     @Override
@@ -137,14 +154,26 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         // So it will be always null. We still keep the return type as we override the method from MapStoreService which
         // follow the Map.putIfAbsent signature.
         getMapOfLiveData().put(hash, payload);
-        requestPersistence();
+        persistAddedPayload(hash, payload);
         return null;
     }
 
 
+    // If the live data is kept in a MappedPayloadMap each change is appended to the segment files, so we do not need
+    // to write the whole store.
+    @Override
+    protected void requestPersistence() {
+        if (mappedPayloadMap == null) {
+            super.requestPersistence();
+        }
+    }
+
     @Override
     protected void readFromResources(String postFix, Runnable completeHandler) {
         readStore(persisted -> {
+            if (useMappedStore) {
+                useMappedPayloadMap();
+            }
             log.info("We have created the {} store for the live data and filled it with {} entries from the persisted data.",
                     getFileName(), getMapOfLiveData().size());
 
@@ -159,19 +188,104 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
+                            this.allHistoricalPayloads = toHistoricalMap(allHistoricalPayloads);
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
+                            this.segmentsByVersion = ImmutableMap.copyOf(storesByVersion.entrySet().stream()
+                                    .collect(Collectors.toMap(Map.Entry::getKey,
+                                            entry -> toHistoricalSegment(entry.getValue().getMap()))));
                             completeHandler.run();
                         }
                     }));
         });
     }
 
+    @Override
+    protected void readFromResourcesSync(String postFix) {
+        super.readFromResourcesSync(postFix);
+        if (useMappedStore) {
+            useMappedPayloadMap();
+        }
+    }
+
+    // The OS writes the mapped segments to disk lazily, so we force it at shutdown.
+    @Override
+    public void shutDown() {
+        if (mappedPayloadMap != null) {
+            mappedPayloadMap.flush();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Protected
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The historical data never changes. Services can override it to keep the historical payloads in a more compact
+    // form than a map of payload objects.
+    protected Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> toHistoricalMap(
+            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        return ImmutableMap.copyOf(map);
+    }
+
+    // The map created by toHistoricalMap from all historical stores
+    protected Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllHistoricalData() {
+        return allHistoricalPayloads;
+    }
+
+    // Called with the maps created by toHistoricalMap
+    protected PayloadSegment toHistoricalSegment(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap) {
+        return PayloadSegment.fromMap(historicalMap);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // If the live data is mapped the segment files got updated already. Otherwise we pass a store with only the added
+    // payload to the persistence manager, which appends it to the journal if its source supports that.
+    private void persistAddedPayload(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
+        if (mappedPayloadMap != null) {
+            return;
+        }
+
+        T changes = createStore();
+        changes.getMap().put(hash, payload);
+        persistenceManager.persistChanges(changes);
+    }
+
+    private void useMappedPayloadMap() {
+        File segmentsDir = new File(absolutePathOfStorageDir, getFileName() + "_segments");
+        PersistenceProtoResolver resolver = persistenceManager.getPersistenceProtoResolver();
+        try {
+            mappedPayloadMap = new MappedPayloadMap(segmentsDir,
+                    proto -> (PersistableNetworkPayload) resolver.fromProto(proto));
+        } catch (IOException e) {
+            log.error("Could not open the segment files at {}. We keep the live data on the heap.", segmentsDir, e);
+            return;
+        }
+
+        // Data from a previously persisted store file gets migrated to the segments. After that the store file is not
+        // needed anymore. It would not get updated and would only slow down the next start.
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> persistedMap = store.getMap();
+        if (!persistedMap.isEmpty()) {
+            persistedMap.forEach(mappedPayloadMap::putIfAbsent);
+            log.info("We migrated {} entries from {} to the segment files.", persistedMap.size(), getFileName());
+            persistedMap.clear();
+            try {
+                FileUtil.deleteFileIfExists(new File(absolutePathOfStorageDir, getFileName()));
+            } catch (IOException e) {
+                log.warn("Could not delete the migrated store file {}", getFileName(), e);
+            }
+        }
+
+        // The persistence manager keeps the empty persisted store, so if it gets written (e.g. at a backup) it does
+        // not serialize the whole mapped data into the store file.
+        T mappedStore = createStore();
+        mappedStore.setMap(mappedPayloadMap);
+        store = mappedStore;
+    }
+
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
                                                   Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
@@ -183,6 +297,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
 
         // If resource file does not exist we do not create a new store as it would never get filled.
         persistenceManager.readPersisted(fileName, persisted -> {
+                    persisted.setMap(toHistoricalMap(persisted.getMap()));
                     storesByVersion.put(version, persisted);
                     allHistoricalPayloads.putAll(persisted.getMap());
                     log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
@@ -208,6 +323,25 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         requestPersistence();
     }
 
+    private boolean isNewerThanRequestersVersion(String storeVersion, @Nullable String requestersVersion) {
+        // Old nodes not sending the version will get delivered all data
+        if (requestersVersion == null) {
+            log.info("The requester did not send a version. This is expected for not updated nodes.");
+            return true;
+        }
+
+        // Otherwise we only add data if the requesters version is older then
+        // the version of the particular store.
+        boolean newVersion = Version.isNewVersion(storeVersion, requestersVersion);
+        String details = newVersion ?
+                "As our historical store is a newer version we add the data to our result map." :
+                "As the requester version is not older as our historical store we do not " +
+                        "add the data to the result map.";
+        log.info("The requester had version {}. Our historical data store has version {}.\n{}",
+                requestersVersion, storeVersion, details);
+        return newVersion;
+    }
+
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
         return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
     }
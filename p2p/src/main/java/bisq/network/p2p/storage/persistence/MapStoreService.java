@@ -56,6 +56,14 @@ public abstract class MapStoreService<T extends PersistableEnvelope, R extends P
 
     public abstract boolean canHandle(R payload);
 
+    /**
+     * Payloads of consensus critical stores must never be withheld from a peer because of a false positive of the
+     * Bloom filter in a data request, so we always exchange their keys exactly.
+     */
+    public boolean isConsensusCritical() {
+        return false;
+    }
+
     void put(P2PDataStorage.ByteArray hash, R payload) {
         getMap().put(hash, payload);
         requestPersistence();
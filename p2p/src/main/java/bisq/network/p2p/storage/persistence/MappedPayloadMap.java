@@ -0,0 +1,671 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.file.FileUtil;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Map of PersistableNetworkPayloads backed by append-only, memory mapped segment files. Only a compact index of the
+ * record positions is kept on the heap. Payloads are stored as serialized protobuf records and are only decoded when
+ * they get accessed.
+ *
+ * Each change is appended as a record to the current segment file, so there is no need to write the full map to disk.
+ * A record has the layout [int length][byte type][short keyLength][key][serialized payload], where length is the
+ * number of bytes following the length field. The length is written last, so a partially written record is ignored
+ * when the segments are read. Removals are appended as records without payload.
+ *
+ * We rely on the OS to write the mapped pages to disk. Data might get lost if the OS crashes, which is acceptable for
+ * data we receive from the network. Clients can call flush to force the write.
+ *
+ * Replaced and removed records stay in the segments until the map gets compacted. Compaction happens when the map
+ * gets opened and more than half of the stored bytes are dead. The live records are then written to a new set of
+ * segments which replaces the old one. We do not compact while the map is in use as iterators refer to the record
+ * positions.
+ *
+ * The map is thread safe but iterators work on a snapshot of the positions taken when the iterator got created.
+ *
+ * Decoding a payload at each access would create garbage for frequently accessed entries, so get keeps the recently
+ * accessed payloads in a small LRU cache. Iterators decode each payload without using the cache, as a full iteration
+ * would only evict the hot entries.
+ */
+@Slf4j
+public class MappedPayloadMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final String SEGMENT_FILE_PREFIX = "segment_";
+    private static final byte TYPE_PUT = 0;
+    private static final byte TYPE_REMOVE = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 2;
+    private static final double MAX_DEAD_RATIO = 0.5;
+    private static final String COMPACTING_DIR_SUFFIX = "_compacting";
+    private static final String OLD_DIR_SUFFIX = "_old";
+    private static final int MAX_CACHED_PAYLOADS = 1024;
+
+    private final File dir;
+    private final int segmentSize;
+    private final Function<protobuf.PersistableNetworkPayload, PersistableNetworkPayload> fromProto;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private int writePosition;
+    private int firstNotFlushedSegment;
+    // Bytes of all records in the segments and of the records the index refers to
+    private long totalBytes;
+    private long liveBytes;
+
+    // Open addressing hash table with linear probing. A slot holds the position of the record + 1, 0 marks an empty slot.
+    // The position is encoded as segment index in the upper and offset in the lower 32 bits.
+    private long[] table = new long[16];
+    private int size;
+
+    // Decoded payloads by the position of their record. Records do not change, so a cached payload is never outdated.
+    // Payloads of replaced or removed records are not accessed anymore and get evicted.
+    private final Map<Long, PersistableNetworkPayload> payloadCache =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, PersistableNetworkPayload> eldest) {
+                    return size() > MAX_CACHED_PAYLOADS;
+                }
+            };
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MappedPayloadMap(File dir,
+                            Function<protobuf.PersistableNetworkPayload, PersistableNetworkPayload> fromProto)
+            throws IOException {
+        this(dir, DEFAULT_SEGMENT_SIZE, fromProto);
+    }
+
+    MappedPayloadMap(File dir,
+                     int segmentSize,
+                     Function<protobuf.PersistableNetworkPayload, PersistableNetworkPayload> fromProto)
+            throws IOException {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fromProto = fromProto;
+
+        recoverFromInterruptedCompaction();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create directory " + dir.getAbsolutePath());
+        }
+
+        readSegments();
+        if (segments.size() > 1 && totalBytes - liveBytes > totalBytes * MAX_DEAD_RATIO) {
+            compact();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && findSlot(((P2PDataStorage.ByteArray) key).bytes) >= 0;
+    }
+
+    @Override
+    public synchronized PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+
+        int slot = findSlot(((P2PDataStorage.ByteArray) key).bytes);
+        return slot >= 0 ? readCachedPayload(table[slot] - 1) : null;
+    }
+
+    @Override
+    public synchronized PersistableNetworkPayload put(P2PDataStorage.ByteArray key, PersistableNetworkPayload value) {
+        byte[] serialized = value.toProtoMessage().toByteArray();
+        int slot = findSlot(key.bytes);
+        PersistableNetworkPayload previous = slot >= 0 ? readCachedPayload(table[slot] - 1) : null;
+        long position = append(TYPE_PUT, key.bytes, serialized);
+        payloadCache.put(position, value);
+        if (slot >= 0) {
+            payloadCache.remove(table[slot] - 1);
+            liveBytes -= getRecordSize(table[slot] - 1);
+            table[slot] = position + 1;
+        } else {
+            insert(key.bytes, position);
+        }
+        liveBytes += getRecordSize(position);
+        return previous;
+    }
+
+    @Override
+    public synchronized PersistableNetworkPayload putIfAbsent(P2PDataStorage.ByteArray key,
+                                                              PersistableNetworkPayload value) {
+        int slot = findSlot(key.bytes);
+        if (slot >= 0) {
+            return readCachedPayload(table[slot] - 1);
+        }
+
+        long position = append(TYPE_PUT, key.bytes, value.toProtoMessage().toByteArray());
+        payloadCache.put(position, value);
+        insert(key.bytes, position);
+        liveBytes += getRecordSize(position);
+        return null;
+    }
+
+    @Override
+    public synchronized PersistableNetworkPayload remove(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return null;
+        }
+
+        byte[] bytes = ((P2PDataStorage.ByteArray) key).bytes;
+        int slot = findSlot(bytes);
+        if (slot < 0) {
+            return null;
+        }
+
+        PersistableNetworkPayload previous = readCachedPayload(table[slot] - 1);
+        payloadCache.remove(table[slot] - 1);
+        append(TYPE_REMOVE, bytes, new byte[0]);
+        liveBytes -= getRecordSize(table[slot] - 1);
+        deleteSlot(slot);
+        return previous;
+    }
+
+    @Override
+    public Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> read(long position) {
+                        synchronized (MappedPayloadMap.this) {
+                            return new AbstractMap.SimpleImmutableEntry<>(readKey(position), readPayload(position));
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MappedPayloadMap.this.size();
+            }
+        };
+    }
+
+    // We override keySet and values to avoid decoding the payloads or creating the keys if not needed
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<P2PDataStorage.ByteArray> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    P2PDataStorage.ByteArray read(long position) {
+                        synchronized (MappedPayloadMap.this) {
+                            return readKey(position);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                return MappedPayloadMap.this.remove(o) != null;
+            }
+
+            @Override
+            public int size() {
+                return MappedPayloadMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<PersistableNetworkPayload> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<PersistableNetworkPayload> iterator() {
+                return new PositionIterator<>() {
+                    @Override
+                    PersistableNetworkPayload read(long position) {
+                        synchronized (MappedPayloadMap.this) {
+                            return readPayload(position);
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MappedPayloadMap.this.size();
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Forces all segments which got changes since the last call to be written to disk.
+     */
+    public synchronized void flush() {
+        for (int i = firstNotFlushedSegment; i < segments.size(); i++) {
+            segments.get(i).force();
+        }
+        firstNotFlushedSegment = segments.size() - 1;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Segments
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void readSegments() throws IOException {
+        long ts = System.currentTimeMillis();
+        int numRecords = 0;
+        for (int i = 0; ; i++) {
+            File file = getSegmentFile(i);
+            if (!file.exists()) {
+                break;
+            }
+
+            MappedByteBuffer segment = mapSegment(file);
+            segments.add(segment);
+            int position = 0;
+            while (position + HEADER_SIZE <= segmentSize) {
+                int length = segment.getInt(position);
+                if (length <= 0 || position + 4 + length > segmentSize) {
+                    break;
+                }
+
+                long encodedPosition = encodePosition(i, position);
+                byte[] key = readKeyBytes(encodedPosition);
+                int slot = findSlot(key);
+                if (slot >= 0) {
+                    liveBytes -= getRecordSize(table[slot] - 1);
+                }
+                if (segment.get(position + 4) == TYPE_PUT) {
+                    if (slot >= 0) {
+                        table[slot] = encodedPosition + 1;
+                    } else {
+                        insert(key, encodedPosition);
+                    }
+                    liveBytes += 4 + length;
+                } else if (slot >= 0) {
+                    deleteSlot(slot);
+                }
+                totalBytes += 4 + length;
+                position += 4 + length;
+                numRecords++;
+            }
+            writePosition = position;
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(mapSegment(getSegmentFile(0)));
+            writePosition = 0;
+        }
+        firstNotFlushedSegment = segments.size() - 1;
+        log.info("Reading {} records from {} segments in {} resulted in {} entries. Took {} ms.",
+                numRecords, segments.size(), dir.getName(), size, System.currentTimeMillis() - ts);
+    }
+
+    private long append(byte type, byte[] key, byte[] serialized) {
+        int length = 1 + 2 + key.length + serialized.length;
+        checkArgument(4 + length <= segmentSize, "Record does not fit into a segment. length=" + length);
+        checkArgument(key.length <= Short.MAX_VALUE, "Key too large. key.length=" + key.length);
+
+        if (writePosition + 4 + length > segmentSize) {
+            try {
+                segments.add(mapSegment(getSegmentFile(segments.size())));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            writePosition = 0;
+        }
+
+        int segmentIndex = segments.size() - 1;
+        ByteBuffer buffer = segments.get(segmentIndex).duplicate();
+        buffer.position(writePosition + 4);
+        buffer.put(type);
+        buffer.putShort((short) key.length);
+        buffer.put(key);
+        buffer.put(serialized);
+        // We write the length at last so an incomplete record is not read
+        buffer.putInt(writePosition, length);
+
+        long position = encodePosition(segmentIndex, writePosition);
+        writePosition += 4 + length;
+        totalBytes += 4 + length;
+        return position;
+    }
+
+    // Writes the live records into new segments in a sibling directory which then replaces our directory. If we get
+    // interrupted the old segments are either still in place or get restored by recoverFromInterruptedCompaction.
+    private void compact() throws IOException {
+        long ts = System.currentTimeMillis();
+        long previousTotalBytes = totalBytes;
+        File compactingDir = getSiblingDir(COMPACTING_DIR_SUFFIX);
+        File oldDir = getSiblingDir(OLD_DIR_SUFFIX);
+        FileUtil.deleteDirectory(compactingDir);
+
+        MappedPayloadMap compacted = new MappedPayloadMap(compactingDir, segmentSize, fromProto);
+        for (long value : table) {
+            if (value != 0) {
+                compacted.appendLiveRecord(readKeyBytes(value - 1), readSerializedPayload(value - 1));
+            }
+        }
+        compacted.flush();
+
+        try {
+            FileUtil.renameFile(dir, oldDir);
+            FileUtil.renameFile(compactingDir, dir);
+        } catch (IOException e) {
+            // Renaming fails on Windows as long as the segments are mapped. We keep using the old segments then.
+            log.warn("Could not replace segments in {} with compacted segments. {}", dir.getName(), e.toString());
+            if (!dir.exists()) {
+                FileUtil.renameFile(oldDir, dir);
+            }
+            FileUtil.deleteDirectory(compactingDir);
+            return;
+        }
+        FileUtil.deleteDirectory(oldDir);
+
+        // The mappings of the compacted map stay valid after its directory got renamed
+        payloadCache.clear();
+        segments.clear();
+        segments.addAll(compacted.segments);
+        table = compacted.table;
+        size = compacted.size;
+        writePosition = compacted.writePosition;
+        firstNotFlushedSegment = compacted.firstNotFlushedSegment;
+        totalBytes = compacted.totalBytes;
+        liveBytes = compacted.liveBytes;
+        log.info("Compacting {} reduced the stored data from {} to {} bytes. Took {} ms.",
+                dir.getName(), previousTotalBytes, totalBytes, System.currentTimeMillis() - ts);
+    }
+
+    private void appendLiveRecord(byte[] key, byte[] serialized) {
+        long position = append(TYPE_PUT, key, serialized);
+        insert(key, position);
+        liveBytes += getRecordSize(position);
+    }
+
+    private void recoverFromInterruptedCompaction() throws IOException {
+        File oldDir = getSiblingDir(OLD_DIR_SUFFIX);
+        if (!dir.exists() && oldDir.exists()) {
+            // We got interrupted between the renames, the compacted segments might not be complete
+            FileUtil.renameFile(oldDir, dir);
+        }
+        FileUtil.deleteDirectory(oldDir);
+        FileUtil.deleteDirectory(getSiblingDir(COMPACTING_DIR_SUFFIX));
+    }
+
+    private File getSiblingDir(String suffix) {
+        return new File(dir.getAbsoluteFile().getParentFile(), dir.getName() + suffix);
+    }
+
+    private MappedByteBuffer mapSegment(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() < segmentSize) {
+                randomAccessFile.setLength(segmentSize);
+            }
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private File getSegmentFile(int index) {
+        return new File(dir, SEGMENT_FILE_PREFIX + index);
+    }
+
+    private byte[] readKeyBytes(long position) {
+        ByteBuffer buffer = segments.get((int) (position >>> 32)).duplicate();
+        int offset = (int) position;
+        byte[] key = new byte[buffer.getShort(offset + 5)];
+        buffer.position(offset + HEADER_SIZE);
+        buffer.get(key);
+        return key;
+    }
+
+    private P2PDataStorage.ByteArray readKey(long position) {
+        return new P2PDataStorage.ByteArray(readKeyBytes(position));
+    }
+
+    private int getRecordSize(long position) {
+        return 4 + segments.get((int) (position >>> 32)).getInt((int) position);
+    }
+
+    private byte[] readSerializedPayload(long position) {
+        ByteBuffer buffer = segments.get((int) (position >>> 32)).duplicate();
+        int offset = (int) position;
+        short keyLength = buffer.getShort(offset + 5);
+        byte[] serialized = new byte[buffer.getInt(offset) - 1 - 2 - keyLength];
+        buffer.position(offset + HEADER_SIZE + keyLength);
+        buffer.get(serialized);
+        return serialized;
+    }
+
+    private PersistableNetworkPayload readCachedPayload(long position) {
+        PersistableNetworkPayload payload = payloadCache.get(position);
+        if (payload == null) {
+            payload = readPayload(position);
+            payloadCache.put(position, payload);
+        }
+        return payload;
+    }
+
+    private PersistableNetworkPayload readPayload(long position) {
+        ByteBuffer buffer = segments.get((int) (position >>> 32)).duplicate();
+        int offset = (int) position;
+        int length = buffer.getInt(offset);
+        short keyLength = buffer.getShort(offset + 5);
+        buffer.position(offset + HEADER_SIZE + keyLength);
+        buffer.limit(offset + 4 + length);
+        try {
+            return fromProto.apply(protobuf.PersistableNetworkPayload.parseFrom(buffer));
+        } catch (InvalidProtocolBufferException e) {
+            throw new RuntimeException("Could not parse record in " + dir.getName(), e);
+        }
+    }
+
+    private boolean keyEquals(long position, byte[] key) {
+        ByteBuffer buffer = segments.get((int) (position >>> 32));
+        int offset = (int) position;
+        if (buffer.getShort(offset + 5) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + HEADER_SIZE + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long encodePosition(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | (offset & 0xffffffffL);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Index
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private int findSlot(byte[] key) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            if (keyEquals(table[slot] - 1, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insert(byte[] key, long position) {
+        if ((size + 1) * 2 > table.length) {
+            resize();
+        }
+        insertIntoTable(table, key, position);
+        size++;
+    }
+
+    private void insertIntoTable(long[] table, byte[] key, long position) {
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private void resize() {
+        long[] newTable = new long[table.length * 2];
+        for (long value : table) {
+            if (value != 0) {
+                insertIntoTable(newTable, readKeyBytes(value - 1), value - 1);
+            }
+        }
+        table = newTable;
+    }
+
+    // Backward shift deletion keeps the probe sequences intact without the need of tombstones
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int free = slot;
+        table[free] = 0;
+        int next = free;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == 0) {
+                break;
+            }
+            int home = hash(readKeyBytes(table[next] - 1)) & mask;
+            // We move the entry if its home slot is not cyclically in (free, next]
+            boolean homeInRange = free <= next ?
+                    free < home && home <= next :
+                    free < home || home <= next;
+            if (!homeInRange) {
+                table[free] = table[next];
+                table[next] = 0;
+                free = next;
+            }
+        }
+        size--;
+    }
+
+    private static int hash(byte[] key) {
+        int hash = Arrays.hashCode(key);
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Iterator
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private abstract class PositionIterator<E> implements Iterator<E> {
+        private final long[] positions;
+        private int index;
+        private long lastPosition = -1;
+
+        PositionIterator() {
+            synchronized (MappedPayloadMap.this) {
+                positions = new long[size];
+                int i = 0;
+                for (long value : table) {
+                    if (value != 0) {
+                        positions[i++] = value - 1;
+                    }
+                }
+            }
+        }
+
+        abstract E read(long position);
+
+        @Override
+        public boolean hasNext() {
+            return index < positions.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            lastPosition = positions[index++];
+            return read(lastPosition);
+        }
+
+        @Override
+        public void remove() {
+            if (lastPosition < 0) {
+                throw new IllegalStateException();
+            }
+            synchronized (MappedPayloadMap.this) {
+                MappedPayloadMap.this.remove(readKey(lastPosition));
+            }
+            lastPosition = -1;
+        }
+    }
+}
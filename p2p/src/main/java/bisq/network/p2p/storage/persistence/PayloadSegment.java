@@ -0,0 +1,149 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+import lombok.Getter;
+
+/**
+ * Immutable view of the payloads of a store used for building the data response. The DateSortedTruncatablePayloads
+ * are kept sorted by date so that a response can be created by merging the pre-sorted segments instead of sorting
+ * all payloads at each request.
+ */
+public final class PayloadSegment {
+    public static final PayloadSegment EMPTY = new PayloadSegment(ImmutableList.of(), ImmutableList.of());
+
+    // Payloads which are not DateSortedTruncatablePayloads
+    @Getter
+    private final List<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> payloads;
+    // Sorted by date, oldest first
+    @Getter
+    private final List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> dateSortedTruncatablePayloads;
+    // We cache the dates to avoid calling getDate at each comparison when merging segments
+    private final long[] dates;
+
+    public static PayloadSegment fromMap(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        if (map.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> payloads = new ArrayList<>();
+        List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> dateSortedTruncatablePayloads = new ArrayList<>();
+        map.forEach((key, value) -> {
+            if (value instanceof DateSortedTruncatablePayload) {
+                dateSortedTruncatablePayloads.add(Maps.immutableEntry(key, (DateSortedTruncatablePayload) value));
+            } else {
+                payloads.add(Maps.immutableEntry(key, value));
+            }
+        });
+        dateSortedTruncatablePayloads.sort(Comparator.comparing(entry -> entry.getValue().getDate()));
+        return new PayloadSegment(payloads, dateSortedTruncatablePayloads);
+    }
+
+    /**
+     * Creates a segment from date sorted payloads which are kept in a compact form by their store. The entries of the
+     * list might be created at each access, so we take the dates separately.
+     *
+     * @param dateSortedTruncatablePayloads Entries sorted by date, oldest first
+     * @param dates                         The dates of the entries in ms
+     */
+    public static PayloadSegment fromDateSortedTruncatablePayloads(
+            List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> dateSortedTruncatablePayloads,
+            long[] dates) {
+        if (dateSortedTruncatablePayloads.isEmpty()) {
+            return EMPTY;
+        }
+        return new PayloadSegment(new ArrayList<>(), dateSortedTruncatablePayloads, dates);
+    }
+
+    private PayloadSegment(List<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> payloads,
+                           List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> dateSortedTruncatablePayloads) {
+        this(payloads, dateSortedTruncatablePayloads, dateSortedTruncatablePayloads.stream()
+                .mapToLong(entry -> entry.getValue().getDate().getTime())
+                .toArray());
+    }
+
+    private PayloadSegment(List<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> payloads,
+                           List<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> dateSortedTruncatablePayloads,
+                           long[] dates) {
+        this.payloads = Collections.unmodifiableList(payloads);
+        this.dateSortedTruncatablePayloads = Collections.unmodifiableList(dateSortedTruncatablePayloads);
+        this.dates = dates;
+    }
+
+    public int size() {
+        return payloads.size() + dateSortedTruncatablePayloads.size();
+    }
+
+    /**
+     * Merges the date sorted payloads of the given segments starting with the most recent one and collects the
+     * entries accepted by the filter until we reach the maxItems defined by the payload.
+     *
+     * @param segments  Segments to merge
+     * @param filter    Filter for the entries to collect
+     * @return The collected payloads sorted by date, oldest first
+     */
+    public static List<DateSortedTruncatablePayload> getMostRecentDateSortedTruncatablePayloads(
+            List<PayloadSegment> segments,
+            Predicate<Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload>> filter) {
+        // Each cursor is a tuple of the segment index and the position in the segment. We iterate from the end of each
+        // segment so the head of the queue is the most recent not processed payload.
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, segments.size()),
+                (o1, o2) -> Long.compare(segments.get(o2[0]).dates[o2[1]], segments.get(o1[0]).dates[o1[1]]));
+        for (int i = 0; i < segments.size(); i++) {
+            int size = segments.get(i).dateSortedTruncatablePayloads.size();
+            if (size > 0) {
+                cursors.add(new int[]{i, size - 1});
+            }
+        }
+
+        List<DateSortedTruncatablePayload> result = new ArrayList<>();
+        int maxItems = Integer.MAX_VALUE;
+        while (!cursors.isEmpty() && result.size() < maxItems) {
+            int[] cursor = cursors.poll();
+            Map.Entry<P2PDataStorage.ByteArray, DateSortedTruncatablePayload> entry =
+                    segments.get(cursor[0]).dateSortedTruncatablePayloads.get(cursor[1]);
+            if (filter.test(entry)) {
+                if (result.isEmpty()) {
+                    maxItems = entry.getValue().maxItems();
+                }
+                result.add(entry.getValue());
+            }
+            if (cursor[1] > 0) {
+                cursor[1]--;
+                cursors.add(cursor);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
@@ -36,7 +36,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class PersistableNetworkPayloadStore<T extends PersistableNetworkPayload> implements PersistableEnvelope {
     @Getter
-    protected final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ConcurrentHashMap<>();
+    protected Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ConcurrentHashMap<>();
 
     protected PersistableNetworkPayloadStore() {
     }
@@ -48,4 +48,9 @@ public abstract class PersistableNetworkPayloadStore<T extends PersistableNetwor
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return map.containsKey(hash);
     }
+
+    // Used for replacing the default map with a MappedPayloadMap
+    void setMap(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        this.map = map;
+    }
 }
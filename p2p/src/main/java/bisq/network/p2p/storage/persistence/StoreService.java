@@ -75,6 +75,9 @@ public abstract class StoreService<T extends PersistableEnvelope> {
 
     public abstract String getFileName();
 
+    public void shutDown() {
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Protected
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void getPercentile_empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getMean());
+    }
+
+    @Test
+    public void getPercentile_smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        Assert.assertEquals(5, histogram.getPercentile(50));
+        Assert.assertEquals(10, histogram.getPercentile(99));
+        Assert.assertEquals(10, histogram.getMax());
+        Assert.assertEquals(10, histogram.getCount());
+    }
+
+    @Test
+    public void getPercentile_boundedRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertWithinRelativeError(500_000, histogram.getPercentile(50));
+        assertWithinRelativeError(990_000, histogram.getPercentile(99));
+        Assert.assertEquals(1_000_000, histogram.getMax());
+        Assert.assertEquals(500_500, histogram.getMean());
+    }
+
+    @Test
+    public void record_clampsOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(0, histogram.getPercentile(50));
+        Assert.assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertWithinRelativeError(LatencyHistogram.MAX_VALUE, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void getBucketIndex_valueOfBucketIsInSameBucket() {
+        for (long value = 0; value < LatencyHistogram.MAX_VALUE; value = value * 3 / 2 + 1) {
+            int index = LatencyHistogram.getBucketIndex(value);
+            Assert.assertEquals(index, LatencyHistogram.getBucketIndex(LatencyHistogram.getBucketValue(index)));
+        }
+    }
+
+    private static void assertWithinRelativeError(long expected, long actual) {
+        Assert.assertTrue("expected " + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.peers.peerexchange.messages.GetPeersRequest;
+
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageRateLimiterTest {
+
+    @Test
+    public void violatesLimit_classBudget() {
+        MessageRateLimiter limiter = new MessageRateLimiter(200, 1000);
+        GetPeersRequest getPeersRequest = new GetPeersRequest(new NodeAddress("localhost:1111"), 1,
+                new HashSet<>());
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertFalse(limiter.violatesLimit(getPeersRequest, i));
+        }
+        // Other messages do not use up the budget of GetPeersRequest
+        Assert.assertFalse(limiter.violatesLimit(new Ping(1, 0), 4));
+        Assert.assertTrue(limiter.violatesLimit(getPeersRequest, 5));
+
+        Assert.assertEquals(1, limiter.getNumViolations());
+        Assert.assertEquals(Long.valueOf(1), limiter.getViolationsByLimit().get("GetPeersRequest"));
+    }
+
+    @Test
+    public void violatesLimit_totalLimit() {
+        MessageRateLimiter limiter = new MessageRateLimiter(3, 1000);
+
+        Assert.assertFalse(limiter.violatesLimit(new Ping(1, 0), 0));
+        Assert.assertFalse(limiter.violatesLimit(new Ping(2, 0), 1));
+        Assert.assertTrue(limiter.violatesLimit(new Ping(3, 0), 2));
+        Assert.assertEquals(Long.valueOf(1), limiter.getViolationsByLimit().get("1 sec"));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+import bisq.network.p2p.storage.messages.RefreshOfferMessage;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SerializedEnvelopeTest {
+
+    private static byte[] toBytes(SerializedEnvelope serializedEnvelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        serializedEnvelope.writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] toDelimitedBytes(NetworkEnvelope envelope) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        envelope.toProtoNetworkEnvelope().writeDelimitedTo(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Test
+    public void writeTo_sameBytesAsWriteDelimitedTo() throws IOException {
+        Ping ping = new Ping(42, 100);
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(ping);
+
+        Assert.assertArrayEquals(toDelimitedBytes(ping), toBytes(serializedEnvelope));
+        Assert.assertEquals(ping.toProtoNetworkEnvelope().getSerializedSize(), serializedEnvelope.getSerializedSize());
+    }
+
+    @Test
+    public void of_broadcastMessageIsEncodedOnce() throws IOException {
+        RefreshOfferMessage message = new RefreshOfferMessage(new byte[]{1}, new byte[]{2}, new byte[]{3}, 1);
+
+        SerializedEnvelope serializedEnvelope = SerializedEnvelope.of(message);
+
+        Assert.assertSame(serializedEnvelope, SerializedEnvelope.of(message));
+        Assert.assertArrayEquals(toDelimitedBytes(message), toBytes(serializedEnvelope));
+    }
+
+    @Test
+    public void of_equalBroadcastMessagesAreNotShared() {
+        RefreshOfferMessage message1 = new RefreshOfferMessage(new byte[]{1}, new byte[]{2}, new byte[]{3}, 1);
+        RefreshOfferMessage message2 = new RefreshOfferMessage(new byte[]{1}, new byte[]{2}, new byte[]{3}, 1);
+
+        Assert.assertNotSame(SerializedEnvelope.of(message1), SerializedEnvelope.of(message2));
+    }
+
+    @Test
+    public void of_directMessageIsEncodedPerCall() {
+        Ping ping = new Ping(42, 100);
+
+        Assert.assertNotSame(SerializedEnvelope.of(ping), SerializedEnvelope.of(ping));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SharedConnectionExecutorsTest {
+    private static final int NUM_WRITES = 200;
+
+    @Test
+    public void sequentialWriter_keepsOrderPerConnection() throws InterruptedException {
+        List<Executor> writers = List.of(SharedConnectionExecutors.newSequentialWriter(),
+                SharedConnectionExecutors.newSequentialWriter(),
+                SharedConnectionExecutors.newSequentialWriter());
+        List<List<Integer>> writesByConnection = new ArrayList<>();
+        CountDownLatch completed = new CountDownLatch(writers.size() * NUM_WRITES);
+        for (int i = 0; i < writers.size(); i++) {
+            writesByConnection.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        // We interleave the writes of the connections so they are executed concurrently on the shared pool
+        for (int write = 0; write < NUM_WRITES; write++) {
+            for (int connection = 0; connection < writers.size(); connection++) {
+                List<Integer> writes = writesByConnection.get(connection);
+                int value = write;
+                writers.get(connection).execute(() -> {
+                    writes.add(value);
+                    completed.countDown();
+                });
+            }
+        }
+
+        Assert.assertTrue(completed.await(10, TimeUnit.SECONDS));
+        List<Integer> expected = IntStream.range(0, NUM_WRITES).boxed().collect(Collectors.toList());
+        writesByConnection.forEach(writes -> Assert.assertEquals(expected, writes));
+    }
+
+    @Test
+    public void sequentialWriter_blockedConnectionDoesNotStarveOthers() throws InterruptedException {
+        Executor blockedWriter = SharedConnectionExecutors.newSequentialWriter();
+        Executor writer = SharedConnectionExecutors.newSequentialWriter();
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch blockedWriteStarted = new CountDownLatch(1);
+        CountDownLatch blockedWritesCompleted = new CountDownLatch(2);
+        CountDownLatch writesCompleted = new CountDownLatch(NUM_WRITES);
+
+        // Simulates a socket write to a peer which does not read
+        blockedWriter.execute(() -> {
+            blockedWriteStarted.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException ignore) {
+            }
+            blockedWritesCompleted.countDown();
+        });
+        blockedWriter.execute(blockedWritesCompleted::countDown);
+        Assert.assertTrue(blockedWriteStarted.await(10, TimeUnit.SECONDS));
+
+        for (int i = 0; i < NUM_WRITES; i++) {
+            writer.execute(writesCompleted::countDown);
+        }
+
+        try {
+            Assert.assertTrue(writesCompleted.await(10, TimeUnit.SECONDS));
+            // The second write of the blocked connection waits for the first one
+            Assert.assertEquals(2, blockedWritesCompleted.getCount());
+        } finally {
+            unblock.countDown();
+        }
+        Assert.assertTrue(blockedWritesCompleted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void bundleSender_blockedSendDoesNotStarveOthers() throws InterruptedException {
+        CountDownLatch unblock = new CountDownLatch(1);
+        CountDownLatch sent = new CountDownLatch(1);
+
+        SharedConnectionExecutors.getBundleSender().execute(() -> {
+            try {
+                unblock.await();
+            } catch (InterruptedException ignore) {
+            }
+        });
+        try {
+            SharedConnectionExecutors.getBundleScheduler().schedule(() ->
+                    SharedConnectionExecutors.getBundleSender().execute(sent::countDown), 10, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(sent.await(10, TimeUnit.SECONDS));
+        } finally {
+            unblock.countDown();
+        }
+    }
+}
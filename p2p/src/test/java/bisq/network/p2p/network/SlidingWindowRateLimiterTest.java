@@ -0,0 +1,57 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SlidingWindowRateLimiterTest {
+
+    @Test
+    public void violatesLimit_tooManyEventsWithinWindow() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 1000);
+
+        Assert.assertFalse(limiter.violatesLimit(0));
+        Assert.assertFalse(limiter.violatesLimit(100));
+        Assert.assertTrue(limiter.violatesLimit(200));
+        Assert.assertEquals(1, limiter.getNumViolations());
+    }
+
+    @Test
+    public void violatesLimit_windowSlides() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, 1000);
+
+        Assert.assertFalse(limiter.violatesLimit(0));
+        Assert.assertFalse(limiter.violatesLimit(500));
+        // The first event is out of the window
+        Assert.assertFalse(limiter.violatesLimit(1000));
+        Assert.assertTrue(limiter.violatesLimit(1100));
+        Assert.assertFalse(limiter.violatesLimit(2100));
+        Assert.assertEquals(5, limiter.getNumEvents());
+        Assert.assertEquals(1, limiter.getNumViolations());
+    }
+
+    @Test
+    public void violatesLimit_steadyRateBelowLimit() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(10, 1000);
+
+        for (long now = 0; now < 100_000; now += 101) {
+            Assert.assertFalse(limiter.violatesLimit(now));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata.messages;
+
+import bisq.common.crypto.Hash;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeysBloomFilterTest {
+    private static List<byte[]> createKeys(int from, int to) {
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            keys.add(Hash.getSha256Hash(ByteBuffer.allocate(4).putInt(i).array()));
+        }
+        return keys;
+    }
+
+    @Test
+    public void mightContain_noFalseNegatives() {
+        List<byte[]> keys = createKeys(0, 10000);
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(keys);
+
+        keys.forEach(key -> Assert.assertTrue(bloomFilter.mightContain(key)));
+    }
+
+    @Test
+    public void mightContain_falsePositiveRate() {
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(createKeys(0, 10000));
+
+        long numFalsePositives = createKeys(10000, 110000).stream().filter(bloomFilter::mightContain).count();
+
+        // Expected are about 100 false positives
+        Assert.assertTrue("numFalsePositives=" + numFalsePositives, numFalsePositives < 300);
+    }
+
+    @Test
+    public void fromKeys_isSmallerThanKeys() {
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(createKeys(0, 10000));
+
+        Assert.assertTrue(bloomFilter.getBits().length * 10 < 10000 * 32);
+    }
+
+    @Test
+    public void fromKeys_emptyKeys() {
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(Collections.emptyList());
+
+        Assert.assertFalse(bloomFilter.mightContain(createKeys(0, 1).get(0)));
+    }
+
+    @Test
+    public void protoRoundTrip() {
+        List<byte[]> keys = createKeys(0, 100);
+        KeysBloomFilter bloomFilter = KeysBloomFilter.fromKeys(keys);
+        KeysBloomFilter fromProto = KeysBloomFilter.fromProto(bloomFilter.toProtoMessage());
+
+        Assert.assertEquals(bloomFilter, fromProto);
+        keys.forEach(key -> Assert.assertTrue(fromProto.mightContain(key)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromProto_invalidNumHashFunctions() {
+        KeysBloomFilter.fromProto(protobuf.KeysBloomFilter.newBuilder()
+                .setBits(KeysBloomFilter.fromKeys(createKeys(0, 1)).toProtoMessage().getBits())
+                .setNumHashFunctions(1000)
+                .build());
+    }
+}
@@ -23,7 +23,9 @@ import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
+import bisq.network.p2p.peers.getdata.messages.KeysBloomFilter;
 import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.mocks.ConsensusCriticalPayloadStub;
 import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
 import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
@@ -63,6 +65,8 @@ public class P2PDataStorageBuildGetDataResponseTest {
 
         abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys);
 
+        abstract GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, KeysBloomFilter bloomFilter);
+
         @Mock
         NetworkNode networkNode;
 
@@ -186,6 +190,86 @@ public class P2PDataStorageBuildGetDataResponseTest {
             Assert.assertTrue(getDataResponse.getDataSet().isEmpty());
         }
 
+        // TESTCASE: Given a GetDataRequest w/ known PNP in the Bloom filter, only the unknown PNP is sent back
+        @Test
+        public void buildGetDataResponse_knownPNPInBloomFilterDoNothing() {
+            PersistableNetworkPayload fromPeerAndLocal = new PersistableNetworkPayloadStub(new byte[]{1});
+            PersistableNetworkPayload onlyLocal = new PersistableNetworkPayloadStub(new byte[]{2});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(
+                            1,
+                            new HashSet<>(),
+                            KeysBloomFilter.fromKeys(Collections.singletonList(fromPeerAndLocal.getHash())));
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 2, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertFalse(outPNPTruncated.get());
+            Assert.assertFalse(outPSETruncated.get());
+            Assert.assertEquals(1, getDataResponse.getPersistableNetworkPayloadSet().size());
+            Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().contains(onlyLocal));
+            Assert.assertTrue(getDataResponse.getDataSet().isEmpty());
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ a consensus critical PNP only in the Bloom filter, send it back as a
+        // match in the Bloom filter might be a false positive
+        @Test
+        public void buildGetDataResponse_consensusCriticalPNPInBloomFilterSendBack() {
+            PersistableNetworkPayload onlyLocal = new ConsensusCriticalPayloadStub(new byte[]{1});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    onlyLocal, this.localNodeAddress, false);
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(
+                            1,
+                            new HashSet<>(),
+                            KeysBloomFilter.fromKeys(Collections.singletonList(onlyLocal.getHash())));
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 1, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertFalse(outPNPTruncated.get());
+            Assert.assertFalse(outPSETruncated.get());
+            Assert.assertEquals(1, getDataResponse.getPersistableNetworkPayloadSet().size());
+            Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().contains(onlyLocal));
+        }
+
+        // TESTCASE: Given a GetDataRequest w/ the exact key of a consensus critical PNP, nothing is sent back
+        @Test
+        public void buildGetDataResponse_knownConsensusCriticalPNPDoNothing() {
+            PersistableNetworkPayload fromPeerAndLocal = new ConsensusCriticalPayloadStub(new byte[]{1});
+
+            this.testState.mockedStorage.addPersistableNetworkPayload(
+                    fromPeerAndLocal, this.localNodeAddress, false);
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(
+                            1,
+                            new HashSet<>(Collections.singletonList(fromPeerAndLocal.getHash())),
+                            KeysBloomFilter.fromKeys(Collections.emptyList()));
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponse getDataResponse = this.testState.mockedStorage.buildGetDataResponse(
+                    getDataRequest, 1, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertTrue(getDataResponse.getPersistableNetworkPayloadSet().isEmpty());
+        }
+
         // TESTCASE: Given a GetDataRequest w/o known PNP, send it back
         @Test
         public void buildGetDataResponse_unknownPNPSendBack() {
@@ -470,6 +554,11 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new PreliminaryGetDataRequest(nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, KeysBloomFilter bloomFilter) {
+            return new PreliminaryGetDataRequest(nonce, knownKeys, bloomFilter);
+        }
     }
 
     public static class P2PDataStorageBuildGetDataResponseTestUpdated extends P2PDataStorageBuildGetDataResponseTestBase {
@@ -478,5 +567,10 @@ public class P2PDataStorageBuildGetDataResponseTest {
         GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys) {
             return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys);
         }
+
+        @Override
+        GetDataRequest buildGetDataRequest(int nonce, Set<byte[]> knownKeys, KeysBloomFilter bloomFilter) {
+            return new GetUpdatedDataRequest(new NodeAddress("peer", 10), nonce, knownKeys, bloomFilter);
+        }
     }
 }
@@ -30,17 +30,23 @@ import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 
 public class P2PDataStorageProcessGetDataResponse {
@@ -260,4 +266,23 @@ public class P2PDataStorageProcessGetDataResponse {
         this.testState.verifyProtectedStorageAdd(
                 beforeState, protectedStorageEntry, true, true, false, true);
     }
+
+    // TESTCASE: Large GetDataResponse w/ missing PSEs are all added and listeners get signaled once
+    @Test
+    public void processGetDataResponse_manyNewPSEsSignalListenersOnce() throws NoSuchAlgorithmException {
+        List<ProtectedStorageEntry> protectedStorageEntries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            protectedStorageEntries.add(getProtectedStorageEntryForAdd());
+        }
+        HashMapChangedListener listener = mock(HashMapChangedListener.class);
+        this.testState.mockedStorage.addHashMapChangedListener(listener);
+
+        GetDataResponse getDataResponse = buildGetDataResponse(protectedStorageEntries, Collections.emptyList());
+        this.testState.mockedStorage.processGetDataResponse(getDataResponse, this.peerNodeAddress);
+
+        ArgumentCaptor<Collection<ProtectedStorageEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(listener, times(1)).onAdded(captor.capture());
+        Assert.assertEquals(new HashSet<>(protectedStorageEntries), new HashSet<>(captor.getValue()));
+        Assert.assertTrue(this.testState.mockedStorage.getMap().values().containsAll(protectedStorageEntries));
+    }
 }
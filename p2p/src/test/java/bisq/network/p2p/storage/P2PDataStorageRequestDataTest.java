@@ -21,6 +21,7 @@ import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.TestUtils;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
 import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.mocks.ConsensusCriticalPayloadStub;
 import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
 import bisq.network.p2p.storage.mocks.ProtectedStoragePayloadStub;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
@@ -170,4 +171,45 @@ public class P2PDataStorageRequestDataTest {
         Assert.assertTrue(byteSetContains(getDataRequest.getExcludedKeys(),
                 P2PDataStorage.get32ByteHash(toAdd4.getProtectedStoragePayload())));
     }
+
+    // TESTCASE: GetDataRequestMessage holds a snapshot of the known keys and is not affected by later additions
+    @Test
+    public void buildPreliminaryGetDataRequest_SnapshotOfKnownKeys() throws NoSuchAlgorithmException {
+        PersistableNetworkPayload toAdd1 = new PersistableNetworkPayloadStub(new byte[] { 1 });
+        PersistableNetworkPayload toAdd2 = new PersistableNetworkPayloadStub(new byte[] { 2 });
+        ProtectedStorageEntry toAdd3 = getProtectedStorageEntryForAdd();
+
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd1, this.localNodeAddress, false);
+
+        PreliminaryGetDataRequest getDataRequest = this.testState.mockedStorage.buildPreliminaryGetDataRequest(1);
+
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd2, this.localNodeAddress, false);
+        this.testState.mockedStorage.addProtectedStorageEntry(toAdd3, this.localNodeAddress, null);
+
+        Assert.assertEquals(1, getDataRequest.getExcludedKeys().size());
+        Assert.assertTrue(byteSetContains(getDataRequest.getExcludedKeys(), toAdd1.getHash()));
+
+        PreliminaryGetDataRequest nextGetDataRequest = this.testState.mockedStorage.buildPreliminaryGetDataRequest(2);
+        Assert.assertEquals(3, nextGetDataRequest.getExcludedKeys().size());
+        Assert.assertTrue(byteSetContains(nextGetDataRequest.getExcludedKeys(), toAdd2.getHash()));
+        Assert.assertTrue(byteSetContains(nextGetDataRequest.getExcludedKeys(),
+                P2PDataStorage.get32ByteHash(toAdd3.getProtectedStoragePayload())));
+    }
+
+    // TESTCASE: With a Bloom filter the keys of consensus critical PersistableNetworkPayloads are still sent exactly
+    // and only the other keys are added to the Bloom filter
+    @Test
+    public void buildPreliminaryGetDataRequest_BloomFilterKeepsConsensusCriticalKeysExact() {
+        PersistableNetworkPayload toAdd1 = new PersistableNetworkPayloadStub(new byte[] { 1 });
+        PersistableNetworkPayload toAdd2 = new ConsensusCriticalPayloadStub(new byte[] { 2 });
+
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd1, this.localNodeAddress, false);
+        this.testState.mockedStorage.addPersistableNetworkPayload(toAdd2, this.localNodeAddress, false);
+
+        PreliminaryGetDataRequest getDataRequest = this.testState.mockedStorage.buildPreliminaryGetDataRequest(1, true);
+
+        Assert.assertEquals(1, getDataRequest.getExcludedKeys().size());
+        Assert.assertTrue(byteSetContains(getDataRequest.getExcludedKeys(), toAdd2.getHash()));
+        Assert.assertTrue(getDataRequest.getPersistableNetworkPayloadKeysBloomFilter().mightContain(toAdd1.getHash()));
+    }
 }
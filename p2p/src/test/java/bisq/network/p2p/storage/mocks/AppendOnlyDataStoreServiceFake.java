@@ -21,6 +21,8 @@ import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 
+import bisq.common.proto.persistable.PersistablePayload;
+
 import java.util.Map;
 
 /**
@@ -32,7 +34,23 @@ import java.util.Map;
 public class AppendOnlyDataStoreServiceFake extends AppendOnlyDataStoreService {
 
     public AppendOnlyDataStoreServiceFake() {
-        addService(new MapStoreServiceFake());
+        addService(new MapStoreServiceFake() {
+            @Override
+            public boolean canHandle(PersistablePayload payload) {
+                return !(payload instanceof ConsensusCriticalPayloadStub);
+            }
+        });
+        addService(new MapStoreServiceFake() {
+            @Override
+            public boolean canHandle(PersistablePayload payload) {
+                return payload instanceof ConsensusCriticalPayloadStub;
+            }
+
+            @Override
+            public boolean isConsensusCritical() {
+                return true;
+            }
+        });
     }
 
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
@@ -0,0 +1,227 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedPayloadMapTest {
+    // Small segments so that the tests cover records spread over several segment files
+    private static final int SEGMENT_SIZE = 256;
+
+    private static class SerializablePayloadStub extends PersistableNetworkPayloadStub {
+        SerializablePayloadStub(byte[] hash) {
+            super(hash);
+        }
+
+        @Override
+        public protobuf.PersistableNetworkPayload toProtoMessage() {
+            return protobuf.PersistableNetworkPayload.newBuilder()
+                    .setAccountAgeWitness(protobuf.AccountAgeWitness.newBuilder()
+                            .setHash(ByteString.copyFrom(getHash())))
+                    .build();
+        }
+    }
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("segments").toFile();
+    }
+
+    private MappedPayloadMap openMap() throws IOException {
+        return new MappedPayloadMap(dir, SEGMENT_SIZE,
+                proto -> new SerializablePayloadStub(proto.getAccountAgeWitness().getHash().toByteArray()));
+    }
+
+    private static P2PDataStorage.ByteArray keyOf(int i) {
+        return new P2PDataStorage.ByteArray(new byte[]{(byte) i, 1, 2, 3});
+    }
+
+    private static PersistableNetworkPayload payloadOf(int i) {
+        return new SerializablePayloadStub(new byte[]{(byte) i, 4, 5, 6, 7, 8});
+    }
+
+    private static void assertPayloadEquals(PersistableNetworkPayload expected, PersistableNetworkPayload actual) {
+        Assert.assertNotNull(actual);
+        Assert.assertArrayEquals(expected.getHash(), actual.getHash());
+    }
+
+    @Test
+    public void put_get() throws IOException {
+        MappedPayloadMap map = openMap();
+        for (int i = 0; i < 50; i++) {
+            Assert.assertNull(map.put(keyOf(i), payloadOf(i)));
+        }
+
+        Assert.assertEquals(50, map.size());
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(map.containsKey(keyOf(i)));
+            assertPayloadEquals(payloadOf(i), map.get(keyOf(i)));
+        }
+        Assert.assertFalse(map.containsKey(keyOf(50)));
+        Assert.assertNull(map.get(keyOf(50)));
+    }
+
+    @Test
+    public void get_decodesPayloadOnlyOnce() throws IOException {
+        MappedPayloadMap map = openMap();
+        PersistableNetworkPayload payload = payloadOf(1);
+        map.put(keyOf(1), payload);
+        Assert.assertSame(payload, map.get(keyOf(1)));
+        map.flush();
+
+        MappedPayloadMap reopened = openMap();
+        PersistableNetworkPayload decoded = reopened.get(keyOf(1));
+        assertPayloadEquals(payload, decoded);
+        Assert.assertSame(decoded, reopened.get(keyOf(1)));
+    }
+
+    @Test
+    public void put_replacesValue() throws IOException {
+        MappedPayloadMap map = openMap();
+        map.put(keyOf(1), payloadOf(1));
+
+        assertPayloadEquals(payloadOf(1), map.put(keyOf(1), payloadOf(2)));
+        Assert.assertEquals(1, map.size());
+        assertPayloadEquals(payloadOf(2), map.get(keyOf(1)));
+    }
+
+    @Test
+    public void putIfAbsent_keepsExistingValue() throws IOException {
+        MappedPayloadMap map = openMap();
+        Assert.assertNull(map.putIfAbsent(keyOf(1), payloadOf(1)));
+
+        assertPayloadEquals(payloadOf(1), map.putIfAbsent(keyOf(1), payloadOf(2)));
+        assertPayloadEquals(payloadOf(1), map.get(keyOf(1)));
+    }
+
+    @Test
+    public void remove() throws IOException {
+        MappedPayloadMap map = openMap();
+        for (int i = 0; i < 20; i++) {
+            map.put(keyOf(i), payloadOf(i));
+        }
+
+        assertPayloadEquals(payloadOf(5), map.remove(keyOf(5)));
+        Assert.assertNull(map.remove(keyOf(5)));
+        Assert.assertEquals(19, map.size());
+        Assert.assertFalse(map.containsKey(keyOf(5)));
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i != 5, map.containsKey(keyOf(i)));
+        }
+    }
+
+    @Test
+    public void iteratorRemove() throws IOException {
+        MappedPayloadMap map = openMap();
+        for (int i = 0; i < 20; i++) {
+            map.put(keyOf(i), payloadOf(i));
+        }
+
+        Iterator<P2PDataStorage.ByteArray> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().bytes[0] % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        Assert.assertEquals(10, map.size());
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(i % 2 != 0, map.containsKey(keyOf(i)));
+        }
+    }
+
+    @Test
+    public void reopen_replaysRecords() throws IOException {
+        MappedPayloadMap map = openMap();
+        for (int i = 0; i < 50; i++) {
+            map.put(keyOf(i), payloadOf(i));
+        }
+        map.put(keyOf(3), payloadOf(100));
+        map.remove(keyOf(7));
+        map.flush();
+
+        Map<P2PDataStorage.ByteArray, P2PDataStorage.ByteArray> expected = new HashMap<>();
+        map.forEach((key, value) -> expected.put(key, new P2PDataStorage.ByteArray(value.getHash())));
+
+        MappedPayloadMap reopened = openMap();
+        Map<P2PDataStorage.ByteArray, P2PDataStorage.ByteArray> actual = new HashMap<>();
+        reopened.forEach((key, value) -> actual.put(key, new P2PDataStorage.ByteArray(value.getHash())));
+
+        Assert.assertEquals(49, reopened.size());
+        Assert.assertEquals(expected, actual);
+        assertPayloadEquals(payloadOf(100), reopened.get(keyOf(3)));
+        Assert.assertFalse(reopened.containsKey(keyOf(7)));
+
+        // Appending after reopening must not overwrite existing records
+        reopened.put(keyOf(200), payloadOf(200));
+        MappedPayloadMap reopenedAgain = openMap();
+        Assert.assertEquals(50, reopenedAgain.size());
+        assertPayloadEquals(payloadOf(100), reopenedAgain.get(keyOf(3)));
+        assertPayloadEquals(payloadOf(200), reopenedAgain.get(keyOf(200)));
+    }
+
+    @Test
+    public void reopen_compactsDeadRecords() throws IOException {
+        MappedPayloadMap map = openMap();
+        for (int i = 0; i < 50; i++) {
+            map.put(keyOf(i), payloadOf(i));
+        }
+        for (int i = 0; i < 45; i++) {
+            map.remove(keyOf(i));
+        }
+        map.put(keyOf(49), payloadOf(100));
+        map.flush();
+        int numSegmentFiles = dir.list().length;
+
+        MappedPayloadMap reopened = openMap();
+        Assert.assertTrue(dir.list().length < numSegmentFiles);
+        Assert.assertEquals(5, reopened.size());
+        for (int i = 45; i < 49; i++) {
+            assertPayloadEquals(payloadOf(i), reopened.get(keyOf(i)));
+        }
+        assertPayloadEquals(payloadOf(100), reopened.get(keyOf(49)));
+        Assert.assertFalse(reopened.containsKey(keyOf(7)));
+
+        // Appending after compacting must not overwrite the compacted records
+        reopened.put(keyOf(200), payloadOf(200));
+        reopened.flush();
+        MappedPayloadMap reopenedAgain = openMap();
+        Assert.assertEquals(6, reopenedAgain.size());
+        assertPayloadEquals(payloadOf(45), reopenedAgain.get(keyOf(45)));
+        assertPayloadEquals(payloadOf(200), reopenedAgain.get(keyOf(200)));
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PayloadSegmentTest {
+    private static class DateSortedTruncatablePayloadStub extends PersistableNetworkPayloadStub
+            implements DateSortedTruncatablePayload {
+        private final Date date;
+        private final int maxItems;
+
+        DateSortedTruncatablePayloadStub(byte hash, long date, int maxItems) {
+            super(new byte[]{hash});
+            this.date = new Date(date);
+            this.maxItems = maxItems;
+        }
+
+        @Override
+        public Date getDate() {
+            return date;
+        }
+
+        @Override
+        public int maxItems() {
+            return maxItems;
+        }
+    }
+
+    private static PayloadSegment segmentOf(PersistableNetworkPayload... payloads) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        Arrays.stream(payloads).forEach(payload -> map.put(new P2PDataStorage.ByteArray(payload.getHash()), payload));
+        return PayloadSegment.fromMap(map);
+    }
+
+    @Test
+    public void fromMap_separatesAndSortsPayloads() {
+        PersistableNetworkPayload other = new PersistableNetworkPayloadStub(new byte[]{0});
+        DateSortedTruncatablePayloadStub newer = new DateSortedTruncatablePayloadStub((byte) 1, 2000, 10);
+        DateSortedTruncatablePayloadStub older = new DateSortedTruncatablePayloadStub((byte) 2, 1000, 10);
+
+        PayloadSegment segment = segmentOf(other, newer, older);
+
+        Assert.assertEquals(3, segment.size());
+        Assert.assertEquals(1, segment.getPayloads().size());
+        Assert.assertEquals(other, segment.getPayloads().get(0).getValue());
+        Assert.assertEquals(older, segment.getDateSortedTruncatablePayloads().get(0).getValue());
+        Assert.assertEquals(newer, segment.getDateSortedTruncatablePayloads().get(1).getValue());
+    }
+
+    @Test
+    public void getMostRecentDateSortedTruncatablePayloads_mergesSegmentsAndTruncates() {
+        DateSortedTruncatablePayloadStub payload1 = new DateSortedTruncatablePayloadStub((byte) 1, 1000, 3);
+        DateSortedTruncatablePayloadStub payload2 = new DateSortedTruncatablePayloadStub((byte) 2, 2000, 3);
+        DateSortedTruncatablePayloadStub payload3 = new DateSortedTruncatablePayloadStub((byte) 3, 3000, 3);
+        DateSortedTruncatablePayloadStub payload4 = new DateSortedTruncatablePayloadStub((byte) 4, 4000, 3);
+        DateSortedTruncatablePayloadStub payload5 = new DateSortedTruncatablePayloadStub((byte) 5, 5000, 3);
+
+        List<PayloadSegment> segments = Arrays.asList(segmentOf(payload1, payload4),
+                PayloadSegment.EMPTY,
+                segmentOf(payload2, payload3, payload5));
+
+        // We filter out the most recent one, so payload1 is the one which gets truncated
+        List<DateSortedTruncatablePayload> result = PayloadSegment.getMostRecentDateSortedTruncatablePayloads(segments,
+                entry -> entry.getValue() != payload5);
+
+        Assert.assertEquals(Arrays.asList(payload2, payload3, payload4), result);
+    }
+
+    @Test
+    public void getMostRecentDateSortedTruncatablePayloads_emptySegments() {
+        List<DateSortedTruncatablePayload> result = PayloadSegment.getMostRecentDateSortedTruncatablePayloads(
+                Arrays.asList(PayloadSegment.EMPTY, PayloadSegment.EMPTY), entry -> true);
+
+        Assert.assertTrue(result.isEmpty());
+    }
+}
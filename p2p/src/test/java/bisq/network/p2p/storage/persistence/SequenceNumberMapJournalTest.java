@@ -0,0 +1,181 @@
+/*
+ * This file is part of Bisq.
+ *
+ * Bisq is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Bisq is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Bisq. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import com.google.protobuf.ByteString;
+
+import java.nio.file.Files;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.zip.CRC32;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the recovery of a SequenceNumberMap from the store file and the journal written by the PersistenceManager.
+ */
+public class SequenceNumberMapJournalTest {
+    private static final String FILE_NAME = "SequenceNumberMap";
+
+    private File dir;
+    private PersistenceManager<SequenceNumberMap> persistenceManager;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("storage").toFile();
+        PersistenceProtoResolver resolver = mock(PersistenceProtoResolver.class);
+        when(resolver.fromProto(any(protobuf.PersistableEnvelope.class))).thenAnswer(invocation ->
+                SequenceNumberMap.fromProto(((protobuf.PersistableEnvelope) invocation.getArgument(0)).getSequenceNumberMap()));
+        persistenceManager = new PersistenceManager<>(dir, resolver, mock(CorruptedStorageFileHandler.class));
+    }
+
+    private static protobuf.PersistableEnvelope envelopeOf(int... keysAndSequenceNumbers) {
+        protobuf.SequenceNumberMap.Builder builder = protobuf.SequenceNumberMap.newBuilder();
+        for (int i = 0; i < keysAndSequenceNumbers.length; i += 2) {
+            builder.addSequenceNumberEntries(protobuf.SequenceNumberEntry.newBuilder()
+                    .setBytes(protobuf.ByteArray.newBuilder()
+                            .setBytes(ByteString.copyFrom(new byte[]{(byte) keysAndSequenceNumbers[i]})))
+                    .setMapValue(protobuf.MapValue.newBuilder().setSequenceNr(keysAndSequenceNumbers[i + 1])));
+        }
+        return protobuf.PersistableEnvelope.newBuilder().setSequenceNumberMap(builder).build();
+    }
+
+    private static int getSequenceNr(SequenceNumberMap sequenceNumberMap, int key) {
+        return sequenceNumberMap.get(new P2PDataStorage.ByteArray(new byte[]{(byte) key})).sequenceNr;
+    }
+
+    private void writeStoreFile(protobuf.PersistableEnvelope envelope) throws IOException {
+        try (FileOutputStream fileOutputStream = new FileOutputStream(new File(dir, FILE_NAME))) {
+            envelope.writeDelimitedTo(fileOutputStream);
+        }
+    }
+
+    // The journal starts with the size and CRC32 checksum of the store file it applies to
+    private void writeJournal(protobuf.PersistableEnvelope... envelopes) throws IOException {
+        File storeFile = new File(dir, FILE_NAME);
+        CRC32 checksum = new CRC32();
+        if (storeFile.exists()) {
+            checksum.update(Files.readAllBytes(storeFile.toPath()));
+        }
+        File journalFile = new File(dir, FILE_NAME + "_journal");
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new FileOutputStream(journalFile))) {
+            dataOutputStream.writeLong(storeFile.length());
+            dataOutputStream.writeLong(checksum.getValue());
+            for (protobuf.PersistableEnvelope envelope : envelopes) {
+                envelope.writeDelimitedTo(dataOutputStream);
+            }
+        }
+    }
+
+    @Test
+    public void getPersisted_mergesJournal() throws IOException {
+        writeStoreFile(envelopeOf(1, 1, 2, 1));
+        writeJournal(envelopeOf(2, 2), envelopeOf(3, 1), envelopeOf(2, 3));
+
+        SequenceNumberMap persisted = persistenceManager.getPersisted(FILE_NAME);
+
+        Assert.assertNotNull(persisted);
+        Assert.assertEquals(3, persisted.size());
+        Assert.assertEquals(1, getSequenceNr(persisted, 1));
+        Assert.assertEquals(3, getSequenceNr(persisted, 2));
+        Assert.assertEquals(1, getSequenceNr(persisted, 3));
+    }
+
+    @Test
+    public void getPersisted_journalWithoutStoreFile() throws IOException {
+        writeJournal(envelopeOf(1, 5));
+
+        SequenceNumberMap persisted = persistenceManager.getPersisted(FILE_NAME);
+
+        Assert.assertNotNull(persisted);
+        Assert.assertEquals(1, persisted.size());
+        Assert.assertEquals(5, getSequenceNr(persisted, 1));
+    }
+
+    @Test
+    public void getPersisted_truncatesIncompleteRecord() throws IOException {
+        File journalFile = new File(dir, FILE_NAME + "_journal");
+        writeStoreFile(envelopeOf(1, 1));
+        writeJournal(envelopeOf(2, 1));
+        long validSize = journalFile.length();
+
+        // Simulate a record which was only partly written
+        byte[] record = envelopeOf(3, 1).toByteArray();
+        try (FileOutputStream fileOutputStream = new FileOutputStream(journalFile, true)) {
+            fileOutputStream.write(record.length);
+            fileOutputStream.write(record, 0, record.length / 2);
+        }
+
+        SequenceNumberMap persisted = persistenceManager.getPersisted(FILE_NAME);
+
+        Assert.assertNotNull(persisted);
+        Assert.assertEquals(2, persisted.size());
+        Assert.assertEquals(validSize, journalFile.length());
+    }
+
+    @Test
+    public void getPersisted_ignoresJournalOfPreviousStoreFile() throws IOException {
+        File journalFile = new File(dir, FILE_NAME + "_journal");
+        writeStoreFile(envelopeOf(1, 1));
+        writeJournal(envelopeOf(1, 2), envelopeOf(2, 1));
+
+        // Simulate a crash after a new store file which contains the journal got written but before the journal got
+        // deleted. Key 2 got removed in the new store file.
+        writeStoreFile(envelopeOf(1, 3));
+
+        SequenceNumberMap persisted = persistenceManager.getPersisted(FILE_NAME);
+
+        Assert.assertNotNull(persisted);
+        Assert.assertEquals(1, persisted.size());
+        Assert.assertEquals(3, getSequenceNr(persisted, 1));
+        Assert.assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void getPersisted_mergesCollectedChanges() throws IOException {
+        writeStoreFile(envelopeOf(1, 1));
+        // The PersistenceManager merges collected changes into one record
+        protobuf.PersistableEnvelope.Builder collectedChanges = envelopeOf(1, 2).toBuilder();
+        collectedChanges.mergeFrom(envelopeOf(2, 1));
+        collectedChanges.mergeFrom(envelopeOf(1, 3));
+        writeJournal(collectedChanges.build());
+
+        SequenceNumberMap persisted = persistenceManager.getPersisted(FILE_NAME);
+
+        Assert.assertNotNull(persisted);
+        Assert.assertEquals(2, persisted.size());
+        Assert.assertEquals(3, getSequenceNr(persisted, 1));
+        Assert.assertEquals(1, getSequenceNr(persisted, 2));
+    }
+}